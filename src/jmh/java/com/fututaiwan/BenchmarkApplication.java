@@ -0,0 +1,108 @@
+package com.fututaiwan;
+
+import com.fututaiwan.member.Member;
+import com.fututaiwan.member.MemberService;
+import com.fututaiwan.stock.Stock;
+import com.fututaiwan.stock.StockService;
+import com.fututaiwan.stockgroup.StockGroup;
+import com.fututaiwan.stockgroup.StockGroupService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 以內嵌 H2 啟動應用程式並寫入基準測試資料，供各 JMH benchmark 共用
+ */
+public final class BenchmarkApplication {
+
+    public static final int STOCKS = 1_000;
+    public static final int MEMBERS = 100;
+    public static final int STOCKS_PER_GROUP = 20;
+
+    private BenchmarkApplication() {
+    }
+
+    // extraProperties 以命令列參數傳入，優先於 application.properties
+    public static ConfigurableApplicationContext start(String... extraProperties) {
+        return start(WebApplicationType.NONE, extraProperties);
+    }
+
+    /**
+     * 含 Spring MVC 的版本，供以 MockMvc 量測整個請求路徑的 benchmark 使用 (內嵌伺服器使用隨機埠)
+     */
+    public static ConfigurableApplicationContext startServlet(String... extraProperties) {
+        return start(WebApplicationType.SERVLET, extraProperties);
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... extraProperties) {
+        List<String> properties = new ArrayList<>(List.of(
+                "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.docker.compose.enabled=false",
+                "spring.main.banner-mode=off",
+                "server.port=0",
+                "logging.level.root=WARN"));
+        // application.properties 開啟的功能需以命令列參數關閉 (預設屬性的優先順序低於 application.properties)
+        // 同一個命令列參數出現兩次會合併為以逗號分隔的值，extraProperties 已指定的 key 不再加入
+        List<String> arguments = new ArrayList<>(Arrays.asList(extraProperties));
+        Set<String> overridden = arguments.stream().map(property -> property.split("=", 2)[0]).collect(Collectors.toSet());
+        for (String property : List.of(
+                // benchmark 以單一來源連續送出請求，會被准入控制的 token bucket 擋下
+                "fututaiwan.admission.enabled=false",
+                // 沒有 Mongo，報價歷史寫入只會重試後丟棄
+                "fututaiwan.quote.history.enabled=false")) {
+            if (!overridden.contains(property.split("=", 2)[0])) {
+                arguments.add(property);
+            }
+        }
+        return new SpringApplicationBuilder(FuTuTaiwanApplication.class)
+                .web(webApplicationType)
+                .properties(properties.toArray(String[]::new))
+                .run(arguments.stream().map(property -> "--" + property).toArray(String[]::new));
+    }
+
+    /**
+     * 寫入 STOCKS 檔股票、MEMBERS 位會員，每位會員一個含 STOCKS_PER_GROUP 檔股票的群組
+     */
+    public static Seed seed(ConfigurableApplicationContext context) {
+        StockService stockService = context.getBean(StockService.class);
+        MemberService memberService = context.getBean(MemberService.class);
+        StockGroupService stockGroupService = context.getBean(StockGroupService.class);
+
+        List<Stock> stocks = new ArrayList<>(STOCKS);
+        for (int i = 0; i < STOCKS; i++) {
+            stocks.add(stockService.createStock(Stock.builder().code(String.valueOf(1000 + i)).name("Stock " + i).build()));
+        }
+        List<Member> members = new ArrayList<>(MEMBERS);
+        List<StockGroup> groups = new ArrayList<>(MEMBERS);
+        for (int i = 0; i < MEMBERS; i++) {
+            Member member = memberService.createMember(Member.builder()
+                    .name("Member " + i)
+                    .phoneNumber(String.format("09%08d", i))
+                    .nationalIdNumber(String.format("A%09d", i))
+                    .email("member" + i + "@example.com")
+                    .passwordHash("hash")
+                    .isActive(true)
+                    .role("member")
+                    .build());
+            members.add(member);
+            StockGroup group = stockGroupService.createStockGroup(
+                    StockGroup.builder().name("Group " + i).description("Benchmark group").build(), member.getId());
+            for (int j = 0; j < STOCKS_PER_GROUP; j++) {
+                // 最後一檔股票保留給成分股異動的 benchmark，不放進任何群組
+                stockGroupService.addStockToGroup(group.getId(), stocks.get((i * STOCKS_PER_GROUP + j) % (STOCKS - 1)).getId());
+            }
+            groups.add(group);
+        }
+        return new Seed(stocks, members, groups);
+    }
+
+    public record Seed(List<Stock> stocks, List<Member> members, List<StockGroup> groups) {
+    }
+}
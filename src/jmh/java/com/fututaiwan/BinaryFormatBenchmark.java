@@ -0,0 +1,120 @@
+package com.fututaiwan;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fututaiwan.config.ProtobufDtoEncoder;
+import com.fututaiwan.quote.Quote;
+import com.fututaiwan.stockgroup.WatchlistResponse;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 500 檔股票 (5 個群組、每檔都有報價) 的自選股回應：各格式的編碼時間，gzip 為 true 時包含壓縮
+ * 每個組合的回應大小在 trial 結束時印出
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BinaryFormatBenchmark {
+
+    private static final int GROUPS = 5;
+    private static final int STOCKS_PER_GROUP = 100;
+
+    @Param({"json", "cbor", "msgpack", "protobuf"})
+    private String format;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    private WatchlistResponse watchlist;
+    private ObjectMapper objectMapper;
+    private ByteArrayOutputStream buffer;
+
+    @Setup
+    public void setUp() throws IOException {
+        // 與 Boot 預設相同：時間輸出為 ISO-8601 字串
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        objectMapper = switch (format) {
+            case "json" -> builder.build();
+            case "cbor" -> builder.factory(new CBORFactory()).build();
+            case "msgpack" -> builder.factory(new MessagePackFactory()).build();
+            default -> null;
+        };
+        watchlist = watchlist();
+        buffer = new ByteArrayOutputStream(64 * 1024);
+        encode();
+    }
+
+    @TearDown
+    public void printPayloadSize() {
+        System.out.printf("%n[payload] format=%s gzip=%s bytes=%d%n", format, gzip, buffer.size());
+    }
+
+    @Benchmark
+    public int encode() throws IOException {
+        buffer.reset();
+        if (gzip) {
+            try (GZIPOutputStream output = new GZIPOutputStream(buffer, 8192)) {
+                write(output);
+            }
+        } else {
+            write(buffer);
+        }
+        return buffer.size();
+    }
+
+    private void write(OutputStream output) throws IOException {
+        if (objectMapper == null) {
+            ProtobufDtoEncoder.encode(watchlist, WatchlistResponse.class, output);
+        } else {
+            objectMapper.writeValue(output, watchlist);
+        }
+    }
+
+    private static WatchlistResponse watchlist() {
+        Instant now = Instant.parse("2024-06-03T05:30:00.123Z");
+        List<WatchlistResponse.Group> groups = new ArrayList<>(GROUPS);
+        for (int g = 0; g < GROUPS; g++) {
+            List<WatchlistResponse.Item> items = new ArrayList<>(STOCKS_PER_GROUP);
+            for (int i = 0; i < STOCKS_PER_GROUP; i++) {
+                int n = g * STOCKS_PER_GROUP + i;
+                String code = String.valueOf(1101 + n);
+                double price = 50 + n * 0.35;
+                items.add(WatchlistResponse.Item.builder()
+                        .id((long) n + 1)
+                        .code(code)
+                        .name("Stock " + n)
+                        .quote(Quote.builder()
+                                .code(code)
+                                .price(price)
+                                .open(price - 0.5)
+                                .high(price + 1.05)
+                                .low(price - 1.1)
+                                .previousClose(price - 0.25)
+                                .volume(10_000L + n * 37L)
+                                .timestamp(now.plusMillis(n))
+                                .build())
+                        .build());
+            }
+            groups.add(WatchlistResponse.Group.builder()
+                    .id((long) g + 1)
+                    .name("Group " + g)
+                    .description("Benchmark group " + g)
+                    .stocks(items)
+                    .build());
+        }
+        return WatchlistResponse.builder().memberId(1L).version(42).quoteEpoch(7).groups(groups).build();
+    }
+}
@@ -0,0 +1,63 @@
+package com.fututaiwan;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * 清單端點每個請求的配置量，以 -PjmhProfilers=gc 執行並看 gc.alloc.rate.norm (bytes/op)
+ * 經由 MockMvc 走完整的 MVC 與 JSON 序列化路徑；MockMvc 本身的配置對各端點大致固定
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ListResponseAllocationBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private Long memberId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.startServlet("fututaiwan.jfr.enabled=false");
+        memberId = BenchmarkApplication.seed(context).members().get(0).getId();
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] getAllStocks() throws Exception {
+        return perform("/api/stocks");
+    }
+
+    @Benchmark
+    public byte[] getStockGroupsByMemberId() throws Exception {
+        return perform("/api/stock-groups/member/" + memberId);
+    }
+
+    @Benchmark
+    public byte[] getWatchlist() throws Exception {
+        return perform("/api/stock-groups/member/" + memberId + "/watchlist");
+    }
+
+    @Benchmark
+    public byte[] syncWatchlist() throws Exception {
+        return perform("/api/stock-groups/member/" + memberId + "/sync?epoch=0&since=0");
+    }
+
+    private byte[] perform(String uri) throws Exception {
+        return mockMvc.perform(get(uri).accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+}
@@ -0,0 +1,74 @@
+package com.fututaiwan;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fututaiwan.member.Member;
+import com.fututaiwan.stock.Stock;
+import com.fututaiwan.stockgroup.StockGroup;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Member / Stock / StockGroup 實體轉 JSON 的成本，ObjectMapper 設定與 Spring MVC 預設相同
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Member member;
+    private List<Stock> stocks;
+    private StockGroup stockGroup;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        member = Member.builder()
+                .id(1L)
+                .name("Member One")
+                .phoneNumber("0911111111")
+                .nationalIdNumber("A111111111")
+                .dateOfBirth(LocalDate.of(1990, 1, 1))
+                .email("member1@example.com")
+                .passwordHash("hash")
+                .gender("Male")
+                .address("Address 1")
+                .registrationDate(Instant.parse("2024-01-01T00:00:00Z"))
+                .isActive(true)
+                .role("member")
+                .build();
+        stocks = new ArrayList<>(500);
+        for (int i = 0; i < 500; i++) {
+            stocks.add(Stock.builder().id((long) i).code(String.valueOf(1000 + i)).name("Stock " + i).build());
+        }
+        stockGroup = StockGroup.builder()
+                .id(1L)
+                .name("My Tech Stocks")
+                .description("My favorite tech stocks")
+                .member(member)
+                .stocks(new HashSet<>(stocks.subList(0, 50)))
+                .build();
+    }
+
+    @Benchmark
+    public byte[] member() throws Exception {
+        return objectMapper.writeValueAsBytes(member);
+    }
+
+    @Benchmark
+    public byte[] stockList500() throws Exception {
+        return objectMapper.writeValueAsBytes(stocks);
+    }
+
+    @Benchmark
+    public byte[] stockGroup50() throws Exception {
+        return objectMapper.writeValueAsBytes(stockGroup);
+    }
+}
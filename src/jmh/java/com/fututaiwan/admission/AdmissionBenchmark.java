@@ -0,0 +1,64 @@
+package com.fututaiwan.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 准入控制每個請求的額外成本 (preHandle + afterCompletion)，目標低於 1 微秒
+ * 額度設得很高讓請求全部放行，量測的是 bucket 查找、CAS 與負載判斷本身；會員分散在 10000 個 bucket
+ * 多核心機器上可用 jmh 的 -t 參數量測多執行緒爭用 (執行緒數超過核心數時 avgt 會按比例放大)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AdmissionBenchmark {
+
+    private static final int MEMBERS = 10_000;
+
+    private AdmissionInterceptor interceptor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setIp(new AdmissionProperties.Limit(1e9, 1_000_000));
+        properties.setMember(new AdmissionProperties.Limit(1e9, 1_000_000));
+        properties.setVip(new AdmissionProperties.Limit(1e9, 1_000_000));
+        LoadShedder shedder = new LoadShedder(properties.getShedding(), () -> 0);
+        interceptor = new AdmissionInterceptor(properties, shedder,
+                AdmissionInterceptor.rolePriorities(id -> id % 10 == 0 ? Optional.of("vip") : Optional.of("member"), Set.of("vip")),
+                new SimpleMeterRegistry());
+    }
+
+    @State(Scope.Thread)
+    public static class Requests {
+
+        MockHttpServletRequest[] requests = new MockHttpServletRequest[MEMBERS];
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            for (int i = 0; i < MEMBERS; i++) {
+                MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/stock-groups/member/" + i);
+                String memberId = String.valueOf(i);
+                request.setUserPrincipal(() -> memberId);
+                request.setRemoteAddr("10.0." + (i / 256 % 256) + "." + (i % 256));
+                requests[i] = request;
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean admit(Requests state) {
+        MockHttpServletRequest request = state.requests[state.next++ % MEMBERS];
+        boolean admitted = interceptor.preHandle(request, state.response, this);
+        interceptor.afterCompletion(request, state.response, this, null);
+        return admitted;
+    }
+}
@@ -0,0 +1,50 @@
+package com.fututaiwan.analytics;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 相關係數矩陣：500 檔股票 × 250 個交易日 (目標 200 毫秒內)，比較不同分塊大小與單執行緒/全部核心
+ * ./gradlew jmh -PjmhIncludes=CorrelationMatrixBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+public class CorrelationMatrixBenchmark {
+
+    private static final int STOCKS = 500;
+    private static final int OBSERVATIONS = 250;
+
+    @Param({"16", "64", "500"})
+    private int blockSize;
+
+    @Param({"1", "0"})
+    private int parallelism;
+
+    private ForkJoinPool pool;
+    private double[] returns;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        SplittableRandom random = new SplittableRandom(42);
+        returns = new double[STOCKS * OBSERVATIONS];
+        for (int i = 0; i < returns.length; i++) {
+            returns[i] = random.nextGaussian() * 0.02;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Benchmark
+    public CorrelationMatrix compute() {
+        return CorrelationMatrix.compute(returns.clone(), STOCKS, OBSERVATIONS, blockSize, pool);
+    }
+}
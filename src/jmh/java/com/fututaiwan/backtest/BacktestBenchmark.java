@@ -0,0 +1,109 @@
+package com.fututaiwan.backtest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 回測：1000 檔股票 × 10 年日 K 線 (約 2520 根) × 2 個策略，從提交到所有任務完成 (目標數秒內)，比較單執行緒與全部核心
+ * 歷史檔在 setup 時寫入暫存目錄，量測時以 memory-mapped 方式讀取
+ * ./gradlew jmh -PjmhIncludes=BacktestBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+public class BacktestBenchmark {
+
+    private static final int STOCKS = 1_000;
+    private static final int BARS = 2_520;
+    private static final LocalDate FROM = LocalDate.parse("2015-01-05");
+
+    @Param({"1", "0"})
+    private int parallelism;
+
+    private Path directory;
+    private BacktestRunner runner;
+    private List<String> codes;
+    private List<DailyBars> bars;
+    private int[] calendar;
+    private List<StrategySpec> strategies;
+    private long ids;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("bars");
+        BarHistory barHistory = new BarHistory(directory);
+        SplittableRandom random = new SplittableRandom(42);
+        codes = new ArrayList<>();
+        bars = new ArrayList<>();
+        for (int s = 0; s < STOCKS; s++) {
+            String code = String.valueOf(1_000 + s);
+            int[] days = new int[BARS];
+            double[] open = new double[BARS];
+            double[] high = new double[BARS];
+            double[] low = new double[BARS];
+            double[] close = new double[BARS];
+            long[] volume = new long[BARS];
+            double price = 50 + random.nextDouble() * 500;
+            LocalDate day = FROM;
+            for (int i = 0; i < BARS; i++) {
+                while (day.getDayOfWeek().getValue() > 5) {
+                    day = day.plusDays(1);
+                }
+                days[i] = (int) day.toEpochDay();
+                open[i] = price;
+                price = Math.max(1, price * (1 + random.nextGaussian() * 0.02));
+                close[i] = price;
+                high[i] = Math.max(open[i], close[i]) * (1 + random.nextDouble() * 0.01);
+                low[i] = Math.min(open[i], close[i]) * (1 - random.nextDouble() * 0.01);
+                volume[i] = 1_000 + random.nextInt(100_000);
+                day = day.plusDays(1);
+            }
+            barHistory.write(code, days, open, high, low, close, volume);
+            codes.add(code);
+            bars.add(barHistory.get(code).orElseThrow());
+        }
+        calendar = BacktestService.calendar(bars, (int) FROM.plusYears(1).toEpochDay(), Integer.MAX_VALUE - 1);
+        strategies = List.of(StrategySpec.builder().type(StrategyType.SMA_CROSSOVER).build(),
+                StrategySpec.builder().type(StrategyType.BREAKOUT).build());
+
+        BacktestProperties properties = new BacktestProperties();
+        properties.setParallelism(parallelism);
+        runner = new BacktestRunner(properties, new SimpleMeterRegistry());
+        runner.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        runner.stop();
+        bars = null;
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public BacktestResponse backtest() {
+        BacktestJob job = new BacktestJob(++ids, 1L, FROM.plusYears(1), FROM.plusYears(11), 1_000_000, codes, bars, strategies,
+                calendar, Instant.now());
+        runner.submit(job);
+        while (!job.status().isFinished()) {
+            Thread.onSpinWait();
+        }
+        return job.toResponse();
+    }
+}
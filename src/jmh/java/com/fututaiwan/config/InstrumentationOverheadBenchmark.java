@@ -0,0 +1,83 @@
+package com.fututaiwan.config;
+
+import com.fututaiwan.BenchmarkApplication;
+import com.fututaiwan.member.Member;
+import com.fututaiwan.stock.Stock;
+import com.fututaiwan.stock.StockService;
+import com.fututaiwan.stockgroup.StockGroup;
+import com.fututaiwan.stockgroup.StockGroupService;
+import com.fututaiwan.stockgroup.WatchlistResponse;
+import com.fututaiwan.stockgroup.WatchlistService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 指標開啟與關閉時的吞吐量比較，jmhCheckInstrumentationOverhead 以 instrumented=true/false 兩組結果計算額外成本
+ * 關閉時同時停用 repository 計時、Hibernate 統計與所有 meter
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class InstrumentationOverheadBenchmark {
+
+    @Param({"true", "false"})
+    public boolean instrumented;
+
+    private ConfigurableApplicationContext context;
+    private StockService stockService;
+    private StockGroupService stockGroupService;
+    private WatchlistService watchlistService;
+    private List<Stock> stocks;
+    private List<Member> members;
+    private List<StockGroup> groups;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = instrumented
+                ? BenchmarkApplication.start()
+                : BenchmarkApplication.start(
+                        "fututaiwan.metrics.enabled=false",
+                        "management.metrics.data.repository.autotime.enabled=false",
+                        "management.metrics.enable.all=false",
+                        "spring.jpa.properties.hibernate.generate_statistics=false");
+        BenchmarkApplication.Seed seed = BenchmarkApplication.seed(context);
+        stocks = seed.stocks();
+        members = seed.members();
+        groups = seed.groups();
+        stockService = context.getBean(StockService.class);
+        stockGroupService = context.getBean(StockGroupService.class);
+        watchlistService = context.getBean(WatchlistService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // repository 方法計時
+    @Benchmark
+    public Optional<Stock> getStockByCode() {
+        return stockService.getStockByCode(stocks.get(ThreadLocalRandom.current().nextInt(stocks.size())).getCode());
+    }
+
+    // 唯讀交易計時 + Hibernate 統計
+    @Benchmark
+    public WatchlistResponse getWatchlist() {
+        return watchlistService.getWatchlist(members.get(ThreadLocalRandom.current().nextInt(members.size())).getId());
+    }
+
+    // 寫入交易計時
+    @Benchmark
+    @Threads(1)
+    public StockGroup addAndRemoveStock() {
+        StockGroup group = groups.get(ThreadLocalRandom.current().nextInt(groups.size()));
+        Long stockId = stocks.get(stocks.size() - 1).getId();
+        stockGroupService.addStockToGroup(group.getId(), stockId);
+        return stockGroupService.removeStockFromGroup(group.getId(), stockId);
+    }
+}
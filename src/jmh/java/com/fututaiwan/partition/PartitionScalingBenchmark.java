@@ -0,0 +1,232 @@
+package com.fututaiwan.partition;
+
+import com.fututaiwan.BenchmarkApplication;
+import com.fututaiwan.config.InternalAuthFilter;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 分區的水平擴充量測：分別以 1 到 N 個節點行程 (靜態成員、各自的 H2) 啟動應用程式，
+ * 由行情來源端依同一個雜湊環把報價批次直接送往擁有者，量測所有節點合計每秒確認的報價數
+ * 每個節點預設以 -XX:ActiveProcessorCount=1 模擬單核心節點；接近線性的結果需要機器核心數不少於節點數加上壓測端
+ *
+ * 執行方式：./gradlew partitionScalingBenchmark -Pscaling.nodes=1,2,3,4 -Pscaling.duration=PT20S
+ */
+public final class PartitionScalingBenchmark {
+
+    private static final int SYMBOLS = Integer.getInteger("scaling.symbols", 2_000);
+    private static final int BATCH = Integer.getInteger("scaling.batch", 200);
+    private static final int CLIENTS_PER_NODE = Integer.getInteger("scaling.clients", 8);
+    private static final Duration WARMUP = Duration.parse(System.getProperty("scaling.warmup", "PT10S"));
+    private static final Duration DURATION = Duration.parse(System.getProperty("scaling.duration", "PT20S"));
+    private static final String NODE_JVM_ARGS = System.getProperty("scaling.nodeJvmArgs", "-Xmx512m -XX:ActiveProcessorCount=1");
+    private static final int VIRTUAL_NODES = 128;
+    private static final String INTERNAL_SECRET = "scaling-benchmark";
+
+    private PartitionScalingBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] nodeCounts = Arrays.stream(System.getProperty("scaling.nodes", "1,2,4").split(","))
+                .map(String::trim).mapToInt(Integer::parseInt).toArray();
+        System.out.printf("%n%-6s %14s %10s %12s%n", "nodes", "quotes/s", "speedup", "efficiency");
+        double single = 0;
+        for (int nodes : nodeCounts) {
+            double throughput = run(nodes);
+            if (single == 0) {
+                single = throughput / nodes;
+            }
+            double speedup = throughput / single;
+            System.out.printf("%-6d %14.0f %10.2f %11.0f%%%n", nodes, throughput, speedup, speedup / nodes * 100);
+        }
+    }
+
+    private static double run(int nodeCount) throws Exception {
+        List<PartitionNode> nodes = new ArrayList<>();
+        for (int i = 0; i < nodeCount; i++) {
+            nodes.add(new PartitionNode("node-" + i, "http://localhost:" + freePort(), 1));
+        }
+        List<Process> processes = new ArrayList<>();
+        try (HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()) {
+            for (PartitionNode node : nodes) {
+                processes.add(launch(node, nodes));
+            }
+            for (PartitionNode node : nodes) {
+                awaitReady(client, node);
+            }
+            Map<String, List<Batch>> batches = batchesByOwner(nodes);
+            drive(client, nodes, batches, WARMUP);
+            return drive(client, nodes, batches, DURATION);
+        } finally {
+            for (Process process : processes) {
+                process.destroy();
+            }
+            for (Process process : processes) {
+                process.waitFor();
+            }
+        }
+    }
+
+    // 行情來源端與節點使用相同的環，每個批次只含同一個擁有者的股票
+    private static Map<String, List<Batch>> batchesByOwner(List<PartitionNode> nodes) {
+        Map<String, Integer> weights = new HashMap<>();
+        nodes.forEach(node -> weights.put(node.id(), node.weight()));
+        HashRing ring = new HashRing(weights, VIRTUAL_NODES);
+        Map<String, List<String>> codes = new HashMap<>();
+        for (int i = 0; i < SYMBOLS; i++) {
+            String code = String.valueOf(1_000 + i);
+            codes.computeIfAbsent(ring.ownerOf(code), owner -> new ArrayList<>()).add(code);
+        }
+        Map<String, List<Batch>> batches = new HashMap<>();
+        codes.forEach((owner, owned) -> {
+            List<Batch> ownerBatches = new ArrayList<>();
+            for (int from = 0; from < owned.size(); from += BATCH) {
+                List<String> batchCodes = owned.subList(from, Math.min(owned.size(), from + BATCH));
+                ownerBatches.add(new Batch(json(batchCodes, from), batchCodes.size()));
+            }
+            batches.put(owner, ownerBatches);
+        });
+        return batches;
+    }
+
+    private static byte[] json(List<String> codes, int seed) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < codes.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"code\":\"").append(codes.get(i))
+                    .append("\",\"price\":").append(100 + (seed + i) % 50)
+                    .append(",\"volume\":").append(1_000 + i)
+                    .append(",\"timestamp\":\"2025-01-02T01:30:00Z\"}");
+        }
+        return json.append(']').toString().getBytes();
+    }
+
+    private static double drive(HttpClient client, List<PartitionNode> nodes, Map<String, List<Batch>> batches, Duration duration)
+            throws InterruptedException {
+        LongAdder acknowledged = new LongAdder();
+        LongAdder errors = new LongAdder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        long begin = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (PartitionNode node : nodes) {
+                List<Batch> ownerBatches = batches.getOrDefault(node.id(), List.of());
+                if (ownerBatches.isEmpty()) {
+                    continue;
+                }
+                URI uri = URI.create(node.url() + "/api/quotes");
+                for (int c = 0; c < CLIENTS_PER_NODE; c++) {
+                    int offset = c;
+                    clients.submit(() -> {
+                        for (int i = offset; running.get(); i++) {
+                            Batch batch = ownerBatches.get(i % ownerBatches.size());
+                            HttpRequest request = HttpRequest.newBuilder(uri)
+                                    .header("Content-Type", "application/json")
+                                    .POST(HttpRequest.BodyPublishers.ofByteArray(batch.json()))
+                                    .build();
+                            try {
+                                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 202) {
+                                    acknowledged.add(batch.quotes());
+                                } else {
+                                    errors.increment();
+                                }
+                            } catch (IOException e) {
+                                errors.increment();
+                            }
+                        }
+                        return null;
+                    });
+                }
+            }
+            Thread.sleep(duration.toMillis());
+            running.set(false);
+        }
+        double elapsed = (System.nanoTime() - begin) / 1e9;
+        if (errors.sum() > 0) {
+            System.out.printf("  %d failed requests with %d nodes%n", errors.sum(), nodes.size());
+        }
+        return acknowledged.sum() / elapsed;
+    }
+
+    private static Process launch(PartitionNode self, List<PartitionNode> nodes) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(Arrays.asList(NODE_JVM_ARGS.trim().split("\\s+")));
+        command.add("-Dspring.devtools.restart.enabled=false");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(Node.class.getName());
+        command.add("server.port=" + URI.create(self.url()).getPort());
+        command.add("fututaiwan.partition.enabled=true");
+        command.add("fututaiwan.internal.shared-secret=" + INTERNAL_SECRET);
+        command.add("fututaiwan.partition.node-id=" + self.id());
+        command.add("fututaiwan.partition.url=" + self.url());
+        command.add("fututaiwan.partition.virtual-nodes=" + VIRTUAL_NODES);
+        for (int i = 0; i < nodes.size(); i++) {
+            command.add("fututaiwan.partition.nodes[" + i + "].id=" + nodes.get(i).id());
+            command.add("fututaiwan.partition.nodes[" + i + "].url=" + nodes.get(i).url());
+        }
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(new File(System.getProperty("java.io.tmpdir"), self.id() + ".log")))
+                .start();
+    }
+
+    private static void awaitReady(HttpClient client, PartitionNode node) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(node.url() + "/internal/partitions/members"))
+                .header(InternalAuthFilter.TOKEN_HEADER, INTERNAL_SECRET)
+                .build();
+        long deadline = System.nanoTime() + Duration.ofMinutes(2).toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // 尚未啟動完成
+            }
+            Thread.sleep(200);
+        }
+        throw new IllegalStateException("Node " + node.id() + " did not start within 2 minutes");
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private record Batch(byte[] json, int quotes) {
+    }
+
+    /**
+     * 節點行程的進入點，參數為 key=value 形式的設定
+     */
+    public static final class Node {
+
+        private Node() {
+        }
+
+        public static void main(String[] args) {
+            BenchmarkApplication.startServlet(args);
+        }
+    }
+}
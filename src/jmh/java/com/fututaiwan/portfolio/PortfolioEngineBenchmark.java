@@ -0,0 +1,79 @@
+package com.fututaiwan.portfolio;
+
+import com.fututaiwan.quote.Quote;
+import com.fututaiwan.quote.QuoteInterest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 投資組合增量估值：100 萬個組合、每個組合 5 檔持股，持股集中在熱門股票 (約 Zipf 分布)
+ * burst 為 2000 檔股票各跳價一次後套用到所有受影響的組合 (約 500 萬次持有者更新)，目標在 10 毫秒內完成
+ * singleStock 為持有人數最多的股票跳價一次
+ * 需要約 2GB heap：./gradlew jmh -PjmhIncludes=PortfolioEngineBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PortfolioEngineBenchmark {
+
+    private static final int MEMBERS = 1_000_000;
+    private static final int STOCKS = 2_000;
+    private static final int HOLDINGS_PER_MEMBER = 5;
+
+    private PortfolioEngine engine;
+    private Quote[][] ticks;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] codes = new String[STOCKS];
+        for (int i = 0; i < STOCKS; i++) {
+            codes[i] = String.valueOf(1_000 + i);
+        }
+        engine = new PortfolioEngine(null, code -> 100.0, new QuoteInterest(), new PortfolioProperties(), new SimpleMeterRegistry());
+        SplittableRandom random = new SplittableRandom(42);
+        List<PortfolioEngine.HoldingChange> rows = new ArrayList<>(MEMBERS * HOLDINGS_PER_MEMBER);
+        for (long member = 0; member < MEMBERS; member++) {
+            int first = zipf(random);
+            for (int h = 0; h < HOLDINGS_PER_MEMBER; h++) {
+                // 同一會員的持股不重複
+                int stock = (first + h * 397) % STOCKS;
+                rows.add(new PortfolioEngine.HoldingChange(member, codes[stock], 1_000L * (1 + random.nextInt(10)), 90 + random.nextInt(20)));
+            }
+        }
+        engine.offerSnapshot(rows);
+        engine.drain();
+
+        // 兩組價格交替，每次都是真正的價格變動
+        ticks = new Quote[2][STOCKS];
+        for (int i = 0; i < STOCKS; i++) {
+            ticks[0][i] = Quote.builder().code(codes[i]).price(101).build();
+            ticks[1][i] = Quote.builder().code(codes[i]).price(99).build();
+        }
+    }
+
+    private static int zipf(SplittableRandom random) {
+        return (int) Math.min(STOCKS - 1, Math.floor(Math.pow(STOCKS, random.nextDouble())) - 1);
+    }
+
+    @Benchmark
+    public int burst() {
+        Quote[] burst = ticks[next++ & 1];
+        for (Quote quote : burst) {
+            engine.onQuote(quote);
+        }
+        return engine.drain();
+    }
+
+    @Benchmark
+    public int singleStock() {
+        engine.onQuote(ticks[next++ & 1][0]);
+        return engine.drain();
+    }
+}
@@ -0,0 +1,103 @@
+package com.fututaiwan.screener;
+
+import com.fututaiwan.quote.Quote;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 選股：rows 檔股票各有 60 根一分鐘 K 線 (sma 皆有值)
+ * adHoc 為即席篩選全市場並排序取第一頁；parallel-threshold 設為 Integer.MAX_VALUE 時一律循序掃描，可與平行版本比較
+ * savedScreens 為 10 個已儲存條件下 2000 檔股票各跳價一次後的增量更新 (只重新測試跳價的股票，不排序)；
+ * savedScreenPage 另外再查詢其中一個條件的第一頁 (結果已變動，需要重新排序)
+ * ./gradlew jmh -PjmhIncludes=ScreenerBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ScreenerBenchmark {
+
+    private static final String EXPRESSION = "change_pct > 3 && volume > 5000 && close > sma20";
+    private static final int BURST = 2_000;
+    private static final Instant OPEN = Instant.parse("2025-01-02T01:00:00Z");
+
+    @Param({"2000", "200000"})
+    private int rows;
+
+    @Param({"50000", "2147483647"})
+    private int parallelThreshold;
+
+    private ScreenerEngine engine;
+    private ScreenerService service;
+    private Quote[][] ticks;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ScreenerProperties properties = new ScreenerProperties();
+        properties.setParallelThreshold(parallelThreshold);
+        properties.setInitialCapacity(rows);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        engine = new ScreenerEngine(null, properties, meterRegistry);
+        service = new ScreenerService(engine, properties, meterRegistry);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int minute = 0; minute < QuoteColumns.BARS; minute++) {
+            for (int i = 0; i < rows; i++) {
+                double previousClose = 50 + i % 500;
+                double price = previousClose * (0.93 + random.nextDouble() * 0.14);
+                engine.onQuote(quote(i, price, previousClose, random.nextLong(100_000), OPEN.plusSeconds(minute * 60L)));
+            }
+            engine.drain();
+        }
+        for (int i = 0; i < 10; i++) {
+            service.createScreen(new ScreenRequest("screen-" + i, "change_pct > " + (i - 5) + " && volume > 5000", "volume", null), 20);
+        }
+        engine.drain();
+
+        // 兩組價格交替，每次都是真正的價格變動
+        ticks = new Quote[2][BURST];
+        Instant last = OPEN.plusSeconds((QuoteColumns.BARS - 1) * 60L);
+        for (int i = 0; i < BURST; i++) {
+            int stock = (int) ((long) i * rows / BURST);
+            double previousClose = 50 + stock % 500;
+            ticks[0][i] = quote(stock, previousClose * 1.04, previousClose, 10_000, last);
+            ticks[1][i] = quote(stock, previousClose * 0.98, previousClose, 10_000, last);
+        }
+    }
+
+    private static Quote quote(int stock, double price, double previousClose, long volume, Instant timestamp) {
+        return Quote.builder()
+                .code(String.valueOf(100_000 + stock))
+                .price(price)
+                .open(previousClose)
+                .high(price)
+                .low(price)
+                .previousClose(previousClose)
+                .volume(volume)
+                .timestamp(timestamp)
+                .build();
+    }
+
+    @Benchmark
+    public ScreenResponse adHoc() {
+        return service.screen(EXPRESSION, "change_pct", "desc", 0, 20);
+    }
+
+    @Benchmark
+    public int savedScreens() {
+        for (Quote quote : ticks[next++ & 1]) {
+            engine.onQuote(quote);
+        }
+        return engine.drain();
+    }
+
+    @Benchmark
+    public ScreenResponse savedScreenPage() {
+        savedScreens();
+        return service.getScreen(1L, 0, 20);
+    }
+}
@@ -0,0 +1,72 @@
+package com.fututaiwan.stock;
+
+import com.fututaiwan.BenchmarkApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一次寫入 rows 檔股票：逐筆 createStock (每筆一個交易、一次 INSERT) 與 createStocks (單一交易、JDBC 批次) 比較
+ * 內嵌 H2 沒有網路往返，PostgreSQL 上的差距會更大
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class StockBulkInsertBenchmark {
+
+    @Param("100000")
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private StockService stockService;
+    private JdbcTemplate jdbcTemplate;
+    private List<Stock> batch;
+    private int iteration;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        stockService = context.getBean(StockService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+    }
+
+    // 每輪使用新的代碼，避免 Bloom filter 判定可能重複而多出存在性查詢
+    @Setup(Level.Iteration)
+    public void prepareBatch() {
+        iteration++;
+        batch = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            String code = String.format("%03d%07d", iteration, i);
+            batch.add(Stock.builder().code(code).name("Bulk " + code).build());
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteBatch() {
+        jdbcTemplate.update("DELETE FROM stocks");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int createStockPerRow() {
+        for (Stock stock : batch) {
+            stockService.createStock(stock);
+        }
+        return batch.size();
+    }
+
+    @Benchmark
+    public int createStocks() {
+        return stockService.createStocks(batch).size();
+    }
+}
@@ -0,0 +1,49 @@
+package com.fututaiwan.stock;
+
+import com.fututaiwan.BenchmarkApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StockService 查詢路徑 (內嵌 H2)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class StockServiceBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private StockService stockService;
+    private List<Stock> stocks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        stocks = BenchmarkApplication.seed(context).stocks();
+        stockService = context.getBean(StockService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Stock> getStockById() {
+        return stockService.getStockById(randomStock().getId());
+    }
+
+    @Benchmark
+    public Optional<Stock> getStockByCode() {
+        return stockService.getStockByCode(randomStock().getCode());
+    }
+
+    private Stock randomStock() {
+        return stocks.get(ThreadLocalRandom.current().nextInt(stocks.size()));
+    }
+}
@@ -0,0 +1,78 @@
+package com.fututaiwan.stockgroup;
+
+import com.fututaiwan.BenchmarkApplication;
+import com.fututaiwan.member.Member;
+import com.fututaiwan.stock.Stock;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StockGroupService / WatchlistService 查詢路徑與成分股異動 (內嵌 H2)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class StockGroupServiceBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private StockGroupService stockGroupService;
+    private WatchlistService watchlistService;
+    private List<Member> members;
+    private List<StockGroup> groups;
+    private List<Stock> stocks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        BenchmarkApplication.Seed seed = BenchmarkApplication.seed(context);
+        members = seed.members();
+        groups = seed.groups();
+        stocks = seed.stocks();
+        stockGroupService = context.getBean(StockGroupService.class);
+        watchlistService = context.getBean(WatchlistService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<StockGroup> getStockGroupById() {
+        return stockGroupService.getStockGroupById(randomGroup().getId());
+    }
+
+    @Benchmark
+    public List<StockGroup> getStockGroupsByMemberId() {
+        return stockGroupService.getStockGroupsByMemberId(randomMember().getId());
+    }
+
+    @Benchmark
+    public WatchlistResponse getWatchlist() {
+        return watchlistService.getWatchlist(randomMember().getId());
+    }
+
+    // 每次加入再移除同一檔股票，群組內容維持不變
+    @Benchmark
+    @Threads(1)
+    public StockGroup addAndRemoveStock() {
+        StockGroup group = randomGroup();
+        // 種子資料不會把最後一檔股票放進任何群組
+        Long stockId = stocks.get(stocks.size() - 1).getId();
+        stockGroupService.addStockToGroup(group.getId(), stockId);
+        return stockGroupService.removeStockFromGroup(group.getId(), stockId);
+    }
+
+    private StockGroup randomGroup() {
+        return groups.get(ThreadLocalRandom.current().nextInt(groups.size()));
+    }
+
+    private Member randomMember() {
+        return members.get(ThreadLocalRandom.current().nextInt(members.size()));
+    }
+}
@@ -0,0 +1,20 @@
+package com.fututaiwan.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.SplittableRandom;
+
+/**
+ * 壓測端點：依亂數產生對應的 HTTP 請求
+ */
+record Endpoint(String name, RequestFactory factory) {
+
+    @FunctionalInterface
+    interface RequestFactory {
+        HttpRequest.Builder create(URI base, SplittableRandom random);
+    }
+
+    HttpRequest request(URI base, SplittableRandom random) {
+        return factory.create(base, random).header("Accept", "application/json").build();
+    }
+}
@@ -0,0 +1,95 @@
+package com.fututaiwan.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * 涵蓋 /api/* 的端點定義；ID 範圍與 {@link LoadTestDataSeeder} 寫入的資料一致
+ */
+final class Endpoints {
+
+    private Endpoints() {
+    }
+
+    static Map<String, Endpoint> all(LoadTestConfig config) {
+        int members = config.members();
+        int stocks = config.stocks();
+        long groups = (long) members * config.groupsPerMember();
+        Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+        for (Endpoint endpoint : List.of(
+                get("watchlist", (r) -> "/api/stock-groups/member/" + id(r, members) + "/watchlist"),
+                get("sync", (r) -> "/api/stock-groups/member/" + id(r, members) + "/sync?epoch=0&since=0"),
+                get("member-groups", (r) -> "/api/stock-groups/member/" + id(r, members)),
+                get("group-by-id", (r) -> "/api/stock-groups/" + id(r, groups)),
+                get("group-stocks", (r) -> "/api/stock-groups/" + id(r, groups) + "/stocks"),
+                get("group-by-name", (r) -> "/api/stock-groups/search/name?name=Group%20" + r.nextLong(groups)),
+                get("quote", (r) -> "/api/quotes/" + LoadTestDataSeeder.stockCode(r.nextInt(stocks))),
+                get("stock-by-id", (r) -> "/api/stocks/" + id(r, stocks)),
+                get("stock-by-code", (r) -> "/api/stocks/search/code?code=" + LoadTestDataSeeder.stockCode(r.nextInt(stocks))),
+                get("stocks", (r) -> "/api/stocks"),
+                get("member-by-id", (r) -> "/api/members/" + id(r, members)),
+                get("member-by-email", (r) -> "/api/members/search/email?email=member" + r.nextInt(members) + "%40example.com"),
+                get("member-by-phone", (r) -> "/api/members/search/phone?phoneNumber=" + String.format("09%08d", r.nextInt(members))),
+                new Endpoint("last-login", (base, r) -> HttpRequest.newBuilder(base.resolve("/api/members/" + id(r, members) + "/last-login"))
+                        .PUT(HttpRequest.BodyPublishers.noBody())),
+                // 群組 i 以 (i * 7919) mod stocks 為起點取連續股票，往後偏移 stocksPerGroup 必定不在群組內
+                new Endpoint("group-add-stock", (base, r) -> {
+                    long group = r.nextLong(groups);
+                    return HttpRequest.newBuilder(base.resolve("/api/stock-groups/" + (group + 1) + "/stocks/" + outsideStock(config, group)))
+                            .POST(HttpRequest.BodyPublishers.noBody());
+                }),
+                new Endpoint("group-remove-stock", (base, r) -> {
+                    long group = r.nextLong(groups);
+                    return HttpRequest.newBuilder(base.resolve("/api/stock-groups/" + (group + 1) + "/stocks/" + outsideStock(config, group)))
+                            .DELETE();
+                }),
+                new Endpoint("quote-push", (base, r) -> HttpRequest.newBuilder(base.resolve("/api/quotes"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(quotes(r, stocks, 50)))))) {
+            endpoints.put(endpoint.name(), endpoint);
+        }
+        return endpoints;
+    }
+
+    static String quotes(SplittableRandom random, int stocks, int count) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            double price = 10 + random.nextDouble(990);
+            json.append("{\"code\":\"").append(LoadTestDataSeeder.stockCode(random.nextInt(stocks)))
+                    .append("\",\"price\":").append(price)
+                    .append(",\"open\":").append(price)
+                    .append(",\"high\":").append(price * 1.01)
+                    .append(",\"low\":").append(price * 0.99)
+                    .append(",\"previousClose\":").append(price)
+                    .append(",\"volume\":").append(random.nextInt(1_000_000))
+                    .append(",\"timestamp\":\"").append(Instant.now()).append("\"}");
+        }
+        return json.append(']').toString();
+    }
+
+    private static long outsideStock(LoadTestConfig config, long group) {
+        long start = Math.floorMod(group * 7919L, config.stocks());
+        return (start + config.stocksPerGroup()) % config.stocks() + 1;
+    }
+
+    private static long id(SplittableRandom random, long bound) {
+        return random.nextLong(bound) + 1;
+    }
+
+    private static Endpoint get(String name, PathFactory path) {
+        return new Endpoint(name, (base, r) -> HttpRequest.newBuilder(base.resolve(path.create(r))).GET());
+    }
+
+    @FunctionalInterface
+    private interface PathFactory {
+        String create(SplittableRandom random);
+    }
+}
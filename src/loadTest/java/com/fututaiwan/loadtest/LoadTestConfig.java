@@ -0,0 +1,68 @@
+package com.fututaiwan.loadtest;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 壓測參數，皆由 -Ploadtest.* (轉為 system property) 設定
+ *
+ * @param rate             每秒送出的請求數 (open model，與回應速度無關)
+ * @param duration         量測時間
+ * @param warmup           暖機時間，不計入報告
+ * @param members          會員數
+ * @param stocks           股票數
+ * @param groupsPerMember  每位會員的群組數
+ * @param stocksPerGroup   每個群組的股票數
+ * @param mix              端點權重，格式為 name:weight,name:weight
+ * @param external         使用既有服務而非容器
+ * @param seed             亂數種子
+ * @param migrationDir     建表語法目錄
+ * @param reportFile       JSON 報告輸出位置
+ */
+record LoadTestConfig(
+        int rate,
+        Duration duration,
+        Duration warmup,
+        int members,
+        int stocks,
+        int groupsPerMember,
+        int stocksPerGroup,
+        Map<String, Integer> mix,
+        boolean external,
+        long seed,
+        String migrationDir,
+        String reportFile) {
+
+    // 開盤時段的典型組合：以自選股與報價讀取為主，少量寫入
+    static final String DEFAULT_MIX = "watchlist:30,sync:20,quote:15,stock-by-code:8,member-groups:6,stock-by-id:4,"
+            + "group-stocks:4,member-by-id:3,member-by-email:2,last-login:3,group-add-stock:2,group-remove-stock:2,quote-push:1";
+
+    static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                Integer.getInteger("loadtest.rate", 2000),
+                Duration.parse(System.getProperty("loadtest.duration", "PT60S")),
+                Duration.parse(System.getProperty("loadtest.warmup", "PT15S")),
+                Integer.getInteger("loadtest.members", 100_000),
+                Integer.getInteger("loadtest.stocks", 2_000),
+                Integer.getInteger("loadtest.groups-per-member", 1),
+                Integer.getInteger("loadtest.stocks-per-group", 10),
+                parseMix(System.getProperty("loadtest.mix", DEFAULT_MIX)),
+                Boolean.getBoolean("loadtest.external"),
+                Long.getLong("loadtest.seed", 42L),
+                System.getProperty("loadtest.migration-dir", "src/migrate"),
+                System.getProperty("loadtest.report", "build/reports/loadtest/report.json"));
+    }
+
+    static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + entry);
+            }
+            weights.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,99 @@
+package com.fututaiwan.loadtest;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * 套用 src/migrate 的建表語法並以 COPY 寫入壓測資料：會員、完整股票清單、群組與成分股
+ */
+final class LoadTestDataSeeder {
+
+    // 依外鍵相依順序套用
+    private static final List<String> MIGRATIONS = List.of("Member.sql", "Stock.sql", "StockGroup.sql", "StockGroupStock.sql", "Holding.sql", "Tick.sql");
+    private static final int COPY_CHUNK_ROWS = 50_000;
+
+    private final LoadTestConfig config;
+
+    LoadTestDataSeeder(LoadTestConfig config) {
+        this.config = config;
+    }
+
+    void seed(String jdbcUrl, String username, String password) throws SQLException, IOException {
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, username, password)) {
+            migrate(connection);
+            CopyManager copy = connection.unwrap(PGConnection.class).getCopyAPI();
+
+            copyRows(copy, "COPY stocks (id, code, name) FROM STDIN", config.stocks(), (row, out) ->
+                    out.append(row + 1).append('\t').append(stockCode(row)).append('\t').append("Stock ").append(row).append('\n'));
+
+            copyRows(copy, "COPY members (id, name, phone_number, national_id_number, email, password_hash, is_active, role) FROM STDIN",
+                    config.members(), (row, out) -> out.append(row + 1)
+                            .append("\tMember ").append(row)
+                            .append('\t').append(String.format("09%08d", row))
+                            .append('\t').append(String.format("A%09d", row))
+                            .append("\tmember").append(row).append("@example.com")
+                            .append("\thash\ttrue\t").append(row % 50 == 0 ? "vip" : "member").append('\n'));
+
+            long groups = (long) config.members() * config.groupsPerMember();
+            copyRows(copy, "COPY stock_groups (id, name, description, member_id) FROM STDIN", groups, (row, out) ->
+                    out.append(row + 1).append("\tGroup ").append(row).append("\tLoad test group\t")
+                            .append(row / config.groupsPerMember() + 1).append('\n'));
+
+            // 每個群組從隨機起點取連續的股票，避免重複的 (group, stock) 組合
+            copyRows(copy, "COPY stock_group_stocks (stock_group_id, stock_id) FROM STDIN", groups * config.stocksPerGroup(), (row, out) -> {
+                long group = row / config.stocksPerGroup();
+                long offset = row % config.stocksPerGroup();
+                long start = Math.floorMod(group * 7919L, config.stocks());
+                out.append(group + 1).append('\t').append((start + offset) % config.stocks() + 1).append('\n');
+            });
+
+            try (Statement statement = connection.createStatement()) {
+                for (String table : List.of("members", "stocks", "stock_groups")) {
+                    statement.execute("SELECT setval(pg_get_serial_sequence('" + table + "', 'id'), (SELECT MAX(id) FROM " + table + "))");
+                }
+                statement.execute("ANALYZE");
+            }
+        }
+    }
+
+    static String stockCode(long row) {
+        return String.valueOf(1101 + row);
+    }
+
+    private void migrate(Connection connection) throws SQLException, IOException {
+        try (Statement statement = connection.createStatement()) {
+            for (String migration : MIGRATIONS) {
+                statement.execute(Files.readString(Path.of(config.migrationDir(), migration)));
+            }
+        }
+    }
+
+    private void copyRows(CopyManager copy, String sql, long rows, RowWriter writer) throws SQLException, IOException {
+        StringBuilder chunk = new StringBuilder();
+        for (long row = 0; row < rows; row++) {
+            writer.write(row, chunk);
+            if ((row + 1) % COPY_CHUNK_ROWS == 0) {
+                copy.copyIn(sql, new StringReader(chunk.toString()));
+                chunk.setLength(0);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            copy.copyIn(sql, new StringReader(chunk.toString()));
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(long row, StringBuilder out);
+    }
+}
@@ -0,0 +1,78 @@
+package com.fututaiwan.loadtest;
+
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 以容器啟動 Postgres / Redis / Mongo，並提供應用程式連線所需的設定
+ * 指定 -Ploadtest.external=true 時改用既有的服務 (spring.datasource.* 等設定由 application.properties 或環境變數提供)
+ */
+final class LoadTestInfrastructure implements AutoCloseable {
+
+    private final PostgreSQLContainer<?> postgres;
+    private final GenericContainer<?> redis;
+    private final MongoDBContainer mongo;
+
+    private LoadTestInfrastructure(PostgreSQLContainer<?> postgres, GenericContainer<?> redis, MongoDBContainer mongo) {
+        this.postgres = postgres;
+        this.redis = redis;
+        this.mongo = mongo;
+    }
+
+    static LoadTestInfrastructure start(boolean external) {
+        if (external) {
+            return new LoadTestInfrastructure(null, null, null);
+        }
+        PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:16-alpine"))
+                .withCommand("postgres", "-c", "max_connections=500", "-c", "shared_buffers=512MB");
+        GenericContainer<?> redis = new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+        MongoDBContainer mongo = new MongoDBContainer(DockerImageName.parse("mongo:7"));
+        List.of(postgres, redis, mongo).parallelStream().forEach(GenericContainer::start);
+        return new LoadTestInfrastructure(postgres, redis, mongo);
+    }
+
+    String jdbcUrl() {
+        return postgres == null ? System.getProperty("loadtest.jdbc-url", "jdbc:postgresql://localhost:5432/mydatabase") : postgres.getJdbcUrl();
+    }
+
+    String username() {
+        return postgres == null ? System.getProperty("loadtest.jdbc-username", "myuser") : postgres.getUsername();
+    }
+
+    String password() {
+        return postgres == null ? System.getProperty("loadtest.jdbc-password", "secret") : postgres.getPassword();
+    }
+
+    /**
+     * 應用程式的連線設定 (key=value，由 LoadTestRunner 以命令列參數傳入)
+     */
+    List<String> applicationProperties() {
+        List<String> properties = new ArrayList<>();
+        properties.add("spring.datasource.url=" + jdbcUrl());
+        properties.add("spring.datasource.username=" + username());
+        properties.add("spring.datasource.password=" + password());
+        if (redis != null) {
+            properties.add("spring.data.redis.host=" + redis.getHost());
+            properties.add("spring.data.redis.port=" + redis.getMappedPort(6379));
+            properties.add("fututaiwan.member-cache.redis.enabled=true");
+        }
+        if (mongo != null) {
+            properties.add("spring.data.mongodb.uri=" + mongo.getReplicaSetUrl("fututaiwan"));
+        }
+        return properties;
+    }
+
+    @Override
+    public void close() {
+        for (GenericContainer<?> container : new GenericContainer<?>[]{mongo, redis, postgres}) {
+            if (container != null) {
+                container.stop();
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.fututaiwan.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 壓測結果：各端點吞吐量與延遲百分位數 (毫秒)，可輸出為表格與 JSON
+ */
+record LoadTestReport(int targetRate, long durationSeconds, double throughput, List<EndpointResult> endpoints) {
+
+    record EndpointResult(String endpoint, long requests, long errors, long clientErrors, double throughput,
+                          double p50, double p90, double p99, double p999, double max) {
+    }
+
+    static LoadTestReport of(LoadTestConfig config, Map<String, OpenModelDriver.EndpointStats> stats) {
+        double seconds = config.duration().toNanos() / 1e9;
+        List<EndpointResult> results = new ArrayList<>();
+        Histogram total = new Histogram(3);
+        long completed = 0;
+        for (Map.Entry<String, OpenModelDriver.EndpointStats> entry : stats.entrySet()) {
+            OpenModelDriver.EndpointStats endpointStats = entry.getValue();
+            Histogram latency = endpointStats.latency.copy();
+            total.add(latency);
+            completed += endpointStats.successes.sum();
+            results.add(result(entry.getKey(), latency, endpointStats.successes.sum(),
+                    endpointStats.serverErrors.sum(), endpointStats.clientErrors.sum(), seconds));
+        }
+        results.add(result("TOTAL", total, completed,
+                results.stream().mapToLong(EndpointResult::errors).sum(),
+                results.stream().mapToLong(EndpointResult::clientErrors).sum(), seconds));
+        return new LoadTestReport(config.rate(), config.duration().toSeconds(), completed / seconds, results);
+    }
+
+    private static EndpointResult result(String name, Histogram latency, long successes, long errors, long clientErrors, double seconds) {
+        return new EndpointResult(name, latency.getTotalCount(), errors, clientErrors, successes / seconds,
+                millis(latency.getValueAtPercentile(50)),
+                millis(latency.getValueAtPercentile(90)),
+                millis(latency.getValueAtPercentile(99)),
+                millis(latency.getValueAtPercentile(99.9)),
+                millis(latency.getMaxValue()));
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    void print(PrintStream out) {
+        out.printf("Target rate %d req/s, %d s measured, successful throughput %.1f req/s%n", targetRate, durationSeconds, throughput);
+        out.printf("%-20s %9s %7s %7s %10s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "5xx", "4xx", "ok req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (EndpointResult result : endpoints) {
+            out.printf("%-20s %9d %7d %7d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    result.endpoint(), result.requests(), result.errors(), result.clientErrors(), result.throughput(),
+                    result.p50(), result.p90(), result.p99(), result.p999(), result.max());
+        }
+    }
+
+    void write(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), this);
+    }
+}
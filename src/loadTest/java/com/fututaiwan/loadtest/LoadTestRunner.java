@@ -0,0 +1,88 @@
+package com.fututaiwan.loadtest;
+
+import com.fututaiwan.FuTuTaiwanApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 端到端壓測入口：啟動相依服務、寫入資料、啟動 FuTuTaiwanApplication 後以 open model 送出流量
+ *
+ * 執行方式：./gradlew loadTest -Ploadtest.rate=5000 -Ploadtest.duration=PT2M
+ */
+public final class LoadTestRunner {
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        try (LoadTestInfrastructure infrastructure = LoadTestInfrastructure.start(config.external())) {
+            if (!config.external()) {
+                long seedStart = System.nanoTime();
+                new LoadTestDataSeeder(config).seed(infrastructure.jdbcUrl(), infrastructure.username(), infrastructure.password());
+                System.out.printf("Seeded %d members, %d stocks, %d group memberships in %d ms%n",
+                        config.members(), config.stocks(),
+                        (long) config.members() * config.groupsPerMember() * config.stocksPerGroup(),
+                        (System.nanoTime() - seedStart) / 1_000_000);
+            }
+
+            List<String> properties = new ArrayList<>(infrastructure.applicationProperties());
+            properties.add("server.port=0");
+            properties.add("spring.jpa.hibernate.ddl-auto=none");
+            properties.add("spring.docker.compose.enabled=false");
+            // 壓測流量全部來自同一個 IP，准入控制會把它當成單一用戶限流
+            properties.add("fututaiwan.admission.enabled=false");
+            // 以命令列參數傳入 (預設屬性的優先順序低於 application.properties)；args 放在後面，可再覆寫
+            List<String> arguments = new ArrayList<>(properties.stream().map(property -> "--" + property).toList());
+            arguments.addAll(List.of(args));
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(FuTuTaiwanApplication.class)
+                    .run(arguments.toArray(String[]::new))) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                URI base = URI.create("http://localhost:" + port);
+                publishInitialQuotes(base, config);
+
+                LoadTestReport report = new OpenModelDriver(base, config, Endpoints.all(config)).run();
+                report.print(System.out);
+                report.write(Path.of(config.reportFile()));
+                System.out.println("Report written to " + config.reportFile());
+            }
+        }
+    }
+
+    // 報價只存在記憶體中，先為每檔股票推送一筆，讓自選股與報價端點有資料可讀
+    private static void publishInitialQuotes(URI base, LoadTestConfig config) throws Exception {
+        SplittableRandom random = new SplittableRandom(config.seed());
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            for (int offset = 0; offset < config.stocks(); offset += 500) {
+                StringBuilder json = new StringBuilder("[");
+                for (int row = offset; row < Math.min(offset + 500, config.stocks()); row++) {
+                    if (row > offset) {
+                        json.append(',');
+                    }
+                    double price = 10 + random.nextDouble(990);
+                    json.append("{\"code\":\"").append(LoadTestDataSeeder.stockCode(row))
+                            .append("\",\"price\":").append(price)
+                            .append(",\"previousClose\":").append(price).append('}');
+                }
+                json.append(']');
+                HttpResponse<Void> response = client.send(HttpRequest.newBuilder(base.resolve("/api/quotes"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(json.toString()))
+                        .build(), HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() != 202) {
+                    throw new IllegalStateException("Failed to publish initial quotes: HTTP " + response.statusCode());
+                }
+            }
+        }
+    }
+}
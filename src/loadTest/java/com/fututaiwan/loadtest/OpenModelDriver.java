@@ -0,0 +1,128 @@
+package com.fututaiwan.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open model 流量產生器：依固定到達率排程請求，不因回應變慢而降低送出速度
+ * 延遲從「預定送出時間」起算，因此排隊時間也會計入 (避免 coordinated omission)
+ */
+final class OpenModelDriver {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(2);
+
+    private final URI base;
+    private final LoadTestConfig config;
+    private final List<Endpoint> endpoints = new ArrayList<>();
+    private final int[] cumulativeWeights;
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+
+    OpenModelDriver(URI base, LoadTestConfig config, Map<String, Endpoint> available) {
+        this.base = base;
+        this.config = config;
+        this.cumulativeWeights = new int[config.mix().size()];
+        int total = 0;
+        for (Map.Entry<String, Integer> entry : config.mix().entrySet()) {
+            Endpoint endpoint = available.get(entry.getKey());
+            if (endpoint == null) {
+                throw new IllegalArgumentException("Unknown endpoint in mix: " + entry.getKey() + " (available: " + available.keySet() + ")");
+            }
+            total += entry.getValue();
+            cumulativeWeights[endpoints.size()] = total;
+            endpoints.add(endpoint);
+            stats.put(endpoint.name(), new EndpointStats());
+        }
+    }
+
+    /**
+     * 執行暖機與量測，回傳量測期間的統計
+     */
+    LoadTestReport run() {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / config.rate();
+        long warmupNanos = config.warmup().toNanos();
+        long totalNanos = warmupNanos + config.duration().toNanos();
+        SplittableRandom random = new SplittableRandom(config.seed());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient client = HttpClient.newBuilder()
+                     .executor(executor)
+                     .connectTimeout(Duration.ofSeconds(5))
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .build()) {
+            List<CompletableFuture<?>> inFlight = new ArrayList<>();
+            long start = System.nanoTime();
+            long measureStart = start + warmupNanos;
+            for (long i = 0; ; i++) {
+                long intended = start + i * intervalNanos;
+                if (intended - start >= totalNanos) {
+                    break;
+                }
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Endpoint endpoint = pick(random);
+                EndpointStats endpointStats = stats.get(endpoint.name());
+                boolean measured = intended >= measureStart;
+                inFlight.add(client.sendAsync(endpoint.request(base, random), HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, error) -> {
+                            if (measured) {
+                                endpointStats.record(System.nanoTime() - intended, response == null ? -1 : response.statusCode());
+                            }
+                        }));
+            }
+            // 等待尚未完成的請求，最多等候 histogram 可追蹤的上限；個別失敗已計入統計
+            CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new))
+                    .orTimeout(HIGHEST_TRACKABLE_NANOS, TimeUnit.NANOSECONDS)
+                    .handle((ignored, error) -> null)
+                    .join();
+        }
+        return LoadTestReport.of(config, stats);
+    }
+
+    private Endpoint pick(SplittableRandom random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return endpoints.get(i);
+            }
+        }
+        return endpoints.getLast();
+    }
+
+    static final class EndpointStats {
+
+        final Histogram latency = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+        final LongAdder successes = new LongAdder();
+        final LongAdder clientErrors = new LongAdder();
+        final LongAdder serverErrors = new LongAdder();
+
+        void record(long latencyNanos, int status) {
+            latency.recordValue(Math.min(latencyNanos, HIGHEST_TRACKABLE_NANOS));
+            if (status >= 200 && status < 400) {
+                successes.increment();
+            } else if (status >= 400 && status < 500) {
+                clientErrors.increment();
+            } else {
+                // 逾時、連線失敗與 5xx
+                serverErrors.increment();
+            }
+        }
+    }
+}
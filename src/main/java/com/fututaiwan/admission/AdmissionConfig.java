@@ -0,0 +1,109 @@
+package com.fututaiwan.admission;
+
+import com.fututaiwan.config.JdbcBulkhead;
+import com.fututaiwan.member.MemberService;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+/**
+ * /api/** 的准入控制 (fututaiwan.admission.enabled=false 可關閉)
+ * 少數客戶端在迴圈中輪詢時，由 token bucket 擋下多出的請求；整體負載過高時先卸載匿名請求，再卸載一般會員
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "fututaiwan.admission", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionConfig {
+
+    @Bean
+    public LoadShedder loadShedder(AdmissionProperties properties, ObjectProvider<DataSource> dataSources) {
+        return new LoadShedder(properties.getShedding(), connectionWaiters(dataSources));
+    }
+
+    @Bean
+    public AdmissionInterceptor admissionInterceptor(AdmissionProperties properties, LoadShedder loadShedder,
+                                                     MemberService memberService, MeterRegistry meterRegistry) {
+        return new AdmissionInterceptor(properties, loadShedder,
+                AdmissionInterceptor.rolePriorities(memberService::getCachedRole, properties.getVipRoles()), meterRegistry);
+    }
+
+    // 排在其他 interceptor 之前，被拒絕的請求不做任何其他處理
+    @Bean
+    public WebMvcConfigurer admissionConfigurer(AdmissionInterceptor interceptor, AdmissionProperties properties) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(interceptor).addPathPatterns("/api/**")
+                        .excludePathPatterns(properties.getExcludePaths())
+                        .order(Ordered.HIGHEST_PRECEDENCE);
+            }
+        };
+    }
+
+    /**
+     * 所有連線池中等待連線的執行緒數；虛擬執行緒模式另加在 JdbcBulkhead 排隊的數量
+     * 讀寫分離的 routing DataSource 本身不計，其 primary 與 replica 各自計算；第一次取樣時才解析，避免提早初始化連線池
+     */
+    static IntSupplier connectionWaiters(ObjectProvider<DataSource> dataSources) {
+        return new IntSupplier() {
+            private volatile List<IntSupplier> waiters;
+
+            @Override
+            public int getAsInt() {
+                List<IntSupplier> resolved = waiters;
+                if (resolved == null) {
+                    resolved = resolve(dataSources);
+                    waiters = resolved;
+                }
+                int total = 0;
+                for (IntSupplier waiter : resolved) {
+                    total += waiter.getAsInt();
+                }
+                return total;
+            }
+        };
+    }
+
+    private static List<IntSupplier> resolve(ObjectProvider<DataSource> dataSources) {
+        List<IntSupplier> waiters = new ArrayList<>();
+        dataSources.orderedStream().forEach(dataSource -> {
+            if (dataSource instanceof AbstractRoutingDataSource) {
+                return;
+            }
+            if (dataSource instanceof JdbcBulkhead bulkhead) {
+                waiters.add(bulkhead::queueLength);
+            }
+            HikariDataSource hikari = unwrapHikari(dataSource);
+            if (hikari != null) {
+                waiters.add(() -> {
+                    HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+                    return pool == null ? 0 : pool.getThreadsAwaitingConnection();
+                });
+            }
+        });
+        return waiters;
+    }
+
+    private static HikariDataSource unwrapHikari(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
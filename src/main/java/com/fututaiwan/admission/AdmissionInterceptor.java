@@ -0,0 +1,138 @@
+package com.fututaiwan.admission;
+
+import com.fututaiwan.config.InternalAuthFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.security.Principal;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * /api/** 的准入控制：依序檢查負載卸載、每個 IP 與每位會員的 token bucket，不通過時回應 429 與 Retry-After
+ * 會員身分只取自本服務驗證過的來源：已驗證的 principal (名稱為會員 id)，或帶有節點 token (InternalAuthFilter) 的
+ * 前端閘道以 X-Member-Id 轉送的會員 id；URI 或未驗證請求的標頭由客戶端決定，不能用來提高優先等級或避開 IP 限制
+ * IP 為 request.getRemoteAddr()，經反向代理時由 server.forward-headers-strategy 換成 X-Forwarded-For 的客戶端位址
+ * 被拒絕的請求不會進入 controller，也不會取得連線；會員角色只查本機快取，未快取的會員先以一般會員處理，不會為了判斷優先等級查資料庫
+ */
+public class AdmissionInterceptor implements HandlerInterceptor {
+
+    static final String METRIC_NAME = "fututaiwan.admission.rejected";
+    public static final String MEMBER_HEADER = "X-Member-Id";
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final String START_ATTRIBUTE = AdmissionInterceptor.class.getName() + ".start";
+
+    enum Reason {
+        SHED, IP_RATE, MEMBER_RATE
+    }
+
+    private final TokenBuckets<String> ipBuckets;
+    private final TokenBuckets<Long> memberBuckets;
+    private final TokenBuckets<Long> vipBuckets;
+    private final LoadShedder shedder;
+    private final Function<Long, Priority> priorities;
+    private final long shedRetryAfterNanos;
+    private final Counter[][] rejected = new Counter[Reason.values().length][Priority.values().length];
+
+    public AdmissionInterceptor(AdmissionProperties properties, LoadShedder shedder, Function<Long, Priority> priorities,
+                                MeterRegistry meterRegistry) {
+        this.ipBuckets = buckets(properties, properties.getIp());
+        this.memberBuckets = buckets(properties, properties.getMember());
+        this.vipBuckets = buckets(properties, properties.getVip());
+        this.shedder = shedder;
+        this.priorities = priorities;
+        this.shedRetryAfterNanos = properties.getShedding().getRetryAfter().toNanos();
+        for (Reason reason : Reason.values()) {
+            for (Priority priority : Priority.values()) {
+                rejected[reason.ordinal()][priority.ordinal()] = Counter.builder(METRIC_NAME)
+                        .description("Requests rejected with 429 by admission control")
+                        .tag("reason", reason.name().toLowerCase())
+                        .tag("priority", priority.name().toLowerCase())
+                        .register(meterRegistry);
+            }
+        }
+        Gauge.builder("fututaiwan.admission.pressure", shedder, LoadShedder::pressure).register(meterRegistry);
+        Gauge.builder("fututaiwan.admission.buckets", ipBuckets, TokenBuckets::size).tag("kind", "ip").register(meterRegistry);
+        Gauge.builder("fututaiwan.admission.buckets", memberBuckets, TokenBuckets::size).tag("kind", "member").register(meterRegistry);
+        Gauge.builder("fututaiwan.admission.buckets", vipBuckets, TokenBuckets::size).tag("kind", "vip").register(meterRegistry);
+    }
+
+    /**
+     * 依會員角色決定優先等級；roleLookup 只應查快取
+     */
+    public static Function<Long, Priority> rolePriorities(Function<Long, Optional<String>> roleLookup, Set<String> vipRoles) {
+        return memberId -> {
+            if (memberId == null) {
+                return Priority.ANONYMOUS;
+            }
+            return roleLookup.apply(memberId).filter(vipRoles::contains).isPresent() ? Priority.VIP : Priority.MEMBER;
+        };
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Long memberId = memberId(request);
+        Priority priority = priorities.apply(memberId);
+        if (shedder.shouldShed(priority)) {
+            return reject(response, Reason.SHED, priority, shedRetryAfterNanos);
+        }
+        if (priority != Priority.VIP) {
+            long wait = ipBuckets.tryAcquire(request.getRemoteAddr());
+            if (wait != TokenBuckets.ADMITTED) {
+                return reject(response, Reason.IP_RATE, priority, wait);
+            }
+        }
+        if (memberId != null) {
+            long wait = (priority == Priority.VIP ? vipBuckets : memberBuckets).tryAcquire(memberId);
+            if (wait != TokenBuckets.ADMITTED) {
+                return reject(response, Reason.MEMBER_RATE, priority, wait);
+            }
+        }
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    // 只記錄放行的請求；被拒絕的請求沒有 START_ATTRIBUTE
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(START_ATTRIBUTE) instanceof Long start) {
+            shedder.recordLatency(System.nanoTime() - start);
+        }
+    }
+
+    private boolean reject(HttpServletResponse response, Reason reason, Priority priority, long waitNanos) {
+        rejected[reason.ordinal()][priority.ordinal()].increment();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        // Retry-After 以秒為單位，無條件進位且至少 1 秒
+        long seconds = Math.max(1, (waitNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND);
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        return false;
+    }
+
+    // 未驗證的請求為匿名
+    static Long memberId(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        String memberId = principal != null ? principal.getName()
+                : InternalAuthFilter.isPeer(request) ? request.getHeader(MEMBER_HEADER) : null;
+        if (memberId == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(memberId);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static <K> TokenBuckets<K> buckets(AdmissionProperties properties, AdmissionProperties.Limit limit) {
+        return new TokenBuckets<>(limit.getPermitsPerSecond(), limit.getBurst(), properties.getStripes(), properties.getMaxBucketsPerStripe());
+    }
+}
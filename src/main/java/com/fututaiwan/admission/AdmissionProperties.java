@@ -0,0 +1,64 @@
+package com.fututaiwan.admission;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * /api/** 的准入控制設定：每個 IP 與每位會員的 token bucket、VIP 角色，以及依連線池排隊與延遲卸載低優先請求
+ */
+@Data
+@ConfigurationProperties(prefix = "fututaiwan.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    // VIP 請求不受 IP 限制 (同一個 NAT 後的其他用戶不會影響 VIP)，只受 vip 限制
+    private Limit ip = new Limit(100, 200);
+    private Limit member = new Limit(20, 40);
+    private Limit vip = new Limit(100, 200);
+
+    private Set<String> vipRoles = Set.of("vip");
+
+    // 不經准入控制的路徑：行情來源與其他分區節點轉送的報價寫入 (POST /api/quotes) 不應被當成匿名請求卸載或限流
+    private List<String> excludePaths = List.of("/api/quotes");
+
+    // bucket 分散的 stripe 數 (2 的次方) 與每個 stripe 的 bucket 上限
+    private int stripes = 64;
+    private int maxBucketsPerStripe = 4096;
+
+    private Shedding shedding = new Shedding();
+
+    @Data
+    public static class Limit {
+        private double permitsPerSecond;
+        private int burst;
+
+        public Limit() {
+        }
+
+        public Limit(double permitsPerSecond, int burst) {
+            this.permitsPerSecond = permitsPerSecond;
+            this.burst = burst;
+        }
+    }
+
+    /**
+     * 負載 = max(等待連線的執行緒數 / maxQueueDepth, 請求延遲 EWMA / latencyTarget)；
+     * 負載達到各等級的門檻時卸載該等級的請求，VIP 不卸載
+     */
+    @Data
+    public static class Shedding {
+        private boolean enabled = true;
+        private int maxQueueDepth = 20;
+        private Duration latencyTarget = Duration.ofMillis(500);
+        private double anonymousShedAt = 0.8;
+        private double memberShedAt = 1.0;
+        // 負載重新計算的間隔；期間內的請求沿用上次結果
+        private Duration sampleInterval = Duration.ofMillis(10);
+        private Duration retryAfter = Duration.ofSeconds(1);
+    }
+}
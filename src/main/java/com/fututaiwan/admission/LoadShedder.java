@@ -0,0 +1,74 @@
+package com.fututaiwan.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * 依連線池排隊深度與請求延遲估計負載，決定是否卸載某個優先等級的請求
+ * 負載每 sampleInterval 才重新計算一次 (由搶到 CAS 的請求負責)，其餘請求只讀一個 volatile
+ * 延遲樣本累加在 LongAdder 中，取樣時才併入 EWMA，請求之間不會爭用同一條 cache line
+ */
+public class LoadShedder {
+
+    // 每個取樣區間平均延遲的 EWMA 平滑係數；區間內沒有新樣本時 (例如請求全被卸載) 減半，避免卡在卸載狀態
+    private static final double ALPHA = 0.2;
+
+    private final AdmissionProperties.Shedding properties;
+    private final IntSupplier queueDepth;
+    private final LongSupplier nanoClock;
+    private final long sampleIntervalNanos;
+    private final long latencyTargetNanos;
+
+    private final AtomicLong nextSample;
+    private final LongAdder latencySumNanos = new LongAdder();
+    private final LongAdder latencySamples = new LongAdder();
+    private volatile double pressure;
+    // 只由取樣的執行緒寫入
+    private volatile double latencyEwmaNanos;
+
+    public LoadShedder(AdmissionProperties.Shedding properties, IntSupplier queueDepth) {
+        this(properties, queueDepth, System::nanoTime);
+    }
+
+    LoadShedder(AdmissionProperties.Shedding properties, IntSupplier queueDepth, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.queueDepth = queueDepth;
+        this.nanoClock = nanoClock;
+        this.sampleIntervalNanos = properties.getSampleInterval().toNanos();
+        this.latencyTargetNanos = properties.getLatencyTarget().toNanos();
+        this.nextSample = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    public boolean shouldShed(Priority priority) {
+        if (!properties.isEnabled() || priority == Priority.VIP) {
+            return false;
+        }
+        double threshold = priority == Priority.MEMBER ? properties.getMemberShedAt() : properties.getAnonymousShedAt();
+        return pressure() >= threshold;
+    }
+
+    public void recordLatency(long nanos) {
+        latencySumNanos.add(nanos);
+        latencySamples.increment();
+    }
+
+    public double pressure() {
+        long now = nanoClock.getAsLong();
+        long next = nextSample.get();
+        if (now - next >= 0 && nextSample.compareAndSet(next, now + sampleIntervalNanos)) {
+            long samples = latencySamples.sumThenReset();
+            long sum = latencySumNanos.sumThenReset();
+            if (samples == 0) {
+                latencyEwmaNanos /= 2;
+            } else {
+                latencyEwmaNanos += ALPHA * ((double) sum / samples - latencyEwmaNanos);
+            }
+            double queue = (double) queueDepth.getAsInt() / properties.getMaxQueueDepth();
+            double latency = latencyEwmaNanos / latencyTargetNanos;
+            pressure = Math.max(queue, latency);
+        }
+        return pressure;
+    }
+}
@@ -0,0 +1,13 @@
+package com.fututaiwan.admission;
+
+/**
+ * 請求的優先等級，負載過高時由低到高依序卸載
+ */
+public enum Priority {
+
+    // 路徑中沒有會員 id 的請求 (股票、報價等公開資料)
+    ANONYMOUS,
+    MEMBER,
+    // Member.role 屬於 fututaiwan.admission.vip-roles 的會員，永不卸載
+    VIP
+}
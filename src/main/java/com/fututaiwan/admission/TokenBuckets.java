@@ -0,0 +1,112 @@
+package com.fututaiwan.admission;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 以 key 分組的 token bucket，使用 GCRA (generic cell rate algorithm)：每個 bucket 只存一個「理論到達時間」(TAT)，
+ * 取 token 時以 CAS 前推，等同於延遲補充的 token bucket，不需要計時器或背景執行緒
+ * bucket 依 key 的 hash 分散到多個 stripe；TAT 不晚於現在的 bucket 已補滿，與不存在等價，stripe 滿時就地清除
+ * 清除後仍然滿載 (大量 key 同時活躍) 時，新的 key 共用該 stripe 的 overflow bucket，記憶體用量有上限
+ */
+public class TokenBuckets<K> {
+
+    // tryAcquire 允許通過時的回傳值
+    public static final long ADMITTED = 0;
+
+    private final long emissionIntervalNanos;
+    private final long toleranceNanos;
+    private final int maxBucketsPerStripe;
+    private final LongSupplier nanoClock;
+    private final Stripe<K>[] stripes;
+    private final int mask;
+
+    public TokenBuckets(double permitsPerSecond, int burst, int stripes, int maxBucketsPerStripe) {
+        this(permitsPerSecond, burst, stripes, maxBucketsPerStripe, System::nanoTime);
+    }
+
+    @SuppressWarnings("unchecked")
+    TokenBuckets(double permitsPerSecond, int burst, int stripes, int maxBucketsPerStripe, LongSupplier nanoClock) {
+        if (permitsPerSecond <= 0 || burst < 1 || stripes < 1 || Integer.bitCount(stripes) != 1 || maxBucketsPerStripe < 1) {
+            throw new IllegalArgumentException("permitsPerSecond and maxBucketsPerStripe must be positive, burst at least 1, stripes a power of two");
+        }
+        this.emissionIntervalNanos = Math.max(1, Math.round(Duration.ofSeconds(1).toNanos() / permitsPerSecond));
+        this.toleranceNanos = emissionIntervalNanos * burst;
+        this.maxBucketsPerStripe = maxBucketsPerStripe;
+        this.nanoClock = nanoClock;
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe<>(nanoClock.getAsLong());
+        }
+        this.mask = stripes - 1;
+    }
+
+    /**
+     * 取一個 token；通過時回傳 ADMITTED (0)，否則回傳需要等待的奈秒數 (可作為 Retry-After)
+     */
+    public long tryAcquire(K key) {
+        long now = nanoClock.getAsLong();
+        AtomicLong bucket = bucket(key, now);
+        while (true) {
+            long tat = bucket.get();
+            long next = Math.max(tat, now) + emissionIntervalNanos;
+            long wait = next - now - toleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(tat, next)) {
+                return ADMITTED;
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe<K> stripe : stripes) {
+            size += stripe.buckets.size();
+        }
+        return size;
+    }
+
+    private AtomicLong bucket(K key, long now) {
+        int hash = key.hashCode();
+        Stripe<K> stripe = stripes[(hash ^ (hash >>> 16)) & mask];
+        AtomicLong bucket = stripe.buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (stripe.buckets.size() >= maxBucketsPerStripe) {
+            stripe.sweep(now);
+            if (stripe.buckets.size() >= maxBucketsPerStripe) {
+                return stripe.overflow;
+            }
+        }
+        // TAT 等於現在代表 bucket 是滿的
+        return stripe.buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+    }
+
+    private static final class Stripe<K> {
+
+        final ConcurrentHashMap<K, AtomicLong> buckets = new ConcurrentHashMap<>();
+        final AtomicLong overflow;
+        private final AtomicBoolean sweeping = new AtomicBoolean();
+
+        Stripe(long now) {
+            this.overflow = new AtomicLong(now);
+        }
+
+        // 同一時間只有一個執行緒清除；剛被清除的 bucket 若仍有人持有，最多少算一個 token
+        void sweep(long now) {
+            if (sweeping.compareAndSet(false, true)) {
+                try {
+                    buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+                } finally {
+                    sweeping.set(false);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.fututaiwan.analytics;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 分析計算專用的 fork-join pool，不與 parallel stream 共用的 common pool 互相搶執行緒；關機時由 Spring 呼叫 close
+ */
+@Configuration
+public class AnalyticsConfig {
+
+    @Bean
+    public ForkJoinPool analyticsPool(AnalyticsProperties properties) {
+        int parallelism = properties.getParallelism() > 0 ? properties.getParallelism() : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(parallelism);
+    }
+}
@@ -0,0 +1,30 @@
+package com.fututaiwan.analytics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+
+    private final CorrelationService correlationService;
+
+    @Autowired
+    public AnalyticsController(CorrelationService correlationService) {
+        this.correlationService = correlationService;
+    }
+
+    // 股票群組成分股最近 days 個交易日的日報酬率共變異數與相關係數矩陣
+    @GetMapping("/stock-groups/{groupId}/correlation")
+    public ResponseEntity<CorrelationResponse> getCorrelation(@PathVariable Long groupId,
+                                                              @RequestParam(defaultValue = "60") int days) {
+        try {
+            return ResponseEntity.ok(correlationService.getCorrelation(groupId, days));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build(); // 天數或群組股票數超出範圍
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build(); // StockGroup not found
+        }
+    }
+}
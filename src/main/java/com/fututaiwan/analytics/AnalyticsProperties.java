@@ -0,0 +1,32 @@
+package com.fututaiwan.analytics;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.time.ZoneId;
+
+/**
+ * 分析端點的設定 (fututaiwan.analytics.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "fututaiwan.analytics")
+public class AnalyticsProperties {
+
+    // 報酬率的最大天數與群組的最大股票數；矩陣計算量為 股票數² × 天數
+    private int maxDays = 500;
+    private int maxStocks = 1_000;
+
+    // 計算相關係數矩陣的 fork-join 執行緒數，0 表示 CPU 核心數
+    private int parallelism = 0;
+
+    // 分塊 (cache blocking) 的股票數；一塊的報酬率 (股票數 × 天數 × 8 bytes) 應能放進 L2 快取
+    private int blockSize = 64;
+
+    // 結果快取：以 (群組、群組版本、天數) 為 key；日 K 線歷史檔重新匯出後結果會不同，因此另以 ttl 限制最長保留時間
+    private int cacheSize = 200;
+    private Duration cacheTtl = Duration.ofMinutes(5);
+
+    // 以此時區決定今天的日期與回溯的起始交易日
+    private ZoneId zone = ZoneId.of("Asia/Taipei");
+}
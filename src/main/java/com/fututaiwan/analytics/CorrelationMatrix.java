@@ -0,0 +1,155 @@
+package com.fututaiwan.analytics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 報酬率的共變異數與相關係數矩陣
+ * 報酬率以列優先 (row-major) 的一維 double[] 存放，每列為一檔股票；先把每列減去平均，
+ * 共變異數即為兩列的內積除以 (觀測數 - 1)。只計算上三角，依 blockSize × blockSize 的區塊切分：
+ * 一個區塊只讀取兩組 blockSize 列，在 L2 快取內重複使用；區塊交由 fork-join pool 遞迴二分後平行計算
+ */
+public final class CorrelationMatrix {
+
+    // 觀測數很多時沿時間軸再切段，讓兩組列的同一段一起留在快取內
+    private static final int OBSERVATION_BLOCK = 512;
+
+    private final int stocks;
+    private final double[] covariance;
+    private final double[] correlation;
+
+    private CorrelationMatrix(int stocks, double[] covariance, double[] correlation) {
+        this.stocks = stocks;
+        this.covariance = covariance;
+        this.correlation = correlation;
+    }
+
+    /**
+     * @param returns      stocks × observations 的報酬率 (列優先)，計算時會被原地減去各列平均
+     * @param observations 每檔股票的觀測數，至少 2
+     */
+    public static CorrelationMatrix compute(double[] returns, int stocks, int observations, int blockSize, ForkJoinPool pool) {
+        if (observations < 2) {
+            throw new IllegalArgumentException("At least 2 observations are required: " + observations);
+        }
+        if (returns.length != stocks * observations) {
+            throw new IllegalArgumentException("Expected " + stocks * observations + " returns but got " + returns.length);
+        }
+        for (int i = 0; i < stocks; i++) {
+            int offset = i * observations;
+            double sum = 0;
+            for (int t = 0; t < observations; t++) {
+                sum += returns[offset + t];
+            }
+            double mean = sum / observations;
+            for (int t = 0; t < observations; t++) {
+                returns[offset + t] -= mean;
+            }
+        }
+
+        int block = Math.max(1, blockSize);
+        List<int[]> tiles = new ArrayList<>();
+        for (int i = 0; i < stocks; i += block) {
+            for (int j = i; j < stocks; j += block) {
+                tiles.add(new int[]{i, Math.min(i + block, stocks), j, Math.min(j + block, stocks)});
+            }
+        }
+        double[] covariance = new double[stocks * stocks];
+        pool.invoke(new Tiles(returns, stocks, observations, tiles, 0, tiles.size(), covariance));
+
+        double[] correlation = new double[stocks * stocks];
+        double[] deviations = new double[stocks];
+        for (int i = 0; i < stocks; i++) {
+            deviations[i] = Math.sqrt(covariance[i * stocks + i]);
+        }
+        for (int i = 0; i < stocks; i++) {
+            for (int j = i; j < stocks; j++) {
+                double sum = covariance[i * stocks + j];
+                covariance[i * stocks + j] = sum / (observations - 1);
+                covariance[j * stocks + i] = sum / (observations - 1);
+                // 變異數為 0 (價格不動) 的股票沒有相關係數，結果為 NaN
+                double r = i == j && deviations[i] > 0 ? 1.0
+                        : Math.max(-1.0, Math.min(1.0, sum / (deviations[i] * deviations[j])));
+                correlation[i * stocks + j] = r;
+                correlation[j * stocks + i] = r;
+            }
+        }
+        return new CorrelationMatrix(stocks, covariance, correlation);
+    }
+
+    public int stocks() {
+        return stocks;
+    }
+
+    public double covariance(int i, int j) {
+        return covariance[i * stocks + j];
+    }
+
+    public double correlation(int i, int j) {
+        return correlation[i * stocks + j];
+    }
+
+    // 一段連續的區塊；超過一個時二分後 fork
+    private static final class Tiles extends RecursiveAction {
+
+        private final double[] returns;
+        private final int stocks;
+        private final int observations;
+        private final List<int[]> tiles;
+        private final int from;
+        private final int to;
+        private final double[] covariance;
+
+        Tiles(double[] returns, int stocks, int observations, List<int[]> tiles, int from, int to, double[] covariance) {
+            this.returns = returns;
+            this.stocks = stocks;
+            this.observations = observations;
+            this.tiles = tiles;
+            this.from = from;
+            this.to = to;
+            this.covariance = covariance;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Tiles(returns, stocks, observations, tiles, from, middle, covariance),
+                        new Tiles(returns, stocks, observations, tiles, middle, to, covariance));
+                return;
+            }
+            if (to > from) {
+                int[] tile = tiles.get(from);
+                multiply(tile[0], tile[1], tile[2], tile[3]);
+            }
+        }
+
+        // 只寫入本區塊的 (i, j)，各區塊之間沒有共用的輸出
+        private void multiply(int rowFrom, int rowTo, int columnFrom, int columnTo) {
+            for (int t0 = 0; t0 < observations; t0 += OBSERVATION_BLOCK) {
+                int t1 = Math.min(t0 + OBSERVATION_BLOCK, observations);
+                for (int i = rowFrom; i < rowTo; i++) {
+                    int a = i * observations;
+                    for (int j = Math.max(i, columnFrom); j < columnTo; j++) {
+                        int b = j * observations;
+                        // 四個獨立的累加器，避免每次加法都等待上一次的結果
+                        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+                        int t = t0;
+                        for (; t + 3 < t1; t += 4) {
+                            s0 += returns[a + t] * returns[b + t];
+                            s1 += returns[a + t + 1] * returns[b + t + 1];
+                            s2 += returns[a + t + 2] * returns[b + t + 2];
+                            s3 += returns[a + t + 3] * returns[b + t + 3];
+                        }
+                        for (; t < t1; t++) {
+                            s0 += returns[a + t] * returns[b + t];
+                        }
+                        covariance[i * stocks + j] += (s0 + s1) + (s2 + s3);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.fututaiwan.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 股票群組成分股的日報酬率共變異數與相關係數矩陣 (Correlation Response)
+ * 矩陣的列與行依 codes 的順序；無法計算的值 (例如期間內價格不動的股票) 為 null
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CorrelationResponse {
+
+    private Long groupId;
+
+    private int days; // 要求的報酬率天數
+
+    private LocalDate from; // 第一個報酬率的交易日
+
+    private LocalDate to; // 最後一個報酬率的交易日
+
+    private int observations; // 實際的報酬率天數；歷史資料不足時少於 days
+
+    private List<String> codes;
+
+    private int[] coverage; // 每檔股票實際有成交的報酬率天數，其餘天數以平均值補齊 (對共變異數沒有貢獻)
+
+    private Double[][] covariance; // 日對數報酬率的樣本共變異數
+
+    private Double[][] correlation;
+}
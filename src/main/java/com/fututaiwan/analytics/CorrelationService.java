@@ -0,0 +1,196 @@
+package com.fututaiwan.analytics;
+
+import com.fututaiwan.stock.Stock;
+import com.fututaiwan.stockgroup.StockGroup;
+import com.fututaiwan.stockgroup.StockGroupService;
+import com.fututaiwan.stockgroup.WatchlistVersions;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 股票群組成分股的報酬率相關係數分析 (分散投資的輸入)
+ * 日收盤價取自日 K 線歷史檔 (DailyCloseReader)，只到最近一次匯出為止；矩陣以分塊的基本型別迴圈在 fork-join pool 上平行計算
+ * 結果以 (群組、群組版本、天數) 快取，成分股異動時群組所屬會員的自選股版本 (WatchlistVersions) 會遞增，舊結果不再命中；
+ * 重新匯出歷史檔後，舊結果最多再保留 cache-ttl
+ */
+@Service
+public class CorrelationService {
+
+    static final String METRIC_PREFIX = "analytics.correlation";
+
+    private final StockGroupService stockGroupService;
+    private final WatchlistVersions watchlistVersions;
+    private final DailyCloseReader dailyCloseReader;
+    private final ForkJoinPool analyticsPool;
+    private final AnalyticsProperties properties;
+    private final Clock clock;
+    private final Cache<Key, CorrelationResponse> results;
+    private final Timer computeTimer;
+
+    @Autowired
+    public CorrelationService(StockGroupService stockGroupService, WatchlistVersions watchlistVersions, DailyCloseReader dailyCloseReader,
+                              ForkJoinPool analyticsPool, AnalyticsProperties properties, MeterRegistry meterRegistry) {
+        this(stockGroupService, watchlistVersions, dailyCloseReader, analyticsPool, properties, meterRegistry, Clock.systemUTC());
+    }
+
+    CorrelationService(StockGroupService stockGroupService, WatchlistVersions watchlistVersions, DailyCloseReader dailyCloseReader,
+                       ForkJoinPool analyticsPool, AnalyticsProperties properties, MeterRegistry meterRegistry, Clock clock) {
+        this.stockGroupService = stockGroupService;
+        this.watchlistVersions = watchlistVersions;
+        this.dailyCloseReader = dailyCloseReader;
+        this.analyticsPool = analyticsPool;
+        this.properties = properties;
+        this.clock = clock;
+        this.results = Caffeine.newBuilder()
+                .maximumSize(properties.getCacheSize())
+                .expireAfterWrite(properties.getCacheTtl())
+                .recordStats()
+                .build();
+        this.computeTimer = Timer.builder(METRIC_PREFIX + ".compute")
+                .description("Time to compute the covariance and correlation matrices, excluding reading the history")
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, results, METRIC_PREFIX);
+    }
+
+    /**
+     * 群組成分股最近 days 個交易日的日報酬率相關係數矩陣
+     *
+     * @throws IllegalArgumentException days 或群組股票數超出範圍
+     * @throws RuntimeException         群組不存在
+     */
+    public CorrelationResponse getCorrelation(Long groupId, int days) {
+        if (days < 2 || days > properties.getMaxDays()) {
+            throw new IllegalArgumentException("Days must be between 2 and " + properties.getMaxDays());
+        }
+        StockGroup group = stockGroupService.getStockGroupById(groupId)
+                .orElseThrow(() -> new RuntimeException("StockGroup not found with id " + groupId));
+        List<String> codes = group.getStocks().stream().map(Stock::getCode).sorted().toList();
+        if (codes.size() > properties.getMaxStocks()) {
+            throw new IllegalArgumentException("Stock group has more than " + properties.getMaxStocks() + " stocks.");
+        }
+        long version = group.getMember() != null ? watchlistVersions.current(group.getMember().getId()) : 0L;
+        // 版本只在本節點遞增，成分股也列入 key，其他節點修改群組時不會命中舊結果
+        Key key = new Key(groupId, version, days, codes);
+        CorrelationResponse cached = results.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        // 在快取的 mapping function 之外計算，大群組的計算不會鎖住快取中的其他 key；同時未命中的請求可能各自計算一次
+        CorrelationResponse response = compute(groupId, codes, days);
+        results.put(key, response);
+        return response;
+    }
+
+    private CorrelationResponse compute(Long groupId, List<String> codes, int days) {
+        // 多讀一些日曆天以涵蓋週末與連假，之後只保留最後 days + 1 個交易日
+        LocalDate today = LocalDate.now(clock.withZone(properties.getZone()));
+        LocalDate from = today.minusDays(days * 3L / 2 + 20);
+        Map<String, NavigableMap<LocalDate, Double>> closes = dailyCloseReader.read(codes, from);
+
+        TreeSet<LocalDate> allDays = new TreeSet<>();
+        closes.values().forEach(series -> allDays.addAll(series.keySet()));
+        List<LocalDate> tradingDays = new ArrayList<>(allDays);
+        tradingDays = tradingDays.subList(Math.max(0, tradingDays.size() - days - 1), tradingDays.size());
+        int observations = Math.max(0, tradingDays.size() - 1);
+
+        int stocks = codes.size();
+        double[] returns = new double[stocks * observations];
+        int[] coverage = new int[stocks];
+        for (int i = 0; i < stocks && observations > 0; i++) {
+            coverage[i] = fillReturns(closes.get(codes.get(i)), tradingDays, returns, i * observations);
+        }
+
+        CorrelationResponse.CorrelationResponseBuilder response = CorrelationResponse.builder()
+                .groupId(groupId)
+                .days(days)
+                .from(observations > 0 ? tradingDays.get(1) : null)
+                .to(observations > 0 ? tradingDays.get(observations) : null)
+                .observations(observations)
+                .codes(codes)
+                .coverage(coverage);
+        if (observations < 2) {
+            return response.covariance(empty(stocks)).correlation(empty(stocks)).build();
+        }
+        CorrelationMatrix matrix = computeTimer.record(() ->
+                CorrelationMatrix.compute(returns, stocks, observations, properties.getBlockSize(), analyticsPool));
+        Double[][] covariance = new Double[stocks][stocks];
+        Double[][] correlation = new Double[stocks][stocks];
+        for (int i = 0; i < stocks; i++) {
+            for (int j = 0; j < stocks; j++) {
+                covariance[i][j] = valueOf(matrix.covariance(i, j));
+                correlation[i][j] = valueOf(matrix.correlation(i, j));
+            }
+        }
+        return response.covariance(covariance).correlation(correlation).build();
+    }
+
+    /**
+     * 寫入一檔股票在各交易日的對數報酬率，回傳實際有收盤價的天數
+     * 當日沒有收盤價 (暫停交易) 時沿用前一個收盤價，報酬率為 0；第一個收盤價之前的天數以該股票的平均報酬率補齊
+     */
+    static int fillReturns(NavigableMap<LocalDate, Double> series, List<LocalDate> tradingDays, double[] returns, int offset) {
+        int observations = tradingDays.size() - 1;
+        if (series == null || series.isEmpty()) {
+            Arrays.fill(returns, offset, offset + observations, 0);
+            return 0;
+        }
+        Map.Entry<LocalDate, Double> start = series.floorEntry(tradingDays.get(0));
+        double previous = start != null ? start.getValue() : Double.NaN;
+        int covered = 0;
+        int known = 0;
+        double sum = 0;
+        for (int t = 0; t < observations; t++) {
+            Double close = series.get(tradingDays.get(t + 1));
+            double value;
+            if (Double.isNaN(previous)) {
+                value = Double.NaN; // 尚無收盤價 (期間內才開始有資料)
+            } else if (close == null) {
+                value = 0; // 暫停交易
+            } else {
+                value = Math.log(close / previous);
+                covered++;
+            }
+            if (close != null) {
+                previous = close;
+            }
+            returns[offset + t] = value;
+            if (!Double.isNaN(value)) {
+                sum += value;
+                known++;
+            }
+        }
+        double mean = known > 0 ? sum / known : 0;
+        for (int t = 0; t < observations; t++) {
+            if (Double.isNaN(returns[offset + t])) {
+                returns[offset + t] = mean;
+            }
+        }
+        return covered;
+    }
+
+    private static Double[][] empty(int stocks) {
+        return new Double[stocks][stocks];
+    }
+
+    private static Double valueOf(double value) {
+        return Double.isFinite(value) ? value : null;
+    }
+
+    private record Key(Long groupId, long version, int days, List<String> codes) {
+    }
+}
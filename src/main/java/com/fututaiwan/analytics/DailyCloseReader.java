@@ -0,0 +1,52 @@
+package com.fututaiwan.analytics;
+
+import com.fututaiwan.backtest.BarHistory;
+import com.fututaiwan.backtest.DailyBars;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * 每檔股票每個交易日的收盤價，讀自回測共用的日 K 線歷史檔 (BarHistory，memory-mapped)，不在請求路徑上彙整一分鐘 K 線
+ * 收盤價只到最近一次匯出 (POST /internal/bar-history/export) 為止：匯出後才收盤的交易日，要等下次匯出才會出現在結果中
+ */
+@Component
+public class DailyCloseReader {
+
+    private final BarHistory barHistory;
+
+    @Autowired
+    public DailyCloseReader(BarHistory barHistory) {
+        this.barHistory = barHistory;
+    }
+
+    /**
+     * @return 股票代碼 → (交易日 → 收盤價)；from (含) 之後沒有任何日 K 線的股票不在結果中
+     */
+    public Map<String, NavigableMap<LocalDate, Double>> read(Collection<String> codes, LocalDate from) {
+        int fromDay = (int) from.toEpochDay();
+        Map<String, NavigableMap<LocalDate, Double>> closes = new HashMap<>();
+        for (String code : codes) {
+            Optional<DailyBars> history = barHistory.get(code);
+            if (history.isEmpty()) {
+                continue;
+            }
+            DailyBars bars = history.get();
+            NavigableMap<LocalDate, Double> series = new TreeMap<>();
+            for (int i = bars.indexOf(fromDay); i < bars.count(); i++) {
+                series.put(LocalDate.ofEpochDay(bars.day(i)), bars.close(i));
+            }
+            if (!series.isEmpty()) {
+                closes.put(code, series);
+            }
+        }
+        return closes;
+    }
+}
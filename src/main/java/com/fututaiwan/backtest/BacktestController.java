@@ -0,0 +1,51 @@
+package com.fututaiwan.backtest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/backtests")
+public class BacktestController {
+
+    private final BacktestService backtestService;
+
+    @Autowired
+    public BacktestController(BacktestService backtestService) {
+        this.backtestService = backtestService;
+    }
+
+    // 提交回測，立即回傳 202 與工作 id，之後以 GET 查詢進度與結果
+    @PostMapping
+    public ResponseEntity<BacktestResponse> submit(@RequestBody BacktestRequest request) {
+        try {
+            return ResponseEntity.accepted().body(backtestService.submit(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build(); // 期間、資金、策略或群組股票數不合法
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build(); // 同時執行的回測已達上限
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build(); // StockGroup not found
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<BacktestResponse> getBacktest(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(backtestService.getBacktest(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // 取消回測
+    @DeleteMapping("/{id}")
+    public ResponseEntity<BacktestResponse> cancel(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(backtestService.cancel(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.fututaiwan.backtest;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 一次回測：群組每檔股票與每個策略的組合各是一個獨立任務，任務以索引 stock × strategies + strategy 編號
+ * 各任務把自己的權益曲線 (依交易日曆對齊) 加到所屬策略的投資組合曲線，最後一個完成的任務計算投資組合指標
+ */
+final class BacktestJob {
+
+    private final long id;
+    private final Long groupId;
+    private final LocalDate from;
+    private final LocalDate to;
+    private final double capital;
+    private final List<String> codes;
+    private final List<DailyBars> bars; // 沒有歷史檔的股票為 null
+    private final List<StrategySpec> strategies;
+    private final int[] calendar; // 回測期間內任一股票有 K 線的交易日 (epoch day)，遞增
+    private final double[][] curves; // [策略][交易日]
+    private final Outcome[] outcomes; // [任務]
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicReference<BacktestStatus> status = new AtomicReference<>(BacktestStatus.QUEUED);
+    private final Instant createdAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+    private volatile List<BacktestResponse.Strategy> summary;
+
+    BacktestJob(long id, Long groupId, LocalDate from, LocalDate to, double capital, List<String> codes, List<DailyBars> bars,
+                List<StrategySpec> strategies, int[] calendar, Instant createdAt) {
+        this.id = id;
+        this.groupId = groupId;
+        this.from = from;
+        this.to = to;
+        this.capital = capital;
+        this.codes = codes;
+        this.bars = bars;
+        this.strategies = strategies;
+        this.calendar = calendar;
+        this.curves = new double[strategies.size()][calendar.length];
+        this.outcomes = new Outcome[codes.size() * strategies.size()];
+        this.createdAt = createdAt;
+    }
+
+    long id() {
+        return id;
+    }
+
+    int total() {
+        return outcomes.length;
+    }
+
+    int completed() {
+        return completed.get();
+    }
+
+    BacktestStatus status() {
+        return status.get();
+    }
+
+    Instant createdAt() {
+        return createdAt;
+    }
+
+    Instant finishedAt() {
+        return finishedAt;
+    }
+
+    /**
+     * 執行一個任務；工作已終止 (取消或失敗) 時直接略過
+     *
+     * @return 是否為最後一個完成的任務
+     */
+    boolean run(int task, double commissionRate, double taxRate) {
+        if (status.get().isFinished()) {
+            return false;
+        }
+        status.compareAndSet(BacktestStatus.QUEUED, BacktestStatus.RUNNING);
+        int stock = task / strategies.size();
+        int strategy = task % strategies.size();
+        double allocation = capital / codes.size();
+        double[] local = new double[calendar.length];
+        DailyBars series = bars.get(stock);
+        int first = series == null ? 0 : series.indexOf(calendar.length > 0 ? calendar[0] : 0);
+        int last = series == null || calendar.length == 0 ? -1 : series.indexOf(calendar[calendar.length - 1] + 1) - 1;
+        Backtester.Run run = first <= last
+                ? Backtester.simulate(series, first, last, strategies.get(strategy), allocation, commissionRate, taxRate)
+                : new Backtester.Run(new double[0], 0, 0);
+
+        // 第一根 K 線之前以現金計，最後一根 K 線之後 (下市、停止交易) 沿用最後的權益
+        double[] equity = run.equity();
+        double value = allocation;
+        for (int c = 0, b = 0; c < calendar.length; c++) {
+            if (b < equity.length && series.day(first + b) == calendar[c]) {
+                value = equity[b++];
+            }
+            local[c] = value;
+        }
+        outcomes[task] = new Outcome(equity.length, value, run.trades(), run.wins());
+        double[] curve = curves[strategy];
+        synchronized (curve) {
+            for (int c = 0; c < curve.length; c++) {
+                curve[c] += local[c];
+            }
+        }
+        return completed.incrementAndGet() == outcomes.length;
+    }
+
+    /**
+     * 所有任務完成後計算各策略的投資組合指標
+     */
+    void complete(Instant now) {
+        List<BacktestResponse.Strategy> results = new ArrayList<>();
+        for (int s = 0; s < strategies.size(); s++) {
+            double[] curve = curves[s];
+            synchronized (curve) {
+                results.add(summarize(strategies.get(s).label(), curve.clone(), s));
+            }
+        }
+        summary = results;
+        if (status.compareAndSet(BacktestStatus.RUNNING, BacktestStatus.COMPLETED)) {
+            finishedAt = now;
+        }
+    }
+
+    /**
+     * @return 是否由本次呼叫終止
+     */
+    boolean cancel(Instant now) {
+        return finish(BacktestStatus.CANCELLED, null, now);
+    }
+
+    boolean fail(Throwable cause, Instant now) {
+        return finish(BacktestStatus.FAILED, cause.toString(), now);
+    }
+
+    private boolean finish(BacktestStatus target, String message, Instant now) {
+        BacktestStatus current;
+        do {
+            current = status.get();
+            if (current.isFinished()) {
+                return false;
+            }
+        } while (!status.compareAndSet(current, target));
+        error = message;
+        finishedAt = now;
+        return true;
+    }
+
+    private BacktestResponse.Strategy summarize(String label, double[] curve, int strategy) {
+        int trades = 0;
+        int wins = 0;
+        for (int stock = 0; stock < codes.size(); stock++) {
+            Outcome outcome = outcomes[stock * strategies.size() + strategy];
+            trades += outcome.trades();
+            wins += outcome.wins();
+        }
+        double finalEquity = curve.length > 0 ? curve[curve.length - 1] : capital;
+        double peak = capital;
+        double maxDrawdown = 0;
+        double sum = 0;
+        double sumOfSquares = 0;
+        double previous = capital;
+        for (double value : curve) {
+            peak = Math.max(peak, value);
+            maxDrawdown = Math.max(maxDrawdown, 1 - value / peak);
+            double daily = value / previous - 1;
+            sum += daily;
+            sumOfSquares += daily * daily;
+            previous = value;
+        }
+        int n = curve.length;
+        double variance = n > 1 ? (sumOfSquares - sum * sum / n) / (n - 1) : 0;
+        double years = n > 1 ? (calendar[n - 1] - calendar[0]) / 365.25 : 0;
+        return BacktestResponse.Strategy.builder()
+                .strategy(label)
+                .equity(curve)
+                .finalEquity(finalEquity)
+                .totalReturn(finalEquity / capital - 1)
+                .annualizedReturn(years > 0 ? Math.pow(finalEquity / capital, 1 / years) - 1 : null)
+                .maxDrawdown(maxDrawdown)
+                .sharpeRatio(variance > 0 ? sum / n / Math.sqrt(variance) * Math.sqrt(252) : null)
+                .trades(trades)
+                .winningTrades(wins)
+                .build();
+    }
+
+    BacktestResponse toResponse() {
+        BacktestStatus current = status.get();
+        BacktestResponse.BacktestResponseBuilder response = BacktestResponse.builder()
+                .id(id)
+                .groupId(groupId)
+                .status(current)
+                .from(from)
+                .to(to)
+                .capital(capital)
+                .completedTasks(completed.get())
+                .totalTasks(outcomes.length)
+                .createdAt(createdAt)
+                .finishedAt(finishedAt)
+                .error(error);
+        if (current == BacktestStatus.COMPLETED) {
+            List<LocalDate> dates = new ArrayList<>(calendar.length);
+            for (int day : calendar) {
+                dates.add(LocalDate.ofEpochDay(day));
+            }
+            double allocation = capital / codes.size();
+            List<BacktestResponse.Stock> stocks = new ArrayList<>(outcomes.length);
+            for (int task = 0; task < outcomes.length; task++) {
+                Outcome outcome = outcomes[task];
+                stocks.add(BacktestResponse.Stock.builder()
+                        .code(codes.get(task / strategies.size()))
+                        .strategy(strategies.get(task % strategies.size()).label())
+                        .bars(outcome.bars())
+                        .finalEquity(outcome.finalEquity())
+                        .totalReturn(outcome.finalEquity() / allocation - 1)
+                        .trades(outcome.trades())
+                        .winningTrades(outcome.wins())
+                        .build());
+            }
+            response.dates(dates).strategies(summary).stocks(stocks);
+        }
+        return response.build();
+    }
+
+    private record Outcome(int bars, double finalEquity, int trades, int wins) {
+    }
+}
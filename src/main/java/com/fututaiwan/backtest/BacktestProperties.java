@@ -0,0 +1,42 @@
+package com.fututaiwan.backtest;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.ZoneId;
+
+/**
+ * 回測的設定 (fututaiwan.backtest.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "fututaiwan.backtest")
+public class BacktestProperties {
+
+    // 日 K 線歷史檔 (每檔股票一個 <code>.bars) 的目錄，以 memory-mapped 方式讀取
+    private Path historyDirectory = Paths.get("data", "bars");
+
+    // 回測 work-stealing pool 的執行緒數，0 表示 CPU 核心數
+    private int parallelism = 0;
+
+    // 單一回測的上限：群組股票數、策略數
+    private int maxStocks = 2_000;
+    private int maxStrategies = 10;
+
+    // 同時排隊或執行中的回測數上限；完成的回測保留 jobRetention 後移除
+    private int maxActiveJobs = 4;
+    private Duration jobRetention = Duration.ofHours(1);
+
+    // 未指定時的初始資金，平均分配給每檔股票
+    private double defaultCapital = 1_000_000;
+
+    // 由一分鐘 K 線彙整日 K 線時，以此時區切分交易日；每次彙整查詢的股票數
+    private ZoneId zone = ZoneId.of("Asia/Taipei");
+    private int exportBatchSize = 50;
+
+    // 交易成本：手續費 (買賣皆收) 與證券交易稅 (賣出時收)
+    private double commissionRate = 0.001425;
+    private double taxRate = 0.003;
+}
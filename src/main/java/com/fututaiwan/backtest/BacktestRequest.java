@@ -0,0 +1,30 @@
+package com.fututaiwan.backtest;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 回測請求 (Backtest Request)
+ * 每個策略各自以 capital 為初始資金，平均分配給群組內每檔股票
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BacktestRequest {
+
+    private Long groupId;
+
+    private LocalDate from;
+
+    private LocalDate to;
+
+    private Double capital; // 未指定時使用 fututaiwan.backtest.default-capital
+
+    private List<StrategySpec> strategies;
+}
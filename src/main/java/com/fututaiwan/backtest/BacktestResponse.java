@@ -0,0 +1,79 @@
+package com.fututaiwan.backtest;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 回測工作狀態與結果 (Backtest Response)
+ * dates、strategies 與 stocks 只在 COMPLETED 時提供；無法計算的指標為 null
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BacktestResponse {
+
+    private Long id;
+
+    private Long groupId;
+
+    private BacktestStatus status;
+
+    private LocalDate from;
+
+    private LocalDate to;
+
+    private double capital;
+
+    private int completedTasks; // 已完成的 (股票, 策略) 組合數
+
+    private int totalTasks;
+
+    private Instant createdAt;
+
+    private Instant finishedAt;
+
+    private String error;
+
+    private List<LocalDate> dates; // 權益曲線的交易日
+
+    private List<Strategy> strategies;
+
+    private List<Stock> stocks;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Strategy {
+        private String strategy;
+        private double[] equity; // 投資組合每個交易日收盤的權益
+        private double finalEquity;
+        private double totalReturn;
+        private Double annualizedReturn;
+        private double maxDrawdown; // 相對前高的最大跌幅 (正值)
+        private Double sharpeRatio; // 日報酬率年化，無風險利率視為 0
+        private int trades;
+        private int winningTrades;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Stock {
+        private String code;
+        private String strategy;
+        private int bars; // 回測期間內的 K 線數，0 表示沒有歷史資料 (資金全程持有現金)
+        private double finalEquity;
+        private double totalReturn;
+        private int trades;
+        private int winningTrades;
+    }
+}
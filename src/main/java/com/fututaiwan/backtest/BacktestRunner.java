@@ -0,0 +1,107 @@
+package com.fututaiwan.backtest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 在回測專用的 work-stealing pool 上執行回測工作
+ * 每個工作的任務區間以 fork-join 對半切分到單一 (股票, 策略) 組合，閒置的執行緒從其他執行緒的佇列竊取尚未開始的區間，
+ * 不同股票的 K 線數不同也能維持負載平衡；pool 隨應用程式生命週期建立與關閉，不與分析計算的 pool 共用
+ */
+@Component
+public class BacktestRunner implements SmartLifecycle {
+
+    private final BacktestProperties properties;
+    private final Clock clock;
+    private final Timer jobTimer;
+    private volatile ForkJoinPool pool;
+
+    @Autowired
+    public BacktestRunner(BacktestProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Clock.systemUTC());
+    }
+
+    BacktestRunner(BacktestProperties properties, MeterRegistry meterRegistry, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+        this.jobTimer = Timer.builder("backtest.job.duration")
+                .description("Time from submitting a backtest until all of its tasks have completed")
+                .register(meterRegistry);
+    }
+
+    void submit(BacktestJob job) {
+        ForkJoinPool current = pool;
+        if (current == null) {
+            throw new IllegalStateException("Backtest runner is not running.");
+        }
+        current.execute(new Tasks(job, 0, job.total()));
+    }
+
+    @Override
+    public void start() {
+        int parallelism = properties.getParallelism() > 0 ? properties.getParallelism() : Runtime.getRuntime().availableProcessors();
+        pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("backtest-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    @Override
+    public void stop() {
+        ForkJoinPool current = pool;
+        pool = null;
+        if (current != null) {
+            current.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return pool != null;
+    }
+
+    private final class Tasks extends RecursiveAction {
+
+        private final BacktestJob job;
+        private final int from;
+        private final int to;
+
+        Tasks(BacktestJob job, int from, int to) {
+            this.job = job;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (job.status().isFinished()) {
+                return; // 已取消，尚未開始的區間不再切分
+            }
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Tasks(job, from, middle), new Tasks(job, middle, to));
+                return;
+            }
+            try {
+                if (from < to && job.run(from, properties.getCommissionRate(), properties.getTaxRate())) {
+                    Instant now = clock.instant();
+                    job.complete(now);
+                    jobTimer.record(Duration.between(job.createdAt(), now));
+                }
+            } catch (RuntimeException e) {
+                job.fail(e, clock.instant());
+            }
+        }
+    }
+}
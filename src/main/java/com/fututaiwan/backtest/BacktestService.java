@@ -0,0 +1,193 @@
+package com.fututaiwan.backtest;
+
+import com.fututaiwan.stock.Stock;
+import com.fututaiwan.stockgroup.StockGroup;
+import com.fututaiwan.stockgroup.StockGroupService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 股票群組的策略回測
+ * 回測非同步執行：提交後立即回傳工作 id，以查詢取得進度與結果，可隨時取消
+ * 日 K 線以 memory-mapped 方式直接自歷史檔讀取 (BarHistory)，不複製到 heap；工作只保存在本節點記憶體中
+ */
+@Service
+public class BacktestService {
+
+    private final StockGroupService stockGroupService;
+    private final BarHistory barHistory;
+    private final BacktestRunner backtestRunner;
+    private final BacktestProperties properties;
+    private final Clock clock;
+    private final Map<Long, BacktestJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final Object admission = new Object();
+
+    @Autowired
+    public BacktestService(StockGroupService stockGroupService, BarHistory barHistory, BacktestRunner backtestRunner,
+                           BacktestProperties properties, MeterRegistry meterRegistry) {
+        this(stockGroupService, barHistory, backtestRunner, properties, meterRegistry, Clock.systemUTC());
+    }
+
+    BacktestService(StockGroupService stockGroupService, BarHistory barHistory, BacktestRunner backtestRunner,
+                    BacktestProperties properties, MeterRegistry meterRegistry, Clock clock) {
+        this.stockGroupService = stockGroupService;
+        this.barHistory = barHistory;
+        this.backtestRunner = backtestRunner;
+        this.properties = properties;
+        this.clock = clock;
+        Gauge.builder("backtest.jobs.active", this, BacktestService::activeJobs)
+                .description("Backtests that are queued or running")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 提交回測
+     *
+     * @throws RuntimeException         群組不存在
+     * @throws IllegalArgumentException 期間、資金、策略或群組股票數不合法，或期間內沒有任何 K 線
+     * @throws IllegalStateException    同時執行的回測已達上限
+     */
+    public BacktestResponse submit(BacktestRequest request) {
+        if (request.getFrom() == null || request.getTo() == null || request.getFrom().isAfter(request.getTo())) {
+            throw new IllegalArgumentException("A period with from <= to is required.");
+        }
+        double capital = request.getCapital() != null ? request.getCapital() : properties.getDefaultCapital();
+        if (!(capital > 0) || Double.isInfinite(capital)) {
+            throw new IllegalArgumentException("Capital must be positive: " + capital);
+        }
+        List<StrategySpec> strategies = request.getStrategies();
+        if (strategies == null || strategies.isEmpty() || strategies.size() > properties.getMaxStrategies()) {
+            throw new IllegalArgumentException("Between 1 and " + properties.getMaxStrategies() + " strategies are required.");
+        }
+        strategies.forEach(StrategySpec::validate);
+
+        StockGroup group = stockGroupService.getStockGroupById(request.getGroupId())
+                .orElseThrow(() -> new RuntimeException("StockGroup not found with id " + request.getGroupId()));
+        List<String> codes = group.getStocks().stream().map(Stock::getCode).sorted().toList();
+        if (codes.isEmpty() || codes.size() > properties.getMaxStocks()) {
+            throw new IllegalArgumentException("Stock group must have between 1 and " + properties.getMaxStocks() + " stocks.");
+        }
+
+        List<DailyBars> bars = new ArrayList<>(codes.size());
+        for (String code : codes) {
+            bars.add(barHistory.get(code).orElse(null));
+        }
+        int[] calendar = calendar(bars, (int) request.getFrom().toEpochDay(), (int) request.getTo().toEpochDay());
+        if (calendar.length == 0) {
+            throw new IllegalArgumentException("No daily bars between " + request.getFrom() + " and " + request.getTo());
+        }
+        BacktestJob job = new BacktestJob(ids.incrementAndGet(), group.getId(), request.getFrom(), request.getTo(), capital,
+                codes, bars, List.copyOf(strategies), calendar, clock.instant());
+        // 檢查上限與登記工作在同一個臨界區內，並行的提交不會超過上限
+        synchronized (admission) {
+            purgeFinished();
+            if (activeJobs() >= properties.getMaxActiveJobs()) {
+                throw new IllegalStateException("Too many backtests running, at most " + properties.getMaxActiveJobs());
+            }
+            jobs.put(job.id(), job);
+        }
+        try {
+            backtestRunner.submit(job);
+        } catch (IllegalStateException e) {
+            jobs.remove(job.id());
+            throw e;
+        }
+        return job.toResponse();
+    }
+
+    /**
+     * @throws RuntimeException 回測不存在 (或已超過保留時間)
+     */
+    public BacktestResponse getBacktest(Long id) {
+        return find(id).toResponse();
+    }
+
+    /**
+     * 取消尚未完成的回測；已開始的 (股票, 策略) 任務會執行完畢，其餘不再執行。已終止的回測維持原狀態
+     *
+     * @throws RuntimeException 回測不存在
+     */
+    public BacktestResponse cancel(Long id) {
+        BacktestJob job = find(id);
+        job.cancel(clock.instant());
+        return job.toResponse();
+    }
+
+    private BacktestJob find(Long id) {
+        purgeFinished();
+        BacktestJob job = id != null ? jobs.get(id) : null;
+        if (job == null) {
+            throw new RuntimeException("Backtest not found with id " + id);
+        }
+        return job;
+    }
+
+    private void purgeFinished() {
+        Instant expired = clock.instant().minus(properties.getJobRetention());
+        jobs.values().removeIf(job -> job.status().isFinished() && job.finishedAt() != null && job.finishedAt().isBefore(expired));
+    }
+
+    private int activeJobs() {
+        int active = 0;
+        for (BacktestJob job : jobs.values()) {
+            if (!job.status().isFinished()) {
+                active++;
+            }
+        }
+        return active;
+    }
+
+    /**
+     * 期間內任一股票有 K 線的交易日 (遞增的 epoch day)
+     */
+    static int[] calendar(List<DailyBars> bars, int fromDay, int toDay) {
+        int first = Integer.MAX_VALUE;
+        int last = Integer.MIN_VALUE;
+        for (DailyBars series : bars) {
+            if (series == null) {
+                continue;
+            }
+            int low = series.indexOf(fromDay);
+            int high = series.indexOf(toDay + 1) - 1;
+            if (low <= high) {
+                first = Math.min(first, series.day(low));
+                last = Math.max(last, series.day(high));
+            }
+        }
+        if (first > last) {
+            return new int[0];
+        }
+        boolean[] traded = new boolean[last - first + 1];
+        int count = 0;
+        for (DailyBars series : bars) {
+            if (series == null) {
+                continue;
+            }
+            for (int i = series.indexOf(first), end = series.indexOf(last + 1); i < end; i++) {
+                if (!traded[series.day(i) - first]) {
+                    traded[series.day(i) - first] = true;
+                    count++;
+                }
+            }
+        }
+        int[] days = new int[count];
+        for (int day = 0, next = 0; day < traded.length; day++) {
+            if (traded[day]) {
+                days[next++] = first + day;
+            }
+        }
+        return days;
+    }
+}
@@ -0,0 +1,16 @@
+package com.fututaiwan.backtest;
+
+/**
+ * 回測工作狀態；COMPLETED、CANCELLED、FAILED 為終止狀態
+ */
+public enum BacktestStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    CANCELLED,
+    FAILED;
+
+    boolean isFinished() {
+        return this == COMPLETED || this == CANCELLED || this == FAILED;
+    }
+}
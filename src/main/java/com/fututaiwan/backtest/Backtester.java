@@ -0,0 +1,156 @@
+package com.fututaiwan.backtest;
+
+/**
+ * 單一股票、單一策略的日 K 線回測 (只做多、全額進出、可買零股)
+ * 訊號在第 i 日收盤後決定，於第 i + 1 日開盤價成交，避免使用當日尚未知道的資訊；
+ * 回測期間之前的 K 線只用來暖機指標，不交易。權益為每日收盤時的現金加持股市值
+ */
+final class Backtester {
+
+    private Backtester() {
+    }
+
+    /**
+     * @param first 回測期間第一根 K 線的索引
+     * @param last  回測期間最後一根 K 線的索引 (含)
+     */
+    static Run simulate(DailyBars bars, int first, int last, StrategySpec strategy, double capital, double commissionRate, double taxRate) {
+        int start = Math.max(0, first - strategy.lookback());
+        Rule rule = strategy.getType() == StrategyType.SMA_CROSSOVER
+                ? new SmaCrossover(bars, start, strategy.getFast(), strategy.getSlow())
+                : new Breakout(bars, start, last + 1, strategy.getEntry(), strategy.getExit());
+        double[] equity = new double[Math.max(0, last - first + 1)];
+        double cash = capital;
+        double shares = 0;
+        double invested = 0;
+        boolean pending = false;
+        int trades = 0;
+        int wins = 0;
+        for (int i = start; i <= last; i++) {
+            if (i >= first) {
+                double open = bars.open(i);
+                if (pending && open > 0) {
+                    if (shares == 0) {
+                        invested = cash;
+                        shares = cash / (open * (1 + commissionRate));
+                        cash = 0;
+                        trades++;
+                    } else {
+                        cash = shares * open * (1 - commissionRate - taxRate);
+                        shares = 0;
+                        if (cash > invested) {
+                            wins++;
+                        }
+                    }
+                }
+                pending = false;
+                equity[i - first] = cash + shares * bars.close(i);
+            }
+            boolean hold = rule.hold(i);
+            if (i >= first && hold != (shares > 0)) {
+                pending = true;
+            }
+        }
+        return new Run(equity, trades, wins);
+    }
+
+    /**
+     * @param equity 回測期間每根 K 線收盤時的權益
+     * @param trades 進場次數 (期末仍持有的部位也計入)
+     * @param wins   出場後獲利的次數
+     */
+    record Run(double[] equity, int trades, int wins) {
+    }
+
+    // 依序餵入每根 K 線 (索引遞增)，回傳收盤後是否應持有
+    private interface Rule {
+        boolean hold(int index);
+    }
+
+    private static final class SmaCrossover implements Rule {
+
+        private final DailyBars bars;
+        private final int start;
+        private final int fast;
+        private final int slow;
+        private double fastSum;
+        private double slowSum;
+
+        SmaCrossover(DailyBars bars, int start, int fast, int slow) {
+            this.bars = bars;
+            this.start = start;
+            this.fast = fast;
+            this.slow = slow;
+        }
+
+        @Override
+        public boolean hold(int index) {
+            double close = bars.close(index);
+            fastSum += close;
+            slowSum += close;
+            int seen = index - start + 1;
+            if (seen > fast) {
+                fastSum -= bars.close(index - fast);
+            }
+            if (seen > slow) {
+                slowSum -= bars.close(index - slow);
+            }
+            return seen >= slow && fastSum / fast > slowSum / slow;
+        }
+    }
+
+    // 以單調佇列維護前 entry 日的最高價與前 exit 日的最低價，每根 K 線攤銷 O(1)
+    private static final class Breakout implements Rule {
+
+        private final DailyBars bars;
+        private final int start;
+        private final int entry;
+        private final int exit;
+        private final int[] highs;
+        private final int[] lows;
+        private int highHead;
+        private int highTail;
+        private int lowHead;
+        private int lowTail;
+        private boolean holding;
+
+        Breakout(DailyBars bars, int start, int end, int entry, int exit) {
+            this.bars = bars;
+            this.start = start;
+            this.entry = entry;
+            this.exit = exit;
+            this.highs = new int[Math.max(1, end - start)];
+            this.lows = new int[Math.max(1, end - start)];
+        }
+
+        @Override
+        public boolean hold(int index) {
+            if (index > start) {
+                // 加入前一根 K 線，移出超出回顧天數的 K 線
+                int previous = index - 1;
+                while (highTail > highHead && bars.high(highs[highTail - 1]) <= bars.high(previous)) {
+                    highTail--;
+                }
+                highs[highTail++] = previous;
+                while (lowTail > lowHead && bars.low(lows[lowTail - 1]) >= bars.low(previous)) {
+                    lowTail--;
+                }
+                lows[lowTail++] = previous;
+                while (highs[highHead] < index - entry) {
+                    highHead++;
+                }
+                while (lows[lowHead] < index - exit) {
+                    lowHead++;
+                }
+            }
+            int seen = index - start;
+            double close = bars.close(index);
+            if (!holding && seen >= entry && close > bars.high(highs[highHead])) {
+                holding = true;
+            } else if (holding && seen >= exit && close < bars.low(lows[lowHead])) {
+                holding = false;
+            }
+            return holding;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.fututaiwan.backtest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * 日 K 線歷史檔的目錄：每檔股票一個 memory-mapped 的 DailyBars，映射後快取重複使用
+ * 檔案被替換 (修改時間改變) 時重新映射；映射的記憶體由 OS 的 page cache 管理，不佔用 heap
+ */
+@Component
+public class BarHistory {
+
+    private static final Pattern CODE = Pattern.compile("[A-Za-z0-9._-]{1,20}");
+
+    private final Path directory;
+    private final Map<String, Mapped> mapped = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BarHistory(BacktestProperties properties) {
+        this(properties.getHistoryDirectory());
+    }
+
+    BarHistory(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * 股票的日 K 線；沒有歷史檔時為空
+     */
+    public Optional<DailyBars> get(String code) {
+        Path file = fileOf(code);
+        FileTime modified;
+        try {
+            modified = Files.getLastModifiedTime(file);
+        } catch (NoSuchFileException e) {
+            mapped.remove(code);
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Mapped current = mapped.get(code);
+        if (current != null && current.modified().equals(modified)) {
+            return Optional.of(current.bars());
+        }
+        try {
+            DailyBars bars = DailyBars.map(code, file);
+            mapped.put(code, new Mapped(bars, modified));
+            return Optional.of(bars);
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 寫入 (整個替換) 股票的日 K 線
+     */
+    public void write(String code, int[] days, double[] open, double[] high, double[] low, double[] close, long[] volume) throws IOException {
+        DailyBars.write(fileOf(code), days, open, high, low, close, volume);
+        mapped.remove(code);
+    }
+
+    /**
+     * @throws IllegalArgumentException 代碼不能做為歷史檔名
+     */
+    static void checkCode(String code) {
+        // 代碼會成為檔名，限制字元避免路徑穿越
+        if (code == null || !CODE.matcher(code).matches()) {
+            throw new IllegalArgumentException("Invalid stock code: " + code);
+        }
+    }
+
+    private Path fileOf(String code) {
+        checkCode(code);
+        return directory.resolve(code + ".bars");
+    }
+
+    private record Mapped(DailyBars bars, FileTime modified) {
+    }
+}
@@ -0,0 +1,48 @@
+package com.fututaiwan.backtest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 維運用端點：由一分鐘 K 線重建回測使用的日 K 線歷史檔
+ * /internal/** 只接受帶有節點 token 的請求 (InternalAuthFilter)；匯出在背景執行
+ */
+@RestController
+@RequestMapping("/internal/bar-history")
+public class BarHistoryController {
+
+    private final BarHistoryExportService barHistoryExportService;
+
+    @Autowired
+    public BarHistoryController(BarHistoryExportService barHistoryExportService) {
+        this.barHistoryExportService = barHistoryExportService;
+    }
+
+    // 提交匯出，立即回傳 202 與工作 id；未指定 codes 時匯出所有股票
+    @PostMapping("/export")
+    public ResponseEntity<BarHistoryExportResponse> export(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                           @RequestParam(required = false) List<String> codes) {
+        try {
+            return ResponseEntity.accepted().body(barHistoryExportService.submit(codes, from));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build(); // 不合法的股票代碼
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build(); // 已有匯出正在執行
+        }
+    }
+
+    @GetMapping("/export/{id}")
+    public ResponseEntity<BarHistoryExportResponse> getExport(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(barHistoryExportService.getExport(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
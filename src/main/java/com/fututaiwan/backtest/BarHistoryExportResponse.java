@@ -0,0 +1,37 @@
+package com.fututaiwan.backtest;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * 日 K 線歷史檔匯出工作的狀態 (Bar History Export Response)；匯出不能取消，不會是 CANCELLED
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BarHistoryExportResponse {
+
+    private Long id;
+
+    private BacktestStatus status;
+
+    private LocalDate from;
+
+    private int totalStocks; // 開始執行後才確定 (未指定股票時為所有股票)
+
+    private int processedStocks;
+
+    private int writtenStocks; // 有 K 線而寫入歷史檔的股票數，完成時才確定
+
+    private Instant createdAt;
+
+    private Instant finishedAt;
+
+    private String error; // 失敗原因
+}
@@ -0,0 +1,167 @@
+package com.fututaiwan.backtest;
+
+import com.fututaiwan.stock.Stock;
+import com.fututaiwan.stock.StockService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 在背景執行日 K 線歷史檔的匯出 (BarHistoryExporter)：提交後立即回傳工作 id，以查詢取得進度
+ * 同一時間只執行一個匯出，只保留最近一次的狀態；工作只保存在本節點記憶體中
+ */
+@Service
+public class BarHistoryExportService implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(BarHistoryExportService.class);
+
+    private final BarHistoryExporter exporter;
+    private final StockService stockService;
+    private final Executor executor;
+    private final Clock clock;
+    private final AtomicReference<Export> latest = new AtomicReference<>();
+    private final AtomicLong ids = new AtomicLong();
+    private volatile boolean running;
+
+    @Autowired
+    public BarHistoryExportService(BarHistoryExporter exporter, StockService stockService) {
+        this(exporter, stockService, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "bar-history-export");
+            thread.setDaemon(true);
+            return thread;
+        }), Clock.systemUTC());
+    }
+
+    BarHistoryExportService(BarHistoryExporter exporter, StockService stockService, Executor executor, Clock clock) {
+        this.exporter = exporter;
+        this.stockService = stockService;
+        this.executor = executor;
+        this.clock = clock;
+    }
+
+    /**
+     * 提交匯出；未指定 codes 時匯出所有股票
+     *
+     * @throws IllegalArgumentException 缺少起始日或股票代碼不合法
+     * @throws IllegalStateException    已有匯出正在執行
+     */
+    public BarHistoryExportResponse submit(List<String> codes, LocalDate from) {
+        if (from == null) {
+            throw new IllegalArgumentException("A start day is required.");
+        }
+        List<String> targets = codes != null && !codes.isEmpty() ? List.copyOf(codes) : null;
+        if (targets != null) {
+            targets.forEach(BarHistory::checkCode);
+        }
+        Export export = new Export(ids.incrementAndGet(), from, clock.instant());
+        Export current;
+        do {
+            current = latest.get();
+            if (current != null && !current.status.isFinished()) {
+                throw new IllegalStateException("Bar history export " + current.id + " is still running.");
+            }
+        } while (!latest.compareAndSet(current, export));
+        try {
+            executor.execute(() -> run(export, targets));
+        } catch (RejectedExecutionException e) {
+            export.finish(BacktestStatus.FAILED, e.toString(), clock.instant());
+            throw new IllegalStateException("Bar history export is not running.", e);
+        }
+        return export.toResponse();
+    }
+
+    /**
+     * @throws RuntimeException 匯出不存在 (或已被較新的匯出取代)
+     */
+    public BarHistoryExportResponse getExport(Long id) {
+        Export export = latest.get();
+        if (export == null || id == null || export.id != id) {
+            throw new RuntimeException("Bar history export not found with id " + id);
+        }
+        return export.toResponse();
+    }
+
+    private void run(Export export, List<String> codes) {
+        export.status = BacktestStatus.RUNNING;
+        try {
+            List<String> targets = codes != null ? codes
+                    : stockService.getAllStocks().stream().map(Stock::getCode).sorted().toList();
+            export.total = targets.size();
+            export.written = exporter.export(targets, export.from, processed -> export.processed = processed);
+            export.finish(BacktestStatus.COMPLETED, null, clock.instant());
+        } catch (RuntimeException e) {
+            log.warn("Bar history export {} failed", export.id, e);
+            export.finish(BacktestStatus.FAILED, e.toString(), clock.instant());
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (executor instanceof ExecutorService service) {
+            service.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private static final class Export {
+
+        final long id;
+        final LocalDate from;
+        final Instant createdAt;
+        volatile BacktestStatus status = BacktestStatus.QUEUED;
+        volatile int total;
+        volatile int processed;
+        volatile int written;
+        volatile Instant finishedAt;
+        volatile String error;
+
+        Export(long id, LocalDate from, Instant createdAt) {
+            this.id = id;
+            this.from = from;
+            this.createdAt = createdAt;
+        }
+
+        void finish(BacktestStatus target, String message, Instant now) {
+            error = message;
+            finishedAt = now;
+            status = target; // 最後寫入，查詢看到終止狀態時其他欄位已就緒
+        }
+
+        BarHistoryExportResponse toResponse() {
+            return BarHistoryExportResponse.builder()
+                    .id(id)
+                    .status(status)
+                    .from(from)
+                    .totalStocks(total)
+                    .processedStocks(processed)
+                    .writtenStocks(written)
+                    .createdAt(createdAt)
+                    .finishedAt(finishedAt)
+                    .error(error)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.fututaiwan.backtest;
+
+import com.fututaiwan.quote.QuoteHistoryProperties;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.IntConsumer;
+
+/**
+ * 由 Mongo 的一分鐘 K 線 (QuoteHistoryWriter 寫入) 彙整日 K 線並寫入 BarHistory 的歷史檔
+ * 彙整在 Mongo 端完成 (每日第一根的開盤、最高、最低、最後一根的收盤、成交量合計)；
+ * from 之前的既有日 K 線保留，from 之後的整段替換，重複執行結果相同
+ */
+@Component
+public class BarHistoryExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(BarHistoryExporter.class);
+
+    private final MongoDatabaseFactory databaseFactory;
+    private final QuoteHistoryProperties historyProperties;
+    private final BarHistory barHistory;
+    private final BacktestProperties properties;
+
+    @Autowired
+    public BarHistoryExporter(MongoDatabaseFactory databaseFactory, QuoteHistoryProperties historyProperties, BarHistory barHistory,
+                              BacktestProperties properties) {
+        this.databaseFactory = databaseFactory;
+        this.historyProperties = historyProperties;
+        this.barHistory = barHistory;
+        this.properties = properties;
+    }
+
+    /**
+     * 匯出 from (含) 之後的日 K 線，回傳寫入的股票數；沒有任何 K 線的股票不寫入
+     */
+    public int export(List<String> codes, LocalDate from) {
+        return export(codes, from, processed -> {
+        });
+    }
+
+    /**
+     * 同 export(codes, from)，每彙整完一批後以已處理的股票數呼叫 progress
+     */
+    int export(List<String> codes, LocalDate from, IntConsumer progress) {
+        int written = 0;
+        for (int start = 0; start < codes.size(); start += properties.getExportBatchSize()) {
+            List<String> batch = codes.subList(start, Math.min(codes.size(), start + properties.getExportBatchSize()));
+            Map<String, List<Document>> days = aggregate(batch, from);
+            for (Map.Entry<String, List<Document>> entry : days.entrySet()) {
+                write(entry.getKey(), entry.getValue(), (int) from.toEpochDay());
+                written++;
+            }
+            progress.accept(start + batch.size());
+        }
+        log.info("Exported daily bars of {} stocks since {}", written, from);
+        return written;
+    }
+
+    private Map<String, List<Document>> aggregate(List<String> codes, LocalDate from) {
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("code", new Document("$in", codes))
+                        .append("timestamp", new Document("$gte", Date.from(from.atStartOfDay(properties.getZone()).toInstant())))),
+                new Document("$sort", new Document("timestamp", 1)),
+                new Document("$group", new Document("_id", new Document("code", "$code")
+                        .append("day", new Document("$dateToString", new Document("format", "%Y-%m-%d")
+                                .append("date", "$timestamp")
+                                .append("timezone", properties.getZone().getId()))))
+                        .append("open", new Document("$first", "$open"))
+                        .append("high", new Document("$max", "$high"))
+                        .append("low", new Document("$min", "$low"))
+                        .append("close", new Document("$last", "$close"))
+                        .append("volume", new Document("$sum", "$volume"))),
+                new Document("$sort", new Document("_id.code", 1).append("_id.day", 1)));
+        Map<String, List<Document>> days = new HashMap<>();
+        for (Document row : databaseFactory.getMongoDatabase().getCollection(historyProperties.getBarCollection())
+                .aggregate(pipeline).allowDiskUse(true)) {
+            days.computeIfAbsent(row.get("_id", Document.class).getString("code"), code -> new ArrayList<>()).add(row);
+        }
+        return days;
+    }
+
+    private void write(String code, List<Document> rows, int fromDay) {
+        Optional<DailyBars> existing = barHistory.get(code);
+        int kept = existing.map(bars -> bars.indexOf(fromDay)).orElse(0);
+        int count = kept + rows.size();
+        int[] day = new int[count];
+        double[] open = new double[count];
+        double[] high = new double[count];
+        double[] low = new double[count];
+        double[] close = new double[count];
+        long[] volume = new long[count];
+        if (existing.isPresent()) {
+            DailyBars bars = existing.get();
+            for (int i = 0; i < kept; i++) {
+                day[i] = bars.day(i);
+                open[i] = bars.open(i);
+                high[i] = bars.high(i);
+                low[i] = bars.low(i);
+                close[i] = bars.close(i);
+                volume[i] = bars.volume(i);
+            }
+        }
+        for (int i = 0; i < rows.size(); i++) {
+            Document row = rows.get(i);
+            int index = kept + i;
+            day[index] = (int) LocalDate.parse(row.get("_id", Document.class).getString("day")).toEpochDay();
+            open[index] = row.get("open", Number.class).doubleValue();
+            high[index] = row.get("high", Number.class).doubleValue();
+            low[index] = row.get("low", Number.class).doubleValue();
+            close[index] = row.get("close", Number.class).doubleValue();
+            volume[index] = row.get("volume", Number.class).longValue();
+        }
+        try {
+            barHistory.write(code, day, open, high, low, close, volume);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
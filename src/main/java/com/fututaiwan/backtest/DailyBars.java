@@ -0,0 +1,156 @@
+package com.fututaiwan.backtest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 一檔股票的日 K 線，直接讀取 memory-mapped 的歷史檔，不複製到 heap
+ * 檔案格式 (little-endian)：16 bytes 的檔頭 (magic、版本、筆數、保留)，之後依序為欄式存放的
+ * 交易日 (epoch day, int)、開、高、低、收 (double) 與成交量 (long)；交易日遞增，double 欄位從 8 的倍數開始
+ * 檔案以「寫入暫存檔後 rename」的方式整個替換，已映射的舊內容在替換後仍然有效
+ */
+public final class DailyBars {
+
+    static final int MAGIC = 0x46544231; // "FTB1"
+    static final int VERSION = 1;
+    private static final int HEADER = 16;
+
+    private final String code;
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int open;
+    private final int high;
+    private final int low;
+    private final int close;
+    private final int volume;
+
+    private DailyBars(String code, ByteBuffer buffer) {
+        this.code = code;
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < HEADER || this.buffer.getInt(0) != MAGIC || this.buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("Not a daily bar file for " + code);
+        }
+        this.count = this.buffer.getInt(8);
+        this.open = HEADER + align(count * Integer.BYTES);
+        this.high = open + count * Double.BYTES;
+        this.low = high + count * Double.BYTES;
+        this.close = low + count * Double.BYTES;
+        this.volume = close + count * Double.BYTES;
+        if (buffer.capacity() < volume + (long) count * Long.BYTES) {
+            throw new IllegalStateException("Truncated daily bar file for " + code);
+        }
+    }
+
+    /**
+     * 以唯讀方式映射歷史檔；映射建立後即可關閉 channel
+     */
+    public static DailyBars map(String code, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new DailyBars(code, buffer);
+        }
+    }
+
+    /**
+     * 寫入 (整個替換) 歷史檔；days 必須遞增
+     */
+    public static void write(Path file, int[] days, double[] open, double[] high, double[] low, double[] close, long[] volume)
+            throws IOException {
+        int count = days.length;
+        for (int i = 1; i < count; i++) {
+            if (days[i] <= days[i - 1]) {
+                throw new IllegalArgumentException("Days must be strictly increasing at index " + i);
+            }
+        }
+        int columns = align(count * Integer.BYTES) + count * (4 * Double.BYTES + Long.BYTES);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER + columns).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(count).putInt(0);
+        for (int day : days) {
+            buffer.putInt(day);
+        }
+        buffer.position(HEADER + align(count * Integer.BYTES));
+        for (double[] column : new double[][]{open, high, low, close}) {
+            for (int i = 0; i < count; i++) {
+                buffer.putDouble(column[i]);
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            buffer.putLong(volume[i]);
+        }
+        buffer.flip();
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static int align(int bytes) {
+        return (bytes + 7) & ~7;
+    }
+
+    public String code() {
+        return code;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int day(int index) {
+        return buffer.getInt(HEADER + index * Integer.BYTES);
+    }
+
+    public double open(int index) {
+        return buffer.getDouble(open + index * Double.BYTES);
+    }
+
+    public double high(int index) {
+        return buffer.getDouble(high + index * Double.BYTES);
+    }
+
+    public double low(int index) {
+        return buffer.getDouble(low + index * Double.BYTES);
+    }
+
+    public double close(int index) {
+        return buffer.getDouble(close + index * Double.BYTES);
+    }
+
+    public long volume(int index) {
+        return buffer.getLong(volume + index * Long.BYTES);
+    }
+
+    /**
+     * 第一個交易日不早於 epochDay 的索引；全部都較早時為 count
+     */
+    public int indexOf(int epochDay) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (day(middle) < epochDay) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
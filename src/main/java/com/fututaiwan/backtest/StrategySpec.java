@@ -0,0 +1,64 @@
+package com.fututaiwan.backtest;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 回測策略與參數；只使用與 type 相關的參數，其餘參數為預設值
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StrategySpec {
+
+    private StrategyType type;
+
+    @Builder.Default
+    private int fast = 20; // SMA_CROSSOVER 短期均線天數
+
+    @Builder.Default
+    private int slow = 60; // SMA_CROSSOVER 長期均線天數
+
+    @Builder.Default
+    private int entry = 55; // BREAKOUT 突破的回顧天數
+
+    @Builder.Default
+    private int exit = 20; // BREAKOUT 停損出場的回顧天數
+
+    /**
+     * @throws IllegalArgumentException 參數不合法
+     */
+    void validate() {
+        if (type == null) {
+            throw new IllegalArgumentException("Strategy type is required.");
+        }
+        switch (type) {
+            case SMA_CROSSOVER -> {
+                if (fast <= 0 || slow <= fast) {
+                    throw new IllegalArgumentException("SMA crossover needs 0 < fast < slow: " + fast + ", " + slow);
+                }
+            }
+            case BREAKOUT -> {
+                if (entry <= 0 || exit <= 0) {
+                    throw new IllegalArgumentException("Breakout lookbacks must be positive: " + entry + ", " + exit);
+                }
+            }
+        }
+    }
+
+    /**
+     * 計算訊號前需要的歷史天數
+     */
+    int lookback() {
+        return type == StrategyType.SMA_CROSSOVER ? slow : Math.max(entry, exit);
+    }
+
+    String label() {
+        return type == StrategyType.SMA_CROSSOVER
+                ? "SMA_CROSSOVER(" + fast + "," + slow + ")"
+                : "BREAKOUT(" + entry + "," + exit + ")";
+    }
+}
@@ -0,0 +1,9 @@
+package com.fututaiwan.backtest;
+
+/**
+ * 回測策略類型 (只做多)
+ */
+public enum StrategyType {
+    SMA_CROSSOVER, // 短期均線 (fast) 在長期均線 (slow) 之上時持有
+    BREAKOUT // 收盤突破前 entry 日最高價時買進，跌破前 exit 日最低價時賣出
+}
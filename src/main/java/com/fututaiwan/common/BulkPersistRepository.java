@@ -0,0 +1,41 @@
+package com.fututaiwan.common;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 共用的 repository 片段：大量新增實體時分批 flush / clear，讓 JDBC 批次插入生效且持久化上下文不會無限增長
+ */
+public interface BulkPersistRepository<T> {
+
+    int IN_CLAUSE_LIMIT = 1000;
+
+    /**
+     * 依序 persist 所有實體並回傳 (已指派 id、已脫離持久化上下文)
+     * 每 hibernate.jdbc.batch_size 筆 flush 並 clear 一次，呼叫前已載入的實體也會一併脫離
+     */
+    List<T> persistAll(Collection<T> entities);
+
+    /**
+     * 以 IN 查詢找出已存在的值，每 {@value #IN_CLAUSE_LIMIT} 個一組，避免超過資料庫的參數上限
+     */
+    static Set<String> findExisting(Collection<String> candidates, Function<Collection<String>, List<String>> query) {
+        Set<String> existing = new HashSet<>();
+        List<String> chunk = new ArrayList<>(Math.min(candidates.size(), IN_CLAUSE_LIMIT));
+        for (String candidate : candidates) {
+            chunk.add(candidate);
+            if (chunk.size() == IN_CLAUSE_LIMIT) {
+                existing.addAll(query.apply(chunk));
+                chunk = new ArrayList<>(IN_CLAUSE_LIMIT);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            existing.addAll(query.apply(chunk));
+        }
+        return existing;
+    }
+}
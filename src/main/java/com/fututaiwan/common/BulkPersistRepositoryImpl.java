@@ -0,0 +1,38 @@
+package com.fututaiwan.common;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class BulkPersistRepositoryImpl<T> implements BulkPersistRepository<T> {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    @Override
+    @Transactional
+    public List<T> persistAll(Collection<T> entities) {
+        List<T> persisted = new ArrayList<>(entities.size());
+        int pending = 0;
+        for (T entity : entities) {
+            entityManager.persist(entity);
+            persisted.add(entity);
+            if (++pending == batchSize) {
+                entityManager.flush();
+                entityManager.clear();
+                pending = 0;
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return persisted;
+    }
+}
@@ -0,0 +1,67 @@
+package com.fututaiwan.common;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 以 Bloom filter 預先判斷某個值是否「一定不存在」，讓常見的新值情境省略一次存在性查詢
+ * 載入完成前 (或停用時) 一律回報可能存在，呼叫端照常向資料庫確認
+ */
+public class ExistenceFilter {
+
+    private final BloomFilter bloomFilter;
+    private final boolean enabled;
+    private volatile boolean ready;
+
+    private final Counter negatives;
+    private final Counter positives;
+    private final Counter falsePositives;
+
+    public ExistenceFilter(String name, long expectedInsertions, ExistenceFilterProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        // 停用時只配置最小的 filter，避免佔用記憶體
+        this.bloomFilter = new BloomFilter(enabled ? expectedInsertions : 1, properties.getFalsePositiveProbability());
+        this.negatives = Counter.builder("existence.filter.checks").tag("filter", name).tag("result", "negative").register(meterRegistry);
+        this.positives = Counter.builder("existence.filter.checks").tag("filter", name).tag("result", "positive").register(meterRegistry);
+        this.falsePositives = Counter.builder("existence.filter.false.positives").tag("filter", name).register(meterRegistry);
+        Gauge.builder("existence.filter.expected.fpp", bloomFilter, BloomFilter::expectedFalsePositiveProbability)
+                .tag("filter", name)
+                .register(meterRegistry);
+    }
+
+    public boolean mightContain(String value) {
+        if (!ready || value == null) {
+            return true;
+        }
+        if (bloomFilter.mightContain(value)) {
+            positives.increment();
+            return true;
+        }
+        negatives.increment();
+        return false;
+    }
+
+    public void put(String value) {
+        if (enabled && value != null) {
+            bloomFilter.put(value);
+        }
+    }
+
+    /**
+     * mightContain 回報可能存在，但資料庫確認不存在時呼叫，用於觀察實際誤判率
+     */
+    public void recordFalsePositive() {
+        if (ready) {
+            falsePositives.increment();
+        }
+    }
+
+    public void markReady() {
+        ready = enabled;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+}
@@ -0,0 +1,22 @@
+package com.fututaiwan.common;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 唯一性預檢 Bloom filter 設定 (fututaiwan.existence-filter.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "fututaiwan.existence-filter")
+public class ExistenceFilterProperties {
+
+    private boolean enabled = true;
+
+    private double falsePositiveProbability = 0.01;
+
+    private long expectedMembers = 1_000_000; // 手機、身分證字號各一個 filter
+
+    private long expectedStocks = 100_000;
+
+    private long expectedStockGroups = 1_000_000;
+}
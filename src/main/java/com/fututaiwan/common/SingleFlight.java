@@ -0,0 +1,60 @@
+package com.fututaiwan.common;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 合併相同 key 的並行載入：同一時間只有第一個呼叫者 (leader) 執行載入，其他呼叫者 (follower) 等待並取得同一個結果或例外
+ * 載入完成後立即移除，之後的呼叫會重新載入，因此不是快取
+ */
+public class SingleFlight<K, V> {
+
+    @FunctionalInterface
+    public interface Loader<V> {
+        V load() throws Throwable;
+    }
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder followers = new LongAdder();
+
+    public V execute(K key, Loader<V> loader) throws Throwable {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            followers.increment();
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause();
+            }
+        }
+        leaders.increment();
+        try {
+            V value = loader.load();
+            call.complete(value);
+            return value;
+        } catch (Throwable e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    // 實際執行載入的次數
+    public long leaders() {
+        return leaders.sum();
+    }
+
+    // 共用其他呼叫者載入結果的次數
+    public long followers() {
+        return followers.sum();
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+}
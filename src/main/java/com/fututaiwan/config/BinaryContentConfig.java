@@ -0,0 +1,42 @@
+package com.fututaiwan.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * 二進位回應格式：客戶端以 Accept 選擇 application/cbor、application/x-msgpack 或 application/x-protobuf
+ * CBOR 與 MessagePack 沿用 Boot 的 Jackson 設定，欄位與 JSON 相同；Protobuf 依 src/main/proto/fututaiwan.proto 編碼
+ * converter 加在清單最後，Accept 未指定或為萬用字元時仍回 JSON；回應壓縮見 server.compression.*
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class BinaryContentConfig {
+
+    @Bean
+    public WebMvcConfigurer binaryContentConfigurer(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        MappingJackson2CborHttpMessageConverter cbor = new MappingJackson2CborHttpMessageConverter(
+                objectMapperBuilder.factory(new CBORFactory()).build());
+        MessagePackHttpMessageConverter msgpack = new MessagePackHttpMessageConverter(
+                objectMapperBuilder.factory(new MessagePackFactory()).build());
+        ProtobufDtoHttpMessageConverter protobuf = new ProtobufDtoHttpMessageConverter();
+        return new WebMvcConfigurer() {
+            @Override
+            public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+                // Spring 偵測到 jackson-dataformat-cbor 時會自行加入未套用 Boot 設定的 CBOR converter，以這裡的取代
+                converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter);
+                converters.add(cbor);
+                converters.add(msgpack);
+                converters.add(protobuf);
+            }
+        };
+    }
+}
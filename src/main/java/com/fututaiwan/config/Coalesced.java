@@ -0,0 +1,22 @@
+package com.fututaiwan.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 合併相同參數的並行呼叫 (single flight)：同時間只有一個呼叫實際執行，其餘共用其結果
+ * 只用於唯讀方法，回傳值會被多個呼叫者共用，不可修改；呼叫端已在交易中時照常執行 (需要自己持久化上下文內的實體)
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Coalesced {
+
+    /**
+     * 設定與指標使用的名稱 (fututaiwan.coalescing.methods.&lt;name&gt;)，預設為「類別.方法」
+     */
+    String value() default "";
+}
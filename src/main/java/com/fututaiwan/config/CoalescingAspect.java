@@ -0,0 +1,81 @@
+package com.fututaiwan.config;
+
+import com.fututaiwan.common.SingleFlight;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 為 @Coalesced 方法合併相同參數的並行呼叫；排在 ReadFromPrimaryAspect 與 TransactionInterceptor 外層，
+ * follower 不會開啟交易也不會取得連線
+ * 指標 fututaiwan.coalescing.calls (role=leader/follower) 的 follower 比例即為合併率
+ */
+@Aspect
+@Order(Ordered.LOWEST_PRECEDENCE - 3)
+public class CoalescingAspect {
+
+    static final String METRIC_NAME = "fututaiwan.coalescing.calls";
+
+    private final CoalescingProperties properties;
+    private final MeterRegistry meterRegistry;
+    // 停用的方法對應到 DISABLED，避免每次呼叫都查設定
+    private final Map<Method, SingleFlight<List<Object>, Object>> flights = new ConcurrentHashMap<>();
+    private static final SingleFlight<List<Object>, Object> DISABLED = new SingleFlight<>();
+
+    public CoalescingAspect(CoalescingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("within(com.fututaiwan..*) && @annotation(coalesced)")
+    public Object coalesce(ProceedingJoinPoint joinPoint, Coalesced coalesced) throws Throwable {
+        // 呼叫端的交易需要自己持久化上下文內的實體，不能共用其他執行緒載入的結果
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        SingleFlight<List<Object>, Object> flight = flights.computeIfAbsent(method, m -> register(m, coalesced));
+        if (flight == DISABLED) {
+            return joinPoint.proceed();
+        }
+        return flight.execute(Arrays.asList(joinPoint.getArgs()), joinPoint::proceed);
+    }
+
+    private SingleFlight<List<Object>, Object> register(Method method, Coalesced coalesced) {
+        String name = coalesced.value().isEmpty()
+                ? method.getDeclaringClass().getSimpleName() + "." + method.getName()
+                : coalesced.value();
+        if (!properties.isEnabled(name)) {
+            return DISABLED;
+        }
+        SingleFlight<List<Object>, Object> flight = new SingleFlight<>();
+        FunctionCounter.builder(METRIC_NAME, flight, SingleFlight::leaders)
+                .description("Calls to @Coalesced methods that ran the load")
+                .tag("name", name)
+                .tag("role", "leader")
+                .register(meterRegistry);
+        FunctionCounter.builder(METRIC_NAME, flight, SingleFlight::followers)
+                .description("Calls to @Coalesced methods that shared another caller's in-flight load")
+                .tag("name", name)
+                .tag("role", "follower")
+                .register(meterRegistry);
+        Gauge.builder("fututaiwan.coalescing.in.flight", flight, SingleFlight::inFlight)
+                .description("Distinct keys currently being loaded")
+                .tag("name", name)
+                .register(meterRegistry);
+        return flight;
+    }
+}
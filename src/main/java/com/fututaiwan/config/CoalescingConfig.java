@@ -0,0 +1,20 @@
+package com.fututaiwan.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 熱門讀取的並行呼叫合併 (fututaiwan.coalescing.enabled=false 可整組關閉，個別方法見 CoalescingProperties)
+ * 開盤瞬間大量請求同一檔股票或群組時，資料庫負載取決於不同 key 的數量，而非呼叫者數量
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "fututaiwan.coalescing", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CoalescingConfig {
+
+    @Bean
+    public CoalescingAspect coalescingAspect(CoalescingProperties properties, MeterRegistry meterRegistry) {
+        return new CoalescingAspect(properties, meterRegistry);
+    }
+}
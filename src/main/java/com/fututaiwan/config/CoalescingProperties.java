@@ -0,0 +1,38 @@
+package com.fututaiwan.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @Coalesced 並行呼叫合併設定；methods 的 key 為 @Coalesced 名稱 (預設「類別.方法」，例如 StockService.getStockByCode)
+ */
+@Data
+@ConfigurationProperties(prefix = "fututaiwan.coalescing")
+public class CoalescingProperties {
+
+    /**
+     * 整組開關：false 時不建立 CoalescingAspect (見 CoalescingConfig)，自行建立 aspect 時也會讓所有方法直接呼叫
+     */
+    private boolean enabled = true;
+
+    private Map<String, Method> methods = new HashMap<>();
+
+    public boolean isEnabled(String name) {
+        if (!enabled) {
+            return false;
+        }
+        Method method = methods.get(name);
+        return method == null || method.isEnabled();
+    }
+
+    @Data
+    public static class Method {
+        /**
+     * 整組開關：false 時不建立 CoalescingAspect (見 CoalescingConfig)，自行建立 aspect 時也會讓所有方法直接呼叫
+     */
+    private boolean enabled = true;
+    }
+}
@@ -0,0 +1,39 @@
+package com.fututaiwan.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 讀寫分離設定；primary 沿用 spring.datasource.*
+ */
+@Data
+@ConfigurationProperties(prefix = "fututaiwan.datasource.routing")
+public class DataSourceRoutingProperties {
+
+    private boolean enabled = false;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    // 每個 replica 連線池大小
+    private int replicaPoolSize = 10;
+
+    // 複寫延遲超過此值的 replica 暫停使用，唯讀交易改讀 primary
+    private Duration maxLag = Duration.ofSeconds(2);
+
+    private Duration lagCheckInterval = Duration.ofSeconds(1);
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
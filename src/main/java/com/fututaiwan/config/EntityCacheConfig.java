@@ -0,0 +1,66 @@
+package com.fututaiwan.config;
+
+import com.fututaiwan.stock.Stock;
+import com.fututaiwan.stockgroup.StockGroup;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.OptionalLong;
+
+/**
+ * Hibernate 二級快取：Stock 實體、StockGroup.stocks 集合與 findByCode 查詢快取，存放於本機 Caffeine (JCache)
+ * 各 region 在這裡預先建立並設定上限；命中率由 hibernate-micrometer 匯出 (hibernate.second.level.cache.requests)
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "fututaiwan.entity-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class EntityCacheConfig {
+
+    public static final String STOCK_REGION = Stock.class.getName();
+    public static final String GROUP_STOCKS_REGION = StockGroup.class.getName() + ".stocks";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager(EntityCacheProperties properties) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+        long expireNanos = properties.getExpireAfterWrite().toNanos();
+        cacheManager.createCache(STOCK_REGION, configuration(properties.getStockMaximumSize(), expireNanos));
+        cacheManager.createCache(GROUP_STOCKS_REGION, configuration(properties.getGroupStocksMaximumSize(), expireNanos));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                configuration(properties.getQueryMaximumSize(), expireNanos));
+        // 更新時間戳記 region 用來判斷查詢快取是否過期，不可被淘汰
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, configuration(-1, -1));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheCustomizer(CacheManager entityCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> configuration(long maximumSize, long expireAfterWriteNanos) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        // Hibernate 放入的是不可變的 cache entry，不需要 JCache 預設的序列化複本
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        if (maximumSize > 0) {
+            configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        }
+        if (expireAfterWriteNanos > 0) {
+            configuration.setExpireAfterWrite(OptionalLong.of(expireAfterWriteNanos));
+        }
+        return configuration;
+    }
+}
@@ -0,0 +1,126 @@
+package com.fututaiwan.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 二級快取存放在各節點本機；本節點的異動由 Hibernate 自行更新快取，
+ * 這裡在 commit 後透過 Redis 通知其他節點清除對應的 Stock 實體或 StockGroup.stocks 集合
+ */
+@Component
+public class EntityCacheInvalidator {
+
+    private static final Logger log = LoggerFactory.getLogger(EntityCacheInvalidator.class);
+
+    public static final String INVALIDATION_CHANNEL = "entity-cache:invalidate";
+    static final String STOCK_PREFIX = "stock:";
+    static final String STOCK_DELETED_PREFIX = "stock-deleted:";
+    static final String GROUP_STOCKS_PREFIX = "group-stocks:";
+    static final String STOCKS_CREATED = "stocks-created";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final StringRedisTemplate redis; // 未啟用跨節點通知時為 null
+
+    @Autowired
+    public EntityCacheInvalidator(EntityManagerFactory entityManagerFactory, EntityCacheProperties properties,
+                                  ObjectProvider<StringRedisTemplate> redis) {
+        this(entityManagerFactory, properties.isRedisInvalidation() ? redis.getIfAvailable() : null);
+    }
+
+    EntityCacheInvalidator(EntityManagerFactory entityManagerFactory, StringRedisTemplate redis) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.redis = redis;
+    }
+
+    public void stockChanged(Long stockId) {
+        publishAfterCommit(STOCK_PREFIX + stockId);
+    }
+
+    /**
+     * 刪除股票時資料庫以 ON DELETE CASCADE 移除群組成分股，Hibernate 無從得知；
+     * 因此 commit 後清空本機的 StockGroup.stocks 集合快取，並通知其他節點
+     */
+    public void stockDeleted(Long stockId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache().evictCollectionData(EntityCacheConfig.GROUP_STOCKS_REGION);
+                }
+            });
+        } else {
+            cache().evictCollectionData(EntityCacheConfig.GROUP_STOCKS_REGION);
+        }
+        publishAfterCommit(STOCK_DELETED_PREFIX + stockId);
+    }
+
+    /**
+     * 其他節點的查詢快取可能存有新增前 findByCode 的空結果；本機由 Hibernate 依資料表更新時間戳記自行失效
+     */
+    public void stocksCreated() {
+        publishAfterCommit(STOCKS_CREATED);
+    }
+
+    public void groupStocksChanged(Long stockGroupId) {
+        publishAfterCommit(GROUP_STOCKS_PREFIX + stockGroupId);
+    }
+
+    /**
+     * 處理其他節點送來的通知，只清除本機快取
+     */
+    public void evictLocal(String message) {
+        Cache cache = cache();
+        if (message.startsWith(STOCK_DELETED_PREFIX)) {
+            cache.evictEntityData(EntityCacheConfig.STOCK_REGION, Long.valueOf(message.substring(STOCK_DELETED_PREFIX.length())));
+            cache.evictCollectionData(EntityCacheConfig.GROUP_STOCKS_REGION);
+            cache.evictDefaultQueryRegion();
+        } else if (message.startsWith(STOCK_PREFIX)) {
+            cache.evictEntityData(EntityCacheConfig.STOCK_REGION, Long.valueOf(message.substring(STOCK_PREFIX.length())));
+            // 查詢快取依本機的更新時間戳記判斷是否過期，無法得知其他節點的異動
+            cache.evictDefaultQueryRegion();
+        } else if (message.equals(STOCKS_CREATED)) {
+            cache.evictDefaultQueryRegion();
+        } else if (message.startsWith(GROUP_STOCKS_PREFIX)) {
+            cache.evictCollectionData(EntityCacheConfig.GROUP_STOCKS_REGION, Long.valueOf(message.substring(GROUP_STOCKS_PREFIX.length())));
+        } else {
+            log.warn("Ignoring unknown entity cache invalidation message {}", message);
+        }
+    }
+
+    private Cache cache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    private void publishAfterCommit(String message) {
+        if (redis == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(message);
+                }
+            });
+        } else {
+            publish(message);
+        }
+    }
+
+    private void publish(String message) {
+        try {
+            redis.convertAndSend(INVALIDATION_CHANNEL, message);
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish entity cache invalidation {}", message, e);
+        }
+    }
+}
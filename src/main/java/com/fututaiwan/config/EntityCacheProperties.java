@@ -0,0 +1,30 @@
+package com.fututaiwan.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Hibernate 二級快取 (JCache + Caffeine) 設定
+ */
+@Data
+@ConfigurationProperties(prefix = "fututaiwan.entity-cache")
+public class EntityCacheProperties {
+
+    private boolean enabled = true;
+
+    // Stock 實體
+    private long stockMaximumSize = 100_000;
+
+    // StockGroup.stocks 集合 (每個群組一筆，內容為股票 id)
+    private long groupStocksMaximumSize = 200_000;
+
+    // findByCode 等查詢結果
+    private long queryMaximumSize = 10_000;
+
+    private Duration expireAfterWrite = Duration.ofHours(1);
+
+    // 以 Redis pub/sub 通知其他節點清除本機二級快取
+    private boolean redisInvalidation = false;
+}
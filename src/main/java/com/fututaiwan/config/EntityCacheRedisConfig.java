@@ -0,0 +1,29 @@
+package com.fututaiwan.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 訂閱其他節點發出的二級快取失效通知
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "fututaiwan.entity-cache", name = "redis-invalidation", havingValue = "true")
+public class EntityCacheRedisConfig {
+
+    @Bean
+    public RedisMessageListenerContainer entityCacheInvalidationListener(RedisConnectionFactory connectionFactory,
+                                                                         EntityCacheInvalidator invalidator) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) ->
+                        invalidator.evictLocal(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(EntityCacheInvalidator.INVALIDATION_CHANNEL));
+        return container;
+    }
+}
@@ -0,0 +1,22 @@
+package com.fututaiwan.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * /internal/** 的節點驗證；排在 JFR 請求事件之後、其他處理之前
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class InternalAuthConfig {
+
+    @Bean
+    public FilterRegistrationBean<InternalAuthFilter> internalAuthFilter(InternalAuthProperties properties) {
+        FilterRegistrationBean<InternalAuthFilter> registration = new FilterRegistrationBean<>(new InternalAuthFilter(properties));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,51 @@
+package com.fututaiwan.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * 驗證節點之間的請求：X-Internal-Token 與 shared secret 相符時標記為來自其他節點 (isPeer)
+ * /internal/** 只接受來自其他節點的請求，其餘回應 401；其他路徑照常處理，由各自決定是否信任節點專用的標頭
+ */
+public class InternalAuthFilter extends OncePerRequestFilter {
+
+    public static final String TOKEN_HEADER = "X-Internal-Token";
+    static final String INTERNAL_PREFIX = "/internal/";
+    private static final String PEER_ATTRIBUTE = InternalAuthFilter.class.getName() + ".peer";
+
+    private final byte[] secret; // 未設定時為 null
+
+    public InternalAuthFilter(InternalAuthProperties properties) {
+        this.secret = properties.hasSharedSecret() ? properties.getSharedSecret().getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    /**
+     * 請求是否帶有正確的 token (經過此 filter 之後才有意義)
+     */
+    public static boolean isPeer(HttpServletRequest request) {
+        return Boolean.TRUE.equals(request.getAttribute(PEER_ATTRIBUTE));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String token = request.getHeader(TOKEN_HEADER);
+        // 固定時間比較，避免以回應時間逐字猜出 secret
+        boolean peer = secret != null && token != null && MessageDigest.isEqual(secret, token.getBytes(StandardCharsets.UTF_8));
+        if (peer) {
+            request.setAttribute(PEER_ATTRIBUTE, Boolean.TRUE);
+        } else if (request.getRequestURI().startsWith(INTERNAL_PREFIX)) {
+            response.sendError(HttpStatus.UNAUTHORIZED.value());
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,19 @@
+package com.fututaiwan.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 節點之間呼叫的驗證 (fututaiwan.internal.*)：所有節點設定相同的 shared-secret，請求以 X-Internal-Token 帶上
+ * 未設定時 /internal/** 一律拒絕，也不會有任何請求被視為來自其他節點
+ */
+@Data
+@ConfigurationProperties(prefix = "fututaiwan.internal")
+public class InternalAuthProperties {
+
+    private String sharedSecret;
+
+    public boolean hasSharedSecret() {
+        return sharedSecret != null && !sharedSecret.isBlank();
+    }
+}
@@ -0,0 +1,31 @@
+package com.fututaiwan.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * JDBC 批次寫入：PostgreSQL 驅動開啟 reWriteBatchedInserts，把同一批 INSERT 改寫成多列 VALUES 一次送出
+ * 批次大小與排序由 spring.jpa.properties.hibernate.jdbc.* 設定；其他資料庫 (例如 H2) 不受影響
+ */
+@Configuration
+public class JdbcBatchingConfig {
+
+    private static final String POSTGRESQL_URL_PREFIX = "jdbc:postgresql:";
+
+    @Bean
+    public static BeanPostProcessor postgresBatchRewritePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                // 連線池在第一次取得連線時才啟動，這裡加入的屬性會套用到所有連線
+                if (bean instanceof HikariDataSource dataSource && dataSource.getJdbcUrl() != null
+                        && dataSource.getJdbcUrl().startsWith(POSTGRESQL_URL_PREFIX)) {
+                    dataSource.addDataSourceProperty("reWriteBatchedInserts", "true");
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package com.fututaiwan.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * 應用程式層級的 Micrometer 指標 (fututaiwan.metrics.enabled=false 可整組關閉)
+ * Boot 內建已涵蓋：http.server.requests (每個 controller 方法)、spring.data.repository.invocations (每個 repository 方法)、
+ * hikaricp.*、jvm.gc.* 與 hibernate.* (需 hibernate.generate_statistics=true)；
+ * 這裡補上 @Transactional 方法計時與每個請求的 SQL 數量
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "fututaiwan.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class MetricsConfig {
+
+    @Bean
+    public TransactionMetricsAspect transactionMetricsAspect(MeterRegistry meterRegistry) {
+        return new TransactionMetricsAspect(meterRegistry);
+    }
+
+    @Bean
+    public QueryCountingStatementInspector queryCountingStatementInspector() {
+        return new QueryCountingStatementInspector();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCountingCustomizer(QueryCountingStatementInspector inspector) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public WebMvcConfigurer queriesPerRequestConfigurer(QueryCountingStatementInspector inspector, MeterRegistry meterRegistry) {
+        QueriesPerRequestInterceptor interceptor = new QueriesPerRequestInterceptor(inspector, meterRegistry);
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(interceptor).addPathPatterns("/api/**");
+            }
+        };
+    }
+}
@@ -0,0 +1,327 @@
+package com.fututaiwan.config;
+
+import com.fututaiwan.quote.Quote;
+import com.fututaiwan.stock.Stock;
+import com.fututaiwan.stockgroup.WatchlistChange;
+import com.fututaiwan.stockgroup.WatchlistChangeType;
+import com.fututaiwan.stockgroup.WatchlistResponse;
+import com.fututaiwan.stockgroup.WatchlistSyncResponse;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import org.springframework.core.ResolvableType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * 依 src/main/proto/fututaiwan.proto 手寫的 Protobuf 編碼器，直接從 DTO 寫出，不經過產生的 Message 類別
+ * 遵循 proto3 慣例：預設值 (0、空字串、false) 與 null 不寫出
+ */
+public final class ProtobufDtoEncoder {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private ProtobufDtoEncoder() {
+    }
+
+    /**
+     * 判斷回應型別是否有對應的 Protobuf message；集合只支援 Stock 與 Quote
+     */
+    public static boolean supports(Type type) {
+        return messageFor(type) != null;
+    }
+
+    public static void encode(Object value, Type type, OutputStream outputStream) throws IOException {
+        Message<Object> message = messageFor(type);
+        if (message == null) {
+            throw new IllegalArgumentException("No protobuf message for " + type);
+        }
+        CodedOutputStream output = CodedOutputStream.newInstance(outputStream, BUFFER_SIZE);
+        message.write(new OutputSink(output), value);
+        output.flush();
+    }
+
+    /**
+     * 跨節點報價 fan-out 的 QuoteBatch 訊息，不屬於任何 HTTP 回應
+     */
+    public static void encodeQuoteBatch(long publishedAtMicros, Collection<Quote> quotes, OutputStream outputStream) throws IOException {
+        CodedOutputStream output = CodedOutputStream.newInstance(outputStream, BUFFER_SIZE);
+        OutputSink sink = new OutputSink(output);
+        sink.int64(1, publishedAtMicros);
+        for (Quote quote : quotes) {
+            sink.message(2, QUOTE, quote);
+        }
+        output.flush();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Message<Object> messageFor(Type type) {
+        ResolvableType resolved = ResolvableType.forType(type);
+        Class<?> clazz = resolved.resolve();
+        if (clazz == null) {
+            return null;
+        }
+        Message<?> message;
+        if (Collection.class.isAssignableFrom(clazz)) {
+            Class<?> element = resolved.asCollection().getGeneric(0).resolve();
+            if (element == Stock.class) {
+                message = STOCK_LIST;
+            } else if (element == Quote.class) {
+                message = QUOTE_LIST;
+            } else {
+                message = null;
+            }
+        } else if (clazz == Stock.class) {
+            message = STOCK;
+        } else if (clazz == Quote.class) {
+            message = QUOTE;
+        } else if (clazz == WatchlistResponse.class) {
+            message = WATCHLIST;
+        } else if (clazz == WatchlistSyncResponse.class) {
+            message = WATCHLIST_SYNC;
+        } else {
+            message = null;
+        }
+        return (Message<Object>) message;
+    }
+
+    // 同一份欄位定義用於計算長度與寫出，巢狀 message 寫出前需要先知道長度
+    @FunctionalInterface
+    private interface Message<T> {
+        void write(Sink sink, T value) throws IOException;
+    }
+
+    private static final Message<Instant> TIMESTAMP = (sink, instant) -> {
+        sink.int64(1, instant.getEpochSecond());
+        sink.int64(2, instant.getNano());
+    };
+
+    private static final Message<Stock> STOCK = (sink, stock) -> {
+        sink.int64(1, stock.getId());
+        sink.string(2, stock.getCode());
+        sink.string(3, stock.getName());
+    };
+
+    private static final Message<Collection<Stock>> STOCK_LIST = (sink, stocks) -> {
+        for (Stock stock : stocks) {
+            sink.message(1, STOCK, stock);
+        }
+    };
+
+    private static final Message<Quote> QUOTE = (sink, quote) -> {
+        sink.string(1, quote.getCode());
+        sink.float64(2, quote.getPrice());
+        sink.float64(3, quote.getOpen());
+        sink.float64(4, quote.getHigh());
+        sink.float64(5, quote.getLow());
+        sink.float64(6, quote.getPreviousClose());
+        sink.int64(7, quote.getVolume());
+        sink.message(8, TIMESTAMP, quote.getTimestamp());
+    };
+
+    private static final Message<Collection<Quote>> QUOTE_LIST = (sink, quotes) -> {
+        for (Quote quote : quotes) {
+            sink.message(1, QUOTE, quote);
+        }
+    };
+
+    private static final Message<WatchlistResponse.Item> WATCHLIST_ITEM = (sink, item) -> {
+        sink.int64(1, item.getId());
+        sink.string(2, item.getCode());
+        sink.string(3, item.getName());
+        sink.message(4, QUOTE, item.getQuote());
+    };
+
+    private static final Message<WatchlistResponse.Group> WATCHLIST_GROUP = (sink, group) -> {
+        sink.int64(1, group.getId());
+        sink.string(2, group.getName());
+        sink.string(3, group.getDescription());
+        if (group.getStocks() != null) {
+            for (WatchlistResponse.Item item : group.getStocks()) {
+                sink.message(4, WATCHLIST_ITEM, item);
+            }
+        }
+    };
+
+    private static final Message<WatchlistResponse> WATCHLIST = (sink, watchlist) -> {
+        sink.int64(1, watchlist.getMemberId());
+        sink.int64(2, watchlist.getVersion());
+        sink.int64(3, watchlist.getQuoteEpoch());
+        if (watchlist.getGroups() != null) {
+            for (WatchlistResponse.Group group : watchlist.getGroups()) {
+                sink.message(4, WATCHLIST_GROUP, group);
+            }
+        }
+    };
+
+    private static final Message<WatchlistChange> WATCHLIST_CHANGE = (sink, change) -> {
+        sink.int64(1, change.getVersion());
+        sink.enumValue(2, changeTypeNumber(change.getType()));
+        sink.int64(3, change.getGroupId());
+        sink.string(4, change.getName());
+        sink.string(5, change.getDescription());
+        sink.int64(6, change.getStockId());
+        sink.string(7, change.getStockCode());
+    };
+
+    private static final Message<WatchlistSyncResponse> WATCHLIST_SYNC = (sink, sync) -> {
+        sink.int64(1, sync.getEpoch());
+        sink.int64(2, sync.getVersion());
+        sink.bool(3, sync.isReset());
+        if (sync.getChanges() != null) {
+            for (WatchlistChange change : sync.getChanges()) {
+                sink.message(4, WATCHLIST_CHANGE, change);
+            }
+        }
+        if (sync.getGroups() != null) {
+            for (WatchlistResponse.Group group : sync.getGroups()) {
+                sink.message(5, WATCHLIST_GROUP, group);
+            }
+        }
+    };
+
+    // enum 編號固定對應 proto 定義，不依賴 Java enum 的宣告順序
+    private static int changeTypeNumber(WatchlistChangeType type) {
+        if (type == null) {
+            return 0;
+        }
+        return switch (type) {
+            case GROUP_ADDED -> 1;
+            case GROUP_UPDATED -> 2;
+            case GROUP_REMOVED -> 3;
+            case STOCK_ADDED -> 4;
+            case STOCK_REMOVED -> 5;
+        };
+    }
+
+    private abstract static class Sink {
+
+        abstract void int64(int field, long value) throws IOException;
+
+        abstract void float64(int field, double value) throws IOException;
+
+        abstract void bool(int field, boolean value) throws IOException;
+
+        abstract void enumValue(int field, int value) throws IOException;
+
+        abstract void string(int field, String value) throws IOException;
+
+        abstract <T> void message(int field, Message<T> message, T value) throws IOException;
+
+        void int64(int field, Long value) throws IOException {
+            if (value != null) {
+                int64(field, value.longValue());
+            }
+        }
+    }
+
+    private static final class SizeSink extends Sink {
+
+        private int size;
+
+        static <T> int sizeOf(Message<T> message, T value) throws IOException {
+            SizeSink sink = new SizeSink();
+            message.write(sink, value);
+            return sink.size;
+        }
+
+        @Override
+        void int64(int field, long value) {
+            if (value != 0) {
+                size += CodedOutputStream.computeInt64Size(field, value);
+            }
+        }
+
+        @Override
+        void float64(int field, double value) {
+            if (Double.doubleToRawLongBits(value) != 0) {
+                size += CodedOutputStream.computeDoubleSize(field, value);
+            }
+        }
+
+        @Override
+        void bool(int field, boolean value) {
+            if (value) {
+                size += CodedOutputStream.computeBoolSize(field, true);
+            }
+        }
+
+        @Override
+        void enumValue(int field, int value) {
+            if (value != 0) {
+                size += CodedOutputStream.computeEnumSize(field, value);
+            }
+        }
+
+        @Override
+        void string(int field, String value) {
+            if (value != null && !value.isEmpty()) {
+                size += CodedOutputStream.computeStringSize(field, value);
+            }
+        }
+
+        @Override
+        <T> void message(int field, Message<T> message, T value) throws IOException {
+            if (value != null) {
+                int length = sizeOf(message, value);
+                size += CodedOutputStream.computeTagSize(field) + CodedOutputStream.computeUInt32SizeNoTag(length) + length;
+            }
+        }
+    }
+
+    private static final class OutputSink extends Sink {
+
+        private final CodedOutputStream output;
+
+        OutputSink(CodedOutputStream output) {
+            this.output = output;
+        }
+
+        @Override
+        void int64(int field, long value) throws IOException {
+            if (value != 0) {
+                output.writeInt64(field, value);
+            }
+        }
+
+        @Override
+        void float64(int field, double value) throws IOException {
+            if (Double.doubleToRawLongBits(value) != 0) {
+                output.writeDouble(field, value);
+            }
+        }
+
+        @Override
+        void bool(int field, boolean value) throws IOException {
+            if (value) {
+                output.writeBool(field, true);
+            }
+        }
+
+        @Override
+        void enumValue(int field, int value) throws IOException {
+            if (value != 0) {
+                output.writeEnum(field, value);
+            }
+        }
+
+        @Override
+        void string(int field, String value) throws IOException {
+            if (value != null && !value.isEmpty()) {
+                output.writeString(field, value);
+            }
+        }
+
+        @Override
+        <T> void message(int field, Message<T> message, T value) throws IOException {
+            if (value != null) {
+                output.writeTag(field, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+                output.writeUInt32NoTag(SizeSink.sizeOf(message, value));
+                message.write(this, value);
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.fututaiwan.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 以 hibernate.queries.per.request 記錄每個請求送出的 SQL 數量 (依 HTTP method 與 URI 樣板分類)
+ * 用來找出 N+1 查詢；uri 使用樣板 (例如 /api/stocks/{id}) 以限制 tag 數量
+ */
+public class QueriesPerRequestInterceptor implements HandlerInterceptor {
+
+    static final String METRIC_NAME = "hibernate.queries.per.request";
+
+    private final QueryCountingStatementInspector inspector;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    public QueriesPerRequestInterceptor(QueryCountingStatementInspector inspector, MeterRegistry meterRegistry) {
+        this.inspector = inspector;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        inspector.reset();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        String method = request.getMethod();
+        summaries.computeIfAbsent(method + ' ' + uri, key -> DistributionSummary.builder(METRIC_NAME)
+                        .description("SQL statements issued while handling a request")
+                        .tag("method", method)
+                        .tag("uri", uri)
+                        .register(meterRegistry))
+                .record(inspector.count());
+    }
+}
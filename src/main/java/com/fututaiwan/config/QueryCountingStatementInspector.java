@@ -0,0 +1,26 @@
+package com.fututaiwan.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * 計算目前執行緒送出的 SQL 數量，供 QueriesPerRequestInterceptor 記錄每個請求的查詢次數
+ * 只計數、不改寫 SQL
+ */
+public class QueryCountingStatementInspector implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    public void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    public int count() {
+        return COUNT.get()[0];
+    }
+}
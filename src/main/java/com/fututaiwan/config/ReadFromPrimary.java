@@ -0,0 +1,17 @@
+package com.fututaiwan.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 即使是 @Transactional(readOnly = true)，也固定讀取 primary
+ * 用於讀取結果會被快取、且快取只在寫入 commit 時失效的路徑；從落後的 replica 讀到舊資料會被一直快取下去
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReadFromPrimary {
+}
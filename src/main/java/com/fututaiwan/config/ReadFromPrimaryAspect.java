@@ -0,0 +1,26 @@
+package com.fututaiwan.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * 在 @ReadFromPrimary 方法執行期間固定使用 primary；排在 TransactionInterceptor 外層
+ */
+@Aspect
+@Order(Ordered.LOWEST_PRECEDENCE - 2)
+public class ReadFromPrimaryAspect {
+
+    @Around("within(com.fututaiwan..*) && (@annotation(com.fututaiwan.config.ReadFromPrimary) "
+            + "|| @within(com.fututaiwan.config.ReadFromPrimary))")
+    public Object pin(ProceedingJoinPoint joinPoint) throws Throwable {
+        ReadWriteRoutingDataSource.pinPrimary();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ReadWriteRoutingDataSource.unpinPrimary();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.fututaiwan.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 依交易屬性選擇 primary 或 replica：
+ * 唯讀交易輪流使用延遲在門檻內的 replica；寫入、非交易存取、@ReadFromPrimary 路徑與沒有可用 replica 時一律使用 primary。
+ * 必須包在 LazyConnectionDataSourceProxy 內，讓實際取得連線的時間延後到交易的唯讀旗標設定之後
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    public static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<int[]> PRIMARY_PINS = ThreadLocal.withInitial(() -> new int[1]);
+
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder replicaFallbacks = new LongAdder();
+    private volatile List<String> healthyReplicas = List.of();
+
+    /**
+     * 在目前執行緒上固定使用 primary，需與 unpinPrimary 成對呼叫 (可巢狀)
+     */
+    public static void pinPrimary() {
+        PRIMARY_PINS.get()[0]++;
+    }
+
+    public static void unpinPrimary() {
+        PRIMARY_PINS.get()[0]--;
+    }
+
+    public void setHealthyReplicas(List<String> replicas) {
+        this.healthyReplicas = List.copyOf(replicas);
+    }
+
+    public List<String> getHealthyReplicas() {
+        return healthyReplicas;
+    }
+
+    // 唯讀交易因 replica 全部落後或離線而改讀 primary 的次數
+    public long getReplicaFallbacks() {
+        return replicaFallbacks.sum();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (PRIMARY_PINS.get()[0] > 0 || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        List<String> replicas = healthyReplicas;
+        if (replicas.isEmpty()) {
+            replicaFallbacks.increment();
+            return PRIMARY;
+        }
+        return replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+    }
+
+    // primary 是獨立的 bean，由容器關閉；這裡只關閉 replica 連線池
+    @Override
+    public void close() throws Exception {
+        for (Map.Entry<Object, DataSource> entry : getResolvedDataSources().entrySet()) {
+            if (!PRIMARY.equals(entry.getKey()) && entry.getValue() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
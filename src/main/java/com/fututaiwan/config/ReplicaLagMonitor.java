@@ -0,0 +1,118 @@
+package com.fututaiwan.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 定期量測各 replica 的複寫延遲，並更新 ReadWriteRoutingDataSource 可用的 replica 清單
+ * 已重播到最新 WAL 的 replica 延遲視為 0；否則以最後重播交易的時間估計。查詢失敗的 replica 視為不可用
+ */
+public class ReplicaLagMonitor implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    static final String LAG_SQL = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+
+    private final ReadWriteRoutingDataSource routingDataSource;
+    private final Map<String, DataSource> replicas;
+    private final DataSourceRoutingProperties properties;
+    // 無法連線時記為 -1
+    private final Map<String, Double> lagMillis = new ConcurrentHashMap<>();
+    private final Set<String> failing = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    public ReplicaLagMonitor(ReadWriteRoutingDataSource routingDataSource, Map<String, DataSource> replicas,
+                             DataSourceRoutingProperties properties, MeterRegistry meterRegistry) {
+        this.routingDataSource = routingDataSource;
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.properties = properties;
+        for (String replica : this.replicas.keySet()) {
+            lagMillis.put(replica, -1.0);
+            Gauge.builder("datasource.replica.lag", lagMillis, lags -> lags.getOrDefault(replica, -1.0))
+                    .tag("replica", replica)
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+        }
+        Gauge.builder("datasource.replica.healthy", routingDataSource, ds -> ds.getHealthyReplicas().size()).register(meterRegistry);
+        Gauge.builder("datasource.replica.fallbacks", routingDataSource, ReadWriteRoutingDataSource::getReplicaFallbacks).register(meterRegistry);
+    }
+
+    /**
+     * 量測一次並更新可用清單
+     */
+    public void check() {
+        long maxLagMillis = properties.getMaxLag().toMillis();
+        List<String> healthy = new ArrayList<>();
+        replicas.forEach((name, dataSource) -> {
+            double lag = measure(name, dataSource);
+            lagMillis.put(name, lag);
+            if (lag >= 0 && lag <= maxLagMillis) {
+                healthy.add(name);
+            }
+        });
+        routingDataSource.setHealthyReplicas(healthy);
+    }
+
+    private double measure(String name, DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(LAG_SQL)) {
+            double lag = resultSet.next() ? resultSet.getDouble(1) : -1;
+            if (failing.remove(name)) {
+                log.info("Replica {} is reachable again", name);
+            }
+            return lag;
+        } catch (Exception e) {
+            // 只在狀態轉變時記錄，避免每次檢查都寫一筆
+            if (failing.add(name)) {
+                log.warn("Replica {} lag check failed: {}", name, e.getMessage());
+            }
+            return -1;
+        }
+    }
+
+    @Override
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getLagCheckInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::check, 0, interval, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
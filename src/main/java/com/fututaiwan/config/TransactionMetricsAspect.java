@@ -0,0 +1,66 @@
+package com.fututaiwan.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 為 com.fututaiwan 內所有 @Transactional 方法記錄 fututaiwan.transaction 計時
+ * 順序排在 TransactionInterceptor 外層，計時包含開始交易與 commit/rollback
+ */
+@Aspect
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class TransactionMetricsAspect {
+
+    static final String METRIC_NAME = "fututaiwan.transaction";
+
+    private final MeterRegistry meterRegistry;
+    // 成功路徑的 Timer 依方法快取，避免每次呼叫都建立 Tags 並查詢 registry
+    private final Map<Method, Timer> successTimers = new ConcurrentHashMap<>();
+
+    public TransactionMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("within(com.fututaiwan..*) && (@annotation(org.springframework.transaction.annotation.Transactional) "
+            + "|| @within(org.springframework.transaction.annotation.Transactional))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            successTimers.computeIfAbsent(method, m -> timer(m, "none"))
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            timer(method, e.getClass().getSimpleName()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private Timer timer(Method method, String exception) {
+        Transactional transactional = AnnotatedElementUtils.findMergedAnnotation(method, Transactional.class);
+        if (transactional == null) {
+            transactional = AnnotatedElementUtils.findMergedAnnotation(method.getDeclaringClass(), Transactional.class);
+        }
+        return Timer.builder(METRIC_NAME)
+                .description("Duration of @Transactional service methods including commit")
+                .tag("class", method.getDeclaringClass().getSimpleName())
+                .tag("method", method.getName())
+                .tag("readOnly", String.valueOf(transactional != null && transactional.readOnly()))
+                .tag("exception", exception)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,46 @@
+package com.fututaiwan.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * 虛擬執行緒模式 (spring.threads.virtual.enabled=true，或啟用 virtual-threads profile)
+ * Spring Boot 會讓 Tomcat 請求處理、@Async 與排程改用虛擬執行緒；
+ * 這裡再為 DataSource 加上 JdbcBulkhead，讓大量虛擬執行緒在連線池之外排隊
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    public static BeanPostProcessor jdbcBulkheadPostProcessor(
+            @Value("${fututaiwan.jdbc-bulkhead.acquire-timeout:5s}") Duration acquireTimeout,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    // permit 數與連線池大小一致，拿到 permit 的執行緒幾乎不會在連線池內等待
+                    JdbcBulkhead bulkhead = new JdbcBulkhead(hikari, hikari.getMaximumPoolSize(), acquireTimeout);
+                    meterRegistry.ifAvailable(registry -> {
+                        Gauge.builder("jdbc.bulkhead.waiting", bulkhead, JdbcBulkhead::queueLength).register(registry);
+                        Gauge.builder("jdbc.bulkhead.available", bulkhead, JdbcBulkhead::availablePermits).register(registry);
+                    });
+                    return bulkhead;
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,35 @@
+package com.fututaiwan.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 每個 /api/** 請求一筆，期間涵蓋整個 filter chain (含序列化)
+ */
+@Name(HttpRequestEvent.NAME)
+@Label("HTTP Request")
+@Category({"FuTuTaiwan", "HTTP"})
+@Description("An HTTP request handled by the application")
+@StackTrace(false)
+public class HttpRequestEvent extends Event {
+
+    public static final String NAME = "fututaiwan.HttpRequest";
+
+    @Label("Method")
+    public String method;
+
+    @Label("Endpoint")
+    @Description("URI template of the matched handler")
+    public String endpoint;
+
+    @Label("Member Id")
+    @Description("memberId path variable (or id under /api/members), 0 when absent")
+    public long memberId;
+
+    @Label("Status")
+    public int status;
+}
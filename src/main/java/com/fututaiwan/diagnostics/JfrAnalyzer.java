@@ -0,0 +1,143 @@
+package com.fututaiwan.diagnostics;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 將 .jfr 錄製檔整理成各端點的時間分布：資料庫、序列化與其餘的應用程式時間
+ * 同一執行緒上、落在 HttpRequestEvent 期間內的 SqlStatement / Serialization 事件歸給該請求
+ * 每條執行緒的事件依開始時間排序，以二分搜尋找出請求期間的第一筆，整體為 O(n log n)
+ *
+ * 執行方式：./gradlew jfrAnalyze -Pjfr=recording.jfr
+ */
+public final class JfrAnalyzer {
+
+    private JfrAnalyzer() {
+    }
+
+    public record EndpointBreakdown(String endpoint, long requests, double avgMillis, double p99Millis,
+                                    double dbMillis, double serializationMillis, double appMillis) {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: JfrAnalyzer <recording.jfr>");
+            System.exit(1);
+        }
+        List<EndpointBreakdown> breakdowns = analyze(Path.of(args[0]));
+        System.out.printf("%-60s %8s %10s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "avg ms", "p99 ms", "db ms", "ser ms", "app ms");
+        for (EndpointBreakdown b : breakdowns) {
+            System.out.printf("%-60s %8d %10.3f %10.3f %10.3f %10.3f %10.3f%n",
+                    b.endpoint(), b.requests(), b.avgMillis(), b.p99Millis(), b.dbMillis(), b.serializationMillis(), b.appMillis());
+        }
+    }
+
+    /**
+     * 依請求數由多到少回傳各端點的平均時間分布 (毫秒)
+     */
+    public static List<EndpointBreakdown> analyze(Path recording) throws IOException {
+        Map<Long, List<RecordedEvent>> requestsByThread = new HashMap<>();
+        Map<Long, List<RecordedEvent>> innerByThread = new HashMap<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(recording)) {
+            String name = event.getEventType().getName();
+            RecordedThread thread = event.getThread();
+            if (thread == null) {
+                continue;
+            }
+            long threadId = thread.getId();
+            if (HttpRequestEvent.NAME.equals(name)) {
+                requestsByThread.computeIfAbsent(threadId, id -> new ArrayList<>()).add(event);
+            } else if (SqlStatementEvent.NAME.equals(name) || SerializationEvent.NAME.equals(name)) {
+                innerByThread.computeIfAbsent(threadId, id -> new ArrayList<>()).add(event);
+            }
+        }
+
+        Map<String, Accumulator> endpoints = new TreeMap<>();
+        requestsByThread.forEach((threadId, requests) -> {
+            List<RecordedEvent> inner = innerByThread.getOrDefault(threadId, List.of());
+            inner.sort(Comparator.comparing(RecordedEvent::getStartTime));
+            for (RecordedEvent request : requests) {
+                Instant end = request.getEndTime();
+                long db = 0;
+                long serialization = 0;
+                for (int i = firstStartingAtOrAfter(inner, request.getStartTime()); i < inner.size(); i++) {
+                    RecordedEvent event = inner.get(i);
+                    if (event.getStartTime().isAfter(end)) {
+                        break;
+                    }
+                    long nanos = event.getDuration().toNanos();
+                    if (SqlStatementEvent.NAME.equals(event.getEventType().getName())) {
+                        db += nanos;
+                    } else {
+                        serialization += nanos;
+                    }
+                }
+                String endpoint = request.getString("method") + " " + request.getString("endpoint");
+                endpoints.computeIfAbsent(endpoint, key -> new Accumulator())
+                        .add(request.getDuration(), db, serialization);
+            }
+        });
+
+        List<EndpointBreakdown> breakdowns = new ArrayList<>();
+        endpoints.forEach((endpoint, accumulator) -> breakdowns.add(accumulator.toBreakdown(endpoint)));
+        breakdowns.sort(Comparator.comparingLong(EndpointBreakdown::requests).reversed());
+        return breakdowns;
+    }
+
+    // events 依開始時間排序
+    private static int firstStartingAtOrAfter(List<RecordedEvent> events, Instant start) {
+        int low = 0;
+        int high = events.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (events.get(middle).getStartTime().isBefore(start)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static final class Accumulator {
+
+        private final List<Long> durations = new ArrayList<>();
+        private long total;
+        private long db;
+        private long serialization;
+
+        void add(Duration duration, long dbNanos, long serializationNanos) {
+            long nanos = duration.toNanos();
+            durations.add(nanos);
+            total += nanos;
+            db += dbNanos;
+            serialization += serializationNanos;
+        }
+
+        EndpointBreakdown toBreakdown(String endpoint) {
+            int count = durations.size();
+            durations.sort(null);
+            long p99 = durations.get(Math.max(0, (int) Math.ceil(count * 0.99) - 1));
+            double app = Math.max(0, total - db - serialization);
+            return new EndpointBreakdown(endpoint, count, millis(total) / count, millis(p99),
+                    millis(db) / count, millis(serialization) / count, app / 1e6 / count);
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1e6;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.fututaiwan.diagnostics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.text.ParseException;
+
+/**
+ * JFR 自訂事件 (fututaiwan.HttpRequest / SqlStatement / Serialization / QuotePipeline)
+ * 事件只在有錄製進行時才會產生，可常駐於正式環境；以 JfrAnalyzer 分析錄製檔
+ */
+@org.springframework.context.annotation.Configuration
+@ConditionalOnProperty(prefix = "fututaiwan.jfr", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class JfrConfig {
+
+    // Hibernate 以類別名稱為每個 Session 建立 listener (無參數建構子)
+    @Bean
+    public HibernatePropertiesCustomizer jfrSessionEventsCustomizer() {
+        return properties -> properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, JfrSessionEventListener.class.getName());
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public FilterRegistrationBean<HttpRequestEventFilter> httpRequestEventFilter() {
+        FilterRegistrationBean<HttpRequestEventFilter> registration = new FilterRegistrationBean<>(new HttpRequestEventFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    // 取代 Boot 預設的 Jackson converter (同型別 bean 存在時預設的不會建立)
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public MappingJackson2HttpMessageConverter jfrJacksonHttpMessageConverter(ObjectMapper objectMapper) {
+        return new JfrJacksonHttpMessageConverter(objectMapper);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "fututaiwan.jfr.continuous", name = "enabled", havingValue = "true")
+    public Recording continuousRecording(JfrProperties properties) throws IOException, ParseException {
+        JfrProperties.Continuous continuous = properties.getContinuous();
+        Recording recording = new Recording(Configuration.getConfiguration(continuous.getSettings()));
+        recording.setName("fututaiwan");
+        recording.setToDisk(true);
+        recording.setMaxAge(continuous.getMaxAge());
+        recording.setMaxSize(continuous.getMaxSizeMb() * 1024 * 1024);
+        for (String event : new String[]{HttpRequestEvent.NAME, SqlStatementEvent.NAME, SerializationEvent.NAME, QuotePipelineEvent.NAME}) {
+            recording.enable(event);
+        }
+        recording.start();
+        return recording;
+    }
+}
@@ -0,0 +1,28 @@
+package com.fututaiwan.diagnostics;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * JFR 自訂事件設定
+ */
+@Data
+@ConfigurationProperties(prefix = "fututaiwan.jfr")
+public class JfrProperties {
+
+    // 是否註冊發出事件的 filter / aspect / converter
+    private boolean enabled = true;
+
+    private Continuous continuous = new Continuous();
+
+    @Data
+    public static class Continuous {
+        // 啟動時開始一個常駐錄製，需要時以 jcmd <pid> JFR.dump name=fututaiwan 取出
+        private boolean enabled = false;
+        private String settings = "default";
+        private Duration maxAge = Duration.ofMinutes(30);
+        private long maxSizeMb = 256;
+    }
+}
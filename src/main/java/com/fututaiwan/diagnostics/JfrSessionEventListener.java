@@ -0,0 +1,51 @@
+package com.fututaiwan.diagnostics;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * 由 hibernate.session.events.auto 為每個 Session 建立一個，於 JDBC 語句執行前後發出 SqlStatementEvent
+ * 同一個 Session 上的語句依序執行，一次只會有一個進行中的事件
+ */
+public class JfrSessionEventListener implements SessionEventListener {
+
+    private transient SqlStatementEvent current;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        begin(false);
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        commit();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        begin(true);
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        commit();
+    }
+
+    private void begin(boolean batch) {
+        SqlStatementEvent event = new SqlStatementEvent();
+        if (!event.isEnabled()) {
+            current = null;
+            return;
+        }
+        event.batch = batch;
+        event.begin();
+        current = event;
+    }
+
+    private void commit() {
+        SqlStatementEvent event = current;
+        current = null;
+        if (event != null) {
+            event.commit();
+        }
+    }
+}
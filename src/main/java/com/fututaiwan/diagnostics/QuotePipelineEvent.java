@@ -0,0 +1,25 @@
+package com.fututaiwan.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 報價處理流程中每個階段一筆，stage 為階段名稱 (例如 apply)
+ */
+@Name(QuotePipelineEvent.NAME)
+@Label("Quote Pipeline Stage")
+@Category({"FuTuTaiwan", "Quotes"})
+@StackTrace(false)
+public class QuotePipelineEvent extends Event {
+
+    public static final String NAME = "fututaiwan.QuotePipeline";
+
+    @Label("Stage")
+    public String stage;
+
+    @Label("Quotes")
+    public int quotes;
+}
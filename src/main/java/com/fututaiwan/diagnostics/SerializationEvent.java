@@ -0,0 +1,22 @@
+package com.fututaiwan.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 每次將回應本文序列化為 JSON 一筆
+ */
+@Name(SerializationEvent.NAME)
+@Label("Response Serialization")
+@Category({"FuTuTaiwan", "HTTP"})
+@StackTrace(false)
+public class SerializationEvent extends Event {
+
+    public static final String NAME = "fututaiwan.Serialization";
+
+    @Label("Type")
+    public String type;
+}
@@ -0,0 +1,22 @@
+package com.fututaiwan.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Hibernate 每執行一次 JDBC 語句 (或一批 batch) 一筆，期間為 execute 呼叫本身，不含連線取得與結果對應
+ */
+@Name(SqlStatementEvent.NAME)
+@Label("SQL Statement")
+@Category({"FuTuTaiwan", "Database"})
+@StackTrace(false)
+public class SqlStatementEvent extends Event {
+
+    public static final String NAME = "fututaiwan.SqlStatement";
+
+    @Label("Batch")
+    public boolean batch;
+}
@@ -0,0 +1,36 @@
+package com.fututaiwan.member;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * 快取中的會員資料
+ * 刻意不包含 passwordHash 與 stockGroups，快取 (包含 Redis) 裡永遠不會出現密碼雜湊
+ */
+record CachedMember(Long id, String name, String phoneNumber, String nationalIdNumber, LocalDate dateOfBirth,
+                    String email, String gender, String address, Instant registrationDate, Instant lastLoginDate,
+                    Boolean isActive, String role) {
+
+    static CachedMember from(Member member) {
+        return new CachedMember(member.getId(), member.getName(), member.getPhoneNumber(), member.getNationalIdNumber(),
+                member.getDateOfBirth(), member.getEmail(), member.getGender(), member.getAddress(),
+                member.getRegistrationDate(), member.getLastLoginDate(), member.getIsActive(), member.getRole());
+    }
+
+    Member toMember() {
+        return Member.builder()
+                .id(id)
+                .name(name)
+                .phoneNumber(phoneNumber)
+                .nationalIdNumber(nationalIdNumber)
+                .dateOfBirth(dateOfBirth)
+                .email(email)
+                .gender(gender)
+                .address(address)
+                .registrationDate(registrationDate)
+                .lastLoginDate(lastLoginDate)
+                .isActive(isActive)
+                .role(role)
+                .build();
+    }
+}
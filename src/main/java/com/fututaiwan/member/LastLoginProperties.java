@@ -0,0 +1,20 @@
+package com.fututaiwan.member;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 最後登入時間合併寫入設定 (fututaiwan.member.last-login.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "fututaiwan.member.last-login")
+public class LastLoginProperties {
+
+    private Duration flushInterval = Duration.ofMillis(250);
+
+    private int maxPending = 100_000; // 緩衝區上限，超過時捨棄最久未更新的會員
+
+    private int batchSize = 1_000; // 每個 UPDATE 語句最多帶入的會員數
+}
@@ -0,0 +1,198 @@
+package com.fututaiwan.member;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 最後登入時間的合併寫入 (write-behind)
+ * 每位會員只保留最新的登入時間，定期以單一 UPDATE ... FROM (VALUES ...) 批次寫回；
+ * 此欄位允許少量遺失，因此不走 JPA，也不會更新其他欄位。
+ * 緩衝區有上限：資料庫無法寫入時保留失敗的批次重試，超過上限則捨棄最久未更新的會員 (member.last_login.dropped)，
+ * 登入的請求執行緒只寫入緩衝區，不會等待資料庫
+ * MemberCache 中的 lastLoginDate 會在快取到期後才反映新值
+ */
+@Component
+public class LastLoginWriteBehind implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(LastLoginWriteBehind.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LastLoginProperties properties;
+    private final Map<Long, Instant> pending; // 依最後一次更新排序，最前面的最舊；以自身為鎖
+    private final Counter flushedRows;
+    private final Counter failedFlushes;
+    private final Counter droppedRows;
+
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    @Autowired
+    public LastLoginWriteBehind(JdbcTemplate jdbcTemplate, LastLoginProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.flushedRows = Counter.builder("member.last_login.flushed").register(meterRegistry);
+        this.failedFlushes = Counter.builder("member.last_login.flush.failures").register(meterRegistry);
+        this.droppedRows = Counter.builder("member.last_login.dropped")
+                .description("Last login dates discarded because the buffer was full")
+                .register(meterRegistry);
+        this.pending = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Instant> eldest) {
+                if (size() > properties.getMaxPending()) {
+                    droppedRows.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        Gauge.builder("member.last_login.pending", this, LastLoginWriteBehind::pendingCount).register(meterRegistry);
+    }
+
+    public void record(Long memberId, Instant loginDate) {
+        synchronized (pending) {
+            // 移除後重新放入，移到最新的位置
+            Instant current = pending.remove(memberId);
+            pending.put(memberId, current != null && current.isAfter(loginDate) ? current : loginDate);
+        }
+    }
+
+    /**
+     * 將緩衝區內的登入時間寫回資料庫，回傳寫入的會員數
+     * 只處理呼叫當下已在緩衝區的數量；任一批寫入失敗時停止，剩餘的留待下次
+     */
+    public synchronized int flush() {
+        int flushed = 0;
+        int remaining = pendingCount();
+        while (remaining > 0) {
+            List<Map.Entry<Long, Instant>> batch = take(Math.min(remaining, properties.getBatchSize()));
+            if (batch.isEmpty()) {
+                break;
+            }
+            remaining -= batch.size();
+            int written = write(batch);
+            if (written == 0) {
+                break;
+            }
+            flushed += written;
+        }
+        return flushed;
+    }
+
+    int pendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    private List<Map.Entry<Long, Instant>> take(int count) {
+        List<Map.Entry<Long, Instant>> batch = new ArrayList<>(count);
+        synchronized (pending) {
+            Iterator<Map.Entry<Long, Instant>> entries = pending.entrySet().iterator();
+            while (batch.size() < count && entries.hasNext()) {
+                Map.Entry<Long, Instant> entry = entries.next();
+                batch.add(Map.entry(entry.getKey(), entry.getValue()));
+                entries.remove();
+            }
+        }
+        return batch;
+    }
+
+    // 失敗的批次比緩衝區內的任何登入時間都舊，放回最前面；超過上限時先被捨棄
+    private void requeue(List<Map.Entry<Long, Instant>> batch) {
+        synchronized (pending) {
+            Map<Long, Instant> merged = new LinkedHashMap<>();
+            batch.forEach(entry -> merged.put(entry.getKey(), entry.getValue()));
+            pending.forEach((memberId, loginDate) -> {
+                Instant failed = merged.remove(memberId);
+                merged.put(memberId, failed != null && failed.isAfter(loginDate) ? failed : loginDate);
+            });
+            pending.clear();
+            pending.putAll(merged);
+        }
+    }
+
+    private int write(List<Map.Entry<Long, Instant>> batch) {
+        StringBuilder sql = new StringBuilder("UPDATE members AS m SET last_login_date = v.last_login_date FROM (VALUES ");
+        Object[] args = new Object[batch.size() * 2];
+        for (int i = 0; i < batch.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append("(CAST(? AS BIGINT), CAST(? AS TIMESTAMPTZ))");
+            args[i * 2] = batch.get(i).getKey();
+            args[i * 2 + 1] = Timestamp.from(batch.get(i).getValue());
+        }
+        // 只往後推進，避免覆蓋 updateMember 寫入的較新時間
+        sql.append(") AS v(id, last_login_date) WHERE m.id = v.id")
+                .append(" AND (m.last_login_date IS NULL OR m.last_login_date < v.last_login_date)");
+        try {
+            jdbcTemplate.update(sql.toString(), args);
+            flushedRows.increment(batch.size());
+            return batch.size();
+        } catch (RuntimeException e) {
+            failedFlushes.increment();
+            log.warn("Failed to flush {} last login dates, will retry", batch.size(), e);
+            requeue(batch);
+            return 0;
+        }
+    }
+
+    @Override
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "last-login-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getFlushInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(properties.getFlushInterval().toMillis() * 4, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 關機前寫回剩餘的登入時間
+        flushQuietly();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // 比 Web 伺服器晚停止，確保關機期間最後進來的登入也能寫回；DataSource 則在所有 lifecycle 停止後才關閉
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Last login flush failed", e);
+        }
+    }
+}
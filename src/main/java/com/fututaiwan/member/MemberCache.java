@@ -0,0 +1,278 @@
+package com.fututaiwan.member;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 會員查詢的兩層快取
+ * L1 為有上限的進程內快取 (Caffeine, W-TinyLFU 淘汰)，L2 為選用的 Redis；
+ * email / 手機 / 身分證字號以次要索引對應到會員 id，會員資料本身只依 id 存一份
+ */
+@Component
+public class MemberCache {
+
+    public static final String INVALIDATION_CHANNEL = "member-cache:invalidate";
+
+    private static final Logger log = LoggerFactory.getLogger(MemberCache.class);
+
+    enum Key {
+        EMAIL("email:", CachedMember::email),
+        PHONE("phone:", CachedMember::phoneNumber),
+        NATIONAL_ID("nid:", CachedMember::nationalIdNumber);
+
+        private final String prefix;
+        private final Function<CachedMember, String> extractor;
+
+        Key(String prefix, Function<CachedMember, String> extractor) {
+            this.prefix = prefix;
+            this.extractor = extractor;
+        }
+
+        String of(String value) {
+            return prefix + value;
+        }
+
+        String of(CachedMember member) {
+            return of(extractor.apply(member));
+        }
+    }
+
+    private final MemberCacheProperties properties;
+    private final StringRedisTemplate redis; // 未啟用 L2 時為 null
+    private final ObjectMapper objectMapper;
+
+    private final Cache<Long, CachedMember> members;
+    private final Cache<String, Long> index;
+
+    private final Counter l2Hits;
+    private final Counter l2Misses;
+
+    @Autowired
+    public MemberCache(MemberCacheProperties properties, MeterRegistry meterRegistry,
+                       ObjectProvider<StringRedisTemplate> redis, ObjectMapper objectMapper) {
+        this(properties, meterRegistry, properties.getRedis().isEnabled() ? redis.getIfAvailable() : null, objectMapper);
+    }
+
+    MemberCache(MemberCacheProperties properties, MeterRegistry meterRegistry, StringRedisTemplate redis, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.redis = redis;
+        this.objectMapper = objectMapper;
+        this.members = Caffeine.newBuilder()
+                .maximumSize(properties.getNearMaximumSize())
+                .expireAfterWrite(properties.getNearExpireAfterWrite())
+                .recordStats()
+                .build();
+        // 每位會員最多三個次要鍵
+        this.index = Caffeine.newBuilder()
+                .maximumSize(properties.getNearMaximumSize() * Key.values().length)
+                .expireAfterWrite(properties.getNearExpireAfterWrite())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, members, "member.near");
+        CaffeineCacheMetrics.monitor(meterRegistry, index, "member.near.index");
+        this.l2Hits = Counter.builder("member.cache.l2.requests").tag("result", "hit").register(meterRegistry);
+        this.l2Misses = Counter.builder("member.cache.l2.requests").tag("result", "miss").register(meterRegistry);
+    }
+
+    public Optional<Member> getById(Long id, Supplier<Optional<Member>> loader) {
+        if (!properties.isEnabled()) {
+            return loader.get();
+        }
+        CachedMember cached = members.get(id, key -> loadById(key, loader));
+        return Optional.ofNullable(cached).map(CachedMember::toMember);
+    }
+
+    public Optional<Member> getBy(Key key, String value, Supplier<Optional<Member>> loader) {
+        if (!properties.isEnabled() || value == null) {
+            return loader.get();
+        }
+        String indexKey = key.of(value);
+        Long id = index.getIfPresent(indexKey);
+        if (id == null) {
+            id = redisGetIndex(indexKey);
+        }
+        if (id != null) {
+            CachedMember cached = members.getIfPresent(id);
+            if (cached == null) {
+                cached = redisGet(id);
+                if (cached != null) {
+                    members.put(id, cached);
+                }
+            }
+            // 會員資料可能已被更新，次要鍵不再相符時丟棄索引，改查資料庫
+            if (cached != null && indexKey.equals(key.of(cached))) {
+                index.put(indexKey, id);
+                return Optional.of(cached.toMember());
+            }
+            index.invalidate(indexKey);
+        }
+
+        Optional<Member> loaded = loader.get();
+        loaded.map(CachedMember::from).ifPresent(this::store);
+        return loaded.map(member -> CachedMember.from(member).toMember());
+    }
+
+    /**
+     * 只查本機 L1 的會員角色，不查 Redis 也不查資料庫；供每個請求都要判斷的路徑使用 (例如 admission 的優先等級)
+     */
+    public Optional<String> peekRole(Long id) {
+        CachedMember cached = properties.isEnabled() ? members.getIfPresent(id) : null;
+        return cached == null ? Optional.empty() : Optional.ofNullable(cached.role());
+    }
+
+    /**
+     * 會員資料異動後清除快取；在交易中呼叫時延後到 commit 之後
+     */
+    public void evict(Long id) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(id);
+                }
+            });
+        } else {
+            evictNow(id);
+        }
+    }
+
+    /**
+     * 只清除本機 L1，用於接收其他節點的失效通知
+     */
+    public void evictLocal(Long id) {
+        CachedMember cached = members.getIfPresent(id);
+        members.invalidate(id);
+        if (cached != null) {
+            for (Key key : Key.values()) {
+                index.invalidate(key.of(cached));
+            }
+        }
+    }
+
+    private void evictNow(Long id) {
+        CachedMember cached = members.getIfPresent(id);
+        if (cached == null) {
+            cached = redisGet(id);
+        }
+        evictLocal(id);
+        if (redis != null) {
+            try {
+                List<String> keys = new ArrayList<>();
+                keys.add(redisKey(String.valueOf(id)));
+                if (cached != null) {
+                    for (Key key : Key.values()) {
+                        keys.add(redisKey(key.of(cached)));
+                    }
+                }
+                redis.delete(keys);
+                redis.convertAndSend(INVALIDATION_CHANNEL, String.valueOf(id));
+            } catch (RuntimeException e) {
+                log.warn("Failed to evict member {} from Redis", id, e);
+            }
+        }
+    }
+
+    private CachedMember loadById(Long id, Supplier<Optional<Member>> loader) {
+        CachedMember cached = redisGet(id);
+        if (cached != null) {
+            indexLocal(cached);
+            return cached;
+        }
+        // 找不到的會員不快取，回傳 null 讓 Caffeine 不保留此鍵
+        return loader.get().map(CachedMember::from).map(member -> {
+            indexLocal(member);
+            redisPut(member);
+            return member;
+        }).orElse(null);
+    }
+
+    private void store(CachedMember member) {
+        members.put(member.id(), member);
+        indexLocal(member);
+        redisPut(member);
+    }
+
+    private void indexLocal(CachedMember member) {
+        for (Key key : Key.values()) {
+            if (key.extractor.apply(member) != null) {
+                index.put(key.of(member), member.id());
+            }
+        }
+    }
+
+    private CachedMember redisGet(Long id) {
+        if (redis == null) {
+            return null;
+        }
+        try {
+            String json = redis.opsForValue().get(redisKey(String.valueOf(id)));
+            if (json == null) {
+                l2Misses.increment();
+                return null;
+            }
+            l2Hits.increment();
+            return objectMapper.readValue(json, CachedMember.class);
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Failed to read member {} from Redis", id, e);
+            return null;
+        }
+    }
+
+    private Long redisGetIndex(String indexKey) {
+        if (redis == null) {
+            return null;
+        }
+        try {
+            String id = redis.opsForValue().get(redisKey(indexKey));
+            return id == null ? null : Long.valueOf(id);
+        } catch (RuntimeException e) {
+            log.warn("Failed to read member index {} from Redis", indexKey, e);
+            return null;
+        }
+    }
+
+    private void redisPut(CachedMember member) {
+        if (redis == null) {
+            return;
+        }
+        try {
+            redis.opsForValue().set(redisKey(String.valueOf(member.id())), objectMapper.writeValueAsString(member),
+                    properties.getRedis().getTtl());
+            for (Key key : Key.values()) {
+                if (key.extractor.apply(member) != null) {
+                    redis.opsForValue().set(redisKey(key.of(member)), String.valueOf(member.id()), properties.getRedis().getTtl());
+                }
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Failed to write member {} to Redis", member.id(), e);
+        }
+    }
+
+    private String redisKey(String key) {
+        return properties.getRedis().getKeyPrefix() + key;
+    }
+
+    // 測試用
+    boolean isCachedLocally(Long id) {
+        return members.getIfPresent(id) != null;
+    }
+}
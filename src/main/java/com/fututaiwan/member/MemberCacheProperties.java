@@ -0,0 +1,32 @@
+package com.fututaiwan.member;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 會員查詢快取設定 (fututaiwan.member-cache.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "fututaiwan.member-cache")
+public class MemberCacheProperties {
+
+    private boolean enabled = true;
+
+    private long nearMaximumSize = 100_000; // 進程內快取最多保留的會員數
+
+    private Duration nearExpireAfterWrite = Duration.ofMinutes(10);
+
+    private Redis redis = new Redis();
+
+    @Data
+    public static class Redis {
+
+        private boolean enabled = false; // 預設只使用進程內快取
+
+        private Duration ttl = Duration.ofMinutes(30);
+
+        private String keyPrefix = "member:";
+    }
+}
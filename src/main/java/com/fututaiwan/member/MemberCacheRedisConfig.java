@@ -0,0 +1,28 @@
+package com.fututaiwan.member;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 啟用 Redis L2 時，訂閱其他節點發出的會員快取失效通知並清除本機 L1
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "fututaiwan.member-cache.redis", name = "enabled", havingValue = "true")
+public class MemberCacheRedisConfig {
+
+    @Bean
+    public RedisMessageListenerContainer memberCacheInvalidationListener(RedisConnectionFactory connectionFactory, MemberCache memberCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) ->
+                        memberCache.evictLocal(Long.valueOf(new String(message.getBody(), StandardCharsets.UTF_8))),
+                new ChannelTopic(MemberCache.INVALIDATION_CHANNEL));
+        return container;
+    }
+}
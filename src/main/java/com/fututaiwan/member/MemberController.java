@@ -5,6 +5,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
 import java.util.List;
 
 @RestController
@@ -33,8 +34,12 @@ public class MemberController {
 
     @PostMapping
     public ResponseEntity<Member> createMember(@RequestBody Member member) {
-        Member createdMember = memberService.createMember(member);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdMember);
+        try {
+            Member createdMember = memberService.createMember(member);
+            return ResponseEntity.status(HttpStatus.CREATED).body(createdMember);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build(); // 409 Conflict for duplicate phone number or national ID
+        }
     }
 
     @PutMapping("/{id}")
@@ -42,11 +47,20 @@ public class MemberController {
         try {
             Member updatedMember = memberService.updateMember(id, member);
             return ResponseEntity.ok(updatedMember);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build(); // 手機或身分證字號與其他會員重複
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    // 記錄登入時間；寫入為非同步批次，因此回傳 202
+    @PutMapping("/{id}/last-login")
+    public ResponseEntity<Void> recordLogin(@PathVariable Long id) {
+        memberService.recordLogin(id, Instant.now());
+        return ResponseEntity.accepted().build();
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteMember(@PathVariable Long id) {
         try {
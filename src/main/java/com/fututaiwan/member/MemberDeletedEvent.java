@@ -0,0 +1,7 @@
+package com.fututaiwan.member;
+
+/**
+ * 會員已刪除 (資料庫以 ON DELETE CASCADE 一併移除其持股與群組)；在刪除的交易中發布，監聽端應於 commit 後處理
+ */
+public record MemberDeletedEvent(Long memberId) {
+}
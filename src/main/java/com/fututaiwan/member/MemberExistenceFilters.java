@@ -0,0 +1,65 @@
+package com.fututaiwan.member;
+
+import com.fututaiwan.common.ExistenceFilter;
+import com.fututaiwan.common.ExistenceFilterProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * 會員手機與身分證字號的 Bloom filter (email 不是唯一鍵，建立會員時不檢查，因此不建 filter)
+ * 啟動後於背景載入既有資料，之後每次寫入都會加入新值
+ */
+@Component
+public class MemberExistenceFilters {
+
+    private static final Logger log = LoggerFactory.getLogger(MemberExistenceFilters.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ExistenceFilter phoneNumbers;
+    private final ExistenceFilter nationalIdNumbers;
+
+    @Autowired
+    public MemberExistenceFilters(JdbcTemplate jdbcTemplate, ExistenceFilterProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.phoneNumbers = new ExistenceFilter("member.phone", properties.getExpectedMembers(), properties, meterRegistry);
+        this.nationalIdNumbers = new ExistenceFilter("member.national_id", properties.getExpectedMembers(), properties, meterRegistry);
+    }
+
+    public ExistenceFilter phoneNumbers() {
+        return phoneNumbers;
+    }
+
+    public ExistenceFilter nationalIdNumbers() {
+        return nationalIdNumbers;
+    }
+
+    public void put(Member member) {
+        phoneNumbers.put(member.getPhoneNumber());
+        nationalIdNumbers.put(member.getNationalIdNumber());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        Thread.ofPlatform().daemon().name("member-filter-load").start(this::load);
+    }
+
+    void load() {
+        try {
+            jdbcTemplate.query("SELECT phone_number, national_id_number FROM members", rs -> {
+                phoneNumbers.put(rs.getString(1));
+                nationalIdNumbers.put(rs.getString(2));
+            });
+            phoneNumbers.markReady();
+            nationalIdNumbers.markReady();
+        } catch (RuntimeException e) {
+            // 載入失敗時 filter 保持未就緒，所有檢查照常查詢資料庫
+            log.warn("Failed to load member existence filters", e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.fututaiwan.member;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+/**
+ * Member 的串流序列化：欄位名稱預先編碼，直接寫入 JsonGenerator
+ * 不輸出 passwordHash 與 stockGroups (後者經 StockGroup.member 會互相遞迴，且會觸發延遲載入)
+ */
+@JsonComponent
+public class MemberJsonSerializer extends JsonSerializer<Member> {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString PHONE_NUMBER = new SerializedString("phoneNumber");
+    private static final SerializedString NATIONAL_ID_NUMBER = new SerializedString("nationalIdNumber");
+    private static final SerializedString DATE_OF_BIRTH = new SerializedString("dateOfBirth");
+    private static final SerializedString EMAIL = new SerializedString("email");
+    private static final SerializedString GENDER = new SerializedString("gender");
+    private static final SerializedString ADDRESS = new SerializedString("address");
+    private static final SerializedString REGISTRATION_DATE = new SerializedString("registrationDate");
+    private static final SerializedString LAST_LOGIN_DATE = new SerializedString("lastLoginDate");
+    private static final SerializedString IS_ACTIVE = new SerializedString("isActive");
+    private static final SerializedString ROLE = new SerializedString("role");
+
+    @Override
+    public void serialize(Member member, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(member);
+        generator.writeFieldName(ID);
+        if (member.getId() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(member.getId());
+        }
+        generator.writeFieldName(NAME);
+        generator.writeString(member.getName());
+        generator.writeFieldName(PHONE_NUMBER);
+        generator.writeString(member.getPhoneNumber());
+        generator.writeFieldName(NATIONAL_ID_NUMBER);
+        generator.writeString(member.getNationalIdNumber());
+        // 日期時間交由 Jackson 的 java.time 序列化器，格式依 spring.jackson.* 設定
+        generator.writeFieldName(DATE_OF_BIRTH);
+        provider.defaultSerializeValue(member.getDateOfBirth(), generator);
+        generator.writeFieldName(EMAIL);
+        generator.writeString(member.getEmail());
+        generator.writeFieldName(GENDER);
+        generator.writeString(member.getGender());
+        generator.writeFieldName(ADDRESS);
+        generator.writeString(member.getAddress());
+        generator.writeFieldName(REGISTRATION_DATE);
+        provider.defaultSerializeValue(member.getRegistrationDate(), generator);
+        generator.writeFieldName(LAST_LOGIN_DATE);
+        provider.defaultSerializeValue(member.getLastLoginDate(), generator);
+        generator.writeFieldName(IS_ACTIVE);
+        if (member.getIsActive() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeBoolean(member.getIsActive());
+        }
+        generator.writeFieldName(ROLE);
+        generator.writeString(member.getRole());
+        generator.writeEndObject();
+    }
+}
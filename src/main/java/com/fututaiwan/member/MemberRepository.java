@@ -1,13 +1,25 @@
 package com.fututaiwan.member;
 
+import com.fututaiwan.common.BulkPersistRepository;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface MemberRepository extends JpaRepository<Member, Long> {
+public interface MemberRepository extends JpaRepository<Member, Long>, BulkPersistRepository<Member> {
     Optional<Member> findByEmail(String email);
     Optional<Member> findByPhoneNumber(String phoneNumber);
     Optional<Member> findByNationalIdNumber(String nationalIdNumber);
+    boolean existsByPhoneNumber(String phoneNumber);
+    boolean existsByNationalIdNumber(String nationalIdNumber);
+
+    @Query("select m.phoneNumber from Member m where m.phoneNumber in :phoneNumbers")
+    List<String> findExistingPhoneNumbers(Collection<String> phoneNumbers);
+
+    @Query("select m.nationalIdNumber from Member m where m.nationalIdNumber in :nationalIdNumbers")
+    List<String> findExistingNationalIdNumbers(Collection<String> nationalIdNumbers);
 }
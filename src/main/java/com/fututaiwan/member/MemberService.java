@@ -1,47 +1,143 @@
 package com.fututaiwan.member;
 
+import com.fututaiwan.common.BulkPersistRepository;
+import com.fututaiwan.config.Coalesced;
+import com.fututaiwan.config.ReadFromPrimary;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class MemberService {
 
     private final MemberRepository memberRepository;
+    private final MemberCache memberCache;
+    private final LastLoginWriteBehind lastLoginWriteBehind;
+    private final MemberExistenceFilters existenceFilters;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public MemberService(MemberRepository memberRepository) {
+    public MemberService(MemberRepository memberRepository, MemberCache memberCache, LastLoginWriteBehind lastLoginWriteBehind,
+                         MemberExistenceFilters existenceFilters, ApplicationEventPublisher eventPublisher) {
         this.memberRepository = memberRepository;
+        this.memberCache = memberCache;
+        this.lastLoginWriteBehind = lastLoginWriteBehind;
+        this.existenceFilters = existenceFilters;
+        this.eventPublisher = eventPublisher;
     }
 
+    // 唯讀查詢：啟用讀寫分離時會送往 replica
+    @Transactional(readOnly = true)
     public List<Member> getAllMembers() {
         return memberRepository.findAll();
     }
 
+    // 以下查詢經過 MemberCache，回傳的 Member 為快取副本，不含 passwordHash
+    // 快取只在寫入 commit 時失效，未命中時固定讀 primary，避免把 replica 上的舊資料放進快取
+    // 快取未命中時相同 key 的並行查詢只會有一次讀 primary (見 CoalescingAspect)
+    @Coalesced
+    @ReadFromPrimary
     public Optional<Member> getMemberById(Long id) {
-        return memberRepository.findById(id);
+        return memberCache.getById(id, () -> memberRepository.findById(id));
     }
 
+    // 不以 Bloom filter 判定不存在：filter 只在本節點更新，其他節點或應用程式以外新增的會員不會反映在 filter 中
+    @Coalesced
+    @ReadFromPrimary
     public Optional<Member> getMemberByEmail(String email) {
-        return memberRepository.findByEmail(email);
+        return memberCache.getBy(MemberCache.Key.EMAIL, email, () -> memberRepository.findByEmail(email));
     }
 
+    @Coalesced
+    @ReadFromPrimary
     public Optional<Member> getMemberByPhoneNumber(String phoneNumber) {
-        return memberRepository.findByPhoneNumber(phoneNumber);
+        return memberCache.getBy(MemberCache.Key.PHONE, phoneNumber, () -> memberRepository.findByPhoneNumber(phoneNumber));
     }
 
+    @Coalesced
+    @ReadFromPrimary
     public Optional<Member> getMemberByNationalIdNumber(String nationalIdNumber) {
-        return memberRepository.findByNationalIdNumber(nationalIdNumber);
+        return memberCache.getBy(MemberCache.Key.NATIONAL_ID, nationalIdNumber, () -> memberRepository.findByNationalIdNumber(nationalIdNumber));
+    }
+
+    // 只看本機快取，未快取時回傳 empty (不會查資料庫)
+    public Optional<String> getCachedRole(Long id) {
+        return memberCache.peekRole(id);
     }
 
     @Transactional
     public Member createMember(Member member) {
-        // 在這裡可以添加業務邏輯，例如檢查 email, phone number, national ID number 是否重複
-        // 為了簡化，目前直接保存
-        return memberRepository.save(member);
+        // 手機與身分證字號必須唯一；Bloom filter 判定可能重複時先查資料庫，判定不存在時省略查詢，
+        // 由資料庫的唯一限制把關 (filter 不含其他節點的新增)，違反時同樣視為重複
+        if (existenceFilters.phoneNumbers().mightContain(member.getPhoneNumber())) {
+            if (memberRepository.existsByPhoneNumber(member.getPhoneNumber())) {
+                throw new IllegalArgumentException("Member with phone number '" + member.getPhoneNumber() + "' already exists.");
+            }
+            existenceFilters.phoneNumbers().recordFalsePositive();
+        }
+        if (existenceFilters.nationalIdNumbers().mightContain(member.getNationalIdNumber())) {
+            if (memberRepository.existsByNationalIdNumber(member.getNationalIdNumber())) {
+                throw new IllegalArgumentException("Member with national ID number '" + member.getNationalIdNumber() + "' already exists.");
+            }
+            existenceFilters.nationalIdNumbers().recordFalsePositive();
+        }
+        Member savedMember = saveUnique(member);
+        existenceFilters.put(savedMember);
+        return savedMember;
+    }
+
+    /**
+     * 大量新增會員：手機或身分證字號重複 (批次內或資料庫中) 時整批不寫入並拋出 IllegalArgumentException
+     * 只有 Bloom filter 判定可能存在的值才會以 IN 查詢確認，其餘由資料庫的唯一限制把關；插入以 JDBC 批次送出
+     */
+    @Transactional
+    public List<Member> createMembers(List<Member> members) {
+        Set<String> phoneNumbers = new HashSet<>();
+        Set<String> nationalIdNumbers = new HashSet<>();
+        List<String> phoneCandidates = new ArrayList<>();
+        List<String> nationalIdCandidates = new ArrayList<>();
+        for (Member member : members) {
+            if (!phoneNumbers.add(member.getPhoneNumber())) {
+                throw new IllegalArgumentException("Member with phone number '" + member.getPhoneNumber() + "' appears more than once.");
+            }
+            if (!nationalIdNumbers.add(member.getNationalIdNumber())) {
+                throw new IllegalArgumentException("Member with national ID number '" + member.getNationalIdNumber() + "' appears more than once.");
+            }
+            if (existenceFilters.phoneNumbers().mightContain(member.getPhoneNumber())) {
+                phoneCandidates.add(member.getPhoneNumber());
+            }
+            if (existenceFilters.nationalIdNumbers().mightContain(member.getNationalIdNumber())) {
+                nationalIdCandidates.add(member.getNationalIdNumber());
+            }
+        }
+        Set<String> existingPhoneNumbers = BulkPersistRepository.findExisting(phoneCandidates, memberRepository::findExistingPhoneNumbers);
+        if (!existingPhoneNumbers.isEmpty()) {
+            throw new IllegalArgumentException("Member with phone number '" + existingPhoneNumbers.iterator().next() + "' already exists.");
+        }
+        Set<String> existingNationalIdNumbers = BulkPersistRepository.findExisting(nationalIdCandidates, memberRepository::findExistingNationalIdNumbers);
+        if (!existingNationalIdNumbers.isEmpty()) {
+            throw new IllegalArgumentException("Member with national ID number '" + existingNationalIdNumbers.iterator().next() + "' already exists.");
+        }
+        phoneCandidates.forEach(phoneNumber -> existenceFilters.phoneNumbers().recordFalsePositive());
+        nationalIdCandidates.forEach(nationalIdNumber -> existenceFilters.nationalIdNumbers().recordFalsePositive());
+
+        List<Member> savedMembers;
+        try {
+            savedMembers = memberRepository.persistAll(members);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Member with the same phone number or national ID number already exists.", e);
+        }
+        savedMembers.forEach(existenceFilters::put);
+        return savedMembers;
     }
 
     @Transactional
@@ -59,14 +155,39 @@ public class MemberService {
             member.setLastLoginDate(updatedMember.getLastLoginDate());
             member.setIsActive(updatedMember.getIsActive());
             member.setRole(updatedMember.getRole());
-            return memberRepository.save(member);
+            Member savedMember = saveUnique(member);
+            existenceFilters.put(savedMember);
+            memberCache.evict(id);
+            return savedMember;
         }).orElseThrow(() -> new RuntimeException("Member not found with id " + id));
     }
 
+    /**
+     * 寫入並立即 flush，讓唯一限制在此處而不是 commit 時違反
+     *
+     * @throws IllegalArgumentException 手機或身分證字號與其他會員重複
+     */
+    private Member saveUnique(Member member) {
+        try {
+            Member savedMember = memberRepository.save(member);
+            memberRepository.flush();
+            return savedMember;
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Member with the same phone number or national ID number already exists.", e);
+        }
+    }
+
+    // 登入時間走合併寫入，不載入整個會員實體，也不檢查會員是否存在 (不存在的 id 不會更新任何資料列)
+    public void recordLogin(Long id, Instant loginDate) {
+        lastLoginWriteBehind.record(id, loginDate);
+    }
+
     @Transactional
     public void deleteMember(Long id) {
         if (memberRepository.existsById(id)) {
             memberRepository.deleteById(id);
+            memberCache.evict(id);
+            eventPublisher.publishEvent(new MemberDeletedEvent(id));
         } else {
             throw new RuntimeException("Member not found with id " + id);
         }
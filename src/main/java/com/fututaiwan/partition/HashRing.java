@@ -0,0 +1,90 @@
+package com.fututaiwan.partition;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一致性雜湊環：每個節點依權重放置 weight × virtualNodes 個虛擬節點，key 屬於順時針方向第一個虛擬節點的節點
+ * 節點加入或離開時只有落在其虛擬節點區段內的 key 換手，其餘 key 的擁有者不變
+ * 建立後不可變更；成員變動時建立新的環
+ */
+public final class HashRing {
+
+    private final long[] tokens;
+    private final String[] owners;
+    private final Map<String, Integer> weights;
+
+    /**
+     * @param weights      節點 id 對應權重；權重 0 的節點不擁有任何 key
+     * @param virtualNodes 每單位權重的虛擬節點數
+     */
+    public HashRing(Map<String, Integer> weights, int virtualNodes) {
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("virtualNodes must be positive: " + virtualNodes);
+        }
+        List<Token> placed = new ArrayList<>();
+        for (Map.Entry<String, Integer> node : weights.entrySet()) {
+            if (node.getValue() < 0) {
+                throw new IllegalArgumentException("Negative weight for node " + node.getKey());
+            }
+            for (int i = 0; i < node.getValue() * virtualNodes; i++) {
+                placed.add(new Token(hash(node.getKey() + '#' + i), node.getKey()));
+            }
+        }
+        // 雜湊碰撞時依節點 id 排序，各節點建出的環一致
+        placed.sort(Comparator.comparingLong(Token::position).thenComparing(Token::node));
+        this.tokens = new long[placed.size()];
+        this.owners = new String[placed.size()];
+        for (int i = 0; i < placed.size(); i++) {
+            tokens[i] = placed.get(i).position();
+            owners[i] = placed.get(i).node();
+        }
+        this.weights = Map.copyOf(weights);
+    }
+
+    /**
+     * key 的擁有者節點 id；環上沒有任何虛擬節點時回傳 null
+     */
+    public String ownerOf(String key) {
+        if (tokens.length == 0) {
+            return null;
+        }
+        int index = Arrays.binarySearch(tokens, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == tokens.length ? 0 : index];
+    }
+
+    public Map<String, Integer> weights() {
+        return weights;
+    }
+
+    public boolean isEmpty() {
+        return tokens.length == 0;
+    }
+
+    /**
+     * 64 位元 FNV-1a 再經 MurmurHash3 的 fmix64 打散；只依 UTF-8 位元組計算，各節點與各版本 JVM 結果一致
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private record Token(long position, String node) {
+    }
+}
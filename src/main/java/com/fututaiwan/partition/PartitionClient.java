@@ -0,0 +1,90 @@
+package com.fututaiwan.partition;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fututaiwan.config.InternalAuthFilter;
+import com.fututaiwan.quote.Quote;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 節點之間的 HTTP 呼叫：移交股票狀態與轉送不屬於本節點的報價，每個請求都帶上 shared secret (見 InternalAuthFilter)
+ */
+public class PartitionClient {
+
+    /**
+     * 轉送的請求帶此標頭，接收端一律在本機處理，不再轉送 (各節點成員名單短暫不一致時避免來回轉送)
+     * 只有通過 InternalAuthFilter 驗證的請求才採信，一般客戶端帶此標頭不能繞過分區導向
+     */
+    public static final String FORWARDED_HEADER = "X-Partition-Forwarded";
+
+    static final String HANDOFF_PATH = "/internal/partitions/handoff";
+    static final String QUOTES_PATH = "/api/quotes";
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final Duration timeout;
+    private final String sharedSecret;
+
+    public PartitionClient(ObjectMapper objectMapper, Duration timeout, String sharedSecret) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+        this.objectMapper = objectMapper;
+        this.timeout = timeout;
+        this.sharedSecret = sharedSecret;
+    }
+
+    /**
+     * 把快照送交新擁有者，收到 2xx 才回傳
+     */
+    public void handOff(PartitionNode target, List<StockSnapshot> snapshots) {
+        HttpResponse<Void> response;
+        try {
+            response = httpClient.send(post(target, HANDOFF_PATH, snapshots), HttpResponse.BodyHandlers.discarding());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to hand off " + snapshots.size() + " stocks to " + target.id(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while handing off stocks to " + target.id(), e);
+        }
+        checkStatus(target, response);
+    }
+
+    public CompletableFuture<Void> forwardQuotes(PartitionNode target, List<Quote> quotes) {
+        return httpClient.sendAsync(post(target, QUOTES_PATH, quotes), HttpResponse.BodyHandlers.discarding())
+                .thenAccept(response -> checkStatus(target, response));
+    }
+
+    private HttpRequest post(PartitionNode target, String path, Object body) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to serialize request for " + target.id(), e);
+        }
+        return HttpRequest.newBuilder(URI.create(target.url() + path))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .header(FORWARDED_HEADER, "true")
+                .header(InternalAuthFilter.TOKEN_HEADER, sharedSecret)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(json))
+                .build();
+    }
+
+    private static void checkStatus(PartitionNode target, HttpResponse<?> response) {
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("Node " + target.id() + " responded HTTP " + response.statusCode()
+                    + " to " + response.request().uri().getPath());
+        }
+    }
+}
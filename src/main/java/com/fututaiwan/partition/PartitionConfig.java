@@ -0,0 +1,91 @@
+package com.fututaiwan.partition;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fututaiwan.config.InternalAuthProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 股票分區 (fututaiwan.partition.enabled=true)：每檔股票的 ingest 與 K 線彙整只在一個節點進行
+ * 成員固定 (STATIC) 或以 Redis 心跳動態加入與離開 (REDIS)；成員變動時移交股票狀態
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "fututaiwan.partition", name = "enabled", havingValue = "true")
+public class PartitionConfig {
+
+    // 移交與轉送都經過 /internal/** 或 X-Partition-Forwarded，需要節點之間的 shared secret
+    @Bean
+    public PartitionClient partitionClient(ObjectMapper objectMapper, PartitionProperties properties,
+                                           InternalAuthProperties internalAuthProperties) {
+        if (!internalAuthProperties.hasSharedSecret()) {
+            throw new IllegalStateException("fututaiwan.internal.shared-secret is required when fututaiwan.partition.enabled=true");
+        }
+        return new PartitionClient(objectMapper, properties.getRequestTimeout(), internalAuthProperties.getSharedSecret());
+    }
+
+    @Bean
+    public PartitionManager partitionManager(PartitionProperties properties, ObjectProvider<PartitionedState> states,
+                                             PartitionClient partitionClient, MeterRegistry meterRegistry) {
+        if (properties.getNodeId() == null || properties.getUrl() == null) {
+            throw new IllegalStateException("fututaiwan.partition.node-id and fututaiwan.partition.url are required");
+        }
+        PartitionManager manager = new PartitionManager(properties.self(), properties.getVirtualNodes(),
+                states.orderedStream().toList(), partitionClient, properties.getHandoffAttempts(), meterRegistry);
+        if (properties.getMembership() == PartitionProperties.Membership.STATIC) {
+            manager.updateMembers(staticMembers(properties));
+        }
+        return manager;
+    }
+
+    // 設定的成員名單未列出本節點時自動加入
+    static List<PartitionNode> staticMembers(PartitionProperties properties) {
+        List<PartitionNode> members = new ArrayList<>();
+        boolean containsSelf = false;
+        for (PartitionProperties.Node node : properties.getNodes()) {
+            members.add(node.toPartitionNode());
+            containsSelf |= properties.getNodeId().equals(node.getId());
+        }
+        if (!containsSelf) {
+            members.add(properties.self());
+        }
+        return members;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "fututaiwan.partition", name = "membership", havingValue = "redis")
+    public RedisPartitionMembership redisPartitionMembership(StringRedisTemplate redis, PartitionManager partitionManager,
+                                                             PartitionProperties properties) {
+        return new RedisPartitionMembership(redis, partitionManager, properties);
+    }
+
+    @Bean
+    public PartitionRouter partitionRouter(PartitionManager partitionManager, PartitionClient partitionClient,
+                                           MeterRegistry meterRegistry) {
+        return new PartitionRouter(partitionManager, partitionClient, meterRegistry);
+    }
+
+    @Bean
+    public PartitionRoutingInterceptor partitionRoutingInterceptor(PartitionManager partitionManager, MeterRegistry meterRegistry) {
+        return new PartitionRoutingInterceptor(partitionManager, meterRegistry);
+    }
+
+    // 准入控制之後執行，被拒絕的請求不需要導向
+    @Bean
+    public WebMvcConfigurer partitionRoutingConfigurer(PartitionRoutingInterceptor interceptor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(interceptor).addPathPatterns("/api/quotes/*");
+            }
+        };
+    }
+}
@@ -0,0 +1,41 @@
+package com.fututaiwan.partition;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 節點之間使用的端點：查詢分區與接收其他節點移交的股票狀態
+ */
+@RestController
+@RequestMapping("/internal/partitions")
+@ConditionalOnProperty(prefix = "fututaiwan.partition", name = "enabled", havingValue = "true")
+public class PartitionController {
+
+    private final PartitionManager partitionManager;
+
+    @Autowired
+    public PartitionController(PartitionManager partitionManager) {
+        this.partitionManager = partitionManager;
+    }
+
+    @GetMapping("/members")
+    public ResponseEntity<Collection<PartitionNode>> getMembers() {
+        return ResponseEntity.ok(partitionManager.members());
+    }
+
+    @GetMapping("/owner/{code}")
+    public ResponseEntity<PartitionNode> getOwner(@PathVariable String code) {
+        return ResponseEntity.ok(partitionManager.ownerOf(code));
+    }
+
+    @PostMapping("/handoff")
+    public ResponseEntity<Void> takeOver(@RequestBody List<StockSnapshot> snapshots) {
+        partitionManager.takeOver(snapshots);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,202 @@
+package com.fututaiwan.partition;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 依一致性雜湊環決定每檔股票由哪個節點負責 (ingest、K 線彙整等)
+ * 成員變動時先換上新的環 (之後的請求立即轉往新擁有者)，再把本節點失去的股票狀態逐一移交
+ * 移交失敗的快照暫存起來，每次 updateMembers (Redis 心跳) 依當時的環重送：擁有者換回本節點時放回本機，
+ * 否則送交目前的擁有者；失敗 maxHandOffAttempts 次後丟棄，由新擁有者從之後的報價重新累積
+ */
+public class PartitionManager {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionManager.class);
+
+    static final String METRIC_PREFIX = "partition";
+
+    private final PartitionNode self;
+    private final int virtualNodes;
+    private final List<PartitionedState> states;
+    private final PartitionClient client;
+    private final int maxHandOffAttempts;
+    private final Counter handedOff;
+    private final Counter takenOver;
+    private final Counter handOffFailures;
+    private final Counter handOffDropped;
+
+    // 移交失敗待重送的快照 (依股票代碼)，只在 synchronized 方法中存取
+    private final Map<String, PendingHandOff> pending = new LinkedHashMap<>();
+
+    private volatile View view;
+
+    public PartitionManager(PartitionNode self, int virtualNodes, List<PartitionedState> states, PartitionClient client,
+                            int maxHandOffAttempts, MeterRegistry meterRegistry) {
+        this.self = self;
+        this.virtualNodes = virtualNodes;
+        this.states = List.copyOf(states);
+        this.client = client;
+        this.maxHandOffAttempts = maxHandOffAttempts;
+        this.view = new View(new HashRing(Map.of(self.id(), self.weight()), virtualNodes), Map.of(self.id(), self));
+        this.handedOff = Counter.builder(METRIC_PREFIX + ".handoff.stocks").tag("direction", "sent").register(meterRegistry);
+        this.takenOver = Counter.builder(METRIC_PREFIX + ".handoff.stocks").tag("direction", "received").register(meterRegistry);
+        this.handOffFailures = Counter.builder(METRIC_PREFIX + ".handoff.failures").register(meterRegistry);
+        this.handOffDropped = Counter.builder(METRIC_PREFIX + ".handoff.dropped").register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".members", this, manager -> manager.view.nodes().size()).register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".handoff.pending", this, PartitionManager::pendingHandOffs).register(meterRegistry);
+    }
+
+    public PartitionNode self() {
+        return self;
+    }
+
+    public Collection<PartitionNode> members() {
+        return view.nodes().values();
+    }
+
+    /**
+     * code 的擁有者；沒有任何成員時視為本節點
+     */
+    public PartitionNode ownerOf(String code) {
+        View current = view;
+        String owner = current.ring().ownerOf(code);
+        return owner == null ? self : current.nodes().get(owner);
+    }
+
+    public boolean isLocal(String code) {
+        return ownerOf(code).id().equals(self.id());
+    }
+
+    /**
+     * 換上新的成員名單並移交本節點失去的股票；名單與目前相同時只重送先前移交失敗的快照
+     */
+    public synchronized void updateMembers(Collection<PartitionNode> members) {
+        Map<String, PartitionNode> nodes = new LinkedHashMap<>();
+        Map<String, Integer> weights = new HashMap<>();
+        for (PartitionNode node : members) {
+            nodes.put(node.id(), node);
+            weights.put(node.id(), node.weight());
+        }
+        View previous = view;
+        if (previous.nodes().equals(nodes)) {
+            retryPending();
+            return;
+        }
+        View next = new View(new HashRing(weights, virtualNodes), Map.copyOf(nodes));
+        view = next;
+        log.info("Partition members changed from {} to {}", previous.nodes().keySet(), nodes.keySet());
+        retryPending();
+        handOff(previous, next);
+    }
+
+    public synchronized int pendingHandOffs() {
+        return pending.size();
+    }
+
+    private void handOff(View previous, View next) {
+        Set<String> codes = new TreeSet<>();
+        for (PartitionedState state : states) {
+            codes.addAll(state.codes());
+        }
+        Map<String, List<String>> moved = new HashMap<>();
+        for (String code : codes) {
+            String before = previous.ring().ownerOf(code);
+            String after = next.ring().ownerOf(code);
+            if (self.id().equals(before) && after != null && !self.id().equals(after)) {
+                moved.computeIfAbsent(after, owner -> new ArrayList<>()).add(code);
+            }
+        }
+        moved.forEach((owner, movedCodes) -> {
+            List<StockSnapshot> snapshots = new ArrayList<>(movedCodes.size());
+            for (String code : movedCodes) {
+                StockSnapshot snapshot = StockSnapshot.builder().code(code).build();
+                for (PartitionedState state : states) {
+                    state.handOff(code, snapshot);
+                }
+                snapshots.add(snapshot);
+            }
+            if (!send(next.nodes().get(owner), snapshots)) {
+                // 重送時才依當時的環決定去向
+                snapshots.forEach(snapshot -> retryLater(snapshot, 1));
+            }
+        });
+    }
+
+    private boolean send(PartitionNode target, List<StockSnapshot> snapshots) {
+        try {
+            client.handOff(target, snapshots);
+            handedOff.increment(snapshots.size());
+            log.info("Handed off {} stocks to {}", snapshots.size(), target.id());
+            return true;
+        } catch (RuntimeException e) {
+            handOffFailures.increment();
+            log.warn("Failed to hand off {} stocks to {}", snapshots.size(), target.id(), e);
+            return false;
+        }
+    }
+
+    private void retryPending() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<String, List<PendingHandOff>> byOwner = new HashMap<>();
+        for (PendingHandOff handOff : pending.values()) {
+            byOwner.computeIfAbsent(ownerOf(handOff.snapshot().getCode()).id(), owner -> new ArrayList<>()).add(handOff);
+        }
+        pending.clear();
+        byOwner.forEach((owner, handOffs) -> {
+            List<StockSnapshot> snapshots = handOffs.stream().map(PendingHandOff::snapshot).toList();
+            if (owner.equals(self.id())) {
+                restore(snapshots);
+                return;
+            }
+            if (send(view.nodes().get(owner), snapshots)) {
+                return;
+            }
+            handOffs.forEach(handOff -> retryLater(handOff.snapshot(), handOff.attempts() + 1));
+        });
+    }
+
+    private void retryLater(StockSnapshot snapshot, int attempts) {
+        if (attempts < maxHandOffAttempts) {
+            pending.put(snapshot.getCode(), new PendingHandOff(snapshot, attempts));
+        } else {
+            handOffDropped.increment();
+            log.debug("Dropping the state of {} after {} failed hand-off attempts", snapshot.getCode(), attempts);
+        }
+    }
+
+    /**
+     * 套用其他節點移交的快照
+     */
+    public void takeOver(List<StockSnapshot> snapshots) {
+        restore(snapshots);
+        takenOver.increment(snapshots.size());
+    }
+
+    private void restore(List<StockSnapshot> snapshots) {
+        for (StockSnapshot snapshot : snapshots) {
+            for (PartitionedState state : states) {
+                state.takeOver(snapshot);
+            }
+        }
+    }
+
+    private record View(HashRing ring, Map<String, PartitionNode> nodes) {
+    }
+
+    private record PendingHandOff(StockSnapshot snapshot, int attempts) {
+    }
+}
@@ -0,0 +1,7 @@
+package com.fututaiwan.partition;
+
+/**
+ * 參與分區的節點；url 為其他節點轉送請求與移交狀態時使用的位址 (例如 http://10.0.0.5:8080)
+ */
+public record PartitionNode(String id, String url, int weight) {
+}
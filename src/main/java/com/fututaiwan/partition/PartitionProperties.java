@@ -0,0 +1,61 @@
+package com.fututaiwan.partition;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 股票依一致性雜湊分區到多個節點的設定 (fututaiwan.partition.*)
+ * 所有節點的 virtual-nodes 必須一致，否則各節點算出的擁有者不同
+ */
+@Data
+@ConfigurationProperties(prefix = "fututaiwan.partition")
+public class PartitionProperties {
+
+    public enum Membership {
+        STATIC, REDIS
+    }
+
+    private boolean enabled = false;
+
+    // 本節點的 id、供其他節點連線的位址與權重 (權重 2 的節點分到約兩倍的股票)
+    private String nodeId;
+    private String url;
+    private int weight = 1;
+
+    // 每單位權重的虛擬節點數；越多分布越平均，但環越大
+    private int virtualNodes = 128;
+
+    // STATIC：成員固定為 nodes (需包含本節點)；REDIS：各節點以心跳登錄，逾時未更新即視為離開
+    private Membership membership = Membership.STATIC;
+    private List<Node> nodes = new ArrayList<>();
+
+    private String redisKey = "fututaiwan:partition:nodes";
+    private Duration heartbeatInterval = Duration.ofSeconds(2);
+    private Duration nodeTimeout = Duration.ofSeconds(10);
+
+    // 移交狀態與轉送報價的 HTTP 逾時
+    private Duration requestTimeout = Duration.ofSeconds(5);
+
+    // 移交失敗時的嘗試次數上限 (含第一次)；重送隨 Redis 心跳進行，static 成員只在成員變動時嘗試
+    private int handoffAttempts = 5;
+
+    public PartitionNode self() {
+        return new PartitionNode(nodeId, url, weight);
+    }
+
+    @Data
+    public static class Node {
+
+        private String id;
+        private String url;
+        private int weight = 1;
+
+        public PartitionNode toPartitionNode() {
+            return new PartitionNode(id, url, weight);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.fututaiwan.partition;
+
+import com.fututaiwan.quote.Quote;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 上游推送的報價批次可能混有其他節點負責的股票：本節點負責的留下，其餘依擁有者分組後非同步轉送
+ * 轉送失敗只計數不重試，下一筆報價會取代這一筆
+ */
+public class PartitionRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionRouter.class);
+
+    private final PartitionManager manager;
+    private final PartitionClient client;
+    private final Counter forwarded;
+    private final Counter forwardFailures;
+
+    public PartitionRouter(PartitionManager manager, PartitionClient client, MeterRegistry meterRegistry) {
+        this.manager = manager;
+        this.client = client;
+        this.forwarded = Counter.builder(PartitionManager.METRIC_PREFIX + ".forwarded.quotes").register(meterRegistry);
+        this.forwardFailures = Counter.builder(PartitionManager.METRIC_PREFIX + ".forward.failures").register(meterRegistry);
+    }
+
+    /**
+     * 轉送不屬於本節點的報價，回傳應在本節點處理的報價 (沒有代碼的報價也留在本節點，由驗證回應 400)
+     */
+    public List<Quote> routeQuotes(List<Quote> quotes) {
+        List<Quote> local = new ArrayList<>(quotes.size());
+        Map<PartitionNode, List<Quote>> remote = new HashMap<>();
+        for (Quote quote : quotes) {
+            PartitionNode owner = quote.getCode() == null ? manager.self() : manager.ownerOf(quote.getCode());
+            if (owner.id().equals(manager.self().id())) {
+                local.add(quote);
+            } else {
+                remote.computeIfAbsent(owner, node -> new ArrayList<>()).add(quote);
+            }
+        }
+        remote.forEach(this::forward);
+        return local;
+    }
+
+    private void forward(PartitionNode owner, List<Quote> quotes) {
+        client.forwardQuotes(owner, quotes).whenComplete((ignored, failure) -> {
+            if (failure == null) {
+                forwarded.increment(quotes.size());
+            } else {
+                forwardFailures.increment();
+                log.debug("Failed to forward {} quotes to {}", quotes.size(), owner.id(), failure);
+            }
+        });
+    }
+}
@@ -0,0 +1,53 @@
+package com.fututaiwan.partition;
+
+import com.fututaiwan.config.InternalAuthFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * 單一股票的請求 (路徑變數 code) 若不屬於本節點，以 307 導向擁有者；307 讓客戶端以相同方法與內容重送
+ * 其他節點轉送 (X-Partition-Forwarded 且通過 InternalAuthFilter 驗證) 的請求一律在本機處理
+ */
+public class PartitionRoutingInterceptor implements HandlerInterceptor {
+
+    static final String OWNER_HEADER = "X-Partition-Owner";
+
+    private final PartitionManager manager;
+    private final Counter redirects;
+
+    public PartitionRoutingInterceptor(PartitionManager manager, MeterRegistry meterRegistry) {
+        this.manager = manager;
+        this.redirects = Counter.builder(PartitionManager.METRIC_PREFIX + ".redirects").register(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getHeader(PartitionClient.FORWARDED_HEADER) != null && InternalAuthFilter.isPeer(request)) {
+            return true;
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String code = variables == null ? null : variables.get("code");
+        if (code == null) {
+            return true;
+        }
+        PartitionNode owner = manager.ownerOf(code);
+        if (owner.id().equals(manager.self().id())) {
+            return true;
+        }
+        String query = request.getQueryString();
+        response.setStatus(HttpStatus.TEMPORARY_REDIRECT.value());
+        response.setHeader(HttpHeaders.LOCATION, owner.url() + request.getRequestURI() + (query == null ? "" : "?" + query));
+        response.setHeader(OWNER_HEADER, owner.id());
+        redirects.increment();
+        return false;
+    }
+}
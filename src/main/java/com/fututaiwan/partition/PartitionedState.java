@@ -0,0 +1,26 @@
+package com.fututaiwan.partition;
+
+import java.util.Set;
+
+/**
+ * 依股票分區的本機狀態 (最新報價、未收盤的 K 線等)
+ * 股票的擁有者換成其他節點時，PartitionManager 依序請各實作把該股票的狀態放進同一份快照，送交新擁有者後由其 takeOver
+ * 之後新增的每檔股票狀態 (例如技術指標、警示) 實作此介面並註冊為 bean 即可隨分區移交
+ */
+public interface PartitionedState {
+
+    /**
+     * 本機目前有狀態的股票代碼
+     */
+    Set<String> codes();
+
+    /**
+     * 把 code 的狀態寫入 snapshot；只應由新擁有者繼續維護的狀態需同時從本機移除
+     */
+    void handOff(String code, StockSnapshot snapshot);
+
+    /**
+     * 套用移交來的快照；本機已有較新的狀態 (例如移交送達前已收到的報價) 時保留本機狀態
+     */
+    void takeOver(StockSnapshot snapshot);
+}
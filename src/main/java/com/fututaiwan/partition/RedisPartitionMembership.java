@@ -0,0 +1,133 @@
+package com.fututaiwan.partition;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 以 Redis sorted set 維護成員名單：每個節點定期以目前時間為 score 寫入自己，超過 nodeTimeout 未更新的節點視為離開
+ * 每次心跳後讀回完整名單交給 PartitionManager；關機時先移除自己並把負責的股票移交出去，再停止 Web 伺服器
+ */
+public class RedisPartitionMembership implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisPartitionMembership.class);
+
+    private final StringRedisTemplate redis;
+    private final PartitionManager manager;
+    private final PartitionProperties properties;
+    private final LongSupplier clock;
+
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    public RedisPartitionMembership(StringRedisTemplate redis, PartitionManager manager, PartitionProperties properties) {
+        this(redis, manager, properties, System::currentTimeMillis);
+    }
+
+    RedisPartitionMembership(StringRedisTemplate redis, PartitionManager manager, PartitionProperties properties, LongSupplier clock) {
+        this.redis = redis;
+        this.manager = manager;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    /**
+     * 寫入本節點的心跳、清除逾時的節點並更新成員名單
+     */
+    public void heartbeat() {
+        long now = clock.getAsLong();
+        String key = properties.getRedisKey();
+        redis.opsForZSet().add(key, encode(manager.self()), now);
+        redis.opsForZSet().removeRangeByScore(key, Double.NEGATIVE_INFINITY, now - properties.getNodeTimeout().toMillis());
+        Set<String> members = redis.opsForZSet().range(key, 0, -1);
+        List<PartitionNode> nodes = new ArrayList<>();
+        if (members != null) {
+            for (String member : members) {
+                PartitionNode node = decode(member);
+                if (node != null) {
+                    nodes.add(node);
+                }
+            }
+        }
+        manager.updateMembers(nodes);
+    }
+
+    // id|weight|url；url 放在最後，可以包含分隔字元
+    static String encode(PartitionNode node) {
+        return node.id() + '|' + node.weight() + '|' + node.url();
+    }
+
+    static PartitionNode decode(String member) {
+        String[] parts = member.split("\\|", 3);
+        if (parts.length != 3) {
+            return null;
+        }
+        try {
+            return new PartitionNode(parts[0], parts[2], Integer.parseInt(parts[1]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void start() {
+        heartbeatQuietly();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "partition-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getHeartbeatInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::heartbeatQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(properties.getRequestTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            redis.opsForZSet().remove(properties.getRedisKey(), encode(manager.self()));
+        } catch (RuntimeException e) {
+            log.warn("Failed to deregister partition node {}", manager.self().id(), e);
+        }
+        List<PartitionNode> remaining = new ArrayList<>(manager.members());
+        remaining.removeIf(node -> node.id().equals(manager.self().id()));
+        if (!remaining.isEmpty()) {
+            manager.updateMembers(remaining);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // 最先停止：Web 伺服器仍在運作時離開環，之後的請求轉往新擁有者
+        return SmartLifecycle.DEFAULT_PHASE;
+    }
+
+    private void heartbeatQuietly() {
+        try {
+            heartbeat();
+        } catch (RuntimeException e) {
+            log.warn("Partition heartbeat failed", e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.fututaiwan.partition;
+
+import com.fututaiwan.quote.MinuteBarAggregator;
+import com.fututaiwan.quote.Quote;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 一檔股票移交給新擁有者時的狀態快照；沒有對應狀態的欄位為 null
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockSnapshot {
+
+    private String code;
+
+    private Quote quote; // 最新報價
+
+    private MinuteBarAggregator.State bar; // 未收盤的一分鐘 K 線與上一筆累計成交量
+}
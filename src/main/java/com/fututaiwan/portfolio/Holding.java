@@ -0,0 +1,41 @@
+package com.fututaiwan.portfolio;
+
+import com.fututaiwan.member.Member;
+import com.fututaiwan.stock.Stock;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 持股實體 (Holding Entity)
+ * 對應資料庫中的 'holdings' 表格，每位會員每檔股票一筆
+ */
+@Entity
+@Table(name = "holdings", uniqueConstraints = @UniqueConstraint(columnNames = {"member_id", "stock_id"}))
+@Data // Lombok: 自動生成 getter, setter, toString, equals, hashCode
+@NoArgsConstructor // Lombok: 自動生成無參建構子
+@AllArgsConstructor // Lombok: 自動生成包含所有欄位的建構子
+@Builder // Lombok: 提供 Builder 模式
+public class Holding {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "holdings_seq")
+    @SequenceGenerator(name = "holdings_seq", sequenceName = "holdings_id_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "member_id", nullable = false)
+    private Member member;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "stock_id", nullable = false)
+    private Stock stock;
+
+    @Column(name = "quantity", nullable = false)
+    private long quantity; // 持有股數
+
+    @Column(name = "average_cost", nullable = false)
+    private double averageCost; // 每股平均成本
+}
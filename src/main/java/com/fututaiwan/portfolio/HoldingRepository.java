@@ -0,0 +1,18 @@
+package com.fututaiwan.portfolio;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface HoldingRepository extends JpaRepository<Holding, Long> {
+
+    // 一併載入股票 (通常已在二級快取)，組裝持股明細時不必逐筆延遲載入
+    @EntityGraph(attributePaths = "stock")
+    List<Holding> findByMember_Id(Long memberId);
+
+    Optional<Holding> findByMember_IdAndStock_Id(Long memberId, Long stockId);
+}
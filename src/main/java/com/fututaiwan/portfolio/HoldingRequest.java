@@ -0,0 +1,20 @@
+package com.fututaiwan.portfolio;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 設定持股的請求內容：股數與每股平均成本皆為設定後的結果，不是增減量
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HoldingRequest {
+
+    private long quantity;
+
+    private double averageCost;
+}
@@ -0,0 +1,86 @@
+package com.fututaiwan.portfolio;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/portfolios")
+public class PortfolioController {
+
+    private final PortfolioService portfolioService;
+    private final PortfolioStreams portfolioStreams;
+
+    @Autowired
+    public PortfolioController(PortfolioService portfolioService, PortfolioStreams portfolioStreams) {
+        this.portfolioService = portfolioService;
+        this.portfolioStreams = portfolioStreams;
+    }
+
+    // 持股明細：每檔持股的數量、成本與依最新報價計算的市值
+    @GetMapping("/member/{memberId}")
+    public ResponseEntity<PortfolioResponse> getPortfolio(@PathVariable Long memberId) {
+        try {
+            return ResponseEntity.ok(portfolioService.getPortfolio(memberId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build(); // Member not found
+        }
+    }
+
+    // 即時總值 (市值、成本、未實現損益)
+    @GetMapping("/member/{memberId}/valuation")
+    public ResponseEntity<PortfolioValuation> getValuation(@PathVariable Long memberId) {
+        try {
+            return ResponseEntity.ok(portfolioService.getValuation(memberId));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build(); // 持股尚未載入完成
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build(); // Member not found
+        }
+    }
+
+    // 即時總值的 Server-Sent Events 串流，總值變動時推送 valuation 事件
+    @GetMapping(value = "/member/{memberId}/valuation/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamValuation(@PathVariable Long memberId) {
+        try {
+            portfolioService.getValuation(memberId);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(portfolioStreams.subscribe(memberId));
+    }
+
+    @PutMapping("/member/{memberId}/holdings/{stockId}")
+    public ResponseEntity<PortfolioResponse.Position> setHolding(@PathVariable Long memberId, @PathVariable Long stockId,
+                                                                 @RequestBody HoldingRequest request) {
+        try {
+            Holding holding = portfolioService.setHolding(memberId, stockId, request);
+            return ResponseEntity.ok(PortfolioResponse.Position.builder()
+                    .stockId(holding.getStock().getId())
+                    .code(holding.getStock().getCode())
+                    .name(holding.getStock().getName())
+                    .quantity(holding.getQuantity())
+                    .averageCost(holding.getAverageCost())
+                    .build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build(); // 股數或成本不合法
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build(); // Member or Stock not found
+        }
+    }
+
+    @DeleteMapping("/member/{memberId}/holdings/{stockId}")
+    public ResponseEntity<Void> removeHolding(@PathVariable Long memberId, @PathVariable Long stockId) {
+        try {
+            portfolioService.removeHolding(memberId, stockId);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -0,0 +1,540 @@
+package com.fututaiwan.portfolio;
+
+import com.fututaiwan.member.MemberDeletedEvent;
+import com.fututaiwan.quote.Quote;
+import com.fututaiwan.quote.QuoteInterest;
+import com.fututaiwan.quote.QuoteListener;
+import com.fututaiwan.quote.QuoteService;
+import com.fututaiwan.stock.StockDeletedEvent;
+import com.fututaiwan.stock.StockUpdatedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 所有會員投資組合的即時市值與未實現損益
+ * 以股票代碼 → 持有者的反向索引增量更新：一檔股票跳價時只把 股數 × 價差 加到持有它的組合，不重算其他組合
+ * 所有寫入都在單一估值執行緒上進行；ingest 執行緒只記下最新價並把該股票排入待處理 (同一檔股票排隊期間的多筆報價合併為一次)
+ * 組合總值存放在以 slot 為索引的陣列，讀取為 O(1)；持有者依 slot 排序，大量持有者的股票跳價時依序掃過陣列
+ * 持股異動在 commit 後以絕對值 (股數、平均成本) 送入同一個佇列，重複套用結果相同
+ * 刪除會員或股票時資料庫以 ON DELETE CASCADE 移除持股，commit 後收到刪除事件再移除對應的組合或部位
+ * 持股在資料庫以股票 id 關聯，修改股票代碼時 commit 後把持有者移到新代碼下
+ */
+@Component
+public class PortfolioEngine implements QuoteListener, SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(PortfolioEngine.class);
+
+    static final String METRIC_PREFIX = "portfolio";
+    // opaque 讀寫保證 double 不會被拆成兩半，讀取端不需要鎖
+    private static final VarHandle DOUBLES = MethodHandles.arrayElementVarHandle(double[].class);
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ToDoubleFunction<String> latestPrice;
+    private final QuoteInterest quoteInterest;
+    private final PortfolioProperties properties;
+    private final Timer revaluationLag;
+    private final Counter holderUpdates;
+
+    // 反向索引：ingest 執行緒只讀取，估值執行緒新增與移除
+    private final Map<String, Holders> holders = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> slots = new ConcurrentHashMap<>();
+    private final BlockingQueue<Object> work = new LinkedBlockingQueue<>();
+
+    // 以下欄位只由估值執行緒寫入
+    private volatile Book book = new Book(1024);
+    private int size;
+    private final List<Object> deferred = new ArrayList<>();
+    private long nextInterestRefresh;
+    private volatile boolean ready;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    @Autowired
+    public PortfolioEngine(JdbcTemplate jdbcTemplate, ObjectProvider<QuoteService> quoteService, QuoteInterest quoteInterest,
+                           PortfolioProperties properties, MeterRegistry meterRegistry) {
+        // QuoteService 建構時會取得所有 QuoteListener (包括本類別)，因此延後取得
+        this(jdbcTemplate, code -> quoteService.getObject().getLatestQuote(code).map(Quote::getPrice).orElse(Double.NaN),
+                quoteInterest, properties, meterRegistry);
+    }
+
+    PortfolioEngine(JdbcTemplate jdbcTemplate, ToDoubleFunction<String> latestPrice, QuoteInterest quoteInterest,
+                    PortfolioProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.latestPrice = latestPrice;
+        this.quoteInterest = quoteInterest;
+        this.properties = properties;
+        this.revaluationLag = Timer.builder(METRIC_PREFIX + ".revaluation.lag")
+                .description("Time from the first unapplied tick of a burst until every affected portfolio is revalued")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.holderUpdates = Counter.builder(METRIC_PREFIX + ".holder.updates").register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".members", slots, Map::size).register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".stocks", holders, Map::size).register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".pending", work, BlockingQueue::size).register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 會員投資組合的目前總值；會員沒有任何持股紀錄時為空
+     * 市值與成本分別讀取，持股異動的瞬間可能讀到一新一舊
+     */
+    public Optional<PortfolioValuation> getValuation(Long memberId) {
+        Integer slot = slots.get(memberId);
+        if (slot == null) {
+            return Optional.empty();
+        }
+        Book current = book;
+        double marketValue = (double) DOUBLES.getOpaque(current.marketValue, slot.intValue());
+        double cost = (double) DOUBLES.getOpaque(current.cost, slot.intValue());
+        return Optional.of(PortfolioValuation.builder()
+                .memberId(memberId)
+                .marketValue(marketValue)
+                .cost(cost)
+                .unrealizedPnl(marketValue - cost)
+                .positions((int) INTS.getOpaque(current.positions, slot.intValue()))
+                .build());
+    }
+
+    @Override
+    public void onQuote(Quote quote) {
+        Holders stock = holders.get(quote.getCode());
+        if (stock == null || !(quote.getPrice() > 0)) {
+            return;
+        }
+        stock.pendingPrice = quote.getPrice();
+        if (stock.queued.compareAndSet(false, true)) {
+            stock.queuedAt = System.nanoTime();
+            work.offer(stock);
+        }
+    }
+
+    /**
+     * 記錄持股異動 (quantity 為 0 表示出清)；在交易中呼叫時延後到 commit 之後，rollback 的異動不會影響估值
+     */
+    public void record(Long memberId, String code, long quantity, double averageCost) {
+        HoldingChange change = new HoldingChange(memberId, code, quantity, averageCost);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    work.offer(change);
+                }
+            });
+        } else {
+            work.offer(change);
+        }
+    }
+
+    // 預設在 commit 之後執行；交易外發布時立即處理
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMemberDeleted(MemberDeletedEvent event) {
+        work.offer(new MemberRemoval(event.memberId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockDeleted(StockDeletedEvent event) {
+        work.offer(new StockRemoval(event.code()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockUpdated(StockUpdatedEvent event) {
+        if (!event.previousCode().equals(event.code())) {
+            work.offer(new StockRename(event.previousCode(), event.code()));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        Thread.ofPlatform().daemon().name("portfolio-load").start(this::load);
+    }
+
+    // 依 member_id 排序載入，新會員依序取得遞增的 slot，每檔股票的持有者直接附加即為 slot 順序
+    void load() {
+        while (true) {
+            try {
+                List<HoldingChange> rows = new ArrayList<>();
+                jdbcTemplate.query("SELECT h.member_id, s.code, h.quantity, h.average_cost FROM holdings h "
+                        + "JOIN stocks s ON s.id = h.stock_id ORDER BY h.member_id", rs -> {
+                    rows.add(new HoldingChange(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getDouble(4)));
+                });
+                offerSnapshot(rows);
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Failed to load holdings, retrying in {}", properties.getLoadRetryInterval(), e);
+            }
+            try {
+                Thread.sleep(properties.getLoadRetryInterval().toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    void offerSnapshot(List<HoldingChange> rows) {
+        work.offer(new Snapshot(rows));
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        thread = new Thread(this::run, "portfolio-valuation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        List<Object> batch = new ArrayList<>();
+        while (running) {
+            try {
+                refreshInterest();
+                Object first = work.poll(1, TimeUnit.SECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    work.drainTo(batch);
+                    process(batch);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Portfolio valuation failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 在呼叫端執行緒上處理目前佇列中的所有工作，回傳處理的項目數；只在估值執行緒未啟動時使用 (測試與壓測)
+     */
+    int drain() {
+        List<Object> batch = new ArrayList<>();
+        work.drainTo(batch);
+        process(batch);
+        return batch.size();
+    }
+
+    private void process(List<Object> batch) {
+        long oldest = Long.MAX_VALUE;
+        long updates = 0;
+        for (Object item : batch) {
+            if (item instanceof Holders stock) {
+                oldest = Math.min(oldest, stock.queuedAt);
+                updates += revalue(stock);
+            } else if (item instanceof Snapshot snapshot) {
+                load(snapshot);
+            } else if (ready) {
+                apply(item);
+            } else {
+                // 載入完成前的異動與刪除先保留，載入後依序套用 (異動為絕對值、刪除可重複，載入結果已包含也不影響)
+                deferred.add(item);
+            }
+        }
+        if (oldest != Long.MAX_VALUE) {
+            revaluationLag.record(System.nanoTime() - oldest, TimeUnit.NANOSECONDS);
+            holderUpdates.increment(updates);
+        }
+    }
+
+    private int revalue(Holders stock) {
+        stock.queued.set(false);
+        double price = stock.pendingPrice;
+        if (price == stock.price) {
+            return 0;
+        }
+        double[] marketValue = book.marketValue;
+        int[] holderSlots = stock.slots;
+        long[] quantities = stock.quantities;
+        int count = stock.size;
+        if (Double.isNaN(stock.price)) {
+            // 第一筆報價：原本以各自的平均成本計價
+            double[] costs = stock.costs;
+            for (int i = 0; i < count; i++) {
+                add(marketValue, holderSlots[i], quantities[i] * (price - costs[i]));
+            }
+        } else {
+            double change = price - stock.price;
+            for (int i = 0; i < count; i++) {
+                add(marketValue, holderSlots[i], quantities[i] * change);
+            }
+        }
+        stock.price = price;
+        return count;
+    }
+
+    private void apply(Object item) {
+        switch (item) {
+            case HoldingChange change -> apply(change);
+            case MemberRemoval removal -> removeMember(removal.memberId());
+            case StockRemoval removal -> removeStock(removal.code());
+            case StockRename rename -> renameStock(rename.previousCode(), rename.code());
+            default -> throw new IllegalArgumentException("Unknown portfolio work item " + item);
+        }
+    }
+
+    private void apply(HoldingChange change) {
+        Holders stock = holders.get(change.code());
+        if (stock == null) {
+            if (change.quantity() == 0) {
+                return;
+            }
+            stock = new Holders(latestPrice.applyAsDouble(change.code()));
+            holders.put(change.code(), stock);
+        }
+        int slot = slotOf(change.memberId());
+        int index = stock.indexOf(slot);
+        long previousQuantity = index >= 0 ? stock.quantities[index] : 0;
+        double previousCost = index >= 0 ? stock.costs[index] : 0;
+        boolean priced = !Double.isNaN(stock.price);
+        double before = previousQuantity * (priced ? stock.price : previousCost);
+        double after = change.quantity() * (priced ? stock.price : change.averageCost());
+
+        Book current = book;
+        add(current.marketValue, slot, after - before);
+        add(current.cost, slot, change.quantity() * change.averageCost() - previousQuantity * previousCost);
+        if (index >= 0 && change.quantity() == 0) {
+            stock.remove(index);
+            INTS.setOpaque(current.positions, slot, current.positions[slot] - 1);
+        } else if (index >= 0) {
+            stock.quantities[index] = change.quantity();
+            stock.costs[index] = change.averageCost();
+        } else if (change.quantity() != 0) {
+            stock.insert(-index - 1, slot, change.quantity(), change.averageCost());
+            INTS.setOpaque(current.positions, slot, current.positions[slot] + 1);
+        }
+        if (stock.size == 0) {
+            holders.remove(change.code());
+        }
+    }
+
+    // 會員刪除後的組合不再回傳；slot 歸零但不重複使用
+    private void removeMember(long memberId) {
+        Integer slot = slots.get(memberId);
+        if (slot == null) {
+            return;
+        }
+        holders.entrySet().removeIf(entry -> {
+            Holders stock = entry.getValue();
+            int index = stock.indexOf(slot);
+            if (index >= 0) {
+                stock.remove(index);
+            }
+            return stock.size == 0;
+        });
+        slots.remove(memberId);
+        Book current = book;
+        DOUBLES.setOpaque(current.marketValue, slot.intValue(), 0.0);
+        DOUBLES.setOpaque(current.cost, slot.intValue(), 0.0);
+        INTS.setOpaque(current.positions, slot.intValue(), 0);
+    }
+
+    // 從每位持有者的組合扣除該股票的市值與成本
+    private void removeStock(String code) {
+        Holders stock = holders.remove(code);
+        if (stock == null) {
+            return;
+        }
+        boolean priced = !Double.isNaN(stock.price);
+        Book current = book;
+        for (int i = 0; i < stock.size; i++) {
+            int slot = stock.slots[i];
+            add(current.marketValue, slot, -stock.quantities[i] * (priced ? stock.price : stock.costs[i]));
+            add(current.cost, slot, -stock.quantities[i] * stock.costs[i]);
+            INTS.setOpaque(current.positions, slot, current.positions[slot] - 1);
+        }
+        // 已排入佇列的跳價仍會處理這個 Holders，清空後不再影響任何組合
+        stock.size = 0;
+    }
+
+    // 持有者與已套用的價格原封不動移到新代碼下，之後以新代碼的報價計價；載入結果已是新代碼時舊代碼查無資料，不做任何事
+    private void renameStock(String previousCode, String code) {
+        Holders stock = holders.remove(previousCode);
+        if (stock == null) {
+            return;
+        }
+        // 代碼唯一，新代碼下不應已有持有者；若有則是舊資料，先移除以免重複計算
+        removeStock(code);
+        holders.put(code, stock);
+    }
+
+    private void load(Snapshot snapshot) {
+        for (HoldingChange row : snapshot.rows()) {
+            if (row.quantity() == 0) {
+                continue;
+            }
+            Holders stock = holders.get(row.code());
+            if (stock == null) {
+                stock = new Holders(latestPrice.applyAsDouble(row.code()));
+                holders.put(row.code(), stock);
+            }
+            int slot = slotOf(row.memberId());
+            stock.insert(stock.size, slot, row.quantity(), row.averageCost());
+            Book current = book;
+            add(current.marketValue, slot, row.quantity() * (Double.isNaN(stock.price) ? row.averageCost() : stock.price));
+            add(current.cost, slot, row.quantity() * row.averageCost());
+            INTS.setOpaque(current.positions, slot, current.positions[slot] + 1);
+        }
+        ready = true;
+        deferred.forEach(this::apply);
+        deferred.clear();
+        nextInterestRefresh = 0;
+        log.info("Loaded {} holdings of {} members", snapshot.rows().size(), size);
+    }
+
+    private int slotOf(long memberId) {
+        Integer slot = slots.get(memberId);
+        if (slot != null) {
+            return slot;
+        }
+        if (size == book.marketValue.length) {
+            // 先發布擴充後的陣列再發布 slot，讀到 slot 的執行緒一定看得到新陣列
+            book = book.grow(size * 2);
+        }
+        slots.put(memberId, size);
+        return size++;
+    }
+
+    // 持股所在的股票視為持續關注，多節點 fan-out 時本節點會訂閱這些股票的報價分片
+    private void refreshInterest() {
+        long now = System.currentTimeMillis();
+        if (ready && now >= nextInterestRefresh) {
+            quoteInterest.touch(this, holders.keySet());
+            nextInterestRefresh = now + properties.getInterestRefresh().toMillis();
+        }
+    }
+
+    private static void add(double[] values, int slot, double delta) {
+        DOUBLES.setOpaque(values, slot, values[slot] + delta);
+    }
+
+    record HoldingChange(long memberId, String code, long quantity, double averageCost) {
+    }
+
+    private record Snapshot(List<HoldingChange> rows) {
+    }
+
+    private record MemberRemoval(long memberId) {
+    }
+
+    private record StockRemoval(String code) {
+    }
+
+    private record StockRename(String previousCode, String code) {
+    }
+
+    // 以 slot 為索引的組合總值；擴充時整組複製後替換
+    private static final class Book {
+
+        final double[] marketValue;
+        final double[] cost;
+        final int[] positions;
+
+        Book(int capacity) {
+            this(new double[capacity], new double[capacity], new int[capacity]);
+        }
+
+        private Book(double[] marketValue, double[] cost, int[] positions) {
+            this.marketValue = marketValue;
+            this.cost = cost;
+            this.positions = positions;
+        }
+
+        Book grow(int capacity) {
+            return new Book(Arrays.copyOf(marketValue, capacity), Arrays.copyOf(cost, capacity), Arrays.copyOf(positions, capacity));
+        }
+    }
+
+    // 一檔股票的持有者，依 slot 遞增排列；陣列內容只由估值執行緒存取
+    private static final class Holders {
+
+        final AtomicBoolean queued = new AtomicBoolean();
+        volatile double pendingPrice;
+        volatile long queuedAt;
+
+        double price; // 已套用到組合的價格，NaN 表示尚無報價
+        int[] slots = new int[4];
+        long[] quantities = new long[4];
+        double[] costs = new double[4];
+        int size;
+
+        Holders(double price) {
+            this.price = price;
+            this.pendingPrice = price;
+        }
+
+        int indexOf(int slot) {
+            return Arrays.binarySearch(slots, 0, size, slot);
+        }
+
+        void insert(int index, int slot, long quantity, double cost) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                quantities = Arrays.copyOf(quantities, size * 2);
+                costs = Arrays.copyOf(costs, size * 2);
+            }
+            System.arraycopy(slots, index, slots, index + 1, size - index);
+            System.arraycopy(quantities, index, quantities, index + 1, size - index);
+            System.arraycopy(costs, index, costs, index + 1, size - index);
+            slots[index] = slot;
+            quantities[index] = quantity;
+            costs[index] = cost;
+            size++;
+        }
+
+        void remove(int index) {
+            System.arraycopy(slots, index + 1, slots, index, size - index - 1);
+            System.arraycopy(quantities, index + 1, quantities, index, size - index - 1);
+            System.arraycopy(costs, index + 1, costs, index, size - index - 1);
+            size--;
+        }
+    }
+}
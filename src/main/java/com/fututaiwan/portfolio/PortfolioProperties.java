@@ -0,0 +1,26 @@
+package com.fututaiwan.portfolio;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 投資組合即時估值的設定 (fututaiwan.portfolio.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "fututaiwan.portfolio")
+public class PortfolioProperties {
+
+    // 串流檢查估值變動並推送的間隔；同一連線在間隔內的多次變動只推送最後一次
+    private Duration streamInterval = Duration.ofMillis(250);
+
+    // 串流連線的逾時，客戶端逾時後重新連線
+    private Duration streamTimeout = Duration.ofMinutes(30);
+
+    // 更新持股股票的報價關注租約 (QuoteInterest) 的間隔，必須短於 fututaiwan.quote.fanout.interest-ttl
+    private Duration interestRefresh = Duration.ofMinutes(1);
+
+    // 啟動載入持股失敗時的重試間隔
+    private Duration loadRetryInterval = Duration.ofSeconds(10);
+}
@@ -0,0 +1,44 @@
+package com.fututaiwan.portfolio;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 投資組合明細 (Portfolio Response)
+ * 會員的所有持股以及依最新報價計算的市值與未實現損益
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PortfolioResponse {
+
+    private Long memberId;
+
+    private double marketValue;
+
+    private double cost;
+
+    private double unrealizedPnl;
+
+    private List<Position> positions;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Position {
+        private Long stockId;
+        private String code;
+        private String name;
+        private long quantity;
+        private double averageCost;
+        private Double price; // 最新成交價；尚無報價時為 null，市值以平均成本計算
+        private double marketValue;
+        private double unrealizedPnl;
+    }
+}
@@ -0,0 +1,131 @@
+package com.fututaiwan.portfolio;
+
+import com.fututaiwan.member.Member;
+import com.fututaiwan.member.MemberService;
+import com.fututaiwan.quote.Quote;
+import com.fututaiwan.quote.QuoteService;
+import com.fututaiwan.stock.Stock;
+import com.fututaiwan.stock.StockService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 會員持股的維護與投資組合查詢
+ * 持股異動寫入資料庫，commit 後交給 PortfolioEngine 增量更新即時估值；
+ * 組合總值直接讀取 PortfolioEngine (O(1))，持股明細才查詢資料庫並以 QuoteService 的最新報價計價
+ */
+@Service
+public class PortfolioService {
+
+    private final HoldingRepository holdingRepository;
+    private final MemberService memberService;
+    private final StockService stockService;
+    private final QuoteService quoteService;
+    private final PortfolioEngine portfolioEngine;
+
+    @Autowired
+    public PortfolioService(HoldingRepository holdingRepository, MemberService memberService, StockService stockService,
+                            QuoteService quoteService, PortfolioEngine portfolioEngine) {
+        this.holdingRepository = holdingRepository;
+        this.memberService = memberService;
+        this.stockService = stockService;
+        this.quoteService = quoteService;
+        this.portfolioEngine = portfolioEngine;
+    }
+
+    @Transactional(readOnly = true)
+    public PortfolioResponse getPortfolio(Long memberId) {
+        memberService.getMemberById(memberId)
+                .orElseThrow(() -> new RuntimeException("Member not found with id " + memberId));
+
+        List<Holding> holdings = holdingRepository.findByMember_Id(memberId);
+        Map<String, Quote> quotes = quoteService.getLatestQuotes(holdings.stream().map(holding -> holding.getStock().getCode()).toList());
+        List<PortfolioResponse.Position> positions = new ArrayList<>(holdings.size());
+        double marketValue = 0;
+        double cost = 0;
+        for (Holding holding : holdings) {
+            Stock stock = holding.getStock();
+            Quote quote = quotes.get(stock.getCode());
+            double price = quote != null ? quote.getPrice() : holding.getAverageCost();
+            double positionValue = holding.getQuantity() * price;
+            double positionCost = holding.getQuantity() * holding.getAverageCost();
+            positions.add(PortfolioResponse.Position.builder()
+                    .stockId(stock.getId())
+                    .code(stock.getCode())
+                    .name(stock.getName())
+                    .quantity(holding.getQuantity())
+                    .averageCost(holding.getAverageCost())
+                    .price(quote != null ? quote.getPrice() : null)
+                    .marketValue(positionValue)
+                    .unrealizedPnl(positionValue - positionCost)
+                    .build());
+            marketValue += positionValue;
+            cost += positionCost;
+        }
+        positions.sort(Comparator.comparing(PortfolioResponse.Position::getCode));
+        return PortfolioResponse.builder()
+                .memberId(memberId)
+                .marketValue(marketValue)
+                .cost(cost)
+                .unrealizedPnl(marketValue - cost)
+                .positions(positions)
+                .build();
+    }
+
+    /**
+     * 投資組合的即時總值；持股尚未載入完成時拋出 IllegalStateException
+     * 會員有持股時不查詢資料庫，沒有持股時才確認會員存在
+     */
+    public PortfolioValuation getValuation(Long memberId) {
+        if (!portfolioEngine.isReady()) {
+            throw new IllegalStateException("Portfolio valuations are still loading.");
+        }
+        Optional<PortfolioValuation> valuation = portfolioEngine.getValuation(memberId);
+        if (valuation.isPresent()) {
+            return valuation.get();
+        }
+        memberService.getMemberById(memberId)
+                .orElseThrow(() -> new RuntimeException("Member not found with id " + memberId));
+        return PortfolioValuation.builder().memberId(memberId).build();
+    }
+
+    /**
+     * 設定會員對某檔股票的持股 (股數與平均成本為設定後的結果)；股數必須為正數
+     */
+    @Transactional
+    public Holding setHolding(Long memberId, Long stockId, HoldingRequest request) {
+        if (request.getQuantity() <= 0) {
+            throw new IllegalArgumentException("Holding quantity must be positive.");
+        }
+        if (!(request.getAverageCost() >= 0) || Double.isInfinite(request.getAverageCost())) {
+            throw new IllegalArgumentException("Average cost must be a non-negative number.");
+        }
+        Holding holding = holdingRepository.findByMember_IdAndStock_Id(memberId, stockId).orElseGet(() -> {
+            Member member = memberService.getMemberById(memberId)
+                    .orElseThrow(() -> new RuntimeException("Member not found with id " + memberId));
+            Stock stock = stockService.getStockById(stockId)
+                    .orElseThrow(() -> new RuntimeException("Stock not found with id " + stockId));
+            return Holding.builder().member(member).stock(stock).build();
+        });
+        holding.setQuantity(request.getQuantity());
+        holding.setAverageCost(request.getAverageCost());
+        Holding savedHolding = holdingRepository.save(holding);
+        portfolioEngine.record(memberId, holding.getStock().getCode(), holding.getQuantity(), holding.getAverageCost());
+        return savedHolding;
+    }
+
+    @Transactional
+    public void removeHolding(Long memberId, Long stockId) {
+        Holding holding = holdingRepository.findByMember_IdAndStock_Id(memberId, stockId)
+                .orElseThrow(() -> new RuntimeException("Holding not found for member " + memberId + " and stock " + stockId));
+        holdingRepository.delete(holding);
+        portfolioEngine.record(memberId, holding.getStock().getCode(), 0, 0);
+    }
+}
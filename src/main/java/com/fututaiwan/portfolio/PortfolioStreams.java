@@ -0,0 +1,150 @@
+package com.fututaiwan.portfolio;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 投資組合估值的 Server-Sent Events 串流
+ * 每 streamInterval 檢查每條連線的組合總值，有變動才推送；讀取為 O(1)，成本只與連線數有關，與跳價次數無關
+ * 推送在虛擬執行緒上進行，前一次推送尚未完成的慢速連線略過本輪，不阻塞其他連線
+ */
+@Component
+public class PortfolioStreams implements SmartLifecycle {
+
+    static final String EVENT_NAME = "valuation";
+
+    private final PortfolioEngine portfolioEngine;
+    private final PortfolioProperties properties;
+    private final Executor sender;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    @Autowired
+    public PortfolioStreams(PortfolioEngine portfolioEngine, PortfolioProperties properties, MeterRegistry meterRegistry) {
+        this(portfolioEngine, properties, meterRegistry, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    PortfolioStreams(PortfolioEngine portfolioEngine, PortfolioProperties properties, MeterRegistry meterRegistry, Executor sender) {
+        this.portfolioEngine = portfolioEngine;
+        this.properties = properties;
+        this.sender = sender;
+        Gauge.builder(PortfolioEngine.METRIC_PREFIX + ".streams", subscriptions, Set::size).register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(Long memberId) {
+        return subscribe(memberId, new SseEmitter(properties.getStreamTimeout().toMillis()));
+    }
+
+    SseEmitter subscribe(Long memberId, SseEmitter emitter) {
+        Subscription subscription = new Subscription(memberId, emitter);
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(() -> {
+            subscriptions.remove(subscription);
+            emitter.complete();
+        });
+        emitter.onError(error -> subscriptions.remove(subscription));
+        subscriptions.add(subscription);
+        // 連線後立即送出目前的估值，不必等到下一輪
+        push(subscription);
+        return emitter;
+    }
+
+    int subscriptions() {
+        return subscriptions.size();
+    }
+
+    /**
+     * 檢查所有連線並推送有變動的估值
+     */
+    void publish() {
+        for (Subscription subscription : subscriptions) {
+            push(subscription);
+        }
+    }
+
+    private void push(Subscription subscription) {
+        PortfolioValuation valuation = portfolioEngine.getValuation(subscription.memberId)
+                .orElseGet(() -> PortfolioValuation.builder().memberId(subscription.memberId).build());
+        if (valuation.getMarketValue() == subscription.marketValue && valuation.getCost() == subscription.cost) {
+            return;
+        }
+        if (!subscription.sending.compareAndSet(false, true)) {
+            return;
+        }
+        sender.execute(() -> {
+            try {
+                subscription.emitter.send(SseEmitter.event().name(EVENT_NAME).data(valuation, MediaType.APPLICATION_JSON));
+                subscription.marketValue = valuation.getMarketValue();
+                subscription.cost = valuation.getCost();
+            } catch (IOException | IllegalStateException e) {
+                // 連線已中斷或已結束
+                subscriptions.remove(subscription);
+                subscription.emitter.completeWithError(e);
+            } finally {
+                subscription.sending.set(false);
+            }
+        });
+    }
+
+    @Override
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "portfolio-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getStreamInterval().toNanos();
+        scheduler.scheduleWithFixedDelay(this::publish, interval, interval, TimeUnit.NANOSECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        scheduler.shutdownNow();
+        for (Subscription subscription : subscriptions) {
+            subscription.emitter.complete();
+        }
+        subscriptions.clear();
+        if (sender instanceof ExecutorService executor) {
+            executor.shutdown();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private static final class Subscription {
+
+        final Long memberId;
+        final SseEmitter emitter;
+        final AtomicBoolean sending = new AtomicBoolean();
+        // 最後一次成功推送的值，只在推送中 (sending) 由推送執行緒寫入
+        volatile double marketValue = Double.NaN;
+        volatile double cost = Double.NaN;
+
+        Subscription(Long memberId, SseEmitter emitter) {
+            this.memberId = memberId;
+            this.emitter = emitter;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.fututaiwan.portfolio;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 投資組合的即時總值，由 PortfolioEngine 隨報價逐筆更新
+ * 尚無報價的股票以平均成本計價 (未實現損益為 0)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PortfolioValuation {
+
+    private Long memberId;
+
+    private double marketValue; // 市值
+
+    private double cost; // 總成本
+
+    private double unrealizedPnl; // 未實現損益 = 市值 - 總成本
+
+    private int positions; // 持股檔數
+}
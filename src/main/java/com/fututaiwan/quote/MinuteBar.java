@@ -0,0 +1,9 @@
+package com.fututaiwan.quote;
+
+import java.time.Instant;
+
+/**
+ * 一分鐘 K 線；start 為該分鐘的起始時間，volume 為該分鐘內累計成交量的增量
+ */
+public record MinuteBar(String code, Instant start, double open, double high, double low, double close, long volume, int ticks) {
+}
@@ -0,0 +1,182 @@
+package com.fututaiwan.quote;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 由逐筆報價彙整一分鐘 K 線
+ * 同一檔股票收到下一分鐘的報價時收盤前一根；之後沒有報價的股票由 closeBefore 定期收盤
+ * 早於目前 K 線或不晚於上一根已收盤 K 線的報價 (亂序送達) 不計入 K 線，避免同一分鐘重複產生或倒序寫出
+ * 股票換到其他節點彙整時以 handOff 取出狀態 (同時移除)，新節點以 takeOver 接續
+ */
+public class MinuteBarAggregator {
+
+    private static final long NONE = Long.MIN_VALUE;
+    private static final long MILLIS_PER_MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    // 每檔股票一個，以自身為鎖；不同股票之間互不影響
+    private final ConcurrentHashMap<String, Bar> bars = new ConcurrentHashMap<>();
+
+    /**
+     * 移交給其他節點的彙整狀態：未收盤的 K 線 (沒有時為 null)、上一筆報價的累計成交量 (沒有時為 -1)
+     * 與上一根已收盤 K 線的起始時間 (沒有時為 null)
+     */
+    public record State(MinuteBar openBar, long lastVolume, Instant lastClosed) {
+    }
+
+    /**
+     * 加入一筆報價，volume 為當日累計成交量；若因此收盤了前一根 K 線則回傳該 K 線，否則回傳 null
+     */
+    public MinuteBar add(String code, Instant timestamp, double price, long volume) {
+        long minute = Math.floorDiv(timestamp.toEpochMilli(), MILLIS_PER_MINUTE);
+        while (true) {
+            Bar bar = bars.computeIfAbsent(code, Bar::new);
+            synchronized (bar) {
+                // 取得鎖之前已被 handOff 移除，改用新的 Bar
+                if (bar.detached) {
+                    continue;
+                }
+                if ((bar.minute != NONE && minute < bar.minute) || minute <= bar.lastClosed) {
+                    return null;
+                }
+                if (bar.minute == minute) {
+                    bar.update(price, volume);
+                    return null;
+                }
+                MinuteBar closed = bar.minute == NONE ? null : bar.close();
+                bar.start(minute, price, volume);
+                return closed;
+            }
+        }
+    }
+
+    public Set<String> codes() {
+        return Set.copyOf(bars.keySet());
+    }
+
+    /**
+     * 取出並移除 code 的彙整狀態；沒有狀態時回傳 null
+     */
+    public State handOff(String code) {
+        Bar bar = bars.remove(code);
+        if (bar == null) {
+            return null;
+        }
+        synchronized (bar) {
+            bar.detached = true;
+            return new State(bar.minute == NONE ? null : bar.snapshot(), bar.lastVolume,
+                    bar.lastClosed == NONE ? null : Instant.ofEpochMilli(bar.lastClosed * MILLIS_PER_MINUTE));
+        }
+    }
+
+    /**
+     * 接續其他節點移交的彙整狀態；本機已收到該股票的報價時保留本機狀態
+     */
+    public void takeOver(String code, State state) {
+        Bar restored = new Bar(code);
+        restored.restore(state);
+        bars.putIfAbsent(code, restored);
+    }
+
+    /**
+     * 收盤所有起始時間早於 cutoff 所在分鐘的 K 線
+     */
+    public List<MinuteBar> closeBefore(Instant cutoff) {
+        return closeBefore(Math.floorDiv(cutoff.toEpochMilli(), MILLIS_PER_MINUTE));
+    }
+
+    /**
+     * 收盤所有尚未收盤的 K 線 (關機時使用)
+     */
+    public List<MinuteBar> closeAll() {
+        return closeBefore(Long.MAX_VALUE);
+    }
+
+    private List<MinuteBar> closeBefore(long minute) {
+        List<MinuteBar> closed = new ArrayList<>();
+        for (Bar bar : bars.values()) {
+            synchronized (bar) {
+                if (bar.minute != NONE && bar.minute < minute) {
+                    closed.add(bar.close());
+                }
+            }
+        }
+        return closed;
+    }
+
+    private static final class Bar {
+
+        private final String code;
+        private long minute = NONE;
+        // 上一根已收盤 K 線的分鐘，閒置收盤後 (minute 為 NONE) 仍據此擋下遲到的報價
+        private long lastClosed = NONE;
+        private double open;
+        private double high;
+        private double low;
+        private double close;
+        private long volume;
+        private int ticks;
+        // 上一筆報價的累計成交量，跨 K 線保留；第一筆報價只作為基準
+        private long lastVolume = -1;
+        private boolean detached;
+
+        Bar(String code) {
+            this.code = code;
+        }
+
+        void start(long minute, double price, long cumulativeVolume) {
+            this.minute = minute;
+            this.open = price;
+            this.high = price;
+            this.low = price;
+            this.close = price;
+            this.volume = 0;
+            this.ticks = 0;
+            update(price, cumulativeVolume);
+        }
+
+        void update(double price, long cumulativeVolume) {
+            high = Math.max(high, price);
+            low = Math.min(low, price);
+            close = price;
+            // 累計量變小代表換日重置，整筆計入
+            if (lastVolume >= 0) {
+                volume += cumulativeVolume >= lastVolume ? cumulativeVolume - lastVolume : cumulativeVolume;
+            }
+            lastVolume = cumulativeVolume;
+            ticks++;
+        }
+
+        MinuteBar close() {
+            MinuteBar bar = snapshot();
+            lastClosed = minute;
+            minute = NONE;
+            return bar;
+        }
+
+        MinuteBar snapshot() {
+            return new MinuteBar(code, Instant.ofEpochMilli(minute * MILLIS_PER_MINUTE), open, high, low, close, volume, ticks);
+        }
+
+        void restore(State state) {
+            MinuteBar bar = state.openBar();
+            if (bar != null) {
+                minute = Math.floorDiv(bar.start().toEpochMilli(), MILLIS_PER_MINUTE);
+                open = bar.open();
+                high = bar.high();
+                low = bar.low();
+                close = bar.close();
+                volume = bar.volume();
+                ticks = bar.ticks();
+            }
+            lastVolume = state.lastVolume();
+            if (state.lastClosed() != null) {
+                lastClosed = Math.floorDiv(state.lastClosed().toEpochMilli(), MILLIS_PER_MINUTE);
+            }
+        }
+    }
+}
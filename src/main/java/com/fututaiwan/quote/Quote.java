@@ -0,0 +1,35 @@
+package com.fututaiwan.quote;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * 即時報價 (Quote)
+ * 只保存在記憶體中的最新一筆成交資訊，不對應資料庫表格
+ */
+@Data // Lombok: 自動生成 getter, setter, toString, equals, hashCode
+@NoArgsConstructor // Lombok: 自動生成無參建構子
+@AllArgsConstructor // Lombok: 自動生成包含所有欄位的建構子
+@Builder // Lombok: 提供 Builder 模式
+public class Quote {
+
+    private String code; // 股票代碼，對應 Stock.code
+
+    private double price; // 最新成交價
+
+    private double open; // 開盤價
+
+    private double high; // 最高價
+
+    private double low; // 最低價
+
+    private double previousClose; // 昨收價
+
+    private long volume; // 累計成交量
+
+    private Instant timestamp; // 成交時間
+}
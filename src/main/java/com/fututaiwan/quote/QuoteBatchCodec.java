@@ -0,0 +1,96 @@
+package com.fututaiwan.quote;
+
+import com.fututaiwan.config.ProtobufDtoEncoder;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.WireFormat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * fan-out 訊息的編碼，格式為 fututaiwan.proto 的 QuoteBatch
+ */
+final class QuoteBatchCodec {
+
+    record Batch(long publishedAtMicros, List<Quote> quotes) {
+    }
+
+    private QuoteBatchCodec() {
+    }
+
+    static byte[] encode(long publishedAtMicros, Collection<Quote> quotes) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(64 * quotes.size() + 16);
+        try {
+            ProtobufDtoEncoder.encodeQuoteBatch(publishedAtMicros, quotes, output);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return output.toByteArray();
+    }
+
+    static Batch decode(byte[] bytes) throws IOException {
+        CodedInputStream input = CodedInputStream.newInstance(bytes);
+        long publishedAtMicros = 0;
+        List<Quote> quotes = new ArrayList<>();
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case 1 -> publishedAtMicros = input.readInt64();
+                case 2 -> quotes.add(readMessage(input, QuoteBatchCodec::readQuote));
+                default -> input.skipField(tag);
+            }
+        }
+        return new Batch(publishedAtMicros, quotes);
+    }
+
+    private static Quote readQuote(CodedInputStream input) throws IOException {
+        Quote quote = new Quote();
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case 1 -> quote.setCode(input.readStringRequireUtf8());
+                case 2 -> quote.setPrice(input.readDouble());
+                case 3 -> quote.setOpen(input.readDouble());
+                case 4 -> quote.setHigh(input.readDouble());
+                case 5 -> quote.setLow(input.readDouble());
+                case 6 -> quote.setPreviousClose(input.readDouble());
+                case 7 -> quote.setVolume(input.readInt64());
+                case 8 -> quote.setTimestamp(readMessage(input, QuoteBatchCodec::readTimestamp));
+                default -> input.skipField(tag);
+            }
+        }
+        return quote;
+    }
+
+    private static Instant readTimestamp(CodedInputStream input) throws IOException {
+        long seconds = 0;
+        long nanos = 0;
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case 1 -> seconds = input.readInt64();
+                case 2 -> nanos = input.readInt64();
+                default -> input.skipField(tag);
+            }
+        }
+        return Instant.ofEpochSecond(seconds, nanos);
+    }
+
+    @FunctionalInterface
+    private interface Reader<T> {
+        T read(CodedInputStream input) throws IOException;
+    }
+
+    private static <T> T readMessage(CodedInputStream input, Reader<T> reader) throws IOException {
+        int limit = input.pushLimit(input.readRawVarint32());
+        T value = reader.read(input);
+        input.checkLastTagWas(0);
+        input.popLimit(limit);
+        return value;
+    }
+}
@@ -0,0 +1,51 @@
+package com.fututaiwan.quote;
+
+import com.fututaiwan.config.InternalAuthFilter;
+import com.fututaiwan.partition.PartitionClient;
+import com.fututaiwan.partition.PartitionRouter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/quotes")
+public class QuoteController {
+
+    private final QuoteService quoteService;
+    private final PartitionRouter partitionRouter; // 未啟用分區時為 null
+
+    @Autowired
+    public QuoteController(QuoteService quoteService, ObjectProvider<PartitionRouter> partitionRouter) {
+        this(quoteService, partitionRouter.getIfAvailable());
+    }
+
+    QuoteController(QuoteService quoteService, PartitionRouter partitionRouter) {
+        this.quoteService = quoteService;
+        this.partitionRouter = partitionRouter;
+    }
+
+    @GetMapping("/{code}")
+    public ResponseEntity<Quote> getLatestQuote(@PathVariable String code) {
+        return quoteService.getLatestQuote(code)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // 上游行情來源批次推送最新報價；分區時其他節點負責的股票轉送給擁有者 (其他節點轉送來的不再轉送)
+    @PostMapping
+    public ResponseEntity<Void> updateQuotes(@RequestBody List<Quote> quotes,
+                                             @RequestHeader(value = PartitionClient.FORWARDED_HEADER, required = false) String forwarded,
+                                             HttpServletRequest request) {
+        boolean fromPeer = forwarded != null && InternalAuthFilter.isPeer(request);
+        try {
+            quoteService.updateQuotes(partitionRouter == null || fromPeer ? quotes : partitionRouter.routeQuotes(quotes));
+            return ResponseEntity.accepted().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.fututaiwan.quote;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * 多節點部署時以 Redis pub/sub 分送報價 (fututaiwan.quote.fanout.enabled=true)
+ * PUBLISHER 節點把收到的報價發布到分片頻道；SUBSCRIBER 節點只訂閱本機用戶關注的分片
+ * 報價歷史只應由 PUBLISHER 節點寫入，SUBSCRIBER 節點請關閉 fututaiwan.quote.history.enabled
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "fututaiwan.quote.fanout", name = "enabled", havingValue = "true")
+public class QuoteFanoutConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "fututaiwan.quote.fanout", name = "role", havingValue = "publisher")
+    public QuoteFanoutPublisher quoteFanoutPublisher(RedisConnectionFactory connectionFactory, QuoteFanoutProperties properties,
+                                                     MeterRegistry meterRegistry) {
+        return new QuoteFanoutPublisher(connectionFactory, properties, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "fututaiwan.quote.fanout", name = "role", havingValue = "subscriber", matchIfMissing = true)
+    public RedisMessageListenerContainer quoteFanoutListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "fututaiwan.quote.fanout", name = "role", havingValue = "subscriber", matchIfMissing = true)
+    public QuoteFanoutSubscriber quoteFanoutSubscriber(RedisMessageListenerContainer quoteFanoutListenerContainer, QuoteService quoteService,
+                                                       QuoteInterest quoteInterest, QuoteFanoutProperties properties,
+                                                       MeterRegistry meterRegistry) {
+        return new QuoteFanoutSubscriber(quoteFanoutListenerContainer, quoteService, quoteInterest, properties, meterRegistry);
+    }
+}
@@ -0,0 +1,44 @@
+package com.fututaiwan.quote;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 跨節點報價 fan-out 設定 (fututaiwan.quote.fanout.*)
+ * 接上游行情的節點設為 PUBLISHER，其餘節點設為 SUBSCRIBER；所有節點的 shards 與 channel-prefix 必須一致
+ */
+@Data
+@ConfigurationProperties(prefix = "fututaiwan.quote.fanout")
+public class QuoteFanoutProperties {
+
+    public enum Role {
+        PUBLISHER, SUBSCRIBER
+    }
+
+    private boolean enabled = false;
+
+    private Role role = Role.SUBSCRIBER;
+
+    // 股票代碼依 hash 分到 shards 個頻道 (channel-prefix + shard)
+    private int shards = 64;
+    private String channelPrefix = "quotes:";
+
+    // 發布端累積報價的間隔，期間內同一檔股票只送最新一筆；每則訊息最多 maxBatch 筆
+    private Duration publishInterval = Duration.ofMillis(20);
+    private int maxBatch = 500;
+
+    // 訂閱端依本機關注的股票重新計算訂閱分片的間隔，以及關注 (例如讀取自選股) 的有效期間
+    private Duration resubscribeInterval = Duration.ofSeconds(1);
+    private Duration interestTtl = Duration.ofMinutes(5);
+
+    public int shardOf(String code) {
+        // String.hashCode 的定義固定，各節點算出的分片一致
+        return Math.floorMod(code.hashCode(), shards);
+    }
+
+    public String channelOf(int shard) {
+        return channelPrefix + shard;
+    }
+}
@@ -0,0 +1,166 @@
+package com.fututaiwan.quote;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 接上游行情的節點把報價發布到 Redis 分片頻道，其他節點不需要自己的行情來源
+ * ingest 執行緒只把報價放進所屬分片的待送表 (同一檔股票只留最新一筆)；
+ * 每 publishInterval 由發布執行緒取出，每個分片編成一則 QuoteBatch，以同一條連線 pipeline 送出
+ * 報價是最新狀態而非成交明細，因此合併同一檔股票不會遺失資訊；發布失敗的報價會被下一筆取代，不重送
+ */
+public class QuoteFanoutPublisher implements QuoteListener, SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(QuoteFanoutPublisher.class);
+
+    static final String METRIC_PREFIX = "quote.fanout";
+
+    private final RedisConnectionFactory connectionFactory;
+    private final QuoteFanoutProperties properties;
+    private final Clock clock;
+    private final Map<String, Quote>[] pending;
+    private final byte[][] channels;
+    private final Counter messages;
+    private final Counter quotes;
+    private final Counter failures;
+
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    public QuoteFanoutPublisher(RedisConnectionFactory connectionFactory, QuoteFanoutProperties properties, MeterRegistry meterRegistry) {
+        this(connectionFactory, properties, meterRegistry, Clock.systemUTC());
+    }
+
+    @SuppressWarnings("unchecked")
+    QuoteFanoutPublisher(RedisConnectionFactory connectionFactory, QuoteFanoutProperties properties, MeterRegistry meterRegistry, Clock clock) {
+        this.connectionFactory = connectionFactory;
+        this.properties = properties;
+        this.clock = clock;
+        this.pending = new Map[properties.getShards()];
+        this.channels = new byte[properties.getShards()][];
+        for (int shard = 0; shard < properties.getShards(); shard++) {
+            pending[shard] = new ConcurrentHashMap<>();
+            channels[shard] = properties.channelOf(shard).getBytes(StandardCharsets.UTF_8);
+        }
+        this.messages = Counter.builder(METRIC_PREFIX + ".published.messages").register(meterRegistry);
+        this.quotes = Counter.builder(METRIC_PREFIX + ".published.quotes").register(meterRegistry);
+        this.failures = Counter.builder(METRIC_PREFIX + ".publish.failures").register(meterRegistry);
+    }
+
+    @Override
+    public void onQuote(Quote quote) {
+        pending[properties.shardOf(quote.getCode())].put(quote.getCode(), quote);
+    }
+
+    /**
+     * 送出所有待送報價，回傳送出的訊息數
+     */
+    public int publish() {
+        List<byte[]> shardChannels = new ArrayList<>();
+        List<byte[]> payloads = new ArrayList<>();
+        long publishedAtMicros = ChronoUnit.MICROS.between(Instant.EPOCH, clock.instant());
+        int published = 0;
+        for (int shard = 0; shard < pending.length; shard++) {
+            List<Quote> batch = drain(pending[shard]);
+            for (int from = 0; from < batch.size(); from += properties.getMaxBatch()) {
+                List<Quote> chunk = batch.subList(from, Math.min(batch.size(), from + properties.getMaxBatch()));
+                shardChannels.add(channels[shard]);
+                payloads.add(QuoteBatchCodec.encode(publishedAtMicros, chunk));
+                published += chunk.size();
+            }
+        }
+        if (payloads.isEmpty()) {
+            return 0;
+        }
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.openPipeline();
+            for (int i = 0; i < payloads.size(); i++) {
+                connection.publish(shardChannels.get(i), payloads.get(i));
+            }
+            connection.closePipeline();
+            messages.increment(payloads.size());
+            quotes.increment(published);
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Failed to publish {} quotes in {} messages", published, payloads.size(), e);
+        }
+        return payloads.size();
+    }
+
+    // 逐一移除並取出最新值；移除後才寫入的報價留到下一次
+    private static List<Quote> drain(Map<String, Quote> shard) {
+        if (shard.isEmpty()) {
+            return List.of();
+        }
+        List<Quote> batch = new ArrayList<>(shard.size());
+        Iterator<String> codes = shard.keySet().iterator();
+        while (codes.hasNext()) {
+            Quote quote = shard.remove(codes.next());
+            if (quote != null) {
+                batch.add(quote);
+            }
+        }
+        return batch;
+    }
+
+    @Override
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "quote-fanout-publish");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getPublishInterval().toNanos();
+        scheduler.scheduleWithFixedDelay(this::publishQuietly, interval, interval, TimeUnit.NANOSECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        publishQuietly();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // 比 Web 伺服器晚停止，關機期間最後送達的報價也會發布；Redis 連線在所有 lifecycle 停止後才關閉
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void publishQuietly() {
+        try {
+            publish();
+        } catch (RuntimeException e) {
+            log.warn("Quote fan-out publish failed", e);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.fututaiwan.quote;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 沒有上游行情的節點從 Redis 分片頻道接收報價，寫入本機 QuoteService
+ * 只訂閱本機用戶關注的股票 (QuoteInterest) 所在的分片，每 resubscribeInterval 重新計算並增減訂閱
+ * 延遲以發布端時鐘計算，跨節點時包含兩端的時鐘誤差
+ */
+public class QuoteFanoutSubscriber implements MessageListener, SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(QuoteFanoutSubscriber.class);
+
+    private final RedisMessageListenerContainer container;
+    private final QuoteService quoteService;
+    private final QuoteInterest interest;
+    private final QuoteFanoutProperties properties;
+    private final Clock clock;
+    private final Set<Integer> subscribed = ConcurrentHashMap.newKeySet();
+    private final Counter received;
+    private final Counter decodeFailures;
+    private final Timer latency;
+
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    public QuoteFanoutSubscriber(RedisMessageListenerContainer container, QuoteService quoteService, QuoteInterest interest,
+                                 QuoteFanoutProperties properties, MeterRegistry meterRegistry) {
+        this(container, quoteService, interest, properties, meterRegistry, Clock.systemUTC());
+    }
+
+    QuoteFanoutSubscriber(RedisMessageListenerContainer container, QuoteService quoteService, QuoteInterest interest,
+                          QuoteFanoutProperties properties, MeterRegistry meterRegistry, Clock clock) {
+        this.container = container;
+        this.quoteService = quoteService;
+        this.interest = interest;
+        this.properties = properties;
+        this.clock = clock;
+        this.received = Counter.builder(QuoteFanoutPublisher.METRIC_PREFIX + ".received.quotes").register(meterRegistry);
+        this.decodeFailures = Counter.builder(QuoteFanoutPublisher.METRIC_PREFIX + ".decode.failures").register(meterRegistry);
+        this.latency = Timer.builder(QuoteFanoutPublisher.METRIC_PREFIX + ".latency")
+                .description("Publish-to-apply latency of fanned-out quote batches")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder(QuoteFanoutPublisher.METRIC_PREFIX + ".subscribed.shards", subscribed, Set::size).register(meterRegistry);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        QuoteBatchCodec.Batch batch;
+        try {
+            batch = QuoteBatchCodec.decode(message.getBody());
+        } catch (IOException | RuntimeException e) {
+            decodeFailures.increment();
+            log.debug("Dropping undecodable quote batch", e);
+            return;
+        }
+        List<Quote> quotes = batch.quotes();
+        quoteService.updateQuotes(quotes);
+        received.increment(quotes.size());
+        long micros = ChronoUnit.MICROS.between(Instant.EPOCH, clock.instant()) - batch.publishedAtMicros();
+        latency.record(Math.max(0, micros), TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * 依目前關注的股票增減訂閱的分片
+     */
+    public void resubscribe() {
+        Set<Integer> wanted = new HashSet<>();
+        for (String code : interest.activeCodes()) {
+            wanted.add(properties.shardOf(code));
+        }
+        for (Integer shard : Set.copyOf(subscribed)) {
+            if (!wanted.contains(shard)) {
+                container.removeMessageListener(this, new ChannelTopic(properties.channelOf(shard)));
+                subscribed.remove(shard);
+            }
+        }
+        for (Integer shard : wanted) {
+            if (subscribed.add(shard)) {
+                container.addMessageListener(this, new ChannelTopic(properties.channelOf(shard)));
+            }
+        }
+    }
+
+    Set<Integer> subscribedShards() {
+        return Set.copyOf(subscribed);
+    }
+
+    @Override
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "quote-fanout-resubscribe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getResubscribeInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::resubscribeQuietly, 0, interval, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        scheduler.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void resubscribeQuietly() {
+        try {
+            resubscribe();
+        } catch (RuntimeException e) {
+            log.warn("Failed to update quote fan-out subscriptions", e);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.fututaiwan.quote;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+
+/**
+ * 報價歷史資料 (逐筆與一分鐘 K 線) 寫入 Mongo (fututaiwan.quote.history.enabled=true 時啟用)
+ * Mongo 無法連線時不影響啟動與報價更新，寫入端重試後丟棄並計數
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "fututaiwan.quote.history", name = "enabled", havingValue = "true")
+public class QuoteHistoryConfig {
+
+    @Bean
+    public QuoteHistoryWriter quoteHistoryWriter(MongoDatabaseFactory mongoDatabaseFactory, QuoteHistoryProperties properties,
+                                                 MeterRegistry meterRegistry) {
+        return new QuoteHistoryWriter(mongoDatabaseFactory, properties, meterRegistry);
+    }
+}
@@ -0,0 +1,41 @@
+package com.fututaiwan.quote;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 逐筆報價與一分鐘 K 線寫入 Mongo time-series collection 的設定 (fututaiwan.quote.history.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "fututaiwan.quote.history")
+public class QuoteHistoryProperties {
+
+    private boolean enabled = false;
+
+    private String tickCollection = "quote_ticks";
+    private String barCollection = "quote_bars_1m";
+
+    // 逐筆資料的保存期間 (time-series 的 expireAfterSeconds)；K 線永久保存
+    private Duration tickRetention = Duration.ofDays(30);
+
+    // 每次 insertMany 的筆數上限，以及第一筆進入緩衝區後最多等待多久就寫出
+    private int batchSize = 1_000;
+    private Duration maxLatency = Duration.ofMillis(200);
+
+    // 緩衝區上限；滿了之後 ingest 最多等待 offerTimeout (預設不等待)，仍放不進去就丟棄並計數
+    private int tickBufferCapacity = 100_000;
+    private int barBufferCapacity = 10_000;
+    private Duration offerTimeout = Duration.ZERO;
+
+    // 寫入失敗時以指數退避重試，超過次數後丟棄該批
+    private int maxRetries = 5;
+    private Duration retryBackoff = Duration.ofMillis(100);
+
+    // 分鐘結束後再等多久才收盤沒有新報價的 K 線，容許稍晚送達的報價
+    private Duration barCloseGrace = Duration.ofSeconds(2);
+
+    // 關機時等待緩衝區寫完的上限；寫入執行緒提早結束時不會等滿
+    private Duration shutdownTimeout = Duration.ofSeconds(10);
+}
@@ -0,0 +1,340 @@
+package com.fututaiwan.quote;
+
+import com.fututaiwan.diagnostics.QuotePipelineEvent;
+import com.fututaiwan.partition.PartitionedState;
+import com.fututaiwan.partition.StockSnapshot;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoCommandException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.CreateCollectionOptions;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.TimeSeriesGranularity;
+import com.mongodb.client.model.TimeSeriesOptions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 逐筆報價與一分鐘 K 線的非同步寫入 (write-behind)，寫入 Mongo time-series collection
+ * ingest 執行緒只把文件放進有上限的緩衝區；每個 collection 一個寫入執行緒，累積到 batchSize 筆或第一筆等待超過 maxLatency
+ * 就以 unordered insertMany 寫出。寫入失敗以指數退避重試，重試期間緩衝區會被填滿，此時 ingest 端丟棄新的逐筆資料並計數，
+ * 不會拖慢報價更新。K 線與逐筆資料使用不同緩衝區，逐筆資料積壓不會擠掉 K 線
+ * time-series collection 沒有唯一索引，網路錯誤後重試整批可能寫入重複文件，查詢端需容許
+ * 分區時未收盤的 K 線隨股票移交，由新擁有者收盤並寫出
+ */
+public class QuoteHistoryWriter implements QuoteListener, SmartLifecycle, PartitionedState {
+
+    private static final Logger log = LoggerFactory.getLogger(QuoteHistoryWriter.class);
+
+    static final String METRIC_PREFIX = "quote.history";
+    private static final int NAMESPACE_EXISTS = 48;
+
+    private final MongoDatabaseFactory databaseFactory;
+    private final QuoteHistoryProperties properties;
+    private final Clock clock;
+    private final MinuteBarAggregator aggregator = new MinuteBarAggregator();
+    private final Channel ticks;
+    private final Channel bars;
+
+    private volatile boolean running;
+
+    public QuoteHistoryWriter(MongoDatabaseFactory databaseFactory, QuoteHistoryProperties properties, MeterRegistry meterRegistry) {
+        this(databaseFactory, properties, meterRegistry, Clock.systemUTC());
+    }
+
+    QuoteHistoryWriter(MongoDatabaseFactory databaseFactory, QuoteHistoryProperties properties, MeterRegistry meterRegistry, Clock clock) {
+        this.databaseFactory = databaseFactory;
+        this.properties = properties;
+        this.clock = clock;
+        this.ticks = new Channel(properties.getTickCollection(), properties.getTickBufferCapacity(),
+                new CreateCollectionOptions()
+                        .timeSeriesOptions(new TimeSeriesOptions("timestamp").metaField("code").granularity(TimeSeriesGranularity.SECONDS))
+                        .expireAfter(properties.getTickRetention().toSeconds(), TimeUnit.SECONDS),
+                meterRegistry);
+        this.bars = new Channel(properties.getBarCollection(), properties.getBarBufferCapacity(),
+                new CreateCollectionOptions()
+                        .timeSeriesOptions(new TimeSeriesOptions("timestamp").metaField("code").granularity(TimeSeriesGranularity.MINUTES)),
+                meterRegistry);
+    }
+
+    @Override
+    public void onQuote(Quote quote) {
+        Instant timestamp = quote.getTimestamp() != null ? quote.getTimestamp() : clock.instant();
+        ticks.offer(new Document("timestamp", Date.from(timestamp))
+                .append("code", quote.getCode())
+                .append("price", quote.getPrice())
+                .append("volume", quote.getVolume()));
+        MinuteBar closed = aggregator.add(quote.getCode(), timestamp, quote.getPrice(), quote.getVolume());
+        if (closed != null) {
+            bars.offer(barDocument(closed));
+        }
+    }
+
+    // 沒有新報價的股票在分鐘結束 (加上寬限時間) 後收盤；由 K 線寫入執行緒在每次取批之前呼叫
+    void closeIdleBars() {
+        offerBars(aggregator.closeBefore(clock.instant().minus(properties.getBarCloseGrace())));
+    }
+
+    private void offerBars(Collection<MinuteBar> closed) {
+        for (MinuteBar bar : closed) {
+            bars.offer(barDocument(bar));
+        }
+    }
+
+    private static Document barDocument(MinuteBar bar) {
+        return new Document("timestamp", Date.from(bar.start()))
+                .append("code", bar.code())
+                .append("open", bar.open())
+                .append("high", bar.high())
+                .append("low", bar.low())
+                .append("close", bar.close())
+                .append("volume", bar.volume())
+                .append("ticks", bar.ticks());
+    }
+
+    @Override
+    public Set<String> codes() {
+        return aggregator.codes();
+    }
+
+    @Override
+    public void handOff(String code, StockSnapshot snapshot) {
+        snapshot.setBar(aggregator.handOff(code));
+    }
+
+    @Override
+    public void takeOver(StockSnapshot snapshot) {
+        if (snapshot.getBar() != null) {
+            aggregator.takeOver(snapshot.getCode(), snapshot.getBar());
+        }
+    }
+
+    int pendingTicks() {
+        return ticks.queue.size();
+    }
+
+    int pendingBars() {
+        return bars.queue.size();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        ticks.start(null);
+        bars.start(this::closeIdleBars);
+    }
+
+    @Override
+    public void stop() {
+        // 關機時寫出尚未收盤的 K 線 (同一分鐘內重新啟動會產生兩根該分鐘的 K 線)
+        offerBars(aggregator.closeAll());
+        running = false;
+        long deadline = System.nanoTime() + properties.getShutdownTimeout().toNanos();
+        ticks.join(deadline);
+        bars.join(deadline);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // 比 Web 伺服器晚停止，關機期間最後送達的報價也會寫出
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private final class Channel {
+
+        private final String collection;
+        private final BlockingQueue<Document> queue;
+        private final CreateCollectionOptions createOptions;
+        private final Counter written;
+        private final Counter dropped;
+        private final Counter failures;
+        private final DistributionSummary batchSizes;
+        private volatile boolean created;
+        private Thread thread;
+
+        Channel(String collection, int capacity, CreateCollectionOptions createOptions, MeterRegistry meterRegistry) {
+            this.collection = collection;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.createOptions = createOptions;
+            this.written = Counter.builder(METRIC_PREFIX + ".written").tag("collection", collection).register(meterRegistry);
+            this.dropped = Counter.builder(METRIC_PREFIX + ".dropped")
+                    .description("Documents dropped because the buffer was full or retries were exhausted")
+                    .tag("collection", collection)
+                    .register(meterRegistry);
+            this.failures = Counter.builder(METRIC_PREFIX + ".write.failures").tag("collection", collection).register(meterRegistry);
+            this.batchSizes = DistributionSummary.builder(METRIC_PREFIX + ".batch.size").tag("collection", collection).register(meterRegistry);
+            Gauge.builder(METRIC_PREFIX + ".pending", queue, BlockingQueue::size).tag("collection", collection).register(meterRegistry);
+        }
+
+        void offer(Document document) {
+            if (queue.offer(document)) {
+                return;
+            }
+            long timeout = properties.getOfferTimeout().toNanos();
+            try {
+                if (timeout > 0 && queue.offer(document, timeout, TimeUnit.NANOSECONDS)) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            dropped.increment();
+        }
+
+        void start(Runnable beforeBatch) {
+            thread = new Thread(() -> run(beforeBatch), "quote-history-" + collection);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        void join(long deadline) {
+            try {
+                thread.join(Duration.ofNanos(Math.max(1, deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void run(Runnable beforeBatch) {
+            List<Document> batch = new ArrayList<>(properties.getBatchSize());
+            while (running || !queue.isEmpty()) {
+                try {
+                    if (beforeBatch != null) {
+                        beforeBatch.run();
+                    }
+                    fill(batch);
+                    if (!batch.isEmpty()) {
+                        write(batch);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (RuntimeException e) {
+                    log.warn("Quote history writer for {} failed", collection, e);
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+
+        // 第一筆最多等待 maxLatency；取得第一筆後，湊滿 batchSize 或距第一筆超過 maxLatency 就寫出
+        private void fill(List<Document> batch) throws InterruptedException {
+            long maxLatency = properties.getMaxLatency().toNanos();
+            Document first = queue.poll(maxLatency, TimeUnit.NANOSECONDS);
+            if (first == null) {
+                return;
+            }
+            long deadline = System.nanoTime() + maxLatency;
+            batch.add(first);
+            queue.drainTo(batch, properties.getBatchSize() - batch.size());
+            while (batch.size() < properties.getBatchSize() && running) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                Document next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    break;
+                }
+                batch.add(next);
+                queue.drainTo(batch, properties.getBatchSize() - batch.size());
+            }
+        }
+
+        private void write(List<Document> batch) throws InterruptedException {
+            QuotePipelineEvent event = new QuotePipelineEvent();
+            event.begin();
+            batchSizes.record(batch.size());
+            List<Document> pending = batch;
+            long backoff = properties.getRetryBackoff().toMillis();
+            for (int attempt = 0; ; attempt++) {
+                try {
+                    MongoDatabase database = databaseFactory.getMongoDatabase();
+                    ensureCollection(database);
+                    database.getCollection(collection).insertMany(pending, new InsertManyOptions().ordered(false));
+                    written.increment(pending.size());
+                    break;
+                } catch (MongoBulkWriteException e) {
+                    // unordered：其餘文件已寫入，只重試失敗且非重複鍵的文件
+                    written.increment(e.getWriteResult().getInsertedCount());
+                    pending = retryable(pending, e.getWriteErrors());
+                    if (pending.isEmpty()) {
+                        break;
+                    }
+                    failures.increment();
+                } catch (RuntimeException e) {
+                    failures.increment();
+                    log.debug("Failed to write {} documents to {} (attempt {})", pending.size(), collection, attempt + 1, e);
+                }
+                if (attempt >= properties.getMaxRetries()) {
+                    dropped.increment(pending.size());
+                    log.warn("Dropping {} documents for {} after {} attempts", pending.size(), collection, attempt + 1);
+                    break;
+                }
+                Thread.sleep(backoff << Math.min(attempt, 10));
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.stage = "persist:" + collection;
+                event.quotes = batch.size();
+                event.commit();
+            }
+        }
+
+        private List<Document> retryable(List<Document> pending, List<BulkWriteError> errors) {
+            List<Document> retry = new ArrayList<>(errors.size());
+            for (BulkWriteError error : errors) {
+                if (ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY) {
+                    retry.add(pending.get(error.getIndex()));
+                }
+            }
+            return retry;
+        }
+
+        // 第一次寫入前建立 time-series collection；已存在時沿用
+        private void ensureCollection(MongoDatabase database) {
+            if (created) {
+                return;
+            }
+            boolean exists = false;
+            for (String name : database.listCollectionNames()) {
+                exists |= name.equals(collection);
+            }
+            if (!exists) {
+                try {
+                    database.createCollection(collection, createOptions);
+                } catch (MongoCommandException e) {
+                    if (e.getErrorCode() != NAMESPACE_EXISTS) {
+                        throw e;
+                    }
+                }
+            }
+            created = true;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.fututaiwan.quote;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 本節點的用戶正在關注哪些股票 (例如讀取自選股的會員)，決定 fan-out 訂閱端要訂閱哪些分片
+ * 關注以租約表示，在 interest-ttl 內沒有再次 touch 就視為離開；串流連線等有明確結束時間的用戶可直接 release
+ * 到期的租約由 touch 每隔 interest-ttl 清除一次，沒有訂閱端呼叫 activeCodes 時 (例如單節點部署) 也不會無限累積
+ */
+@Component
+public class QuoteInterest {
+
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final Map<Object, Lease> leases = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweepAt = new AtomicLong();
+
+    public QuoteInterest() {
+        this(new QuoteFanoutProperties());
+    }
+
+    @Autowired
+    public QuoteInterest(QuoteFanoutProperties properties) {
+        this(properties.getInterestTtl().toMillis(), System::currentTimeMillis);
+    }
+
+    QuoteInterest(long ttlMillis, LongSupplier clock) {
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * 更新 owner 關注的股票並延長租約；codes 與上次是同一個物件時只延長租約
+     */
+    public void touch(Object owner, Collection<String> codes) {
+        long now = clock.getAsLong();
+        long expiresAt = now + ttlMillis;
+        long sweepAt = nextSweepAt.get();
+        if (now >= sweepAt && nextSweepAt.compareAndSet(sweepAt, expiresAt)) {
+            removeExpired(now);
+        }
+        Lease lease = leases.get(owner);
+        if (lease != null && lease.codes == codes) {
+            lease.expiresAt = expiresAt;
+            return;
+        }
+        leases.put(owner, new Lease(codes, expiresAt));
+    }
+
+    public void release(Object owner) {
+        leases.remove(owner);
+    }
+
+    /**
+     * 目前仍有效的關注股票；順便移除已到期的租約
+     */
+    public Set<String> activeCodes() {
+        removeExpired(clock.getAsLong());
+        Set<String> codes = new HashSet<>();
+        for (Lease lease : leases.values()) {
+            codes.addAll(lease.codes);
+        }
+        return codes;
+    }
+
+    int leaseCount() {
+        return leases.size();
+    }
+
+    private void removeExpired(long now) {
+        leases.values().removeIf(lease -> lease.expiresAt <= now);
+    }
+
+    private static final class Lease {
+
+        final Collection<String> codes;
+        volatile long expiresAt;
+
+        Lease(Collection<String> codes, long expiresAt) {
+            this.codes = codes;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.fututaiwan.quote;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+/**
+ * Quote 的串流序列化：欄位名稱預先編碼，數值直接寫出；timestamp 交由 Jackson 的 Instant 序列化器，格式與其他時間欄位一致
+ */
+@JsonComponent
+public class QuoteJsonSerializer extends JsonSerializer<Quote> {
+
+    private static final SerializedString CODE = new SerializedString("code");
+    private static final SerializedString PRICE = new SerializedString("price");
+    private static final SerializedString OPEN = new SerializedString("open");
+    private static final SerializedString HIGH = new SerializedString("high");
+    private static final SerializedString LOW = new SerializedString("low");
+    private static final SerializedString PREVIOUS_CLOSE = new SerializedString("previousClose");
+    private static final SerializedString VOLUME = new SerializedString("volume");
+    private static final SerializedString TIMESTAMP = new SerializedString("timestamp");
+
+    @Override
+    public void serialize(Quote quote, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        write(quote, generator, provider);
+    }
+
+    public static void write(Quote quote, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(quote);
+        generator.writeFieldName(CODE);
+        generator.writeString(quote.getCode());
+        generator.writeFieldName(PRICE);
+        generator.writeNumber(quote.getPrice());
+        generator.writeFieldName(OPEN);
+        generator.writeNumber(quote.getOpen());
+        generator.writeFieldName(HIGH);
+        generator.writeNumber(quote.getHigh());
+        generator.writeFieldName(LOW);
+        generator.writeNumber(quote.getLow());
+        generator.writeFieldName(PREVIOUS_CLOSE);
+        generator.writeNumber(quote.getPreviousClose());
+        generator.writeFieldName(VOLUME);
+        generator.writeNumber(quote.getVolume());
+        generator.writeFieldName(TIMESTAMP);
+        provider.defaultSerializeValue(quote.getTimestamp(), generator);
+        generator.writeEndObject();
+    }
+}
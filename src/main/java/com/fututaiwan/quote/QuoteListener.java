@@ -0,0 +1,10 @@
+package com.fututaiwan.quote;
+
+/**
+ * 報價寫入記憶體狀態後的下游處理 (例如歷史資料寫入)
+ * 在 ingest 執行緒上同步呼叫，實作必須很快返回，耗時的工作交給自己的執行緒
+ */
+public interface QuoteListener {
+
+    void onQuote(Quote quote);
+}
@@ -0,0 +1,113 @@
+package com.fututaiwan.quote;
+
+import com.fututaiwan.diagnostics.QuotePipelineEvent;
+import com.fututaiwan.partition.PartitionedState;
+import com.fututaiwan.partition.StockSnapshot;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 最新報價的記憶體狀態
+ * 每次寫入報價都會遞增 epoch，讓下游快取 (例如自選股清單) 可以判斷報價是否已經變動
+ * 寫入後依序通知 QuoteListener (例如歷史資料寫入)
+ * 分區時最新報價隨股票移交給新擁有者；本機保留最後一筆，自選股等跨股票的讀取仍可使用
+ */
+@Service
+public class QuoteService implements PartitionedState {
+
+    private final Map<String, Quote> latestQuotes = new ConcurrentHashMap<>();
+    private final AtomicLong epoch = new AtomicLong();
+    private final List<QuoteListener> listeners;
+
+    public QuoteService() {
+        this(List.of());
+    }
+
+    public QuoteService(List<QuoteListener> listeners) {
+        this.listeners = List.copyOf(listeners);
+    }
+
+    @Autowired
+    public QuoteService(ObjectProvider<QuoteListener> listeners) {
+        this(listeners.orderedStream().toList());
+    }
+
+    public Optional<Quote> getLatestQuote(String code) {
+        return Optional.ofNullable(latestQuotes.get(code));
+    }
+
+    public Map<String, Quote> getLatestQuotes(Collection<String> codes) {
+        Map<String, Quote> quotes = new HashMap<>();
+        for (String code : codes) {
+            Quote quote = latestQuotes.get(code);
+            if (quote != null) {
+                quotes.put(code, quote);
+            }
+        }
+        return quotes;
+    }
+
+    public long getEpoch() {
+        return epoch.get();
+    }
+
+    public void updateQuote(Quote quote) {
+        if (quote.getCode() == null) {
+            throw new IllegalArgumentException("Quote code must not be null.");
+        }
+        latestQuotes.put(quote.getCode(), quote);
+        epoch.incrementAndGet();
+        for (QuoteListener listener : listeners) {
+            listener.onQuote(quote);
+        }
+    }
+
+    public void updateQuotes(Collection<Quote> quotes) {
+        QuotePipelineEvent event = new QuotePipelineEvent();
+        event.begin();
+        quotes.forEach(this::updateQuote);
+        event.end();
+        if (event.shouldCommit()) {
+            event.stage = "apply";
+            event.quotes = quotes.size();
+            event.commit();
+        }
+    }
+
+    @Override
+    public Set<String> codes() {
+        return Set.copyOf(latestQuotes.keySet());
+    }
+
+    @Override
+    public void handOff(String code, StockSnapshot snapshot) {
+        snapshot.setQuote(latestQuotes.get(code));
+    }
+
+    // 移交的報價不是新的行情，不通知 listener (避免重複寫入歷史)
+    @Override
+    public void takeOver(StockSnapshot snapshot) {
+        Quote quote = snapshot.getQuote();
+        if (quote == null || quote.getCode() == null) {
+            return;
+        }
+        Quote merged = latestQuotes.merge(quote.getCode(), quote, (local, received) -> isNewer(received, local) ? received : local);
+        if (merged == quote) {
+            epoch.incrementAndGet();
+        }
+    }
+
+    private static boolean isNewer(Quote received, Quote local) {
+        return received.getTimestamp() != null && (local.getTimestamp() == null || received.getTimestamp().isAfter(local.getTimestamp()));
+    }
+}
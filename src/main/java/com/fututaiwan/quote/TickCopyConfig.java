@@ -0,0 +1,22 @@
+package com.fututaiwan.quote;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * 逐筆報價以 COPY 寫入 Postgres 的日分區資料表 (fututaiwan.quote.tick-copy.enabled=true 時啟用)
+ * 使用 JPA 同一個連線池，每批只借用一條連線；資料表需先以 src/migrate/Tick.sql 建立
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "fututaiwan.quote.tick-copy", name = "enabled", havingValue = "true")
+public class TickCopyConfig {
+
+    @Bean
+    public TickCopySink tickCopySink(DataSource dataSource, TickCopyProperties properties, MeterRegistry meterRegistry) {
+        return new TickCopySink(dataSource, properties, meterRegistry);
+    }
+}
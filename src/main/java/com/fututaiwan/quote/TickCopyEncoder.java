@@ -0,0 +1,106 @@
+package com.fututaiwan.quote;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 把逐筆報價編成 Postgres COPY binary 格式：(trading_day date, code varchar, ts timestamptz, price float8, volume int8)
+ * 緩衝區在批次之間重複使用；股票代碼的 UTF-8 位元組快取起來，不必每筆重新編碼
+ */
+final class TickCopyEncoder {
+
+    private static final byte[] SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff, '\r', '\n', 0};
+    private static final long POSTGRES_EPOCH_SECONDS = 946_684_800L;
+    private static final long POSTGRES_EPOCH_DAYS = 10_957L;
+    private static final short FIELDS = 5;
+    private static final int MAX_CACHED_CODES = 100_000;
+
+    private final Map<String, byte[]> codes = new HashMap<>();
+    private byte[] buffer;
+    private int size;
+
+    TickCopyEncoder(int initialCapacity) {
+        this.buffer = new byte[Math.max(64, initialCapacity)];
+    }
+
+    void begin() {
+        size = 0;
+        put(SIGNATURE);
+        putInt(0); // flags
+        putInt(0); // header extension length
+    }
+
+    void add(LocalDate tradingDay, String code, Instant timestamp, double price, long volume) {
+        byte[] codeBytes = codeBytes(code);
+        ensure(2 + 4 + 4 + 4 + codeBytes.length + 4 + 8 + 4 + 8 + 4 + 8);
+        putShort(FIELDS);
+        putInt(4);
+        putInt((int) (tradingDay.toEpochDay() - POSTGRES_EPOCH_DAYS));
+        putInt(codeBytes.length);
+        put(codeBytes);
+        putInt(8);
+        putLong((timestamp.getEpochSecond() - POSTGRES_EPOCH_SECONDS) * 1_000_000L + timestamp.getNano() / 1_000);
+        putInt(8);
+        putLong(Double.doubleToRawLongBits(price));
+        putInt(8);
+        putLong(volume);
+    }
+
+    void finish() {
+        putShort((short) -1);
+    }
+
+    byte[] buffer() {
+        return buffer;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private byte[] codeBytes(String code) {
+        byte[] bytes = codes.get(code);
+        if (bytes == null) {
+            bytes = code.getBytes(StandardCharsets.UTF_8);
+            if (codes.size() < MAX_CACHED_CODES) {
+                codes.put(code, bytes);
+            }
+        }
+        return bytes;
+    }
+
+    private void ensure(int bytes) {
+        if (size + bytes > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + bytes));
+        }
+    }
+
+    private void put(byte[] bytes) {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    private void putShort(short value) {
+        ensure(2);
+        buffer[size++] = (byte) (value >>> 8);
+        buffer[size++] = (byte) value;
+    }
+
+    private void putInt(int value) {
+        ensure(4);
+        buffer[size++] = (byte) (value >>> 24);
+        buffer[size++] = (byte) (value >>> 16);
+        buffer[size++] = (byte) (value >>> 8);
+        buffer[size++] = (byte) value;
+    }
+
+    private void putLong(long value) {
+        putInt((int) (value >>> 32));
+        putInt((int) value);
+    }
+}
@@ -0,0 +1,42 @@
+package com.fututaiwan.quote;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.time.ZoneId;
+
+/**
+ * 逐筆報價以 COPY 寫入 Postgres 的設定 (fututaiwan.quote.tick-copy.*)；資料表見 src/migrate/Tick.sql
+ */
+@Data
+@ConfigurationProperties(prefix = "fututaiwan.quote.tick-copy")
+public class TickCopyProperties {
+
+    private boolean enabled = false;
+
+    private String table = "ticks";
+
+    // 交易日的時區，決定每筆報價屬於哪個分區
+    private ZoneId zone = ZoneId.of("Asia/Taipei");
+
+    // 保留最近幾天的分區，更早的分區整個刪除；早於保存期間的報價不寫入
+    private Duration retention = Duration.ofDays(30);
+
+    // 檢查並刪除過期分區的間隔
+    private Duration maintenanceInterval = Duration.ofHours(1);
+
+    // 每次 COPY 的筆數上限，以及第一筆進入緩衝區後最多等待多久就寫出
+    private int batchSize = 50_000;
+    private Duration maxLatency = Duration.ofMillis(500);
+
+    // 緩衝區上限；滿了之後丟棄新的報價並計數，不拖慢報價更新
+    private int bufferCapacity = 1_000_000;
+
+    // COPY 失敗時以指數退避重試，超過次數後丟棄該批
+    private int maxRetries = 5;
+    private Duration retryBackoff = Duration.ofMillis(100);
+
+    // 關機時等待緩衝區寫完的上限
+    private Duration shutdownTimeout = Duration.ofSeconds(10);
+}
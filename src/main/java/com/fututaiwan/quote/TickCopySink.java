@@ -0,0 +1,359 @@
+package com.fututaiwan.quote;
+
+import com.fututaiwan.diagnostics.QuotePipelineEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 逐筆報價的 Postgres 寫入 (write-behind)：ingest 執行緒只把報價放進有上限的緩衝區，
+ * 寫入執行緒累積到 batchSize 筆或第一筆等待超過 maxLatency 就以一次 COPY (binary) 寫出，不經過 JPA
+ * 資料表依交易日分區：批次中第一次出現的交易日先建立分區，定期刪除超過保存期間的分區
+ * COPY 是單一交易，失敗時整批重試；只有在 COPY 已成功但回應遺失時重試才會寫入重複資料
+ * 一筆不合欄位限制的資料就會讓整批 COPY 失敗，因此代碼不合 ticks.code 的報價在放進緩衝區前就捨棄
+ */
+public class TickCopySink implements QuoteListener, SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(TickCopySink.class);
+
+    static final String METRIC_PREFIX = "quote.tick.copy";
+    private static final Pattern IDENTIFIER = Pattern.compile("[a-z_][a-z0-9_]{0,53}");
+    private static final String DUPLICATE_TABLE = "42P07";
+    // 與 ticks.code VARCHAR(10) 一致 (見 src/migrate/Tick.sql)
+    static final int MAX_CODE_LENGTH = 10;
+
+    private final DataSource dataSource;
+    private final TickCopyProperties properties;
+    private final Clock clock;
+    private final BlockingQueue<Tick> queue;
+    private final String copySql;
+    private final Counter written;
+    private final Counter droppedFull;
+    private final Counter droppedExpired;
+    private final Counter droppedFailed;
+    private final Counter droppedInvalid;
+    private final Counter failures;
+    private final Counter partitionsDropped;
+    private final DistributionSummary batchSizes;
+
+    // 以下欄位只由寫入執行緒存取
+    private final TickCopyEncoder encoder;
+    private final Set<LocalDate> partitions = new HashSet<>();
+    private long nextMaintenance;
+    private LocalDate cutoff = LocalDate.MIN;
+    private LocalDate cachedDay;
+    private long cachedDayStart = Long.MAX_VALUE;
+    private long cachedDayEnd = Long.MIN_VALUE;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public TickCopySink(DataSource dataSource, TickCopyProperties properties, MeterRegistry meterRegistry) {
+        this(dataSource, properties, meterRegistry, Clock.systemUTC());
+    }
+
+    TickCopySink(DataSource dataSource, TickCopyProperties properties, MeterRegistry meterRegistry, Clock clock) {
+        if (!IDENTIFIER.matcher(properties.getTable()).matches()) {
+            throw new IllegalArgumentException("Invalid tick table name: " + properties.getTable());
+        }
+        this.dataSource = dataSource;
+        this.properties = properties;
+        this.clock = clock;
+        this.queue = new ArrayBlockingQueue<>(properties.getBufferCapacity());
+        this.copySql = "COPY " + properties.getTable() + " (trading_day, code, ts, price, volume) FROM STDIN (FORMAT binary)";
+        // 每筆約 60 bytes
+        this.encoder = new TickCopyEncoder(Math.min(properties.getBatchSize(), 100_000) * 64);
+        this.written = Counter.builder(METRIC_PREFIX + ".rows").register(meterRegistry);
+        this.droppedFull = dropped(meterRegistry, "buffer_full");
+        this.droppedExpired = dropped(meterRegistry, "expired");
+        this.droppedFailed = dropped(meterRegistry, "retries_exhausted");
+        this.droppedInvalid = dropped(meterRegistry, "invalid_code");
+        this.failures = Counter.builder(METRIC_PREFIX + ".failures").register(meterRegistry);
+        this.partitionsDropped = Counter.builder(METRIC_PREFIX + ".partitions.dropped").register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder(METRIC_PREFIX + ".batch.size").register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".pending", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    private static Counter dropped(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder(METRIC_PREFIX + ".dropped").tag("reason", reason).register(meterRegistry);
+    }
+
+    @Override
+    public void onQuote(Quote quote) {
+        String code = quote.getCode();
+        if (code == null || code.isEmpty() || code.length() > MAX_CODE_LENGTH) {
+            droppedInvalid.increment();
+            return;
+        }
+        Instant timestamp = quote.getTimestamp() != null ? quote.getTimestamp() : clock.instant();
+        if (!queue.offer(new Tick(code, timestamp, quote.getPrice(), quote.getVolume()))) {
+            droppedFull.increment();
+        }
+    }
+
+    int pending() {
+        return queue.size();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        thread = new Thread(this::run, "quote-tick-copy");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            thread.join(Duration.ofNanos(Math.max(1, properties.getShutdownTimeout().toNanos())));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // 比 Web 伺服器晚停止，關機期間最後送達的報價也會寫出；連線池在所有 lifecycle 停止後才關閉
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void run() {
+        List<Tick> batch = new ArrayList<>(Math.min(properties.getBatchSize(), 100_000));
+        // 啟動後立即建立當日分區，即使隨即關機也會執行一次
+        maintainIfDue();
+        while (running || !queue.isEmpty()) {
+            try {
+                maintainIfDue();
+                fill(batch);
+                if (!batch.isEmpty()) {
+                    write(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Tick COPY writer failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // 第一筆最多等待 maxLatency；取得第一筆後，湊滿 batchSize 或距第一筆超過 maxLatency 就寫出
+    private void fill(List<Tick> batch) throws InterruptedException {
+        long maxLatency = properties.getMaxLatency().toNanos();
+        Tick first = queue.poll(maxLatency, TimeUnit.NANOSECONDS);
+        if (first == null) {
+            return;
+        }
+        long deadline = System.nanoTime() + maxLatency;
+        batch.add(first);
+        queue.drainTo(batch, properties.getBatchSize() - batch.size());
+        while (batch.size() < properties.getBatchSize() && running) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            Tick next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+            queue.drainTo(batch, properties.getBatchSize() - batch.size());
+        }
+    }
+
+    void write(List<Tick> batch) throws InterruptedException {
+        QuotePipelineEvent event = new QuotePipelineEvent();
+        event.begin();
+        Set<LocalDate> missing = new TreeSet<>();
+        int rows = encode(batch, missing);
+        if (rows > 0) {
+            batchSizes.record(rows);
+            copy(rows, missing);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.stage = "persist:" + properties.getTable();
+            event.quotes = batch.size();
+            event.commit();
+        }
+    }
+
+    private int encode(List<Tick> batch, Set<LocalDate> missing) {
+        encoder.begin();
+        int rows = 0;
+        for (Tick tick : batch) {
+            LocalDate day = tradingDay(tick.timestamp());
+            // 該交易日的分區已經 (或即將) 刪除
+            if (day.isBefore(cutoff)) {
+                droppedExpired.increment();
+                continue;
+            }
+            if (!partitions.contains(day)) {
+                missing.add(day);
+            }
+            encoder.add(day, tick.code(), tick.timestamp(), tick.price(), tick.volume());
+            rows++;
+        }
+        encoder.finish();
+        return rows;
+    }
+
+    private void copy(int rows, Set<LocalDate> missing) throws InterruptedException {
+        long backoff = properties.getRetryBackoff().toMillis();
+        for (int attempt = 0; ; attempt++) {
+            try (Connection connection = dataSource.getConnection()) {
+                for (LocalDate day : missing) {
+                    createPartition(connection, day);
+                }
+                CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(copySql);
+                try {
+                    copy.writeToCopy(encoder.buffer(), 0, encoder.size());
+                    copy.endCopy();
+                } finally {
+                    if (copy.isActive()) {
+                        copy.cancelCopy();
+                    }
+                }
+                if (!connection.getAutoCommit()) {
+                    connection.commit();
+                }
+                written.increment(rows);
+                return;
+            } catch (SQLException | RuntimeException e) {
+                failures.increment();
+                log.debug("Failed to COPY {} ticks (attempt {})", rows, attempt + 1, e);
+            }
+            if (attempt >= properties.getMaxRetries()) {
+                droppedFailed.increment(rows);
+                log.warn("Dropping {} ticks after {} attempts", rows, attempt + 1);
+                return;
+            }
+            Thread.sleep(backoff << Math.min(attempt, 10));
+        }
+    }
+
+    private LocalDate tradingDay(Instant timestamp) {
+        long second = timestamp.getEpochSecond();
+        if (second < cachedDayStart || second >= cachedDayEnd) {
+            cachedDay = LocalDate.ofInstant(timestamp, properties.getZone());
+            cachedDayStart = cachedDay.atStartOfDay(properties.getZone()).toEpochSecond();
+            cachedDayEnd = cachedDay.plusDays(1).atStartOfDay(properties.getZone()).toEpochSecond();
+        }
+        return cachedDay;
+    }
+
+    String partitionName(LocalDate day) {
+        return properties.getTable() + "_" + day.format(DateTimeFormatter.BASIC_ISO_DATE);
+    }
+
+    private void createPartition(Connection connection, LocalDate day) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + partitionName(day) + " PARTITION OF " + properties.getTable()
+                    + " FOR VALUES FROM ('" + day + "') TO ('" + day.plusDays(1) + "')");
+        } catch (SQLException e) {
+            // 其他節點同時建立同一個分區
+            if (!DUPLICATE_TABLE.equals(e.getSQLState())) {
+                throw e;
+            }
+        }
+        partitions.add(day);
+    }
+
+    // 預先建立今天與明天的分區 (避免交易日第一批等待 DDL)，並刪除超過保存期間的分區
+    private void maintainIfDue() {
+        long now = clock.millis();
+        if (now < nextMaintenance) {
+            return;
+        }
+        nextMaintenance = now + properties.getMaintenanceInterval().toMillis();
+        LocalDate today = LocalDate.ofInstant(clock.instant(), properties.getZone());
+        cutoff = today.minusDays(properties.getRetention().toDays());
+        try (Connection connection = dataSource.getConnection()) {
+            createPartition(connection, today);
+            createPartition(connection, today.plusDays(1));
+            dropPartitionsBefore(connection, cutoff);
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+        } catch (SQLException | RuntimeException e) {
+            log.warn("Tick partition maintenance failed", e);
+        }
+    }
+
+    private void dropPartitionsBefore(Connection connection, LocalDate cutoff) throws SQLException {
+        List<String> expired = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = ?::regclass")) {
+            statement.setString(1, properties.getTable());
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    String name = result.getString(1);
+                    LocalDate day = partitionDay(name);
+                    if (day != null && day.isBefore(cutoff)) {
+                        expired.add(name);
+                        partitions.remove(day);
+                    }
+                }
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            for (String name : expired) {
+                statement.execute("DROP TABLE IF EXISTS " + name);
+                partitionsDropped.increment();
+                log.info("Dropped expired tick partition {}", name);
+            }
+        }
+    }
+
+    LocalDate partitionDay(String partition) {
+        String prefix = properties.getTable() + "_";
+        if (!partition.startsWith(prefix)) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(partition.substring(prefix.length()), DateTimeFormatter.BASIC_ISO_DATE);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    record Tick(String code, Instant timestamp, double price, long volume) {
+    }
+}
@@ -0,0 +1,195 @@
+package com.fututaiwan.screener;
+
+import com.fututaiwan.quote.Quote;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * 全市場最新報價與指標的欄式 (columnar) 儲存：每個 ScreenerField 一個 double[]，以列 (row) 為索引
+ * 篩選時同一個欄位連續掃過，比逐檔讀取 Quote 物件少很多記憶體存取
+ * 只由 ScreenerEngine 的單一執行緒寫入；讀取端以 opaque 讀取，不需要鎖 (同一列的各欄位可能一新一舊)
+ * 容量不足時由 ScreenerEngine 建立放大後的副本再替換，讀取端持有的舊副本仍然完整可讀
+ * 尚無資料的欄位為 NaN；已下市 (從目錄刪除) 的列保留列號但不再符合任何條件，列號不重複使用
+ */
+public final class QuoteColumns {
+
+    private static final VarHandle DOUBLES = MethodHandles.arrayElementVarHandle(double[].class);
+    private static final VarHandle BOOLEANS = MethodHandles.arrayElementVarHandle(boolean[].class);
+    private static final int FIELDS = ScreenerField.values().length;
+    // 保留的一分鐘 K 線根數，必須不小於最長的移動平均
+    static final int BARS = 60;
+
+    private final double[][] values;
+    private final String[] codes;
+    private final String[] names;
+    private final boolean[] removed;
+
+    // 每列最近 BARS 根一分鐘 K 線的收盤價 (環狀)，只有寫入執行緒存取
+    private final double[] bars;
+    private final long[] barMinutes;
+    private final int[] barHeads;
+    private final int[] barCounts;
+
+    private volatile int size;
+
+    QuoteColumns(int capacity) {
+        this(new double[FIELDS][], new String[capacity], new String[capacity], new boolean[capacity], new double[capacity * BARS],
+                new long[capacity], new int[capacity], new int[capacity], 0);
+        for (int column = 0; column < FIELDS; column++) {
+            values[column] = new double[capacity];
+            Arrays.fill(values[column], Double.NaN);
+        }
+    }
+
+    private QuoteColumns(double[][] values, String[] codes, String[] names, boolean[] removed, double[] bars,
+                         long[] barMinutes, int[] barHeads, int[] barCounts, int size) {
+        this.values = values;
+        this.codes = codes;
+        this.names = names;
+        this.removed = removed;
+        this.bars = bars;
+        this.barMinutes = barMinutes;
+        this.barHeads = barHeads;
+        this.barCounts = barCounts;
+        this.size = size;
+    }
+
+    /**
+     * 目前的列數；列號為 0 到 size - 1
+     */
+    public int size() {
+        return size;
+    }
+
+    public double get(int column, int row) {
+        return (double) DOUBLES.getOpaque(values[column], row);
+    }
+
+    public double get(ScreenerField field, int row) {
+        return get(field.ordinal(), row);
+    }
+
+    public String code(int row) {
+        return codes[row];
+    }
+
+    /**
+     * 公司名稱；股票不在目錄中 (先收到報價) 時為 null
+     */
+    public String name(int row) {
+        return names[row];
+    }
+
+    /**
+     * 該列的股票仍在目錄中 (或目錄尚未載入)；已下市的列不應出現在篩選結果
+     */
+    public boolean live(int row) {
+        return !(boolean) BOOLEANS.getOpaque(removed, row);
+    }
+
+    int capacity() {
+        return codes.length;
+    }
+
+    /**
+     * 新增一列並回傳列號；呼叫端須先確認容量足夠
+     */
+    int append(String code, String name) {
+        int row = size;
+        codes[row] = code;
+        names[row] = name;
+        // 寫入 size 後讀取端才看得到這一列
+        size = row + 1;
+        return row;
+    }
+
+    void rename(int row, String name) {
+        names[row] = name;
+    }
+
+    /**
+     * 股票改代碼：同一檔股票，保留報價與 K 線
+     */
+    void recode(int row, String code, String name) {
+        codes[row] = code;
+        names[row] = name;
+    }
+
+    /**
+     * 下市：清除報價與 K 線，之後不再符合任何條件
+     */
+    void remove(int row) {
+        BOOLEANS.setOpaque(removed, row, true);
+        for (ScreenerField field : ScreenerField.values()) {
+            set(field, row, Double.NaN);
+        }
+        barCounts[row] = 0;
+    }
+
+    /**
+     * 以一筆報價更新一列的所有欄位與一分鐘 K 線
+     */
+    void update(int row, Quote quote) {
+        double price = quote.getPrice();
+        double previousClose = quote.getPreviousClose() > 0 ? quote.getPreviousClose() : Double.NaN;
+        set(ScreenerField.PRICE, row, price);
+        set(ScreenerField.OPEN, row, quote.getOpen());
+        set(ScreenerField.HIGH, row, quote.getHigh());
+        set(ScreenerField.LOW, row, quote.getLow());
+        set(ScreenerField.PREV_CLOSE, row, previousClose);
+        set(ScreenerField.VOLUME, row, quote.getVolume());
+        set(ScreenerField.CHANGE, row, price - previousClose);
+        set(ScreenerField.CHANGE_PCT, row, (price - previousClose) / previousClose * 100);
+
+        Instant timestamp = quote.getTimestamp() != null ? quote.getTimestamp() : Instant.now();
+        long minute = Math.floorDiv(timestamp.getEpochSecond(), 60);
+        int base = row * BARS;
+        if (barCounts[row] == 0 || minute > barMinutes[row]) {
+            barHeads[row] = (barHeads[row] + 1) % BARS;
+            barCounts[row] = Math.min(barCounts[row] + 1, BARS);
+            barMinutes[row] = minute;
+            bars[base + barHeads[row]] = price;
+        } else if (minute == barMinutes[row]) {
+            bars[base + barHeads[row]] = price;
+        }
+        // 早於目前 K 線的延遲報價只更新最新價，不改寫已收盤的 K 線
+        set(ScreenerField.SMA5, row, average(row, 5));
+        set(ScreenerField.SMA20, row, average(row, 20));
+        set(ScreenerField.SMA60, row, average(row, 60));
+    }
+
+    private double average(int row, int count) {
+        if (barCounts[row] < count) {
+            return Double.NaN;
+        }
+        int base = row * BARS;
+        int index = barHeads[row];
+        double sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += bars[base + index];
+            index = index == 0 ? BARS - 1 : index - 1;
+        }
+        return sum / count;
+    }
+
+    private void set(ScreenerField field, int row, double value) {
+        DOUBLES.setOpaque(values[field.ordinal()], row, value);
+    }
+
+    /**
+     * 放大容量的副本；只在寫入執行緒上呼叫，之後不再寫入原物件
+     */
+    QuoteColumns grow(int capacity) {
+        double[][] grown = new double[FIELDS][];
+        for (int column = 0; column < FIELDS; column++) {
+            grown[column] = Arrays.copyOf(values[column], capacity);
+            Arrays.fill(grown[column], codes.length, capacity, Double.NaN);
+        }
+        return new QuoteColumns(grown, Arrays.copyOf(codes, capacity), Arrays.copyOf(names, capacity), Arrays.copyOf(removed, capacity),
+                Arrays.copyOf(bars, capacity * BARS), Arrays.copyOf(barMinutes, capacity),
+                Arrays.copyOf(barHeads, capacity), Arrays.copyOf(barCounts, capacity), size);
+    }
+}
@@ -0,0 +1,91 @@
+package com.fututaiwan.screener;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * 已儲存的選股條件與其目前的結果
+ * 符合的列以位元集合記錄，只由 ScreenerEngine 的執行緒寫入，讀取端以 opaque 讀取；
+ * 符合集合或符合股票的報價變動時 version 加一，排名在查詢時才依 version 重建並快取，跳價本身不需要排序
+ */
+final class SavedScreen {
+
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    final Long id;
+    final String name;
+    final ScreenPlan plan;
+
+    // 0 表示引擎尚未完成第一次評估
+    volatile long version;
+    private volatile long[] words = new long[16];
+    private volatile Ranking ranking = new Ranking(0, new int[0]);
+
+    SavedScreen(Long id, String name, ScreenPlan plan) {
+        this.id = id;
+        this.name = name;
+        this.plan = plan;
+    }
+
+    boolean matches(int row) {
+        long[] current = words;
+        int word = row >>> 6;
+        return word < current.length && ((long) WORDS.getOpaque(current, word) & (1L << row)) != 0;
+    }
+
+    /**
+     * 只在引擎執行緒上呼叫
+     */
+    void set(int row, boolean matches) {
+        long[] current = words;
+        int word = row >>> 6;
+        if (word >= current.length) {
+            if (!matches) {
+                return;
+            }
+            current = Arrays.copyOf(current, Math.max(word + 1, current.length * 2));
+            words = current;
+        }
+        long bits = current[word];
+        WORDS.setOpaque(current, word, matches ? bits | (1L << row) : bits & ~(1L << row));
+    }
+
+    /**
+     * 目前符合的列號 (遞增)
+     */
+    int[] rows() {
+        long[] current = words;
+        int count = 0;
+        for (int i = 0; i < current.length; i++) {
+            count += Long.bitCount((long) WORDS.getOpaque(current, i));
+        }
+        int[] rows = new int[count];
+        int next = 0;
+        for (int i = 0; i < current.length && next < count; i++) {
+            long bits = (long) WORDS.getOpaque(current, i);
+            while (bits != 0 && next < count) {
+                rows[next++] = (i << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        return next == count ? rows : Arrays.copyOf(rows, next);
+    }
+
+    /**
+     * 依排序鍵排列的符合列號；version 未變時直接回傳上次的結果
+     */
+    int[] ranking(QuoteColumns columns, int parallelThreshold) {
+        long current = version;
+        Ranking cached = ranking;
+        if (cached.version() == current) {
+            return cached.rows();
+        }
+        int[] ranked = plan.rank(columns, rows(), parallelThreshold);
+        ranking = new Ranking(current, ranked);
+        return ranked;
+    }
+
+    private record Ranking(long version, int[] rows) {
+    }
+}
@@ -0,0 +1,419 @@
+package com.fututaiwan.screener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 選股運算式的剖析與編譯：只剖析一次，編譯成巢狀的 lambda，之後每列只做欄位讀取與算術，不再經過語法樹
+ * 文法 (優先順序由低到高)：
+ * <pre>
+ * condition  := or
+ * or         := and (('||' | 'or') and)*
+ * and        := not (('&&' | 'and') not)*
+ * not        := ('!' | 'not') not | comparison
+ * comparison := sum (('>' | '>=' | '<' | '<=' | '==' | '!=') sum)?
+ * sum        := product (('+' | '-') product)*
+ * product    := unary (('*' | '/') unary)*
+ * unary      := '-' unary | number | field | '(' condition ')'
+ * </pre>
+ * 與 NaN (尚無報價或指標資料不足) 的比較一律為 false；常數子運算式在編譯時先算好
+ */
+public final class ScreenExpressions {
+
+    private static final int MAX_LENGTH = 1_000;
+
+    private ScreenExpressions() {
+    }
+
+    /**
+     * 對一列資料回傳 true/false 的條件
+     */
+    @FunctionalInterface
+    public interface Condition {
+        boolean test(QuoteColumns columns, int row);
+    }
+
+    /**
+     * 對一列資料計算數值的運算式 (例如排序鍵)
+     */
+    @FunctionalInterface
+    public interface Numeric {
+        double eval(QuoteColumns columns, int row);
+    }
+
+    /**
+     * 編譯條件運算式，例如 change_pct > 3 && volume > 5000 && close > sma20
+     *
+     * @throws IllegalArgumentException 語法錯誤、未知欄位或結果不是條件
+     */
+    public static Condition condition(String expression) {
+        Node node = parse(expression);
+        if (!(node instanceof BooleanNode condition)) {
+            throw new IllegalArgumentException("Expression must be a condition: " + expression);
+        }
+        return condition.compile();
+    }
+
+    /**
+     * 編譯數值運算式，例如 change_pct 或 volume * price
+     *
+     * @throws IllegalArgumentException 語法錯誤、未知欄位或結果不是數值
+     */
+    public static Numeric numeric(String expression) {
+        Node node = parse(expression);
+        if (!(node instanceof NumericNode numeric)) {
+            throw new IllegalArgumentException("Expression must be numeric: " + expression);
+        }
+        return numeric.compile();
+    }
+
+    private static Node parse(String expression) {
+        if (expression == null || expression.isBlank()) {
+            throw new IllegalArgumentException("Expression must not be empty.");
+        }
+        if (expression.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException("Expression is longer than " + MAX_LENGTH + " characters.");
+        }
+        Parser parser = new Parser(tokenize(expression));
+        Node node = parser.or();
+        if (!parser.atEnd()) {
+            throw new IllegalArgumentException("Unexpected '" + parser.peek().text() + "' at position " + parser.peek().position());
+        }
+        return node;
+    }
+
+    // ---- 語法樹 ----
+
+    private sealed interface Node permits NumericNode, BooleanNode {
+    }
+
+    private sealed interface NumericNode extends Node permits Constant, FieldRef, Negate, Arithmetic {
+        Numeric compile();
+    }
+
+    private sealed interface BooleanNode extends Node permits Comparison, Not, Logical {
+        Condition compile();
+    }
+
+    private record Constant(double value) implements NumericNode {
+        @Override
+        public Numeric compile() {
+            double constant = value;
+            return (columns, row) -> constant;
+        }
+    }
+
+    private record FieldRef(ScreenerField field) implements NumericNode {
+        @Override
+        public Numeric compile() {
+            int column = field.ordinal();
+            return (columns, row) -> columns.get(column, row);
+        }
+    }
+
+    private record Negate(NumericNode operand) implements NumericNode {
+        @Override
+        public Numeric compile() {
+            Numeric value = operand.compile();
+            return (columns, row) -> -value.eval(columns, row);
+        }
+    }
+
+    private record Arithmetic(char operator, NumericNode left, NumericNode right) implements NumericNode {
+        @Override
+        public Numeric compile() {
+            Numeric a = left.compile();
+            Numeric b = right.compile();
+            return switch (operator) {
+                case '+' -> (columns, row) -> a.eval(columns, row) + b.eval(columns, row);
+                case '-' -> (columns, row) -> a.eval(columns, row) - b.eval(columns, row);
+                case '*' -> (columns, row) -> a.eval(columns, row) * b.eval(columns, row);
+                case '/' -> (columns, row) -> a.eval(columns, row) / b.eval(columns, row);
+                default -> throw new IllegalStateException("Unknown operator " + operator);
+            };
+        }
+
+        static NumericNode of(char operator, NumericNode left, NumericNode right) {
+            if (left instanceof Constant a && right instanceof Constant b) {
+                return new Constant(switch (operator) {
+                    case '+' -> a.value() + b.value();
+                    case '-' -> a.value() - b.value();
+                    case '*' -> a.value() * b.value();
+                    default -> a.value() / b.value();
+                });
+            }
+            return new Arithmetic(operator, left, right);
+        }
+    }
+
+    private record Comparison(String operator, NumericNode left, NumericNode right) implements BooleanNode {
+        @Override
+        public Condition compile() {
+            // 最常見的「欄位 比較 常數」直接讀欄位，省去兩層呼叫
+            if (left instanceof FieldRef field && right instanceof Constant constant) {
+                int column = field.field().ordinal();
+                double value = constant.value();
+                return switch (operator) {
+                    case ">" -> (columns, row) -> columns.get(column, row) > value;
+                    case ">=" -> (columns, row) -> columns.get(column, row) >= value;
+                    case "<" -> (columns, row) -> columns.get(column, row) < value;
+                    case "<=" -> (columns, row) -> columns.get(column, row) <= value;
+                    case "==" -> (columns, row) -> columns.get(column, row) == value;
+                    default -> (columns, row) -> {
+                        double v = columns.get(column, row);
+                        return v == v && v != value;
+                    };
+                };
+            }
+            Numeric a = left.compile();
+            Numeric b = right.compile();
+            return switch (operator) {
+                case ">" -> (columns, row) -> a.eval(columns, row) > b.eval(columns, row);
+                case ">=" -> (columns, row) -> a.eval(columns, row) >= b.eval(columns, row);
+                case "<" -> (columns, row) -> a.eval(columns, row) < b.eval(columns, row);
+                case "<=" -> (columns, row) -> a.eval(columns, row) <= b.eval(columns, row);
+                case "==" -> (columns, row) -> a.eval(columns, row) == b.eval(columns, row);
+                // NaN != x 在 Java 為 true，這裡與其他比較一致改為 false
+                default -> (columns, row) -> {
+                    double x = a.eval(columns, row);
+                    double y = b.eval(columns, row);
+                    return x == x && y == y && x != y;
+                };
+            };
+        }
+    }
+
+    private record Not(BooleanNode operand) implements BooleanNode {
+        @Override
+        public Condition compile() {
+            Condition condition = operand.compile();
+            return (columns, row) -> !condition.test(columns, row);
+        }
+    }
+
+    private record Logical(boolean and, List<BooleanNode> operands) implements BooleanNode {
+        @Override
+        public Condition compile() {
+            Condition[] conditions = operands.stream().map(BooleanNode::compile).toArray(Condition[]::new);
+            if (conditions.length == 2) {
+                Condition a = conditions[0];
+                Condition b = conditions[1];
+                return and
+                        ? (columns, row) -> a.test(columns, row) && b.test(columns, row)
+                        : (columns, row) -> a.test(columns, row) || b.test(columns, row);
+            }
+            if (and) {
+                return (columns, row) -> {
+                    for (Condition condition : conditions) {
+                        if (!condition.test(columns, row)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                };
+            }
+            return (columns, row) -> {
+                for (Condition condition : conditions) {
+                    if (condition.test(columns, row)) {
+                        return true;
+                    }
+                }
+                return false;
+            };
+        }
+    }
+
+    // ---- 剖析 ----
+
+    private enum TokenType { NUMBER, IDENTIFIER, OPERATOR, LEFT, RIGHT }
+
+    private record Token(TokenType type, String text, int position) {
+    }
+
+    private static List<Token> tokenize(String expression) {
+        List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < expression.length()) {
+            char c = expression.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (Character.isDigit(c) || (c == '.' && i + 1 < expression.length() && Character.isDigit(expression.charAt(i + 1)))) {
+                int start = i;
+                while (i < expression.length() && (Character.isDigit(expression.charAt(i)) || expression.charAt(i) == '.')) {
+                    i++;
+                }
+                tokens.add(new Token(TokenType.NUMBER, expression.substring(start, i), start));
+            } else if (Character.isLetter(c) || c == '_') {
+                int start = i;
+                while (i < expression.length() && (Character.isLetterOrDigit(expression.charAt(i)) || expression.charAt(i) == '_')) {
+                    i++;
+                }
+                String word = expression.substring(start, i);
+                String lower = word.toLowerCase();
+                if (lower.equals("and") || lower.equals("or") || lower.equals("not")) {
+                    tokens.add(new Token(TokenType.OPERATOR, lower.equals("and") ? "&&" : lower.equals("or") ? "||" : "!", start));
+                } else {
+                    tokens.add(new Token(TokenType.IDENTIFIER, word, start));
+                }
+            } else if (c == '(') {
+                tokens.add(new Token(TokenType.LEFT, "(", i++));
+            } else if (c == ')') {
+                tokens.add(new Token(TokenType.RIGHT, ")", i++));
+            } else {
+                String two = i + 1 < expression.length() ? expression.substring(i, i + 2) : "";
+                if (two.equals("&&") || two.equals("||") || two.equals(">=") || two.equals("<=") || two.equals("==") || two.equals("!=")) {
+                    tokens.add(new Token(TokenType.OPERATOR, two, i));
+                    i += 2;
+                } else if ("+-*/<>!".indexOf(c) >= 0) {
+                    tokens.add(new Token(TokenType.OPERATOR, String.valueOf(c), i++));
+                } else {
+                    throw new IllegalArgumentException("Unexpected character '" + c + "' at position " + i);
+                }
+            }
+        }
+        return tokens;
+    }
+
+    private static final class Parser {
+
+        private final List<Token> tokens;
+        private int next;
+
+        Parser(List<Token> tokens) {
+            this.tokens = tokens;
+        }
+
+        boolean atEnd() {
+            return next == tokens.size();
+        }
+
+        Token peek() {
+            return tokens.get(next);
+        }
+
+        private boolean accept(String operator) {
+            if (!atEnd() && peek().type() == TokenType.OPERATOR && peek().text().equals(operator)) {
+                next++;
+                return true;
+            }
+            return false;
+        }
+
+        Node or() {
+            Node first = and();
+            if (atEnd() || !peek().text().equals("||")) {
+                return first;
+            }
+            List<BooleanNode> operands = new ArrayList<>(List.of(condition(first, "||")));
+            while (accept("||")) {
+                operands.add(condition(and(), "||"));
+            }
+            return new Logical(false, operands);
+        }
+
+        private Node and() {
+            Node first = not();
+            if (atEnd() || !peek().text().equals("&&")) {
+                return first;
+            }
+            List<BooleanNode> operands = new ArrayList<>(List.of(condition(first, "&&")));
+            while (accept("&&")) {
+                operands.add(condition(not(), "&&"));
+            }
+            return new Logical(true, operands);
+        }
+
+        private Node not() {
+            if (accept("!")) {
+                return new Not(condition(not(), "!"));
+            }
+            return comparison();
+        }
+
+        private Node comparison() {
+            Node left = sum();
+            for (String operator : new String[]{">=", "<=", "==", "!=", ">", "<"}) {
+                if (accept(operator)) {
+                    return new Comparison(operator, number(left, operator), number(sum(), operator));
+                }
+            }
+            return left;
+        }
+
+        private Node sum() {
+            Node left = product();
+            while (true) {
+                if (accept("+")) {
+                    left = Arithmetic.of('+', number(left, "+"), number(product(), "+"));
+                } else if (accept("-")) {
+                    left = Arithmetic.of('-', number(left, "-"), number(product(), "-"));
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        private Node product() {
+            Node left = unary();
+            while (true) {
+                if (accept("*")) {
+                    left = Arithmetic.of('*', number(left, "*"), number(unary(), "*"));
+                } else if (accept("/")) {
+                    left = Arithmetic.of('/', number(left, "/"), number(unary(), "/"));
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        private Node unary() {
+            if (accept("-")) {
+                NumericNode operand = number(unary(), "-");
+                return operand instanceof Constant constant ? new Constant(-constant.value()) : new Negate(operand);
+            }
+            if (atEnd()) {
+                throw new IllegalArgumentException("Unexpected end of expression");
+            }
+            Token token = tokens.get(next++);
+            return switch (token.type()) {
+                case NUMBER -> {
+                    try {
+                        yield new Constant(Double.parseDouble(token.text()));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Invalid number '" + token.text() + "' at position " + token.position());
+                    }
+                }
+                case IDENTIFIER -> {
+                    ScreenerField field = ScreenerField.byName(token.text());
+                    if (field == null) {
+                        throw new IllegalArgumentException("Unknown field '" + token.text() + "' at position " + token.position());
+                    }
+                    yield new FieldRef(field);
+                }
+                case LEFT -> {
+                    Node inner = or();
+                    if (atEnd() || peek().type() != TokenType.RIGHT) {
+                        throw new IllegalArgumentException("Missing ')' for '(' at position " + token.position());
+                    }
+                    next++;
+                    yield inner;
+                }
+                default -> throw new IllegalArgumentException("Unexpected '" + token.text() + "' at position " + token.position());
+            };
+        }
+
+        private static NumericNode number(Node node, String operator) {
+            if (node instanceof NumericNode numeric) {
+                return numeric;
+            }
+            throw new IllegalArgumentException("Operator '" + operator + "' needs numeric operands");
+        }
+
+        private static BooleanNode condition(Node node, String operator) {
+            if (node instanceof BooleanNode condition) {
+                return condition;
+            }
+            throw new IllegalArgumentException("Operator '" + operator + "' needs conditions as operands");
+        }
+    }
+}
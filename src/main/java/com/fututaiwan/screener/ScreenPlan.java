@@ -0,0 +1,116 @@
+package com.fututaiwan.screener;
+
+import java.util.stream.IntStream;
+
+/**
+ * 編譯完成的選股計畫：篩選條件、排序鍵與排序方向；不可變，可快取並在多個執行緒共用
+ *
+ * @param expression 原始篩選運算式
+ * @param sort       原始排序運算式
+ */
+record ScreenPlan(String expression, String sort, boolean descending,
+                  ScreenExpressions.Condition condition, ScreenExpressions.Numeric sortKey) {
+
+    static ScreenPlan compile(String expression, String sort, boolean descending) {
+        return new ScreenPlan(expression, sort, descending, ScreenExpressions.condition(expression), ScreenExpressions.numeric(sort));
+    }
+
+    // 已下市的列即使條件成立 (例如 not price > 0) 也不符合
+    boolean matches(QuoteColumns columns, int row) {
+        return columns.live(row) && condition.test(columns, row);
+    }
+
+    /**
+     * 掃過所有列，回傳符合條件的列號 (遞增)；列數達到 parallelThreshold 時分段平行掃描
+     */
+    int[] select(QuoteColumns columns, int parallelThreshold) {
+        int size = columns.size();
+        IntStream rows = IntStream.range(0, size);
+        if (size >= parallelThreshold) {
+            rows = rows.parallel();
+        }
+        return rows.filter(row -> matches(columns, row)).toArray();
+    }
+
+    /**
+     * 依排序鍵排列列號；排序鍵為 NaN 的列不論方向都排在最後，鍵相同時依列號 (股票目錄依代碼載入，即大致依代碼)
+     * 排序鍵轉成可直接比較的 long 後連同列號以基本型別陣列排序，不裝箱；列數達到 parallelThreshold 時平行計算排序鍵
+     */
+    int[] rank(QuoteColumns columns, int[] rows, int parallelThreshold) {
+        long[] keys = new long[rows.length];
+        IntStream positions = IntStream.range(0, rows.length);
+        if (rows.length >= parallelThreshold) {
+            positions = positions.parallel();
+        }
+        positions.forEach(i -> {
+            double key = sortKey.eval(columns, rows[i]);
+            keys[i] = sortable(descending ? -key : key);
+        });
+        int[] ranked = rows.clone();
+        sort(keys, ranked, 0, ranked.length - 1);
+        return ranked;
+    }
+
+    // IEEE 754 位元轉為可用 long 比較的順序：負數翻轉除符號位外的位元；NaN 大於 +Infinity，因此排在最後
+    private static long sortable(double key) {
+        long bits = Double.doubleToLongBits(key);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    // 以 (key, row) 排序兩個平行陣列；row 不重複，因此沒有相等的元素
+    private static void sort(long[] keys, int[] rows, int low, int high) {
+        while (high - low > 16) {
+            int middle = (low + high) >>> 1;
+            if (less(keys, rows, middle, low)) {
+                swap(keys, rows, middle, low);
+            }
+            if (less(keys, rows, high, low)) {
+                swap(keys, rows, high, low);
+            }
+            if (less(keys, rows, high, middle)) {
+                swap(keys, rows, high, middle);
+            }
+            long pivotKey = keys[middle];
+            int pivotRow = rows[middle];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (keys[i] < pivotKey || (keys[i] == pivotKey && rows[i] < pivotRow)) {
+                    i++;
+                }
+                while (keys[j] > pivotKey || (keys[j] == pivotKey && rows[j] > pivotRow)) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(keys, rows, i++, j--);
+                }
+            }
+            // 先遞迴處理較小的一段，堆疊深度為 O(log n)
+            if (j - low < high - i) {
+                sort(keys, rows, low, j);
+                low = i;
+            } else {
+                sort(keys, rows, i, high);
+                high = j;
+            }
+        }
+        for (int i = low + 1; i <= high; i++) {
+            for (int j = i; j > low && less(keys, rows, j, j - 1); j--) {
+                swap(keys, rows, j, j - 1);
+            }
+        }
+    }
+
+    private static boolean less(long[] keys, int[] rows, int a, int b) {
+        return keys[a] < keys[b] || (keys[a] == keys[b] && rows[a] < rows[b]);
+    }
+
+    private static void swap(long[] keys, int[] rows, int a, int b) {
+        long key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        int row = rows[a];
+        rows[a] = rows[b];
+        rows[b] = row;
+    }
+}
@@ -0,0 +1,25 @@
+package com.fututaiwan.screener;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 儲存選股條件的請求內容
+ * 例如 expression = "change_pct > 3 && volume > 5000 && close > sma20"，sort = "change_pct"，order = "desc"
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScreenRequest {
+
+    private String name;
+
+    private String expression; // 篩選條件
+
+    private String sort; // 排序運算式，未指定時為 change_pct
+
+    private String order; // asc 或 desc，未指定時為 desc
+}
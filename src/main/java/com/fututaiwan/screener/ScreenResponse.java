@@ -0,0 +1,50 @@
+package com.fututaiwan.screener;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 選股結果 (Screen Response)
+ * 依排序鍵排列後的一頁股票；即席篩選時 id 與 name 為 null
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScreenResponse {
+
+    private Long id;
+
+    private String name;
+
+    private String expression;
+
+    private String sort;
+
+    private String order;
+
+    private int total; // 符合條件的總檔數
+
+    private int page;
+
+    private int size;
+
+    private List<Item> items;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Item {
+        private String code;
+        private String name;
+        private Double price; // 尚無報價時為 null
+        private Double changePct; // 尚無昨收價時為 null
+        private Double volume;
+        private Double sortValue; // 排序鍵的值；無法計算時為 null
+    }
+}
@@ -0,0 +1,74 @@
+package com.fututaiwan.screener;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/screener")
+public class ScreenerController {
+
+    private final ScreenerService screenerService;
+
+    @Autowired
+    public ScreenerController(ScreenerService screenerService) {
+        this.screenerService = screenerService;
+    }
+
+    // 即席選股，例如 ?expression=change_pct > 3 %26%26 volume > 5000&sort=volume&order=desc
+    @GetMapping
+    public ResponseEntity<ScreenResponse> screen(@RequestParam String expression,
+                                                 @RequestParam(required = false) String sort,
+                                                 @RequestParam(required = false) String order,
+                                                 @RequestParam(defaultValue = "0") int page,
+                                                 @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(screenerService.screen(expression, sort, order, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build(); // 運算式或分頁參數不合法
+        }
+    }
+
+    @GetMapping("/screens")
+    public ResponseEntity<List<ScreenResponse>> getScreens() {
+        return ResponseEntity.ok(screenerService.getScreens());
+    }
+
+    @PostMapping("/screens")
+    public ResponseEntity<ScreenResponse> createScreen(@RequestBody ScreenRequest request,
+                                                       @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(screenerService.createScreen(request, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build(); // 已達儲存上限
+        }
+    }
+
+    @GetMapping("/screens/{id}")
+    public ResponseEntity<ScreenResponse> getScreen(@PathVariable Long id,
+                                                    @RequestParam(defaultValue = "0") int page,
+                                                    @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(screenerService.getScreen(id, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build(); // Screen not found
+        }
+    }
+
+    @DeleteMapping("/screens/{id}")
+    public ResponseEntity<Void> deleteScreen(@PathVariable Long id) {
+        try {
+            screenerService.deleteScreen(id);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -0,0 +1,384 @@
+package com.fututaiwan.screener;
+
+import com.fututaiwan.quote.Quote;
+import com.fututaiwan.quote.QuoteListener;
+import com.fututaiwan.stock.StockCreatedEvent;
+import com.fututaiwan.stock.StockDeletedEvent;
+import com.fututaiwan.stock.StockUpdatedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 維護選股用的欄式報價 (QuoteColumns) 與已儲存選股條件的結果
+ * ingest 執行緒只記下每檔股票的最新報價並排入待處理 (同一檔股票排隊期間的多筆報價合併為一筆)；
+ * 所有寫入都在單一執行緒上進行：每批次更新有跳價的列後，只對這些列重新測試每個已儲存的條件；
+ * 排序延後到查詢時 (SavedScreen.ranking)，連續跳價期間沒有人查詢的條件不需要排序
+ * 股票目錄啟動時載入一次，之後依股票新增、修改、刪除事件在 commit 後更新；目錄載入後不在目錄中的代碼的報價一律忽略
+ */
+@Component
+public class ScreenerEngine implements QuoteListener, SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ScreenerEngine.class);
+
+    static final String METRIC_PREFIX = "screener";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ScreenerProperties properties;
+    private final Timer refreshTimer;
+
+    private final Map<String, Integer> rows = new ConcurrentHashMap<>();
+    private final Map<String, Quote> pending = new ConcurrentHashMap<>();
+    private final Map<Long, SavedScreen> screens = new ConcurrentHashMap<>();
+    private final BlockingQueue<Object> work = new LinkedBlockingQueue<>();
+
+    // 只由引擎執行緒寫入
+    private volatile QuoteColumns columns;
+    private int[] dirty = new int[256];
+    private int dirtyCount;
+    private boolean[] dirtyFlags;
+    private final List<Object> deferred = new ArrayList<>();
+    private volatile boolean loaded;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    @Autowired
+    public ScreenerEngine(JdbcTemplate jdbcTemplate, ScreenerProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.columns = new QuoteColumns(Math.max(1, properties.getInitialCapacity()));
+        this.dirtyFlags = new boolean[columns.capacity()];
+        this.refreshTimer = Timer.builder(METRIC_PREFIX + ".refresh")
+                .description("Time to apply one batch of ticks and re-evaluate saved screens on the changed rows")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".stocks", rows, Map::size).register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".screens", screens, Map::size).register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".pending", work, BlockingQueue::size).register(meterRegistry);
+    }
+
+    /**
+     * 目前的欄式資料；回傳的物件在之後擴充容量時不再更新，每次篩選應重新取得
+     */
+    public QuoteColumns columns() {
+        return columns;
+    }
+
+    Optional<SavedScreen> getScreen(Long id) {
+        return Optional.ofNullable(screens.get(id));
+    }
+
+    Collection<SavedScreen> getScreens() {
+        return screens.values();
+    }
+
+    int screenCount() {
+        return screens.size();
+    }
+
+    /**
+     * 登錄已儲存的條件；第一次評估在引擎執行緒上進行，完成前 version 為 0
+     */
+    void register(SavedScreen screen) {
+        screens.put(screen.id, screen);
+        work.offer(screen);
+    }
+
+    boolean unregister(Long id) {
+        return screens.remove(id) != null;
+    }
+
+    @Override
+    public void onQuote(Quote quote) {
+        if (loaded && !rows.containsKey(quote.getCode())) {
+            return;
+        }
+        if (pending.put(quote.getCode(), quote) == null) {
+            work.offer(quote.getCode());
+        }
+    }
+
+    // 預設在 commit 之後執行；交易外發布時立即處理
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockCreated(StockCreatedEvent event) {
+        work.offer(new Listing(event.code(), event.name()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockUpdated(StockUpdatedEvent event) {
+        work.offer(new Renaming(event.previousCode(), event.code(), event.name()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockDeleted(StockDeletedEvent event) {
+        work.offer(new Delisting(event.code()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        Thread.ofPlatform().daemon().name("screener-load").start(this::load);
+    }
+
+    // 股票目錄提供名稱，並讓尚無報價的股票也佔有一列；先收到報價的股票在載入時補上名稱，不在目錄中的下市
+    void load() {
+        while (true) {
+            try {
+                List<String[]> stocks = new ArrayList<>();
+                jdbcTemplate.query("SELECT code, name FROM stocks ORDER BY code",
+                        rs -> {
+                            stocks.add(new String[]{rs.getString(1), rs.getString(2)});
+                        });
+                offerCatalog(stocks);
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Failed to load stock catalog, retrying in {}", properties.getLoadRetryInterval(), e);
+            }
+            try {
+                Thread.sleep(properties.getLoadRetryInterval().toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param stocks 每個元素為 {代碼, 名稱}
+     */
+    void offerCatalog(List<String[]> stocks) {
+        work.offer(new Catalog(stocks));
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        thread = new Thread(this::run, "screener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        List<Object> batch = new ArrayList<>();
+        while (running) {
+            try {
+                Object first = work.poll(1, TimeUnit.SECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    work.drainTo(batch);
+                    process(batch);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Screener refresh failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 在呼叫端執行緒上處理目前佇列中的所有工作，回傳處理的項目數；只在引擎執行緒未啟動時使用 (測試與壓測)
+     */
+    int drain() {
+        List<Object> batch = new ArrayList<>();
+        work.drainTo(batch);
+        process(batch);
+        return batch.size();
+    }
+
+    private void process(List<Object> batch) {
+        long begin = System.nanoTime();
+        List<SavedScreen> registered = new ArrayList<>();
+        for (Object item : batch) {
+            if (item instanceof String code) {
+                Quote quote = pending.remove(code);
+                // 目錄載入前先為報價建立列；載入後排隊期間下市的股票不再建立
+                Integer row = quote == null ? null : loaded ? rows.get(code) : Integer.valueOf(rowOf(code, null));
+                if (row != null) {
+                    columns.update(row, quote);
+                    markDirty(row);
+                }
+            } else if (item instanceof SavedScreen screen) {
+                registered.add(screen);
+            } else if (item instanceof Catalog catalog) {
+                load(catalog);
+            } else if (loaded) {
+                apply(item);
+            } else {
+                // 載入完成前的目錄異動先保留，載入後依序套用 (載入結果已包含也不影響)
+                deferred.add(item);
+            }
+        }
+        QuoteColumns current = columns;
+        for (SavedScreen screen : screens.values()) {
+            if (screen.version == 0) {
+                continue; // 這一批新登錄的條件在下面整體評估
+            }
+            boolean changed = false;
+            for (int i = 0; i < dirtyCount; i++) {
+                int row = dirty[i];
+                boolean matched = screen.matches(row);
+                boolean matches = screen.plan.matches(current, row);
+                if (matched != matches) {
+                    screen.set(row, matches);
+                }
+                changed |= matched || matches;
+            }
+            if (changed) {
+                screen.version++;
+            }
+        }
+        for (SavedScreen screen : registered) {
+            for (int row : screen.plan.select(current, properties.getParallelThreshold())) {
+                screen.set(row, true);
+            }
+            screen.version = 1;
+        }
+        for (int i = 0; i < dirtyCount; i++) {
+            dirtyFlags[dirty[i]] = false;
+        }
+        boolean ticked = dirtyCount > 0;
+        dirtyCount = 0;
+        if (ticked) {
+            refreshTimer.record(System.nanoTime() - begin, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void load(Catalog catalog) {
+        Set<String> codes = new HashSet<>();
+        for (String[] stock : catalog.stocks()) {
+            codes.add(stock[0]);
+            list(stock[0], stock[1]);
+        }
+        for (String code : List.copyOf(rows.keySet())) {
+            if (!codes.contains(code)) {
+                delist(code);
+            }
+        }
+        loaded = true;
+        deferred.forEach(this::apply);
+        deferred.clear();
+        log.info("Loaded {} stocks into the screener", catalog.stocks().size());
+    }
+
+    private void apply(Object item) {
+        switch (item) {
+            case Listing listing -> list(listing.code(), listing.name());
+            case Renaming renaming -> rename(renaming.previousCode(), renaming.code(), renaming.name());
+            case Delisting delisting -> delist(delisting.code());
+            default -> throw new IllegalArgumentException("Unknown screener work item " + item);
+        }
+    }
+
+    private void list(String code, String name) {
+        Integer row = rows.get(code);
+        if (row != null) {
+            columns.rename(row, name);
+        } else {
+            rowOf(code, name);
+        }
+    }
+
+    // 同一檔股票：列與報價留在原處，之後以新代碼的報價更新
+    private void rename(String previousCode, String code, String name) {
+        Integer row = previousCode.equals(code) ? null : rows.remove(previousCode);
+        if (row == null) {
+            list(code, name);
+            return;
+        }
+        // 代碼唯一，新代碼不應已有一列；若有則是舊資料
+        delist(code);
+        columns.recode(row, code, name);
+        rows.put(code, row);
+    }
+
+    // 標記為 dirty，已儲存的條件在這一批重新測試時移除這一列
+    private void delist(String code) {
+        Integer row = rows.remove(code);
+        if (row == null) {
+            return;
+        }
+        columns.remove(row);
+        markDirty(row);
+    }
+
+    private int rowOf(String code, String name) {
+        Integer row = rows.get(code);
+        if (row != null) {
+            return row;
+        }
+        QuoteColumns current = columns;
+        if (current.size() == current.capacity()) {
+            // 先發布擴充後的欄位再發布列號，讀到列號的執行緒一定看得到新欄位
+            current = current.grow(current.capacity() * 2);
+            columns = current;
+            dirtyFlags = Arrays.copyOf(dirtyFlags, current.capacity());
+        }
+        int appended = current.append(code, name);
+        rows.put(code, appended);
+        return appended;
+    }
+
+    private void markDirty(int row) {
+        if (dirtyFlags[row]) {
+            return;
+        }
+        dirtyFlags[row] = true;
+        if (dirtyCount == dirty.length) {
+            dirty = Arrays.copyOf(dirty, dirtyCount * 2);
+        }
+        dirty[dirtyCount++] = row;
+    }
+
+    private record Catalog(List<String[]> stocks) {
+    }
+
+    private record Listing(String code, String name) {
+    }
+
+    private record Renaming(String previousCode, String code, String name) {
+    }
+
+    private record Delisting(String code) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.fututaiwan.screener;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 選股運算式可使用的欄位，每個欄位對應 QuoteColumns 的一個欄 (column)
+ * 移動平均為最近 N 根一分鐘 K 線收盤價的平均 (目前這一分鐘以最新成交價計)，K 線不足 N 根時為 NaN
+ */
+public enum ScreenerField {
+
+    PRICE("price", "close"),
+    OPEN("open"),
+    HIGH("high"),
+    LOW("low"),
+    PREV_CLOSE("prev_close"),
+    VOLUME("volume"),
+    CHANGE("change"),
+    CHANGE_PCT("change_pct"),
+    SMA5("sma5"),
+    SMA20("sma20"),
+    SMA60("sma60");
+
+    private static final Map<String, ScreenerField> BY_NAME = new HashMap<>();
+
+    static {
+        for (ScreenerField field : values()) {
+            for (String name : field.names) {
+                BY_NAME.put(name, field);
+            }
+        }
+    }
+
+    private final String[] names;
+
+    ScreenerField(String... names) {
+        this.names = names;
+    }
+
+    public String fieldName() {
+        return names[0];
+    }
+
+    /**
+     * 依名稱 (不分大小寫) 取得欄位；不存在時回傳 null
+     */
+    public static ScreenerField byName(String name) {
+        return BY_NAME.get(name.toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,29 @@
+package com.fututaiwan.screener;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 選股器的設定 (fututaiwan.screener.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "fututaiwan.screener")
+public class ScreenerProperties {
+
+    // 股票檔數 (或符合筆數) 達到此門檻時，篩選與排序鍵的計算改為平行執行；檔數少時平行化的分工成本高於掃描本身
+    private int parallelThreshold = 50_000;
+
+    // 每個節點最多保存的選股條件數
+    private int maxSavedScreens = 100;
+
+    // 編譯後選股計畫的快取筆數 (以運算式、排序鍵與方向為 key)
+    private int planCacheSize = 1_000;
+
+    // 欄式儲存的初始列數，不足時加倍
+    private int initialCapacity = 4_096;
+
+    // 啟動載入股票目錄失敗時的重試間隔
+    private Duration loadRetryInterval = Duration.ofSeconds(10);
+}
@@ -0,0 +1,179 @@
+package com.fututaiwan.screener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 選股：即席篩選與已儲存的選股條件
+ * 運算式只剖析編譯一次 (快取以運算式、排序鍵與方向為 key)，篩選直接掃描 ScreenerEngine 的欄式資料；
+ * 已儲存的條件由 ScreenerEngine 在跳價時增量維護符合集合，查詢時只對符合的股票排序 (結果未變動時沿用上次的排序)
+ * 已儲存的條件只存在本節點的記憶體中，重新啟動後需要重新建立
+ */
+@Service
+public class ScreenerService {
+
+    static final String DEFAULT_SORT = "change_pct";
+    static final int MAX_PAGE_SIZE = 200;
+
+    private final ScreenerEngine screenerEngine;
+    private final ScreenerProperties properties;
+    private final Cache<PlanKey, ScreenPlan> plans;
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    @Autowired
+    public ScreenerService(ScreenerEngine screenerEngine, ScreenerProperties properties, MeterRegistry meterRegistry) {
+        this.screenerEngine = screenerEngine;
+        this.properties = properties;
+        this.plans = Caffeine.newBuilder()
+                .maximumSize(properties.getPlanCacheSize())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, plans, ScreenerEngine.METRIC_PREFIX + ".plans");
+    }
+
+    /**
+     * 即席篩選全市場，回傳排序後的一頁
+     *
+     * @throws IllegalArgumentException 運算式不合法或分頁參數超出範圍
+     */
+    public ScreenResponse screen(String expression, String sort, String order, int page, int size) {
+        validatePage(page, size);
+        ScreenPlan plan = plan(expression, sort, order);
+        QuoteColumns columns = screenerEngine.columns();
+        int[] ranking = plan.rank(columns, plan.select(columns, properties.getParallelThreshold()), properties.getParallelThreshold());
+        return page(null, null, plan, columns, ranking, page, size);
+    }
+
+    /**
+     * 儲存選股條件，回傳第一頁結果
+     *
+     * @throws IllegalArgumentException 運算式不合法
+     * @throws IllegalStateException    已達 max-saved-screens 上限
+     */
+    public ScreenResponse createScreen(ScreenRequest request, int size) {
+        validatePage(0, size);
+        if (request.getName() == null || request.getName().isBlank()) {
+            throw new IllegalArgumentException("Screen name must not be empty.");
+        }
+        ScreenPlan plan = plan(request.getExpression(), request.getSort(), request.getOrder());
+        if (screenerEngine.screenCount() >= properties.getMaxSavedScreens()) {
+            throw new IllegalStateException("At most " + properties.getMaxSavedScreens() + " screens can be saved.");
+        }
+        SavedScreen screen = new SavedScreen(nextId.getAndIncrement(), request.getName(), plan);
+        screenerEngine.register(screen);
+        return render(screen, 0, size);
+    }
+
+    /**
+     * 已儲存條件的目前結果
+     *
+     * @throws RuntimeException 條件不存在
+     */
+    public ScreenResponse getScreen(Long id, int page, int size) {
+        validatePage(page, size);
+        SavedScreen screen = screenerEngine.getScreen(id)
+                .orElseThrow(() -> new RuntimeException("Screen not found with id " + id));
+        return render(screen, page, size);
+    }
+
+    /**
+     * 所有已儲存的條件 (只含總檔數，不含個股)
+     */
+    public List<ScreenResponse> getScreens() {
+        List<ScreenResponse> responses = new ArrayList<>();
+        QuoteColumns columns = screenerEngine.columns();
+        for (SavedScreen screen : screenerEngine.getScreens()) {
+            int[] rows = screen.version == 0 ? screen.plan.select(columns, properties.getParallelThreshold()) : screen.rows();
+            // 不需要排序：第 0 頁、0 筆只帶出總檔數
+            responses.add(page(screen.id, screen.name, screen.plan, columns, rows, 0, 0));
+        }
+        responses.sort(Comparator.comparing(ScreenResponse::getId));
+        return responses;
+    }
+
+    public void deleteScreen(Long id) {
+        if (!screenerEngine.unregister(id)) {
+            throw new RuntimeException("Screen not found with id " + id);
+        }
+    }
+
+    private ScreenResponse render(SavedScreen screen, int page, int size) {
+        QuoteColumns columns = screenerEngine.columns();
+        int[] ranking;
+        if (screen.version == 0) {
+            // 引擎尚未完成第一次評估，先即席計算
+            ranking = screen.plan.rank(columns, screen.plan.select(columns, properties.getParallelThreshold()), properties.getParallelThreshold());
+        } else {
+            ranking = screen.ranking(columns, properties.getParallelThreshold());
+        }
+        return page(screen.id, screen.name, screen.plan, columns, ranking, page, size);
+    }
+
+    private ScreenPlan plan(String expression, String sort, String order) {
+        String sortExpression = sort == null || sort.isBlank() ? DEFAULT_SORT : sort;
+        boolean descending;
+        if (order == null || order.isBlank() || order.equalsIgnoreCase("desc")) {
+            descending = true;
+        } else if (order.equalsIgnoreCase("asc")) {
+            descending = false;
+        } else {
+            throw new IllegalArgumentException("Order must be asc or desc: " + order);
+        }
+        if (expression == null || expression.isBlank()) {
+            throw new IllegalArgumentException("Expression must not be empty.");
+        }
+        return plans.get(new PlanKey(expression.trim(), sortExpression.trim().toLowerCase(Locale.ROOT), descending),
+                key -> ScreenPlan.compile(key.expression(), key.sort(), key.descending()));
+    }
+
+    private static ScreenResponse page(Long id, String name, ScreenPlan plan, QuoteColumns columns, int[] ranking, int page, int size) {
+        List<ScreenResponse.Item> items = new ArrayList<>();
+        int from = (int) Math.min((long) page * size, ranking.length);
+        int to = Math.min(from + size, ranking.length);
+        for (int i = from; i < to; i++) {
+            int row = ranking[i];
+            items.add(ScreenResponse.Item.builder()
+                    .code(columns.code(row))
+                    .name(columns.name(row))
+                    .price(valueOf(columns.get(ScreenerField.PRICE, row)))
+                    .changePct(valueOf(columns.get(ScreenerField.CHANGE_PCT, row)))
+                    .volume(valueOf(columns.get(ScreenerField.VOLUME, row)))
+                    .sortValue(valueOf(plan.sortKey().eval(columns, row)))
+                    .build());
+        }
+        return ScreenResponse.builder()
+                .id(id)
+                .name(name)
+                .expression(plan.expression())
+                .sort(plan.sort())
+                .order(plan.descending() ? "desc" : "asc")
+                .total(ranking.length)
+                .page(page)
+                .size(size)
+                .items(items)
+                .build();
+    }
+
+    private static void validatePage(int page, int size) {
+        if (page < 0 || size < 0 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page must be >= 0 and size between 0 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    private static Double valueOf(double value) {
+        return Double.isFinite(value) ? value : null;
+    }
+
+    private record PlanKey(String expression, String sort, boolean descending) {
+    }
+}
@@ -5,13 +5,18 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * 股票實體 (Stock Entity)
  * 對應資料庫中的 'stocks' 表格
+ * 股票資料幾乎不變動，放入 Hibernate 二級快取 (見 EntityCacheConfig)
  */
 @Entity
 @Table(name = "stocks")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data // Lombok: 自動生成 getter, setter, toString, equals, hashCode
 @NoArgsConstructor // Lombok: 自動生成無參建構子
 @AllArgsConstructor // Lombok: 自動生成包含所有欄位的建構子
@@ -19,7 +24,8 @@ import lombok.NoArgsConstructor;
 public class Stock {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY) // 對應 PostgreSQL 的 SERIAL
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stocks_seq")
+    @SequenceGenerator(name = "stocks_seq", sequenceName = "stocks_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "code", nullable = false, length = 10, unique = true) // 將 symbol 改為 code
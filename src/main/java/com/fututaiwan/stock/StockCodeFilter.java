@@ -0,0 +1,58 @@
+package com.fututaiwan.stock;
+
+import com.fututaiwan.common.ExistenceFilter;
+import com.fututaiwan.common.ExistenceFilterProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * 股票代碼的 Bloom filter，讓新增股票時省略 findByCode 查詢
+ */
+@Component
+public class StockCodeFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(StockCodeFilter.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ExistenceFilter codes;
+
+    @Autowired
+    public StockCodeFilter(JdbcTemplate jdbcTemplate, ExistenceFilterProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.codes = new ExistenceFilter("stock.code", properties.getExpectedStocks(), properties, meterRegistry);
+    }
+
+    public boolean mightContain(String code) {
+        return codes.mightContain(code);
+    }
+
+    public void put(String code) {
+        codes.put(code);
+    }
+
+    public void recordFalsePositive() {
+        codes.recordFalsePositive();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        Thread.ofPlatform().daemon().name("stock-filter-load").start(this::load);
+    }
+
+    void load() {
+        try {
+            jdbcTemplate.query("SELECT code FROM stocks", rs -> {
+                codes.put(rs.getString(1));
+            });
+            codes.markReady();
+        } catch (RuntimeException e) {
+            log.warn("Failed to load stock code filter", e);
+        }
+    }
+}
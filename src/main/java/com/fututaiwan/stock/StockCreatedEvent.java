@@ -0,0 +1,7 @@
+package com.fututaiwan.stock;
+
+/**
+ * 已新增股票；在新增的交易中發布 (大量新增時每檔一個)，監聽端應於 commit 後處理
+ */
+public record StockCreatedEvent(Long stockId, String code, String name) {
+}
@@ -0,0 +1,7 @@
+package com.fututaiwan.stock;
+
+/**
+ * 股票已刪除 (資料庫以 ON DELETE CASCADE 一併移除持股與群組成分股)；在刪除的交易中、刪除之前發布，監聽端應於 commit 後處理 (同步監聽端仍可查到刪除前的關聯)
+ */
+public record StockDeletedEvent(Long stockId, String code) {
+}
@@ -0,0 +1,46 @@
+package com.fututaiwan.stock;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+/**
+ * Stock 的串流序列化：欄位名稱預先編碼，直接寫入 JsonGenerator，不經 BeanSerializer 的反射
+ * 輸出與預設相同 (id、code、name)；其他序列化器以 write 寫出內嵌的股票
+ */
+@JsonComponent
+public class StockJsonSerializer extends JsonSerializer<Stock> {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString CODE = new SerializedString("code");
+    private static final SerializedString NAME = new SerializedString("name");
+
+    @Override
+    public void serialize(Stock stock, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        write(stock, generator);
+    }
+
+    public static void write(Stock stock, JsonGenerator generator) throws IOException {
+        generator.writeStartObject(stock);
+        generator.writeFieldName(ID);
+        writeNumber(stock.getId(), generator);
+        generator.writeFieldName(CODE);
+        generator.writeString(stock.getCode());
+        generator.writeFieldName(NAME);
+        generator.writeString(stock.getName());
+        generator.writeEndObject();
+    }
+
+    // null 與預設序列化一致寫出 null
+    public static void writeNumber(Long value, JsonGenerator generator) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value.longValue());
+        }
+    }
+}
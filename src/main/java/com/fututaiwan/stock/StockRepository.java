@@ -1,11 +1,27 @@
 package com.fututaiwan.stock;
 
+import com.fututaiwan.common.BulkPersistRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface StockRepository extends JpaRepository<Stock, Long> {
+public interface StockRepository extends JpaRepository<Stock, Long>, BulkPersistRepository<Stock> {
+    // 查詢快取：結果只存 id，stocks 表有異動時自動失效
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Stock> findByCode(String code);
+
+    // 建構式投影：結果不進入持久化上下文也不寫入二級快取，整份清單只配置 Stock 本身
+    @Query("select new com.fututaiwan.stock.Stock(s.id, s.code, s.name) from Stock s")
+    List<Stock> findAllUnmanaged();
+
+    @Query("select s.code from Stock s where s.code in :codes")
+    List<String> findExistingCodes(Collection<String> codes);
 }
@@ -1,57 +1,138 @@
 package com.fututaiwan.stock;
 
+import com.fututaiwan.common.BulkPersistRepository;
+import com.fututaiwan.config.Coalesced;
+import com.fututaiwan.config.EntityCacheInvalidator;
+import com.fututaiwan.config.ReadFromPrimary;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class StockService {
 
     private final StockRepository stockRepository;
+    private final StockCodeFilter stockCodeFilter;
+    private final EntityCacheInvalidator entityCacheInvalidator;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public StockService(StockRepository stockRepository) {
+    public StockService(StockRepository stockRepository, StockCodeFilter stockCodeFilter, EntityCacheInvalidator entityCacheInvalidator,
+                        ApplicationEventPublisher eventPublisher) {
         this.stockRepository = stockRepository;
+        this.stockCodeFilter = stockCodeFilter;
+        this.entityCacheInvalidator = entityCacheInvalidator;
+        this.eventPublisher = eventPublisher;
     }
 
+    // 唯讀查詢：啟用讀寫分離時會送往 replica
+    // 回傳的 Stock 未受管理 (僅供輸出)，修改不會寫回資料庫
+    @Transactional(readOnly = true)
     public List<Stock> getAllStocks() {
-        return stockRepository.findAll();
+        return stockRepository.findAllUnmanaged();
     }
 
+    // 熱門股票的並行查詢合併為一次 (見 CoalescingAspect)
+    // 經過二級快取與查詢快取，快取只在寫入 commit 時失效，未命中時固定讀 primary，避免把 replica 上的舊資料放進快取
+    @Coalesced
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
     public Optional<Stock> getStockById(Long id) {
         return stockRepository.findById(id);
     }
 
+    @Coalesced
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
     public Optional<Stock> getStockByCode(String code) { // 將 getStockBySymbol 改為 getStockByCode
         return stockRepository.findByCode(code); // 將 findBySymbol 改為 findByCode
     }
 
     @Transactional
     public Stock createStock(Stock stock) {
-        if (stockRepository.findByCode(stock.getCode()).isPresent()) { // 將 findBySymbol 和 getSymbol 改為 findByCode 和 getCode
-            throw new IllegalArgumentException("Stock with code '" + stock.getCode() + "' already exists."); // 將 symbol 改為 code
+        // Bloom filter 判定代碼一定不存在時省略 findByCode，由資料庫的唯一限制把關 (filter 不含其他節點的新增)
+        if (stockCodeFilter.mightContain(stock.getCode())) {
+            if (stockRepository.findByCode(stock.getCode()).isPresent()) { // 將 findBySymbol 和 getSymbol 改為 findByCode 和 getCode
+                throw new IllegalArgumentException("Stock with code '" + stock.getCode() + "' already exists."); // 將 symbol 改為 code
+            }
+            stockCodeFilter.recordFalsePositive();
         }
-        return stockRepository.save(stock);
+        Stock savedStock;
+        try {
+            savedStock = stockRepository.save(stock);
+            stockRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Stock with code '" + stock.getCode() + "' or the same name already exists.", e);
+        }
+        stockCodeFilter.put(savedStock.getCode());
+        entityCacheInvalidator.stocksCreated();
+        eventPublisher.publishEvent(new StockCreatedEvent(savedStock.getId(), savedStock.getCode(), savedStock.getName()));
+        return savedStock;
+    }
+
+    /**
+     * 大量新增股票：代碼重複 (批次內或資料庫中) 時整批不寫入並拋出 IllegalArgumentException
+     * 只有 Bloom filter 判定可能存在的代碼才會以 IN 查詢確認，插入以 JDBC 批次送出
+     */
+    @Transactional
+    public List<Stock> createStocks(List<Stock> stocks) {
+        Set<String> codes = new HashSet<>();
+        List<String> candidates = new ArrayList<>();
+        for (Stock stock : stocks) {
+            if (!codes.add(stock.getCode())) {
+                throw new IllegalArgumentException("Stock with code '" + stock.getCode() + "' appears more than once.");
+            }
+            if (stockCodeFilter.mightContain(stock.getCode())) {
+                candidates.add(stock.getCode());
+            }
+        }
+        Set<String> existing = BulkPersistRepository.findExisting(candidates, stockRepository::findExistingCodes);
+        if (!existing.isEmpty()) {
+            throw new IllegalArgumentException("Stock with code '" + existing.iterator().next() + "' already exists.");
+        }
+        candidates.forEach(code -> stockCodeFilter.recordFalsePositive());
+
+        List<Stock> savedStocks;
+        try {
+            savedStocks = stockRepository.persistAll(stocks);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("A stock with the same code or name already exists.", e);
+        }
+        savedStocks.forEach(stock -> stockCodeFilter.put(stock.getCode()));
+        entityCacheInvalidator.stocksCreated();
+        savedStocks.forEach(stock -> eventPublisher.publishEvent(new StockCreatedEvent(stock.getId(), stock.getCode(), stock.getName())));
+        return savedStocks;
     }
 
     @Transactional
     public Stock updateStock(Long id, Stock updatedStock) {
         return stockRepository.findById(id).map(stock -> {
+            String previousCode = stock.getCode();
             stock.setCode(updatedStock.getCode()); // 將 setSymbol 和 getSymbol 改為 setCode 和 getCode
             stock.setName(updatedStock.getName());
-            return stockRepository.save(stock);
+            Stock savedStock = stockRepository.save(stock);
+            stockCodeFilter.put(savedStock.getCode());
+            entityCacheInvalidator.stockChanged(id);
+            eventPublisher.publishEvent(new StockUpdatedEvent(id, previousCode, savedStock.getCode(), savedStock.getName()));
+            return savedStock;
         }).orElseThrow(() -> new RuntimeException("Stock not found with id " + id));
     }
 
+    // 持股依代碼估值 (PortfolioEngine)，因此先取得代碼再刪除
+    // 事件在刪除前發布，同步的監聽端 (StockGroupService) 還能查到含此股票的群組
     @Transactional
     public void deleteStock(Long id) {
-        if (stockRepository.existsById(id)) {
-            stockRepository.deleteById(id);
-        } else {
-            throw new RuntimeException("Stock not found with id " + id);
-        }
+        Stock stock = stockRepository.findById(id).orElseThrow(() -> new RuntimeException("Stock not found with id " + id));
+        eventPublisher.publishEvent(new StockDeletedEvent(id, stock.getCode()));
+        stockRepository.deleteById(id);
+        entityCacheInvalidator.stockDeleted(id);
     }
 }
@@ -0,0 +1,7 @@
+package com.fututaiwan.stock;
+
+/**
+ * 股票的代碼或名稱已修改；在修改的交易中發布，依代碼索引的監聽端應於 commit 後處理
+ */
+public record StockUpdatedEvent(Long stockId, String previousCode, String code, String name) {
+}
@@ -7,6 +7,9 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -24,7 +27,8 @@ import java.util.Set;
 public class StockGroup {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY) // 對應 PostgreSQL 的 SERIAL
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_groups_seq")
+    @SequenceGenerator(name = "stock_groups_seq", sequenceName = "stock_groups_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "name", nullable = false, length = 100, unique = true)
@@ -37,7 +41,10 @@ public class StockGroup {
     @JoinColumn(name = "member_id", nullable = false) // 外鍵欄位
     private Member member;
 
+    // 集合快取只存股票 id，股票內容再由 Stock 的二級快取取得；未命中時一次載入多個群組的集合
     @ManyToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE})
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    @BatchSize(size = 32)
     @JoinTable(
             name = "stock_group_stocks",
             joinColumns = @JoinColumn(name = "stock_group_id"),
@@ -14,10 +14,12 @@ import java.util.Set;
 public class StockGroupController {
 
     private final StockGroupService stockGroupService;
+    private final WatchlistService watchlistService;
 
     @Autowired
-    public StockGroupController(StockGroupService stockGroupService) {
+    public StockGroupController(StockGroupService stockGroupService, WatchlistService watchlistService) {
         this.stockGroupService = stockGroupService;
+        this.watchlistService = watchlistService;
     }
 
     @GetMapping
@@ -109,4 +111,26 @@ public class StockGroupController {
         }
         return ResponseEntity.ok(stockGroups);
     }
+
+    // 首頁自選股：一次回傳會員的所有群組、成分股與最新報價
+    @GetMapping("/member/{memberId}/watchlist")
+    public ResponseEntity<WatchlistResponse> getWatchlistByMemberId(@PathVariable Long memberId) {
+        try {
+            return ResponseEntity.ok(watchlistService.getWatchlist(memberId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build(); // Member not found
+        }
+    }
+
+    // 行動裝置差異同步：帶回上次取得的 epoch 與 version，首次同步兩者皆傳 0
+    @GetMapping("/member/{memberId}/sync")
+    public ResponseEntity<WatchlistSyncResponse> syncWatchlist(@PathVariable Long memberId,
+                                                               @RequestParam(defaultValue = "0") long epoch,
+                                                               @RequestParam(defaultValue = "0") long since) {
+        try {
+            return ResponseEntity.ok(watchlistService.sync(memberId, epoch, since));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build(); // Member not found
+        }
+    }
 }
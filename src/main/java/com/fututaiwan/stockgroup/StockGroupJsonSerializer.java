@@ -0,0 +1,55 @@
+package com.fututaiwan.stockgroup;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fututaiwan.stock.Stock;
+import com.fututaiwan.stock.StockJsonSerializer;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+/**
+ * StockGroup 的串流序列化：member 只寫出 id (延遲載入的 proxy 取 id 不會觸發查詢)，避免 Member.stockGroups 遞迴與 proxy 無法序列化
+ */
+@JsonComponent
+public class StockGroupJsonSerializer extends JsonSerializer<StockGroup> {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString DESCRIPTION = new SerializedString("description");
+    private static final SerializedString MEMBER = new SerializedString("member");
+    private static final SerializedString STOCKS = new SerializedString("stocks");
+
+    @Override
+    public void serialize(StockGroup stockGroup, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(stockGroup);
+        generator.writeFieldName(ID);
+        StockJsonSerializer.writeNumber(stockGroup.getId(), generator);
+        generator.writeFieldName(NAME);
+        generator.writeString(stockGroup.getName());
+        generator.writeFieldName(DESCRIPTION);
+        generator.writeString(stockGroup.getDescription());
+        generator.writeFieldName(MEMBER);
+        if (stockGroup.getMember() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeStartObject();
+            generator.writeFieldName(ID);
+            StockJsonSerializer.writeNumber(stockGroup.getMember().getId(), generator);
+            generator.writeEndObject();
+        }
+        generator.writeFieldName(STOCKS);
+        if (stockGroup.getStocks() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeStartArray();
+            for (Stock stock : stockGroup.getStocks()) {
+                StockJsonSerializer.write(stock, generator);
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+    }
+}
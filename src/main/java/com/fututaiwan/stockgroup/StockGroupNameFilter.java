@@ -0,0 +1,58 @@
+package com.fututaiwan.stockgroup;
+
+import com.fututaiwan.common.ExistenceFilter;
+import com.fututaiwan.common.ExistenceFilterProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * 股票群組名稱的 Bloom filter，讓建立群組時省略 findByName 查詢
+ */
+@Component
+public class StockGroupNameFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(StockGroupNameFilter.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ExistenceFilter names;
+
+    @Autowired
+    public StockGroupNameFilter(JdbcTemplate jdbcTemplate, ExistenceFilterProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.names = new ExistenceFilter("stock_group.name", properties.getExpectedStockGroups(), properties, meterRegistry);
+    }
+
+    public boolean mightContain(String name) {
+        return names.mightContain(name);
+    }
+
+    public void put(String name) {
+        names.put(name);
+    }
+
+    public void recordFalsePositive() {
+        names.recordFalsePositive();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        Thread.ofPlatform().daemon().name("stock-group-filter-load").start(this::load);
+    }
+
+    void load() {
+        try {
+            jdbcTemplate.query("SELECT name FROM stock_groups", rs -> {
+                names.put(rs.getString(1));
+            });
+            names.markReady();
+        } catch (RuntimeException e) {
+            log.warn("Failed to load stock group name filter", e);
+        }
+    }
+}
@@ -1,13 +1,26 @@
 package com.fututaiwan.stockgroup;
 
+import com.fututaiwan.common.BulkPersistRepository;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface StockGroupRepository extends JpaRepository<StockGroup, Long> {
+public interface StockGroupRepository extends JpaRepository<StockGroup, Long>, BulkPersistRepository<StockGroup> {
     Optional<StockGroup> findByName(String name);
     List<StockGroup> findByMember_Id(Long memberId); // 新增：根據會員ID查詢股票群組
+
+    @Query("select g.member.id from StockGroup g where g.id = :id")
+    Optional<Long> findMemberIdById(Long id);
+
+    // 含指定股票的群組 (成分股異動時遞增所屬會員的自選股版本)
+    @Query("select g from StockGroup g join g.stocks s where s.id = :stockId")
+    List<StockGroup> findByStockId(Long stockId);
+
+    @Query("select g.name from StockGroup g where g.name in :names")
+    List<String> findExistingNames(Collection<String> names);
 }
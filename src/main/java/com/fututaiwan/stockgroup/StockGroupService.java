@@ -1,15 +1,27 @@
 package com.fututaiwan.stockgroup;
 
+import com.fututaiwan.common.BulkPersistRepository;
+import com.fututaiwan.config.Coalesced;
+import com.fututaiwan.config.EntityCacheInvalidator;
+import com.fututaiwan.config.ReadFromPrimary;
 import com.fututaiwan.member.Member;
 import com.fututaiwan.member.MemberService;
 import com.fututaiwan.stock.Stock;
+import com.fututaiwan.stock.StockDeletedEvent;
 import com.fututaiwan.stock.StockService;
+import com.fututaiwan.stock.StockUpdatedEvent;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class StockGroupService {
@@ -17,43 +29,123 @@ public class StockGroupService {
     private final StockGroupRepository stockGroupRepository;
     private final StockService stockService;
     private final MemberService memberService; // 注入 MemberService
+    private final WatchlistVersions watchlistVersions;
+    private final StockGroupNameFilter stockGroupNameFilter;
+    private final EntityCacheInvalidator entityCacheInvalidator;
 
     @Autowired
-    public StockGroupService(StockGroupRepository stockGroupRepository, StockService stockService, MemberService memberService) {
+    public StockGroupService(StockGroupRepository stockGroupRepository, StockService stockService, MemberService memberService,
+                             WatchlistVersions watchlistVersions, StockGroupNameFilter stockGroupNameFilter,
+                             EntityCacheInvalidator entityCacheInvalidator) {
         this.stockGroupRepository = stockGroupRepository;
         this.stockService = stockService;
         this.memberService = memberService;
+        this.watchlistVersions = watchlistVersions;
+        this.stockGroupNameFilter = stockGroupNameFilter;
+        this.entityCacheInvalidator = entityCacheInvalidator;
     }
 
+    // 唯讀查詢：啟用讀寫分離時會送往 replica
+    @Transactional(readOnly = true)
     public List<StockGroup> getAllStockGroups() {
         return stockGroupRepository.findAll();
     }
 
+    // 以下查詢會合併並行呼叫 (見 CoalescingAspect)，結果可能交給其他請求的執行緒輸出，
+    // 因此在交易內先載入 stocks，避免在別的執行緒上對 leader 的 Session 做延遲載入
+    // stocks 放在集合快取中，只在寫入 commit 時失效，因此這些查詢固定讀 primary
+    @Coalesced
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
     public Optional<StockGroup> getStockGroupById(Long id) {
-        return stockGroupRepository.findById(id);
+        Optional<StockGroup> stockGroup = stockGroupRepository.findById(id);
+        stockGroup.ifPresent(group -> Hibernate.initialize(group.getStocks()));
+        return stockGroup;
     }
 
+    @Coalesced
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
     public Optional<StockGroup> getStockGroupByName(String name) {
-        return stockGroupRepository.findByName(name);
+        Optional<StockGroup> stockGroup = stockGroupRepository.findByName(name);
+        stockGroup.ifPresent(group -> Hibernate.initialize(group.getStocks()));
+        return stockGroup;
     }
 
+    @Coalesced
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
     public List<StockGroup> getStockGroupsByMemberId(Long memberId) {
         // 檢查會員是否存在，如果不存在則拋出異常
         memberService.getMemberById(memberId)
                 .orElseThrow(() -> new RuntimeException("Member not found with id " + memberId));
-        return stockGroupRepository.findByMember_Id(memberId);
+        List<StockGroup> stockGroups = stockGroupRepository.findByMember_Id(memberId);
+        // @BatchSize 讓第一次初始化一併載入其他群組的 stocks
+        stockGroups.forEach(group -> Hibernate.initialize(group.getStocks()));
+        return stockGroups;
     }
 
     @Transactional
     public StockGroup createStockGroup(StockGroup stockGroup, Long memberId) {
-        if (stockGroupRepository.findByName(stockGroup.getName()).isPresent()) {
-            throw new IllegalArgumentException("Stock group with name '" + stockGroup.getName() + "' already exists.");
+        // Bloom filter 判定名稱一定不存在時省略 findByName，由資料庫的唯一限制把關 (filter 不含其他節點的新增)
+        if (stockGroupNameFilter.mightContain(stockGroup.getName())) {
+            if (stockGroupRepository.findByName(stockGroup.getName()).isPresent()) {
+                throw new IllegalArgumentException("Stock group with name '" + stockGroup.getName() + "' already exists.");
+            }
+            stockGroupNameFilter.recordFalsePositive();
         }
         Member member = memberService.getMemberById(memberId)
                 .orElseThrow(() -> new RuntimeException("Member not found with id " + memberId));
 
         stockGroup.setMember(member);
-        return stockGroupRepository.save(stockGroup);
+        StockGroup savedStockGroup;
+        try {
+            savedStockGroup = stockGroupRepository.save(stockGroup);
+            stockGroupRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Stock group with name '" + stockGroup.getName() + "' already exists.", e);
+        }
+        stockGroupNameFilter.put(savedStockGroup.getName());
+        watchlistVersions.record(memberId, groupChange(WatchlistChangeType.GROUP_ADDED, savedStockGroup));
+        return savedStockGroup;
+    }
+
+    /**
+     * 為同一會員大量新增股票群組：名稱重複 (批次內或資料庫中) 時整批不寫入並拋出 IllegalArgumentException
+     * 只有 Bloom filter 判定可能存在的名稱才會以 IN 查詢確認，插入以 JDBC 批次送出
+     */
+    @Transactional
+    public List<StockGroup> createStockGroups(List<StockGroup> stockGroups, Long memberId) {
+        Set<String> names = new HashSet<>();
+        List<String> candidates = new ArrayList<>();
+        for (StockGroup stockGroup : stockGroups) {
+            if (!names.add(stockGroup.getName())) {
+                throw new IllegalArgumentException("Stock group with name '" + stockGroup.getName() + "' appears more than once.");
+            }
+            if (stockGroupNameFilter.mightContain(stockGroup.getName())) {
+                candidates.add(stockGroup.getName());
+            }
+        }
+        Set<String> existing = BulkPersistRepository.findExisting(candidates, stockGroupRepository::findExistingNames);
+        if (!existing.isEmpty()) {
+            throw new IllegalArgumentException("Stock group with name '" + existing.iterator().next() + "' already exists.");
+        }
+        candidates.forEach(name -> stockGroupNameFilter.recordFalsePositive());
+        Member member = memberService.getMemberById(memberId)
+                .orElseThrow(() -> new RuntimeException("Member not found with id " + memberId));
+
+        stockGroups.forEach(stockGroup -> stockGroup.setMember(member));
+        List<StockGroup> savedStockGroups;
+        try {
+            savedStockGroups = stockGroupRepository.persistAll(stockGroups);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("A stock group with the same name already exists.", e);
+        }
+        for (StockGroup savedStockGroup : savedStockGroups) {
+            stockGroupNameFilter.put(savedStockGroup.getName());
+            watchlistVersions.record(memberId, groupChange(WatchlistChangeType.GROUP_ADDED, savedStockGroup));
+        }
+        return savedStockGroups;
     }
 
     @Transactional
@@ -62,14 +154,23 @@ public class StockGroupService {
             stockGroup.setName(updatedStockGroup.getName());
             // 針對重複名稱拋出例外
             stockGroup.setDescription(updatedStockGroup.getDescription());
-            return stockGroupRepository.save(stockGroup);
+            StockGroup savedStockGroup = stockGroupRepository.save(stockGroup);
+            stockGroupNameFilter.put(stockGroup.getName());
+            watchlistVersions.record(memberIdOf(stockGroup), groupChange(WatchlistChangeType.GROUP_UPDATED, stockGroup));
+            return savedStockGroup;
         }).orElseThrow(() -> new RuntimeException("Stock group not found with id " + id));
     }
 
     @Transactional
     public void deleteStockGroup(Long id) {
         if (stockGroupRepository.existsById(id)) {
+            Optional<Long> memberId = stockGroupRepository.findMemberIdById(id);
             stockGroupRepository.deleteById(id);
+            entityCacheInvalidator.groupStocksChanged(id);
+            memberId.ifPresent(owner -> watchlistVersions.record(owner, WatchlistChange.builder()
+                    .type(WatchlistChangeType.GROUP_REMOVED)
+                    .groupId(id)
+                    .build()));
         } else {
             throw new RuntimeException("Stock group not found with id " + id);
         }
@@ -84,7 +185,10 @@ public class StockGroupService {
                 .orElseThrow(() -> new RuntimeException("Stock not found with id " + stockId));
 
         stockGroup.getStocks().add(stock);
-        return stockGroupRepository.save(stockGroup);
+        StockGroup savedStockGroup = stockGroupRepository.save(stockGroup);
+        entityCacheInvalidator.groupStocksChanged(stockGroupId);
+        watchlistVersions.record(memberIdOf(stockGroup), stockChange(WatchlistChangeType.STOCK_ADDED, stockGroup, stock));
+        return savedStockGroup;
     }
 
     @Transactional
@@ -100,6 +204,56 @@ public class StockGroupService {
         }
 
         stockGroup.getStocks().remove(stock);
-        return stockGroupRepository.save(stockGroup);
+        StockGroup savedStockGroup = stockGroupRepository.save(stockGroup);
+        entityCacheInvalidator.groupStocksChanged(stockGroupId);
+        watchlistVersions.record(memberIdOf(stockGroup), stockChange(WatchlistChangeType.STOCK_REMOVED, stockGroup, stock));
+        return savedStockGroup;
+    }
+
+    /**
+     * 股票改名或改代碼：含此股票的群組對所屬會員記錄一筆 STOCK_ADDED (重複新增視為更新)，
+     * 自選股版本遞增後 WatchlistService 重新載入成分股，差異同步的客戶端也會取得新代碼
+     */
+    @EventListener
+    public void onStockUpdated(StockUpdatedEvent event) {
+        Stock stock = Stock.builder().id(event.stockId()).code(event.code()).name(event.name()).build();
+        for (StockGroup stockGroup : stockGroupRepository.findByStockId(event.stockId())) {
+            watchlistVersions.record(memberIdOf(stockGroup), stockChange(WatchlistChangeType.STOCK_ADDED, stockGroup, stock));
+        }
+    }
+
+    /**
+     * 股票刪除：資料庫以 ON DELETE CASCADE 移除群組成分股，含此股票的群組對所屬會員記錄一筆 STOCK_REMOVED
+     * 在刪除前同步呼叫 (同一交易)，版本於 commit 後才遞增
+     */
+    @EventListener
+    public void onStockDeleted(StockDeletedEvent event) {
+        Stock stock = Stock.builder().id(event.stockId()).code(event.code()).build();
+        for (StockGroup stockGroup : stockGroupRepository.findByStockId(event.stockId())) {
+            watchlistVersions.record(memberIdOf(stockGroup), stockChange(WatchlistChangeType.STOCK_REMOVED, stockGroup, stock));
+        }
+    }
+
+    private WatchlistChange groupChange(WatchlistChangeType type, StockGroup stockGroup) {
+        return WatchlistChange.builder()
+                .type(type)
+                .groupId(stockGroup.getId())
+                .name(stockGroup.getName())
+                .description(stockGroup.getDescription())
+                .build();
+    }
+
+    private WatchlistChange stockChange(WatchlistChangeType type, StockGroup stockGroup, Stock stock) {
+        return WatchlistChange.builder()
+                .type(type)
+                .groupId(stockGroup.getId())
+                .stockId(stock.getId())
+                .stockCode(stock.getCode())
+                .build();
+    }
+
+    private Long memberIdOf(StockGroup stockGroup) {
+        // 延遲載入的 Member proxy 取 id 不會觸發查詢
+        return stockGroup.getMember() == null ? null : stockGroup.getMember().getId();
     }
 }
@@ -0,0 +1,49 @@
+package com.fututaiwan.stockgroup;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Objects;
+
+/**
+ * 自選股異動紀錄 (Watchlist Change)
+ * 客戶端依 version 順序套用；套用必須是冪等的 (重複新增視為更新、移除不存在的項目則忽略)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class WatchlistChange {
+
+    private long version; // 異動後的自選股版本
+
+    private WatchlistChangeType type;
+
+    private Long groupId;
+
+    private String name; // GROUP_ADDED / GROUP_UPDATED 時帶入
+
+    private String description; // GROUP_ADDED / GROUP_UPDATED 時帶入
+
+    private Long stockId; // STOCK_ADDED / STOCK_REMOVED 時帶入
+
+    private String stockCode; // STOCK_ADDED / STOCK_REMOVED 時帶入
+
+    /**
+     * 判斷較新的異動是否讓這筆紀錄失去意義，例如群組被刪除後，之前對該群組的所有異動都不需要再同步
+     */
+    boolean isSupersededBy(WatchlistChange newer) {
+        if (!Objects.equals(groupId, newer.groupId)) {
+            return false;
+        }
+        return switch (newer.type) {
+            case GROUP_REMOVED -> true;
+            case GROUP_UPDATED -> type == WatchlistChangeType.GROUP_UPDATED;
+            case STOCK_ADDED, STOCK_REMOVED -> (type == WatchlistChangeType.STOCK_ADDED || type == WatchlistChangeType.STOCK_REMOVED)
+                    && Objects.equals(stockId, newer.stockId);
+            case GROUP_ADDED -> false;
+        };
+    }
+}
@@ -0,0 +1,12 @@
+package com.fututaiwan.stockgroup;
+
+/**
+ * 自選股異動類型，用於行動裝置的差異同步
+ */
+public enum WatchlistChangeType {
+    GROUP_ADDED,
+    GROUP_UPDATED,
+    GROUP_REMOVED,
+    STOCK_ADDED,
+    STOCK_REMOVED
+}
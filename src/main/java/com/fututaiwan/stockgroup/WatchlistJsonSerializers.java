@@ -0,0 +1,147 @@
+package com.fututaiwan.stockgroup;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fututaiwan.quote.QuoteJsonSerializer;
+import com.fututaiwan.stock.StockJsonSerializer;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 自選股回應 (WatchlistResponse、WatchlistSyncResponse) 的串流序列化
+ * 欄位名稱預先編碼，群組、成分股、報價與異動紀錄直接寫入 JsonGenerator；輸出欄位與預設序列化相同
+ */
+@JsonComponent
+public class WatchlistJsonSerializers {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString CODE = new SerializedString("code");
+    private static final SerializedString DESCRIPTION = new SerializedString("description");
+    private static final SerializedString QUOTE = new SerializedString("quote");
+    private static final SerializedString STOCKS = new SerializedString("stocks");
+    private static final SerializedString GROUPS = new SerializedString("groups");
+    private static final SerializedString MEMBER_ID = new SerializedString("memberId");
+    private static final SerializedString VERSION = new SerializedString("version");
+    private static final SerializedString QUOTE_EPOCH = new SerializedString("quoteEpoch");
+    private static final SerializedString EPOCH = new SerializedString("epoch");
+    private static final SerializedString RESET = new SerializedString("reset");
+    private static final SerializedString CHANGES = new SerializedString("changes");
+    private static final SerializedString TYPE = new SerializedString("type");
+    private static final SerializedString GROUP_ID = new SerializedString("groupId");
+    private static final SerializedString STOCK_ID = new SerializedString("stockId");
+    private static final SerializedString STOCK_CODE = new SerializedString("stockCode");
+
+    public static class Response extends JsonSerializer<WatchlistResponse> {
+
+        @Override
+        public void serialize(WatchlistResponse response, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeStartObject(response);
+            generator.writeFieldName(MEMBER_ID);
+            StockJsonSerializer.writeNumber(response.getMemberId(), generator);
+            generator.writeFieldName(VERSION);
+            generator.writeNumber(response.getVersion());
+            generator.writeFieldName(QUOTE_EPOCH);
+            generator.writeNumber(response.getQuoteEpoch());
+            generator.writeFieldName(GROUPS);
+            writeGroups(response.getGroups(), generator, provider);
+            generator.writeEndObject();
+        }
+    }
+
+    public static class SyncResponse extends JsonSerializer<WatchlistSyncResponse> {
+
+        @Override
+        public void serialize(WatchlistSyncResponse response, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeStartObject(response);
+            generator.writeFieldName(EPOCH);
+            generator.writeNumber(response.getEpoch());
+            generator.writeFieldName(VERSION);
+            generator.writeNumber(response.getVersion());
+            generator.writeFieldName(RESET);
+            generator.writeBoolean(response.isReset());
+            generator.writeFieldName(CHANGES);
+            if (response.getChanges() == null) {
+                generator.writeNull();
+            } else {
+                generator.writeStartArray();
+                for (WatchlistChange change : response.getChanges()) {
+                    writeChange(change, generator);
+                }
+                generator.writeEndArray();
+            }
+            generator.writeFieldName(GROUPS);
+            writeGroups(response.getGroups(), generator, provider);
+            generator.writeEndObject();
+        }
+    }
+
+    private static void writeGroups(List<WatchlistResponse.Group> groups, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        if (groups == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartArray();
+        for (WatchlistResponse.Group group : groups) {
+            generator.writeStartObject();
+            generator.writeFieldName(ID);
+            StockJsonSerializer.writeNumber(group.getId(), generator);
+            generator.writeFieldName(NAME);
+            generator.writeString(group.getName());
+            generator.writeFieldName(DESCRIPTION);
+            generator.writeString(group.getDescription());
+            generator.writeFieldName(STOCKS);
+            if (group.getStocks() == null) {
+                generator.writeNull();
+            } else {
+                generator.writeStartArray();
+                for (WatchlistResponse.Item item : group.getStocks()) {
+                    writeItem(item, generator, provider);
+                }
+                generator.writeEndArray();
+            }
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+    }
+
+    private static void writeItem(WatchlistResponse.Item item, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(ID);
+        StockJsonSerializer.writeNumber(item.getId(), generator);
+        generator.writeFieldName(CODE);
+        generator.writeString(item.getCode());
+        generator.writeFieldName(NAME);
+        generator.writeString(item.getName());
+        generator.writeFieldName(QUOTE);
+        if (item.getQuote() == null) {
+            generator.writeNull();
+        } else {
+            QuoteJsonSerializer.write(item.getQuote(), generator, provider);
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeChange(WatchlistChange change, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(VERSION);
+        generator.writeNumber(change.getVersion());
+        generator.writeFieldName(TYPE);
+        generator.writeString(change.getType() == null ? null : change.getType().name());
+        generator.writeFieldName(GROUP_ID);
+        StockJsonSerializer.writeNumber(change.getGroupId(), generator);
+        generator.writeFieldName(NAME);
+        generator.writeString(change.getName());
+        generator.writeFieldName(DESCRIPTION);
+        generator.writeString(change.getDescription());
+        generator.writeFieldName(STOCK_ID);
+        StockJsonSerializer.writeNumber(change.getStockId(), generator);
+        generator.writeFieldName(STOCK_CODE);
+        generator.writeString(change.getStockCode());
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,20 @@
+package com.fututaiwan.stockgroup;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 自選股快取與異動紀錄設定 (fututaiwan.watchlist.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "fututaiwan.watchlist")
+public class WatchlistProperties {
+
+    private long maxMembers = 100_000; // 每種快取與異動紀錄最多保留的會員數
+
+    private Duration expireAfterAccess = Duration.ofMinutes(30); // 閒置會員的快取與異動紀錄保留時間
+
+    private int maxChangesPerMember = 256;
+}
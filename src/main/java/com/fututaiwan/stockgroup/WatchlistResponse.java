@@ -0,0 +1,50 @@
+package com.fututaiwan.stockgroup;
+
+import com.fututaiwan.quote.Quote;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 自選股首頁回應 (Watchlist Response)
+ * 一次回傳會員的所有股票群組、成分股以及最新報價
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WatchlistResponse {
+
+    private Long memberId;
+
+    private long version; // 會員自選股版本，對應 WatchlistVersions
+
+    private long quoteEpoch; // 組裝時的報價 epoch，對應 QuoteService
+
+    private List<Group> groups;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Group {
+        private Long id;
+        private String name;
+        private String description;
+        private List<Item> stocks;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Item {
+        private Long id;
+        private String code;
+        private String name;
+        private Quote quote; // 尚無報價時為 null
+    }
+}
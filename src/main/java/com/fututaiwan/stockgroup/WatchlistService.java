@@ -0,0 +1,171 @@
+package com.fututaiwan.stockgroup;
+
+import com.fututaiwan.config.ReadFromPrimary;
+import com.fututaiwan.member.MemberService;
+import com.fututaiwan.quote.Quote;
+import com.fututaiwan.quote.QuoteInterest;
+import com.fututaiwan.quote.QuoteService;
+import com.fututaiwan.stock.Stock;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 組裝自選股首頁資料
+ * 成分股資料依會員自選股版本快取 (有會員數上限，閒置的會員會被淘汰)，報價則於每次請求時取自 QuoteService 的記憶體狀態；
+ * 回應本身不快取：任何一檔股票跳價都會改變全節點的報價 epoch，以 epoch 為鍵的回應快取在盤中幾乎不會命中
+ * 快取以寫入 commit 後遞增的版本為鍵，從落後的 replica 載入會把舊資料記在新版本下，因此固定讀取 primary
+ * 讀取自選股的會員視為正在關注其成分股 (QuoteInterest)，多節點部署時本節點只訂閱這些股票的報價分片
+ */
+@Service
+@ReadFromPrimary
+public class WatchlistService {
+
+    private final StockGroupRepository stockGroupRepository;
+    private final MemberService memberService;
+    private final QuoteService quoteService;
+    private final WatchlistVersions watchlistVersions;
+    private final QuoteInterest quoteInterest;
+
+    private final Cache<Long, Membership> memberships;
+
+    @Autowired
+    public WatchlistService(StockGroupRepository stockGroupRepository, MemberService memberService, QuoteService quoteService,
+                            WatchlistVersions watchlistVersions, QuoteInterest quoteInterest, WatchlistProperties properties) {
+        this.stockGroupRepository = stockGroupRepository;
+        this.memberService = memberService;
+        this.quoteService = quoteService;
+        this.watchlistVersions = watchlistVersions;
+        this.quoteInterest = quoteInterest;
+        this.memberships = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxMembers())
+                .expireAfterAccess(properties.getExpireAfterAccess())
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public WatchlistResponse getWatchlist(Long memberId) {
+        // 先讀版本再讀資料，若期間有異動，版本已遞增，下次請求會重新載入
+        long version = watchlistVersions.current(memberId);
+        long quoteEpoch = quoteService.getEpoch();
+
+        Membership membership = getMembership(memberId, version);
+        quoteInterest.touch(memberId, membership.codes());
+        return assemble(memberId, membership, quoteEpoch);
+    }
+
+    /**
+     * 行動裝置差異同步：回傳客戶端版本之後的異動；紀錄已不足以銜接時改回傳完整的群組清單
+     */
+    @Transactional(readOnly = true)
+    public WatchlistSyncResponse sync(Long memberId, long clientEpoch, long sinceVersion) {
+        // 異動紀錄對任何會員 id 都會建立，先確認會員存在，不存在的會員回應 404 而不是空的異動
+        memberService.getMemberById(memberId)
+                .orElseThrow(() -> new RuntimeException("Member not found with id " + memberId));
+        long epoch = watchlistVersions.getEpoch();
+        long version = watchlistVersions.current(memberId);
+
+        Optional<List<WatchlistChange>> changes = watchlistVersions.changesSince(memberId, clientEpoch, sinceVersion);
+        if (changes.isPresent()) {
+            List<WatchlistChange> delta = changes.get();
+            return WatchlistSyncResponse.builder()
+                    .epoch(epoch)
+                    .version(delta.isEmpty() ? sinceVersion : delta.get(delta.size() - 1).getVersion())
+                    .reset(false)
+                    .changes(delta)
+                    .build();
+        }
+
+        Membership membership = getMembership(memberId, version);
+        return WatchlistSyncResponse.builder()
+                .epoch(epoch)
+                .version(membership.version())
+                .reset(true)
+                .groups(assemble(memberId, membership, null).getGroups())
+                .build();
+    }
+
+    private Membership getMembership(Long memberId, long version) {
+        Membership membership = memberships.getIfPresent(memberId);
+        if (membership == null || membership.version() != version) {
+            membership = loadMembership(memberId, version);
+            memberships.put(memberId, membership);
+        }
+        return membership;
+    }
+
+    private Membership loadMembership(Long memberId, long version) {
+        memberService.getMemberById(memberId)
+                .orElseThrow(() -> new RuntimeException("Member not found with id " + memberId));
+
+        List<GroupSnapshot> groups = new ArrayList<>();
+        // 成分股由 StockGroup.stocks 集合快取與 Stock 二級快取取得，未命中時以 @BatchSize 批次載入
+        for (StockGroup stockGroup : stockGroupRepository.findByMember_Id(memberId)) {
+            List<StockSnapshot> stocks = new ArrayList<>(stockGroup.getStocks().size());
+            for (Stock stock : stockGroup.getStocks()) {
+                stocks.add(new StockSnapshot(stock.getId(), stock.getCode(), stock.getName()));
+            }
+            stocks.sort(Comparator.comparing(StockSnapshot::code));
+            groups.add(new GroupSnapshot(stockGroup.getId(), stockGroup.getName(), stockGroup.getDescription(), List.copyOf(stocks)));
+        }
+        groups.sort(Comparator.comparing(GroupSnapshot::id));
+        List<String> codes = groups.stream()
+                .flatMap(group -> group.stocks().stream())
+                .map(StockSnapshot::code)
+                .distinct()
+                .toList();
+        return new Membership(version, List.copyOf(groups), codes);
+    }
+
+    // quoteEpoch 為 null 時只組裝成分股，不帶報價
+    private WatchlistResponse assemble(Long memberId, Membership membership, Long quoteEpoch) {
+        Map<String, Quote> quotes = Map.of();
+        if (quoteEpoch != null) {
+            quotes = quoteService.getLatestQuotes(membership.codes());
+        }
+
+        List<WatchlistResponse.Group> groups = new ArrayList<>(membership.groups().size());
+        for (GroupSnapshot group : membership.groups()) {
+            List<WatchlistResponse.Item> items = new ArrayList<>(group.stocks().size());
+            for (StockSnapshot stock : group.stocks()) {
+                items.add(WatchlistResponse.Item.builder()
+                        .id(stock.id())
+                        .code(stock.code())
+                        .name(stock.name())
+                        .quote(quotes.get(stock.code()))
+                        .build());
+            }
+            groups.add(WatchlistResponse.Group.builder()
+                    .id(group.id())
+                    .name(group.name())
+                    .description(group.description())
+                    .stocks(items)
+                    .build());
+        }
+
+        return WatchlistResponse.builder()
+                .memberId(memberId)
+                .version(membership.version())
+                .quoteEpoch(quoteEpoch == null ? 0L : quoteEpoch)
+                .groups(groups)
+                .build();
+    }
+
+    // codes 為所有群組成分股代碼 (不重複)，同一版本共用同一個 List
+    private record Membership(long version, List<GroupSnapshot> groups, List<String> codes) {
+    }
+
+    private record GroupSnapshot(Long id, String name, String description, List<StockSnapshot> stocks) {
+    }
+
+    private record StockSnapshot(Long id, String code, String name) {
+    }
+}
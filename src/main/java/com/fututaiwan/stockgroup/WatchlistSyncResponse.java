@@ -0,0 +1,29 @@
+package com.fututaiwan.stockgroup;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 自選股差異同步回應 (Watchlist Sync Response)
+ * reset 為 false 時只帶回 changes；為 true 時帶回完整的 groups，客戶端應以其取代本地資料
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WatchlistSyncResponse {
+
+    private long epoch; // 下次同步時帶回
+
+    private long version; // 下次同步時帶回
+
+    private boolean reset;
+
+    private List<WatchlistChange> changes; // reset 為 false 時使用
+
+    private List<WatchlistResponse.Group> groups; // reset 為 true 時使用，不含報價
+}
@@ -0,0 +1,136 @@
+package com.fututaiwan.stockgroup;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 每位會員自選股 (股票群組與其成分股) 的版本號與精簡異動紀錄
+ * 任何群組或成分股異動都會遞增版本，快取以版本號判斷是否過期；
+ * 行動裝置則依版本取回之後的異動，只同步有變動的部分
+ * 紀錄只保存在本節點，閒置或超出上限的會員會被淘汰；版本取自全節點遞增的序號，
+ * 淘汰後重建的紀錄從目前序號起算，不會重用任何已發出、但之後又有異動的版本，以版本為鍵的快取不會命中舊資料
+ * (其他節點的異動不會遞增本節點的版本，依賴版本的快取需另以內容 (例如成分股) 區分)
+ */
+@Component
+public class WatchlistVersions {
+
+    // 版本只保存在記憶體中，重啟後重新起算；客戶端帶回不同的 epoch 時一律要求完整重置
+    private final long epoch = ThreadLocalRandom.current().nextLong(Long.MAX_VALUE);
+    private final AtomicLong sequence = new AtomicLong();
+    private final int maxChangesPerMember;
+    private final Cache<Long, MemberLog> logs;
+
+    @Autowired
+    public WatchlistVersions(WatchlistProperties properties) {
+        this(properties.getMaxChangesPerMember(), properties.getMaxMembers(), properties.getExpireAfterAccess(), Ticker.systemTicker());
+    }
+
+    WatchlistVersions(int maxChangesPerMember, long maxMembers, Duration expireAfterAccess, Ticker ticker) {
+        this.maxChangesPerMember = maxChangesPerMember;
+        this.logs = Caffeine.newBuilder()
+                .maximumSize(maxMembers)
+                .expireAfterAccess(expireAfterAccess)
+                .ticker(ticker)
+                .build();
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public long current(Long memberId) {
+        return log(memberId).version;
+    }
+
+    /**
+     * 記錄一筆異動並遞增會員的自選股版本；在交易中呼叫時延後到 commit 之後，
+     * 避免其他執行緒在 commit 前讀到新版本卻載入舊資料並快取起來
+     */
+    public void record(Long memberId, WatchlistChange change) {
+        if (memberId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    append(memberId, change);
+                }
+            });
+        } else {
+            append(memberId, change);
+        }
+    }
+
+    /**
+     * 取得指定版本之後的異動；若紀錄已被截斷 (或版本不屬於目前的 epoch) 則回傳 empty，呼叫端應改為完整重置
+     */
+    public Optional<List<WatchlistChange>> changesSince(Long memberId, long clientEpoch, long sinceVersion) {
+        if (clientEpoch != epoch) {
+            return Optional.empty();
+        }
+        MemberLog log = log(memberId);
+        synchronized (log) {
+            if (sinceVersion < log.floorVersion || sinceVersion > log.version) {
+                return Optional.empty();
+            }
+            List<WatchlistChange> changes = new ArrayList<>();
+            for (WatchlistChange change : log.changes) {
+                if (change.getVersion() > sinceVersion) {
+                    changes.add(change);
+                }
+            }
+            return Optional.of(changes);
+        }
+    }
+
+    private MemberLog log(Long memberId) {
+        return logs.get(memberId, id -> new MemberLog(sequence.get()));
+    }
+
+    // 在 compute 中寫入，與淘汰互斥，異動不會寫進已被淘汰的紀錄
+    private void append(Long memberId, WatchlistChange change) {
+        logs.asMap().compute(memberId, (id, existing) -> {
+            MemberLog log = existing != null ? existing : new MemberLog(sequence.get());
+            synchronized (log) {
+                WatchlistChange entry = change.toBuilder().version(sequence.incrementAndGet()).build();
+                // 被新異動取代的紀錄直接移除，客戶端只需要最終狀態
+                log.changes.removeIf(previous -> previous.isSupersededBy(entry));
+                log.changes.addLast(entry);
+                while (log.changes.size() > maxChangesPerMember) {
+                    log.floorVersion = log.changes.removeFirst().getVersion();
+                }
+                log.version = entry.getVersion();
+            }
+            return log;
+        });
+    }
+
+    /**
+     * 以建立時的序號為起始版本；序號之後沒有任何異動時，重用該版本的快取內容仍是最新的
+     */
+    private static final class MemberLog {
+        private volatile long version;
+        private long floorVersion; // 小於此版本的異動已被截斷或不在本紀錄中
+        private final Deque<WatchlistChange> changes = new ArrayDeque<>();
+
+        MemberLog(long version) {
+            this.version = version;
+            this.floorVersion = version;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+CREATE TABLE IF NOT EXISTS holdings (
+    id BIGSERIAL PRIMARY KEY,
+    member_id BIGINT NOT NULL,
+    stock_id BIGINT NOT NULL,
+    quantity BIGINT NOT NULL,
+    average_cost DOUBLE PRECISION NOT NULL,
+    CONSTRAINT uk_holdings_member_stock UNIQUE (member_id, stock_id),
+    CONSTRAINT fk_holdings_member
+        FOREIGN KEY (member_id)
+        REFERENCES members(id)
+        ON DELETE CASCADE,
+    CONSTRAINT fk_holdings_stock
+        FOREIGN KEY (stock_id)
+        REFERENCES stocks(id)
+        ON DELETE CASCADE
+);
+
+-- 主鍵由 Hibernate pooled 序列產生器配發 (allocationSize = 50)，遞增值必須與之一致
+ALTER SEQUENCE holdings_id_seq INCREMENT BY 50;
@@ -13,3 +13,6 @@ CREATE TABLE IF NOT EXISTS members (
     is_active BOOLEAN NOT NULL DEFAULT TRUE,
     role VARCHAR(50) NOT NULL DEFAULT 'member'
 );
+
+-- 主鍵由 Hibernate pooled 序列產生器配發 (allocationSize = 50)，遞增值必須與之一致
+ALTER SEQUENCE members_id_seq INCREMENT BY 50;
@@ -3,3 +3,6 @@ CREATE TABLE IF NOT EXISTS stocks (
     code VARCHAR(10) UNIQUE NOT NULL,
     name VARCHAR(100) UNIQUE NOT NULL
 );
+
+-- 主鍵由 Hibernate pooled 序列產生器配發 (allocationSize = 50)，遞增值必須與之一致
+ALTER SEQUENCE stocks_id_seq INCREMENT BY 50;
@@ -8,3 +8,6 @@ CREATE TABLE IF NOT EXISTS stock_groups (
         REFERENCES members(id)
         ON DELETE CASCADE
 );
+
+-- 主鍵由 Hibernate pooled 序列產生器配發 (allocationSize = 50)，遞增值必須與之一致
+ALTER SEQUENCE stock_groups_id_seq INCREMENT BY 50;
@@ -0,0 +1,12 @@
+-- 逐筆報價，由 TickCopySink 以 COPY (binary) 批次寫入，不經過 JPA
+-- 依交易日 (Asia/Taipei) 分區；每日的分區由 TickCopySink 自動建立，超過保存期間的分區整個刪除
+CREATE TABLE IF NOT EXISTS ticks (
+    trading_day DATE NOT NULL,
+    code VARCHAR(10) NOT NULL,
+    ts TIMESTAMP WITH TIME ZONE NOT NULL,
+    price DOUBLE PRECISION NOT NULL,
+    volume BIGINT NOT NULL
+) PARTITION BY RANGE (trading_day);
+
+-- 資料依時間順序寫入，BRIN 幾乎不增加寫入成本；單一股票的查詢請使用 Mongo 的 quote_ticks 或另建 (code, ts) 索引
+CREATE INDEX IF NOT EXISTS ticks_ts_brin ON ticks USING BRIN (ts);
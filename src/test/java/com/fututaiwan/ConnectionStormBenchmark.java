@@ -0,0 +1,113 @@
+package com.fututaiwan;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 開盤連線尖峰的比較基準：分別以平台執行緒與虛擬執行緒模式啟動應用程式，
+ * 同時打入大量連線，比較吞吐量與 p99 延遲。需要可連線的資料庫 (例如 compose.yaml)，
+ * 以 ./gradlew connectionStormBenchmark 執行
+ */
+@EnabledIfSystemProperty(named = "benchmark.connection-storm", matches = "true")
+@DisplayName("Connection Storm Benchmark")
+class ConnectionStormBenchmark {
+
+    private static final int CONNECTIONS = Integer.getInteger("benchmark.connections", 10_000);
+    private static final int WARMUP_REQUESTS = Integer.getInteger("benchmark.warmup", 2_000);
+    private static final String PATH = System.getProperty("benchmark.path", "/api/stocks");
+
+    @Test
+    @DisplayName("Compare platform and virtual thread modes under a connection storm")
+    void comparePlatformAndVirtualThreads() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        System.out.printf("%n%-10s %12s %12s %12s %8s%n", "mode", "req/s", "p50 (ms)", "p99 (ms)", "errors");
+        System.out.println(platform);
+        System.out.println(virtual);
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(FuTuTaiwanApplication.class)
+                .properties("server.port=0");
+        if (virtualThreads) {
+            builder.profiles("virtual-threads");
+        }
+        // application.properties 開啟的准入控制與報價歷史需以命令列參數關閉：單一來源的連線尖峰會被 IP token bucket 擋成 429
+        try (ConfigurableApplicationContext context = builder.run(
+                "--fututaiwan.admission.enabled=false",
+                "--fututaiwan.quote.history.enabled=false")) {
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + PATH);
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+
+            storm(client, uri, WARMUP_REQUESTS);
+            return storm(client, uri, CONNECTIONS).mode(virtualThreads ? "virtual" : "platform");
+        }
+    }
+
+    private Result storm(HttpClient client, URI uri, int connections) throws InterruptedException {
+        long[] latencies = new long[connections];
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+
+        long begin;
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < connections; i++) {
+                int slot = i;
+                clients.submit(() -> {
+                    start.await();
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() >= 400) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    latencies[slot] = System.nanoTime() - sent;
+                    return null;
+                });
+            }
+            begin = System.nanoTime();
+            start.countDown();
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        Arrays.sort(latencies);
+        return new Result(null, connections / (elapsed / 1e9),
+                latencies[connections / 2] / 1e6, latencies[(int) Math.ceil(connections * 0.99) - 1] / 1e6, errors.get());
+    }
+
+    private record Result(String mode, double throughput, double p50Millis, double p99Millis, int errors) {
+
+        Result mode(String mode) {
+            return new Result(mode, throughput, p50Millis, p99Millis, errors);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-10s %12.0f %12.1f %12.1f %8d", mode, throughput, p50Millis, p99Millis, errors);
+        }
+    }
+}
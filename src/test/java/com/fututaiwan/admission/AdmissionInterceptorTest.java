@@ -0,0 +1,182 @@
+package com.fututaiwan.admission;
+
+import com.fututaiwan.config.InternalAuthFilter;
+import com.fututaiwan.config.InternalAuthProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Admission Interceptor Tests")
+class AdmissionInterceptorTest {
+
+    private static final long VIP_MEMBER = 7L;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdmissionProperties properties;
+    private AtomicInteger queueDepth;
+    private AtomicLong clock;
+    private AdmissionInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new AdmissionProperties();
+        properties.setIp(new AdmissionProperties.Limit(1, 5));
+        properties.setMember(new AdmissionProperties.Limit(1, 2));
+        properties.setVip(new AdmissionProperties.Limit(1, 10));
+        properties.getShedding().setMaxQueueDepth(10);
+        properties.getShedding().setLatencyTarget(Duration.ofMillis(100));
+        queueDepth = new AtomicInteger();
+        clock = new AtomicLong();
+        LoadShedder shedder = new LoadShedder(properties.getShedding(), queueDepth::get, clock::get);
+        interceptor = new AdmissionInterceptor(properties, shedder,
+                AdmissionInterceptor.rolePriorities(id -> id == VIP_MEMBER ? Optional.of("vip") : Optional.empty(), Set.of("vip")),
+                meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should return 429 with Retry-After once a member exceeds its burst")
+    void shouldRejectMemberOverLimit() {
+        assertThat(handle(memberRequest(1L)).getStatus()).isEqualTo(200);
+        assertThat(handle(memberRequest(1L)).getStatus()).isEqualTo(200);
+
+        MockHttpServletResponse rejected = handle(memberRequest(1L));
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(rejectedCount("member_rate", "member")).isEqualTo(1);
+        // 其他會員不受影響
+        assertThat(handle(memberRequest(2L)).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Should limit each client IP across members")
+    void shouldRejectIpOverLimit() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(handle(anonymousRequest()).getStatus()).isEqualTo(200);
+        }
+        assertThat(handle(anonymousRequest()).getStatus()).isEqualTo(429);
+        assertThat(rejectedCount("ip_rate", "anonymous")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should give VIP members their own limit without the IP limit")
+    void shouldUseVipLimit() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(handle(memberRequest(VIP_MEMBER)).getStatus()).isEqualTo(200);
+        }
+        assertThat(handle(memberRequest(VIP_MEMBER)).getStatus()).isEqualTo(429);
+        assertThat(rejectedCount("member_rate", "vip")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should ignore a member id in the URI or header when the request does not carry the internal token")
+    void shouldNotTrustPathMemberId() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(handle(unauthenticatedMemberRequest(VIP_MEMBER)).getStatus()).isEqualTo(200);
+        }
+        assertThat(handle(unauthenticatedMemberRequest(VIP_MEMBER)).getStatus()).isEqualTo(429);
+        assertThat(rejectedCount("ip_rate", "anonymous")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should shed anonymous requests first, then members, and never VIP as pressure grows")
+    void shouldShedByPriority() {
+        queueDepth.set(8);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertThat(handle(anonymousRequest()).getStatus()).isEqualTo(429);
+        assertThat(handle(memberRequest(1L)).getStatus()).isEqualTo(200);
+
+        queueDepth.set(20);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertThat(handle(memberRequest(1L)).getStatus()).isEqualTo(429);
+        assertThat(handle(memberRequest(VIP_MEMBER)).getStatus()).isEqualTo(200);
+        assertThat(rejectedCount("shed", "anonymous")).isEqualTo(1);
+        assertThat(rejectedCount("shed", "member")).isEqualTo(1);
+
+        queueDepth.set(0);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertThat(handle(anonymousRequest()).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Should treat slow admitted requests as pressure and recover once no samples arrive")
+    void shouldShedOnLatency() {
+        LoadShedder shedder = new LoadShedder(properties.getShedding(), () -> 0, clock::get);
+        for (int i = 0; i < 10; i++) {
+            shedder.recordLatency(TimeUnit.MILLISECONDS.toNanos(200));
+            clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+            shedder.pressure();
+        }
+        assertThat(shedder.shouldShed(Priority.ANONYMOUS)).isTrue();
+        assertThat(shedder.shouldShed(Priority.VIP)).isFalse();
+
+        // 全部卸載時沒有新樣本，延遲估計逐次減半
+        for (int i = 0; i < 3; i++) {
+            clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+            shedder.pressure();
+        }
+        assertThat(shedder.shouldShed(Priority.ANONYMOUS)).isFalse();
+    }
+
+    private MockHttpServletResponse handle(MockHttpServletRequest request) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        if (interceptor.preHandle(request, response, new Object())) {
+            interceptor.afterCompletion(request, response, new Object(), null);
+        }
+        return response;
+    }
+
+    // 經前端閘道轉送：帶節點 token 與會員 id
+    private MockHttpServletRequest memberRequest(long memberId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/stock-groups/member/" + memberId);
+        request.addHeader(InternalAuthFilter.TOKEN_HEADER, "secret");
+        request.addHeader(AdmissionInterceptor.MEMBER_HEADER, String.valueOf(memberId));
+        request.setRemoteAddr("10.0.0.1");
+        authenticate(request);
+        return request;
+    }
+
+    private static void authenticate(MockHttpServletRequest request) {
+        InternalAuthProperties internalAuth = new InternalAuthProperties();
+        internalAuth.setSharedSecret("secret");
+        try {
+            new InternalAuthFilter(internalAuth).doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private MockHttpServletRequest unauthenticatedMemberRequest(long memberId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/stock-groups/member/" + memberId);
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("memberId", String.valueOf(memberId)));
+        request.addHeader(AdmissionInterceptor.MEMBER_HEADER, String.valueOf(memberId));
+        request.setRemoteAddr("10.0.0.3");
+        return request;
+    }
+
+    private MockHttpServletRequest anonymousRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/stocks");
+        request.setRemoteAddr("10.0.0.2");
+        return request;
+    }
+
+    private double rejectedCount(String reason, String priority) {
+        return meterRegistry.get(AdmissionInterceptor.METRIC_NAME).tags("reason", reason, "priority", priority).counter().count();
+    }
+}
@@ -0,0 +1,77 @@
+package com.fututaiwan.admission;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("TokenBuckets Tests")
+class TokenBucketsTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+
+    @Test
+    @DisplayName("Should admit a full burst and then report the wait until the next token")
+    void shouldLimitToBurst() {
+        TokenBuckets<Long> buckets = new TokenBuckets<>(10, 3, 4, 16, clock::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(buckets.tryAcquire(1L)).isEqualTo(TokenBuckets.ADMITTED);
+        }
+        assertThat(buckets.tryAcquire(1L)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    @DisplayName("Should refill lazily as time passes")
+    void shouldRefillLazily() {
+        TokenBuckets<Long> buckets = new TokenBuckets<>(10, 1, 4, 16, clock::get);
+
+        assertThat(buckets.tryAcquire(1L)).isEqualTo(TokenBuckets.ADMITTED);
+        assertThat(buckets.tryAcquire(1L)).isPositive();
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(buckets.tryAcquire(1L)).isEqualTo(TokenBuckets.ADMITTED);
+        // 閒置很久也只會補滿到 burst
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        assertThat(buckets.tryAcquire(1L)).isEqualTo(TokenBuckets.ADMITTED);
+        assertThat(buckets.tryAcquire(1L)).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should keep separate buckets per key")
+    void shouldIsolateKeys() {
+        TokenBuckets<String> buckets = new TokenBuckets<>(1, 1, 4, 16, clock::get);
+
+        assertThat(buckets.tryAcquire("10.0.0.1")).isEqualTo(TokenBuckets.ADMITTED);
+        assertThat(buckets.tryAcquire("10.0.0.1")).isPositive();
+        assertThat(buckets.tryAcquire("10.0.0.2")).isEqualTo(TokenBuckets.ADMITTED);
+    }
+
+    @Test
+    @DisplayName("Should sweep refilled buckets and fall back to a shared bucket when a stripe is full of active keys")
+    void shouldBoundBucketsPerStripe() {
+        TokenBuckets<Long> buckets = new TokenBuckets<>(1, 1, 1, 2, clock::get);
+
+        buckets.tryAcquire(1L);
+        buckets.tryAcquire(2L);
+        // 兩個 bucket 都在使用中，第三個 key 共用 overflow bucket
+        assertThat(buckets.tryAcquire(3L)).isEqualTo(TokenBuckets.ADMITTED);
+        assertThat(buckets.tryAcquire(4L)).isPositive();
+        assertThat(buckets.size()).isEqualTo(2);
+
+        // 補滿後可以清除，新的 key 取得自己的 bucket
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertThat(buckets.tryAcquire(5L)).isEqualTo(TokenBuckets.ADMITTED);
+        assertThat(buckets.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should reject a stripe count that is not a power of two")
+    void shouldValidateStripes() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBuckets<Long>(1, 1, 3, 16));
+    }
+}
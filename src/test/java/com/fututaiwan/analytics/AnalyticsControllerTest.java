@@ -0,0 +1,63 @@
+package com.fututaiwan.analytics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AnalyticsController.class)
+@DisplayName("Analytics Controller Tests")
+class AnalyticsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CorrelationService correlationService;
+
+    @Test
+    @DisplayName("Should return the correlation matrix of a stock group")
+    void shouldReturnCorrelation() throws Exception {
+        when(correlationService.getCorrelation(10L, 250)).thenReturn(CorrelationResponse.builder()
+                .groupId(10L)
+                .days(250)
+                .from(LocalDate.parse("2024-01-02"))
+                .to(LocalDate.parse("2024-12-31"))
+                .observations(250)
+                .codes(List.of("2330", "2454"))
+                .coverage(new int[]{250, 0})
+                .covariance(new Double[][]{{0.0004, null}, {null, null}})
+                .correlation(new Double[][]{{1.0, null}, {null, null}})
+                .build());
+
+        mockMvc.perform(get("/api/analytics/stock-groups/{groupId}/correlation", 10L).param("days", "250"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.codes[1]", is("2454")))
+                .andExpect(jsonPath("$.from", is("2024-01-02")))
+                .andExpect(jsonPath("$.correlation[0][0]", is(1.0)))
+                .andExpect(jsonPath("$.correlation[0][1]", nullValue()));
+    }
+
+    @Test
+    @DisplayName("Should return 400 for invalid days and 404 for a missing group")
+    void shouldMapErrors() throws Exception {
+        when(correlationService.getCorrelation(10L, 1)).thenThrow(new IllegalArgumentException("Days must be between 2 and 500"));
+        when(correlationService.getCorrelation(99L, 60)).thenThrow(new RuntimeException("StockGroup not found with id 99"));
+
+        mockMvc.perform(get("/api/analytics/stock-groups/{groupId}/correlation", 10L).param("days", "1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/analytics/stock-groups/{groupId}/correlation", 99L))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,90 @@
+package com.fututaiwan.analytics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+@DisplayName("Correlation Matrix Tests")
+class CorrelationMatrixTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(3);
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    @DisplayName("Should match the textbook sample covariance and correlation for any block size")
+    void shouldMatchNaiveComputation() {
+        int stocks = 37;
+        int observations = 1_030; // 超過一個時間區段，且不是 4 的倍數
+        SplittableRandom random = new SplittableRandom(11);
+        double[] returns = new double[stocks * observations];
+        double[] market = new double[observations];
+        for (int t = 0; t < observations; t++) {
+            market[t] = random.nextGaussian() * 0.01;
+        }
+        for (int i = 0; i < stocks; i++) {
+            double beta = i * 0.05;
+            for (int t = 0; t < observations; t++) {
+                returns[i * observations + t] = 0.0005 + beta * market[t] + random.nextGaussian() * 0.01;
+            }
+        }
+        double[][] expected = naiveCovariance(returns, stocks, observations);
+
+        for (int blockSize : new int[]{1, 8, 64}) {
+            CorrelationMatrix matrix = CorrelationMatrix.compute(returns.clone(), stocks, observations, blockSize, pool);
+            for (int i = 0; i < stocks; i++) {
+                for (int j = 0; j < stocks; j++) {
+                    assertThat(matrix.covariance(i, j)).isCloseTo(expected[i][j], within(1e-12));
+                    double correlation = expected[i][j] / Math.sqrt(expected[i][i] * expected[j][j]);
+                    assertThat(matrix.correlation(i, j)).isCloseTo(correlation, within(1e-9));
+                }
+            }
+            assertThat(matrix.correlation(5, 5)).isEqualTo(1.0);
+        }
+    }
+
+    @Test
+    @DisplayName("Should give NaN correlations for a stock whose price never moved")
+    void shouldGiveNaNForConstantSeries() {
+        double[] returns = {0.01, -0.02, 0.03, 0, 0, 0, 0.02, -0.01, 0.04};
+
+        CorrelationMatrix matrix = CorrelationMatrix.compute(returns, 3, 3, 64, pool);
+
+        assertThat(matrix.covariance(1, 1)).isZero();
+        assertThat(matrix.correlation(1, 1)).isNaN();
+        assertThat(matrix.correlation(0, 1)).isNaN();
+        assertThat(matrix.correlation(0, 2)).isCloseTo(1.0, within(1e-12));
+        assertThatThrownBy(() -> CorrelationMatrix.compute(new double[3], 3, 1, 64, pool))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static double[][] naiveCovariance(double[] returns, int stocks, int observations) {
+        double[] means = new double[stocks];
+        for (int i = 0; i < stocks; i++) {
+            for (int t = 0; t < observations; t++) {
+                means[i] += returns[i * observations + t] / observations;
+            }
+        }
+        double[][] covariance = new double[stocks][stocks];
+        for (int i = 0; i < stocks; i++) {
+            for (int j = 0; j < stocks; j++) {
+                double sum = 0;
+                for (int t = 0; t < observations; t++) {
+                    sum += (returns[i * observations + t] - means[i]) * (returns[j * observations + t] - means[j]);
+                }
+                covariance[i][j] = sum / (observations - 1);
+            }
+        }
+        return covariance;
+    }
+}
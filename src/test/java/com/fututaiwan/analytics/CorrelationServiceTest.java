@@ -0,0 +1,174 @@
+package com.fututaiwan.analytics;
+
+import com.fututaiwan.member.Member;
+import com.fututaiwan.stock.Stock;
+import com.fututaiwan.stockgroup.StockGroup;
+import com.fututaiwan.stockgroup.StockGroupService;
+import com.fututaiwan.stockgroup.WatchlistChange;
+import com.fututaiwan.stockgroup.WatchlistChangeType;
+import com.fututaiwan.stockgroup.WatchlistProperties;
+import com.fututaiwan.stockgroup.WatchlistVersions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Correlation Service Tests")
+class CorrelationServiceTest {
+
+    private static final LocalDate DAY = LocalDate.parse("2025-01-02");
+
+    @Mock
+    private StockGroupService stockGroupService;
+
+    @Mock
+    private DailyCloseReader dailyCloseReader;
+
+    private WatchlistVersions watchlistVersions;
+    private ForkJoinPool pool;
+    private AnalyticsProperties properties;
+    private CorrelationService correlationService;
+    private StockGroup group;
+
+    @BeforeEach
+    void setUp() {
+        watchlistVersions = new WatchlistVersions(new WatchlistProperties());
+        pool = new ForkJoinPool(2);
+        properties = new AnalyticsProperties();
+        properties.setMaxStocks(3);
+        correlationService = new CorrelationService(stockGroupService, watchlistVersions, dailyCloseReader, pool, properties,
+                new SimpleMeterRegistry(), Clock.fixed(Instant.parse("2025-01-10T06:00:00Z"), ZoneOffset.UTC));
+        group = StockGroup.builder()
+                .id(10L)
+                .name("半導體")
+                .member(Member.builder().id(1L).build())
+                .stocks(Set.of(Stock.builder().id(101L).code("2454").build(), Stock.builder().id(102L).code("2330").build()))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    @DisplayName("Should correlate daily log returns over the last trading days of the group's stocks")
+    void shouldComputeCorrelation() {
+        when(stockGroupService.getStockGroupById(10L)).thenReturn(Optional.of(group));
+        Map<String, NavigableMap<LocalDate, Double>> closes = new HashMap<>();
+        closes.put("2330", series(100, 101, 99, 102, 104, 103));
+        closes.put("2454", series(200, 202, 198, 204, 208, 206));
+        when(dailyCloseReader.read(anyCollection(), any(LocalDate.class))).thenReturn(closes);
+
+        CorrelationResponse response = correlationService.getCorrelation(10L, 3);
+
+        assertThat(response.getCodes()).containsExactly("2330", "2454");
+        assertThat(response.getObservations()).isEqualTo(3);
+        assertThat(response.getFrom()).isEqualTo(DAY.plusDays(3));
+        assertThat(response.getTo()).isEqualTo(DAY.plusDays(5));
+        assertThat(response.getCoverage()).containsExactly(3, 3);
+        // 2454 的價格恰為 2330 的兩倍，報酬率完全相同
+        assertThat(response.getCorrelation()[0][1]).isCloseTo(1.0, within(1e-9));
+        assertThat(response.getCovariance()[0][1]).isCloseTo(response.getCovariance()[0][0], within(1e-12));
+        verify(dailyCloseReader).read(eq(List.of("2330", "2454")), eq(LocalDate.parse("2024-12-17")));
+    }
+
+    @Test
+    @DisplayName("Should carry the last close over suspended days and fill days before the first close with the mean")
+    void shouldFillMissingCloses() {
+        List<LocalDate> days = List.of(DAY, DAY.plusDays(1), DAY.plusDays(2), DAY.plusDays(3), DAY.plusDays(4));
+        NavigableMap<LocalDate, Double> series = new TreeMap<>(Map.of(DAY.plusDays(1), 100.0, DAY.plusDays(2), 110.0, DAY.plusDays(4), 121.0));
+        double[] returns = new double[4];
+
+        int covered = CorrelationService.fillReturns(series, days, returns, 0);
+
+        assertThat(covered).isEqualTo(2);
+        double mean = (Math.log(1.1) + 0 + Math.log(1.1)) / 3;
+        assertThat(returns).containsExactly(new double[]{mean, Math.log(1.1), 0, Math.log(1.1)}, within(1e-12));
+    }
+
+    @Test
+    @DisplayName("Should cache results by group version and recompute after the group changes")
+    void shouldCacheByGroupVersion() {
+        when(stockGroupService.getStockGroupById(10L)).thenReturn(Optional.of(group));
+        when(dailyCloseReader.read(anyCollection(), any(LocalDate.class))).thenReturn(Map.of("2330", series(100, 101, 99, 102)));
+
+        CorrelationResponse first = correlationService.getCorrelation(10L, 60);
+        assertThat(correlationService.getCorrelation(10L, 60)).isSameAs(first);
+        verify(dailyCloseReader, times(1)).read(anyCollection(), any(LocalDate.class));
+
+        watchlistVersions.record(1L, WatchlistChange.builder().type(WatchlistChangeType.STOCK_ADDED).groupId(10L).stockId(103L).stockCode("2303").build());
+        assertThat(correlationService.getCorrelation(10L, 60)).isNotSameAs(first);
+        correlationService.getCorrelation(10L, 20);
+        verify(dailyCloseReader, times(3)).read(anyCollection(), any(LocalDate.class));
+
+        // 2454 沒有任何歷史資料
+        assertThat(first.getCoverage()).containsExactly(3, 0);
+        assertThat(first.getCorrelation()[0][0]).isEqualTo(1.0);
+        assertThat(first.getCorrelation()[0][1]).isNull();
+        assertThat(first.getCorrelation()[1][1]).isNull();
+    }
+
+    @Test
+    @DisplayName("Should return empty matrices when there is not enough history")
+    void shouldHandleMissingHistory() {
+        when(stockGroupService.getStockGroupById(10L)).thenReturn(Optional.of(group));
+        when(dailyCloseReader.read(anyCollection(), any(LocalDate.class))).thenReturn(Map.of());
+
+        CorrelationResponse response = correlationService.getCorrelation(10L, 60);
+
+        assertThat(response.getObservations()).isZero();
+        assertThat(response.getFrom()).isNull();
+        assertThat(response.getCorrelation()[0][1]).isNull();
+    }
+
+    @Test
+    @DisplayName("Should reject out-of-range days, oversized groups and unknown groups")
+    void shouldRejectInvalidRequests() {
+        assertThrows(IllegalArgumentException.class, () -> correlationService.getCorrelation(10L, 1));
+        assertThrows(IllegalArgumentException.class, () -> correlationService.getCorrelation(10L, 501));
+
+        group.setStocks(Set.of(Stock.builder().code("1").build(), Stock.builder().code("2").build(),
+                Stock.builder().code("3").build(), Stock.builder().code("4").build()));
+        when(stockGroupService.getStockGroupById(10L)).thenReturn(Optional.of(group));
+        assertThrows(IllegalArgumentException.class, () -> correlationService.getCorrelation(10L, 60));
+
+        when(stockGroupService.getStockGroupById(99L)).thenReturn(Optional.empty());
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> correlationService.getCorrelation(99L, 60));
+        assertThat(exception.getMessage()).isEqualTo("StockGroup not found with id 99");
+        verifyNoInteractions(dailyCloseReader);
+    }
+
+    private static NavigableMap<LocalDate, Double> series(double... closes) {
+        NavigableMap<LocalDate, Double> series = new TreeMap<>();
+        for (int i = 0; i < closes.length; i++) {
+            series.put(DAY.plusDays(i), closes[i]);
+        }
+        return series;
+    }
+}
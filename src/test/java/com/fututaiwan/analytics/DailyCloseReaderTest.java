@@ -0,0 +1,60 @@
+package com.fututaiwan.analytics;
+
+import com.fututaiwan.backtest.BarHistory;
+import com.fututaiwan.backtest.BacktestProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Daily Close Reader Tests")
+class DailyCloseReaderTest {
+
+    private static final LocalDate DAY = LocalDate.parse("2025-01-02");
+
+    @TempDir
+    private Path directory;
+
+    private BarHistory barHistory;
+    private DailyCloseReader reader;
+
+    @BeforeEach
+    void setUp() {
+        BacktestProperties properties = new BacktestProperties();
+        properties.setHistoryDirectory(directory);
+        barHistory = new BarHistory(properties);
+        reader = new DailyCloseReader(barHistory);
+    }
+
+    @Test
+    @DisplayName("Should read the closes of the daily bars on or after the start day")
+    void shouldReadDailyCloses() throws Exception {
+        write("2330", new int[]{-1, 0, 1}, new double[]{590, 601, 610});
+        write("2454", new int[]{0}, new double[]{1_200});
+        write("2317", new int[]{-2}, new double[]{100}); // 只有早於查詢起點的日 K 線
+
+        Map<String, NavigableMap<LocalDate, Double>> closes = reader.read(List.of("2330", "2454", "2317", "1101"), DAY);
+
+        assertThat(closes).containsOnlyKeys("2330", "2454");
+        assertThat(closes.get("2330")).containsExactly(
+                Map.entry(DAY, 601.0),
+                Map.entry(DAY.plusDays(1), 610.0));
+        assertThat(closes.get("2454")).containsExactly(Map.entry(DAY, 1_200.0));
+    }
+
+    private void write(String code, int[] offsets, double[] close) throws Exception {
+        int[] days = new int[offsets.length];
+        for (int i = 0; i < offsets.length; i++) {
+            days[i] = (int) DAY.plusDays(offsets[i]).toEpochDay();
+        }
+        barHistory.write(code, days, close, close, close, close, new long[offsets.length]);
+    }
+}
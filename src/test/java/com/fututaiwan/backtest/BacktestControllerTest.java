@@ -0,0 +1,100 @@
+package com.fututaiwan.backtest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(BacktestController.class)
+@DisplayName("Backtest Controller Tests")
+class BacktestControllerTest {
+
+    private static final String REQUEST = """
+            {"groupId":10,"from":"2015-01-01","to":"2024-12-31",
+             "strategies":[{"type":"SMA_CROSSOVER","fast":20,"slow":60},{"type":"BREAKOUT"}]}""";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private BacktestService backtestService;
+
+    @Test
+    @DisplayName("Should accept a backtest and return its id")
+    void shouldSubmit() throws Exception {
+        when(backtestService.submit(any(BacktestRequest.class))).thenReturn(BacktestResponse.builder()
+                .id(1L).groupId(10L).status(BacktestStatus.QUEUED).totalTasks(200).build());
+
+        mockMvc.perform(post("/api/backtests").contentType(MediaType.APPLICATION_JSON).content(REQUEST))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id", is(1)))
+                .andExpect(jsonPath("$.status", is("QUEUED")));
+        verify(backtestService).submit(argThat(request -> request.getStrategies().get(1).getType() == StrategyType.BREAKOUT
+                && request.getStrategies().get(1).getEntry() == 55 && request.getStrategies().get(0).getSlow() == 60));
+    }
+
+    @Test
+    @DisplayName("Should map invalid requests to 400, a missing group to 404 and too many jobs to 409")
+    void shouldMapSubmitErrors() throws Exception {
+        when(backtestService.submit(any(BacktestRequest.class)))
+                .thenThrow(new IllegalArgumentException("A period with from <= to is required."))
+                .thenThrow(new RuntimeException("StockGroup not found with id 10"))
+                .thenThrow(new IllegalStateException("Too many backtests running, at most 4"));
+
+        mockMvc.perform(post("/api/backtests").contentType(MediaType.APPLICATION_JSON).content(REQUEST))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/backtests").contentType(MediaType.APPLICATION_JSON).content(REQUEST))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post("/api/backtests").contentType(MediaType.APPLICATION_JSON).content(REQUEST))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @DisplayName("Should return progress and results of a backtest")
+    void shouldGetBacktest() throws Exception {
+        when(backtestService.getBacktest(1L)).thenReturn(BacktestResponse.builder()
+                .id(1L)
+                .status(BacktestStatus.COMPLETED)
+                .completedTasks(2)
+                .totalTasks(2)
+                .dates(List.of(LocalDate.parse("2024-12-30"), LocalDate.parse("2024-12-31")))
+                .strategies(List.of(BacktestResponse.Strategy.builder()
+                        .strategy("BREAKOUT(55,20)").equity(new double[]{1_000_000, 1_010_000}).finalEquity(1_010_000).build()))
+                .build());
+        when(backtestService.getBacktest(2L)).thenThrow(new RuntimeException("Backtest not found with id 2"));
+
+        mockMvc.perform(get("/api/backtests/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.dates[1]", is("2024-12-31")))
+                .andExpect(jsonPath("$.strategies[0].equity[1]", is(1_010_000.0)));
+        mockMvc.perform(get("/api/backtests/{id}", 2L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Should cancel a backtest")
+    void shouldCancel() throws Exception {
+        when(backtestService.cancel(1L)).thenReturn(BacktestResponse.builder().id(1L).status(BacktestStatus.CANCELLED).build());
+        when(backtestService.cancel(2L)).thenThrow(new RuntimeException("Backtest not found with id 2"));
+
+        mockMvc.perform(delete("/api/backtests/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", is("CANCELLED")));
+        mockMvc.perform(delete("/api/backtests/{id}", 2L))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,233 @@
+package com.fututaiwan.backtest;
+
+import com.fututaiwan.stock.Stock;
+import com.fututaiwan.stockgroup.StockGroup;
+import com.fututaiwan.stockgroup.StockGroupService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Backtest Service Tests")
+class BacktestServiceTest {
+
+    private static final LocalDate FROM = LocalDate.ofEpochDay(20_000);
+
+    @Mock
+    private StockGroupService stockGroupService;
+
+    @Mock
+    private BacktestRunner backtestRunner;
+
+    @TempDir
+    private Path directory;
+
+    private BarHistory barHistory;
+    private BacktestProperties properties;
+    private BacktestService backtestService;
+    private StockGroup group;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        barHistory = new BarHistory(directory);
+        properties = new BacktestProperties();
+        properties.setMaxActiveJobs(1);
+        properties.setCommissionRate(0);
+        properties.setTaxRate(0);
+        backtestService = new BacktestService(stockGroupService, barHistory, backtestRunner, properties, new SimpleMeterRegistry(),
+                Clock.fixed(Instant.parse("2025-01-10T06:00:00Z"), ZoneOffset.UTC));
+        group = StockGroup.builder()
+                .id(10L)
+                .name("半導體")
+                .stocks(Set.of(Stock.builder().id(101L).code("2330").build(), Stock.builder().id(102L).code("2454").build(),
+                        Stock.builder().id(103L).code("9999").build()))
+                .build();
+        // 2330 每天都有 K 線；2454 第三天才上市；9999 沒有歷史檔
+        write("2330", 0, 10, 10, 10, 10, 12, 14, 16, 14, 10, 8);
+        write("2454", 2, 50, 50, 50, 55, 60, 66, 70, 72);
+    }
+
+    @Test
+    @DisplayName("Should run every stock and strategy pair and aggregate portfolio equity per strategy")
+    void shouldRunBacktest() {
+        when(stockGroupService.getStockGroupById(10L)).thenReturn(Optional.of(group));
+        BacktestRunner runner = new BacktestRunner(properties, new SimpleMeterRegistry());
+        runner.start();
+        try {
+            backtestService = new BacktestService(stockGroupService, barHistory, runner, properties, new SimpleMeterRegistry());
+            BacktestResponse submitted = backtestService.submit(request(StrategySpec.builder().type(StrategyType.SMA_CROSSOVER).fast(2).slow(3).build(),
+                    StrategySpec.builder().type(StrategyType.BREAKOUT).entry(3).exit(2).build()));
+            assertThat(submitted.getTotalTasks()).isEqualTo(6);
+
+            BacktestResponse result = awaitFinished(submitted.getId());
+
+            assertThat(result.getStatus()).isEqualTo(BacktestStatus.COMPLETED);
+            assertThat(result.getCompletedTasks()).isEqualTo(6);
+            assertThat(result.getDates()).hasSize(10).startsWith(FROM);
+            assertThat(result.getStrategies()).extracting(BacktestResponse.Strategy::getStrategy)
+                    .containsExactly("SMA_CROSSOVER(2,3)", "BREAKOUT(3,2)");
+            assertThat(result.getStocks()).hasSize(6);
+            BacktestResponse.Stock missing = result.getStocks().stream().filter(stock -> stock.getCode().equals("9999")).findFirst().orElseThrow();
+            assertThat(missing.getBars()).isZero();
+            assertThat(missing.getFinalEquity()).isEqualTo(1_000);
+
+            BacktestResponse.Strategy crossover = result.getStrategies().get(0);
+            assertThat(crossover.getEquity()).hasSize(10);
+            assertThat(crossover.getEquity()[0]).isEqualTo(3_000);
+            double finalEquity = result.getStocks().stream().filter(stock -> stock.getStrategy().equals("SMA_CROSSOVER(2,3)"))
+                    .mapToDouble(BacktestResponse.Stock::getFinalEquity).sum();
+            assertThat(crossover.getFinalEquity()).isCloseTo(finalEquity, within(1e-9));
+            assertThat(crossover.getTotalReturn()).isCloseTo(finalEquity / 3_000 - 1, within(1e-9));
+            assertThat(crossover.getMaxDrawdown()).isPositive();
+            assertThat(crossover.getTrades()).isEqualTo(2);
+        } finally {
+            runner.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Should cancel a queued backtest and free its slot")
+    void shouldCancel() {
+        when(stockGroupService.getStockGroupById(10L)).thenReturn(Optional.of(group));
+        BacktestResponse submitted = backtestService.submit(request(StrategySpec.builder().type(StrategyType.BREAKOUT).build()));
+        assertThat(submitted.getStatus()).isEqualTo(BacktestStatus.QUEUED);
+        assertThrows(IllegalStateException.class, () -> backtestService.submit(request(StrategySpec.builder().type(StrategyType.BREAKOUT).build())));
+
+        BacktestResponse cancelled = backtestService.cancel(submitted.getId());
+
+        assertThat(cancelled.getStatus()).isEqualTo(BacktestStatus.CANCELLED);
+        assertThat(cancelled.getFinishedAt()).isNotNull();
+        assertThat(cancelled.getStrategies()).isNull();
+        assertThat(backtestService.submit(request(StrategySpec.builder().type(StrategyType.BREAKOUT).build())).getId())
+                .isNotEqualTo(submitted.getId());
+        verify(backtestRunner, times(2)).submit(any());
+    }
+
+    @Test
+    @DisplayName("Should not exceed the active job limit when backtests are submitted concurrently")
+    void shouldLimitConcurrentSubmits() throws Exception {
+        when(stockGroupService.getStockGroupById(10L)).thenReturn(Optional.of(group));
+        int threads = 8;
+        CyclicBarrier start = new CyclicBarrier(threads);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int i = 0; i < threads; i++) {
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                        backtestService.submit(request(StrategySpec.builder().type(StrategyType.BREAKOUT).build()));
+                        accepted.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        rejected.incrementAndGet();
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+            }
+        }
+
+        assertThat(accepted.get()).isEqualTo(1);
+        assertThat(rejected.get()).isEqualTo(threads - 1);
+        verify(backtestRunner, times(1)).submit(any());
+    }
+
+    @Test
+    @DisplayName("Should skip the remaining tasks of a cancelled backtest")
+    void shouldNotRunCancelledTasks() {
+        BacktestJob job = new BacktestJob(1L, 10L, FROM, FROM.plusDays(9), 1_000, List.of("2330"),
+                List.of(barHistory.get("2330").orElseThrow()), List.of(StrategySpec.builder().type(StrategyType.BREAKOUT).build()),
+                new int[]{20_000}, Instant.EPOCH);
+
+        assertThat(job.cancel(Instant.EPOCH)).isTrue();
+
+        assertThat(job.run(0, 0, 0)).isFalse();
+        assertThat(job.completed()).isZero();
+        assertThat(job.cancel(Instant.EPOCH)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should reject invalid periods, strategies and groups")
+    void shouldValidateRequest() {
+        when(stockGroupService.getStockGroupById(10L)).thenReturn(Optional.of(group));
+        when(stockGroupService.getStockGroupById(99L)).thenReturn(Optional.empty());
+        StrategySpec valid = StrategySpec.builder().type(StrategyType.SMA_CROSSOVER).build();
+
+        BacktestRequest reversed = request(valid);
+        reversed.setTo(FROM.minusDays(1));
+        assertThrows(IllegalArgumentException.class, () -> backtestService.submit(reversed));
+        assertThrows(IllegalArgumentException.class, () ->
+                backtestService.submit(request(StrategySpec.builder().type(StrategyType.SMA_CROSSOVER).fast(60).slow(20).build())));
+        assertThrows(IllegalArgumentException.class, () -> backtestService.submit(request()));
+        BacktestRequest noBars = request(valid);
+        noBars.setFrom(FROM.plusYears(1));
+        noBars.setTo(FROM.plusYears(2));
+        assertThrows(IllegalArgumentException.class, () -> backtestService.submit(noBars));
+        BacktestRequest missingGroup = request(valid);
+        missingGroup.setGroupId(99L);
+        assertThrows(RuntimeException.class, () -> backtestService.submit(missingGroup));
+        assertThrows(RuntimeException.class, () -> backtestService.getBacktest(42L));
+        verifyNoInteractions(backtestRunner);
+    }
+
+    @Test
+    @DisplayName("Should build the calendar from the trading days of all stocks in the period")
+    void shouldBuildCalendar() {
+        List<DailyBars> bars = java.util.Arrays.asList(barHistory.get("2454").orElseThrow(), null, barHistory.get("2330").orElseThrow());
+
+        assertThat(BacktestService.calendar(bars, 20_001, 20_003)).containsExactly(20_001, 20_002, 20_003);
+        assertThat(BacktestService.calendar(bars, 20_020, 20_030)).isEmpty();
+    }
+
+    private BacktestRequest request(StrategySpec... strategies) {
+        return BacktestRequest.builder()
+                .groupId(10L)
+                .from(FROM)
+                .to(FROM.plusDays(30))
+                .capital(3_000.0)
+                .strategies(List.of(strategies))
+                .build();
+    }
+
+    private BacktestResponse awaitFinished(Long id) {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        BacktestResponse response = backtestService.getBacktest(id);
+        while (!response.getStatus().isFinished() && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+            response = backtestService.getBacktest(id);
+        }
+        return response;
+    }
+
+    private void write(String code, int offset, double... closes) throws Exception {
+        int[] days = new int[closes.length];
+        for (int i = 0; i < closes.length; i++) {
+            days[i] = 20_000 + offset + i;
+        }
+        barHistory.write(code, days, closes, closes, closes, closes, new long[closes.length]);
+    }
+}
@@ -0,0 +1,93 @@
+package com.fututaiwan.backtest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@DisplayName("Backtester Tests")
+class BacktesterTest {
+
+    private static final double COMMISSION = 0.001;
+    private static final double TAX = 0.003;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    @DisplayName("Should enter on the open after the fast average crosses above the slow one and exit after it crosses back")
+    void shouldTradeSmaCrossover() throws Exception {
+        DailyBars bars = bars(10, 10, 10, 10, 12, 14, 16, 14, 10, 8);
+        StrategySpec strategy = StrategySpec.builder().type(StrategyType.SMA_CROSSOVER).fast(2).slow(3).build();
+
+        Backtester.Run run = Backtester.simulate(bars, 0, 9, strategy, 1_000, COMMISSION, TAX);
+
+        double shares = 1_000 / (14 * (1 + COMMISSION));
+        assertThat(run.equity()).hasSize(10);
+        assertThat(run.equity()[4]).isEqualTo(1_000);
+        assertThat(run.equity()[5]).isCloseTo(shares * 14, within(1e-9));
+        assertThat(run.equity()[8]).isCloseTo(shares * 10, within(1e-9));
+        assertThat(run.equity()[9]).isCloseTo(shares * 8 * (1 - COMMISSION - TAX), within(1e-9));
+        assertThat(run.trades()).isEqualTo(1);
+        assertThat(run.wins()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should warm the averages up with bars before the period without trading on them")
+    void shouldWarmUpBeforePeriod() throws Exception {
+        DailyBars bars = bars(10, 10, 10, 10, 12, 14, 16, 14, 10, 8);
+        StrategySpec strategy = StrategySpec.builder().type(StrategyType.SMA_CROSSOVER).fast(2).slow(3).build();
+
+        Backtester.Run run = Backtester.simulate(bars, 4, 7, strategy, 1_000, COMMISSION, TAX);
+
+        assertThat(run.equity()).hasSize(4);
+        assertThat(run.equity()[0]).isEqualTo(1_000);
+        assertThat(run.equity()[3]).isCloseTo(1_000 / (14 * (1 + COMMISSION)) * 14, within(1e-9));
+        assertThat(run.trades()).isEqualTo(1); // 期末仍持有
+    }
+
+    @Test
+    @DisplayName("Should buy a close above the entry channel and sell a close below the exit channel")
+    void shouldTradeBreakout() throws Exception {
+        DailyBars bars = bars(10, 11, 10, 11, 13, 12, 11, 9, 9);
+        StrategySpec strategy = StrategySpec.builder().type(StrategyType.BREAKOUT).entry(3).exit(2).build();
+
+        Backtester.Run run = Backtester.simulate(bars, 0, 8, strategy, 1_000, COMMISSION, TAX);
+
+        double shares = 1_000 / (12 * (1 + COMMISSION));
+        assertThat(run.equity()[4]).isEqualTo(1_000);
+        assertThat(run.equity()[6]).isCloseTo(shares * 11, within(1e-9));
+        assertThat(run.equity()[7]).isCloseTo(shares * 9 * (1 - COMMISSION - TAX), within(1e-9));
+        assertThat(run.equity()[8]).isEqualTo(run.equity()[7]);
+        assertThat(run.trades()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should count a round trip sold above its cost as a win")
+    void shouldCountWins() throws Exception {
+        DailyBars bars = bars(10, 10, 10, 12, 14, 16, 18, 20, 19, 18, 17);
+        StrategySpec strategy = StrategySpec.builder().type(StrategyType.BREAKOUT).entry(2).exit(1).build();
+
+        Backtester.Run run = Backtester.simulate(bars, 0, 10, strategy, 1_000, COMMISSION, TAX);
+
+        assertThat(run.trades()).isEqualTo(1);
+        assertThat(run.wins()).isEqualTo(1);
+        assertThat(run.equity()[10]).isGreaterThan(1_000);
+    }
+
+    // 開高低收皆為收盤價，每天一根
+    private DailyBars bars(double... closes) throws Exception {
+        int[] days = new int[closes.length];
+        long[] volume = new long[closes.length];
+        for (int i = 0; i < closes.length; i++) {
+            days[i] = 20_000 + i;
+        }
+        Path file = directory.resolve("test.bars");
+        DailyBars.write(file, days, closes, closes, closes, closes, volume);
+        return DailyBars.map("test", file);
+    }
+}
@@ -0,0 +1,81 @@
+package com.fututaiwan.backtest;
+
+import com.fututaiwan.config.InternalAuthConfig;
+import com.fututaiwan.config.InternalAuthFilter;
+import com.fututaiwan.config.InternalAuthProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = BarHistoryController.class, properties = "fututaiwan.internal.shared-secret=secret")
+@DisplayName("Bar History Controller Tests")
+class BarHistoryControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private BarHistoryExportService barHistoryExportService;
+
+    @Test
+    @DisplayName("Should reject exports without the internal token")
+    void shouldRequireInternalToken() throws Exception {
+        mockMvc.perform(post("/internal/bar-history/export").param("from", "2025-01-02"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/internal/bar-history/export/1").header(InternalAuthFilter.TOKEN_HEADER, "wrong"))
+                .andExpect(status().isUnauthorized());
+        verify(barHistoryExportService, never()).submit(any(), any());
+        verify(barHistoryExportService, never()).getExport(any());
+    }
+
+    @Test
+    @DisplayName("Should start the export in the background and return its id")
+    void shouldSubmitExport() throws Exception {
+        when(barHistoryExportService.submit(List.of("2330", "2454"), LocalDate.parse("2025-01-02"))).thenReturn(BarHistoryExportResponse.builder()
+                .id(1L).status(BacktestStatus.QUEUED).from(LocalDate.parse("2025-01-02")).build());
+
+        mockMvc.perform(post("/internal/bar-history/export").header(InternalAuthFilter.TOKEN_HEADER, "secret")
+                        .param("from", "2025-01-02").param("codes", "2330", "2454"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id", is(1)))
+                .andExpect(jsonPath("$.status", is("QUEUED")));
+    }
+
+    @Test
+    @DisplayName("Should map invalid codes to 400, a running export to 409 and an unknown export to 404")
+    void shouldMapErrors() throws Exception {
+        when(barHistoryExportService.submit(any(), any(LocalDate.class)))
+                .thenThrow(new IllegalArgumentException("Invalid stock code: ../x"))
+                .thenThrow(new IllegalStateException("Bar history export 1 is still running."));
+        when(barHistoryExportService.getExport(2L)).thenThrow(new RuntimeException("Bar history export not found with id 2"));
+
+        mockMvc.perform(post("/internal/bar-history/export").header(InternalAuthFilter.TOKEN_HEADER, "secret").param("from", "2025-01-02"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/internal/bar-history/export").header(InternalAuthFilter.TOKEN_HEADER, "secret").param("from", "2025-01-02"))
+                .andExpect(status().isConflict());
+        mockMvc.perform(get("/internal/bar-history/export/2").header(InternalAuthFilter.TOKEN_HEADER, "secret"))
+                .andExpect(status().isNotFound());
+    }
+
+    @TestConfiguration
+    @Import(InternalAuthConfig.class)
+    @EnableConfigurationProperties(InternalAuthProperties.class)
+    static class InternalAuth {
+    }
+}
@@ -0,0 +1,93 @@
+package com.fututaiwan.backtest;
+
+import com.fututaiwan.stock.Stock;
+import com.fututaiwan.stock.StockService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Bar History Export Service Tests")
+class BarHistoryExportServiceTest {
+
+    private static final LocalDate FROM = LocalDate.parse("2025-01-02");
+
+    @Mock
+    private BarHistoryExporter exporter;
+
+    @Mock
+    private StockService stockService;
+
+    private List<Runnable> queued;
+    private BarHistoryExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        queued = new ArrayList<>();
+        exportService = new BarHistoryExportService(exporter, stockService, queued::add,
+                Clock.fixed(Instant.parse("2025-01-10T06:00:00Z"), ZoneOffset.UTC));
+    }
+
+    @Test
+    @DisplayName("Should run the export in the background and report its progress")
+    void shouldExportInBackground() {
+        when(stockService.getAllStocks()).thenReturn(List.of(Stock.builder().code("2454").build(), Stock.builder().code("2330").build()));
+        when(exporter.export(eq(List.of("2330", "2454")), eq(FROM), any())).thenReturn(1);
+
+        BarHistoryExportResponse submitted = exportService.submit(null, FROM);
+
+        assertThat(submitted.getStatus()).isEqualTo(BacktestStatus.QUEUED);
+        verifyNoInteractions(exporter, stockService);
+
+        queued.get(0).run();
+
+        BarHistoryExportResponse finished = exportService.getExport(submitted.getId());
+        assertThat(finished.getStatus()).isEqualTo(BacktestStatus.COMPLETED);
+        assertThat(finished.getTotalStocks()).isEqualTo(2);
+        assertThat(finished.getWrittenStocks()).isEqualTo(1);
+        assertThat(finished.getFinishedAt()).isEqualTo(Instant.parse("2025-01-10T06:00:00Z"));
+    }
+
+    @Test
+    @DisplayName("Should allow one export at a time and record failures")
+    void shouldRunOneExportAtATime() {
+        when(exporter.export(eq(List.of("2330")), eq(FROM), any())).thenThrow(new IllegalStateException("Mongo is down"));
+        BarHistoryExportResponse first = exportService.submit(List.of("2330"), FROM);
+
+        assertThrows(IllegalStateException.class, () -> exportService.submit(List.of("2454"), FROM));
+
+        queued.get(0).run();
+        BarHistoryExportResponse failed = exportService.getExport(first.getId());
+        assertThat(failed.getStatus()).isEqualTo(BacktestStatus.FAILED);
+        assertThat(failed.getError()).contains("Mongo is down");
+
+        BarHistoryExportResponse second = exportService.submit(List.of("2454"), FROM);
+        assertThat(second.getId()).isNotEqualTo(first.getId());
+        assertThrows(RuntimeException.class, () -> exportService.getExport(first.getId()));
+    }
+
+    @Test
+    @DisplayName("Should reject invalid codes before queueing the export")
+    void shouldRejectInvalidCodes() {
+        assertThrows(IllegalArgumentException.class, () -> exportService.submit(List.of("../etc"), FROM));
+        assertThrows(IllegalArgumentException.class, () -> exportService.submit(List.of("2330"), null));
+
+        assertThat(queued).isEmpty();
+    }
+}
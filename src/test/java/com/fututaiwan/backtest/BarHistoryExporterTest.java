@@ -0,0 +1,99 @@
+package com.fututaiwan.backtest;
+
+import com.fututaiwan.quote.QuoteHistoryProperties;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 以 mongo-java-server (in-process 的 Mongo 替身) 驗證 aggregation
+ */
+@DisplayName("Bar History Exporter Tests")
+class BarHistoryExporterTest {
+
+    @TempDir
+    private Path directory;
+
+    private MongoServer server;
+    private MongoClient client;
+    private BarHistory barHistory;
+    private BarHistoryExporter exporter;
+
+    @BeforeEach
+    void setUp() {
+        server = new MongoServer(new MemoryBackend());
+        client = MongoClients.create("mongodb://" + new ServerAddress(server.bind()));
+        barHistory = new BarHistory(directory);
+        exporter = new BarHistoryExporter(new SimpleMongoClientDatabaseFactory(client, "quotes"), new QuoteHistoryProperties(),
+                barHistory, new BacktestProperties());
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should roll minute bars up into Taipei trading days and keep the bars before the export start")
+    void shouldExportDailyBars() throws Exception {
+        barHistory.write("2330", new int[]{day("2024-12-31"), day("2025-01-02")},
+                new double[]{580, 1}, new double[]{585, 1}, new double[]{575, 1}, new double[]{582, 1}, new long[]{9, 9});
+        client.getDatabase("quotes").getCollection("quote_bars_1m").insertMany(List.of(
+                bar("2330", "2025-01-02T01:00:00Z", 595, 598, 594, 597, 100),
+                bar("2330", "2025-01-02T05:29:00Z", 597, 603, 590, 601, 300),
+                bar("2330", "2025-01-02T17:00:00Z", 605, 606, 604, 605, 50), // 台北時間 1 月 3 日凌晨
+                bar("2330", "2025-01-03T05:29:00Z", 608, 612, 607, 610, 70),
+                bar("2317", "2025-01-02T05:29:00Z", 100, 100, 100, 100, 10)));
+
+        int written = exporter.export(List.of("2330", "2454"), LocalDate.parse("2025-01-02"));
+
+        assertThat(written).isEqualTo(1);
+        assertThat(barHistory.get("2454")).isEmpty();
+        DailyBars bars = barHistory.get("2330").orElseThrow();
+        assertThat(bars.count()).isEqualTo(3);
+        assertThat(bars.day(0)).isEqualTo(day("2024-12-31"));
+        assertThat(bars.close(0)).isEqualTo(582);
+        assertThat(bars.day(1)).isEqualTo(day("2025-01-02"));
+        assertThat(bars.open(1)).isEqualTo(595);
+        assertThat(bars.high(1)).isEqualTo(603);
+        assertThat(bars.low(1)).isEqualTo(590);
+        assertThat(bars.close(1)).isEqualTo(601);
+        assertThat(bars.volume(1)).isEqualTo(400);
+        assertThat(bars.open(2)).isEqualTo(605);
+        assertThat(bars.close(2)).isEqualTo(610);
+        assertThat(bars.volume(2)).isEqualTo(120);
+    }
+
+    private static int day(String date) {
+        return (int) LocalDate.parse(date).toEpochDay();
+    }
+
+    private static Document bar(String code, String start, double open, double high, double low, double close, long volume) {
+        return new Document("timestamp", Date.from(Instant.parse(start)))
+                .append("code", code)
+                .append("open", open)
+                .append("high", high)
+                .append("low", low)
+                .append("close", close)
+                .append("volume", volume)
+                .append("ticks", 10);
+    }
+}
@@ -0,0 +1,80 @@
+package com.fututaiwan.backtest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Bar History Tests")
+class BarHistoryTest {
+
+    @TempDir
+    private Path directory;
+
+    private BarHistory barHistory;
+
+    @BeforeEach
+    void setUp() {
+        barHistory = new BarHistory(directory);
+    }
+
+    @Test
+    @DisplayName("Should memory-map the columns written for a stock")
+    void shouldRoundTrip() throws Exception {
+        barHistory.write("2330", new int[]{20_000, 20_001, 20_004},
+                new double[]{600, 605, 610}, new double[]{606, 612, 615}, new double[]{598, 601, 607},
+                new double[]{604, 611, 613}, new long[]{1_000, 2_000, 3_000});
+
+        DailyBars bars = barHistory.get("2330").orElseThrow();
+
+        assertThat(bars.code()).isEqualTo("2330");
+        assertThat(bars.count()).isEqualTo(3);
+        assertThat(bars.day(2)).isEqualTo(20_004);
+        assertThat(bars.open(1)).isEqualTo(605);
+        assertThat(bars.high(2)).isEqualTo(615);
+        assertThat(bars.low(0)).isEqualTo(598);
+        assertThat(bars.close(1)).isEqualTo(611);
+        assertThat(bars.volume(2)).isEqualTo(3_000);
+        assertThat(barHistory.get("2330")).containsSame(bars);
+    }
+
+    @Test
+    @DisplayName("Should find the first bar on or after a day")
+    void shouldFindIndexOfDay() throws Exception {
+        barHistory.write("2330", new int[]{20_000, 20_001, 20_004}, new double[3], new double[3], new double[3], new double[3], new long[3]);
+
+        DailyBars bars = barHistory.get("2330").orElseThrow();
+
+        assertThat(bars.indexOf(19_000)).isZero();
+        assertThat(bars.indexOf(20_001)).isEqualTo(1);
+        assertThat(bars.indexOf(20_002)).isEqualTo(2);
+        assertThat(bars.indexOf(20_005)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should remap after the history is rewritten and return empty without a file")
+    void shouldRemapAfterWrite() throws Exception {
+        assertThat(barHistory.get("2330")).isEmpty();
+        barHistory.write("2330", new int[]{20_000}, new double[]{1}, new double[]{1}, new double[]{1}, new double[]{1}, new long[]{1});
+        barHistory.write("2330", new int[]{20_000, 20_001}, new double[2], new double[2], new double[2], new double[]{1, 2}, new long[2]);
+
+        assertThat(barHistory.get("2330").orElseThrow().count()).isEqualTo(2);
+        try (var files = Files.list(directory)) {
+            assertThat(files.map(file -> file.getFileName().toString())).containsExactly("2330.bars");
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject days out of order and codes that are not file names")
+    void shouldRejectInvalidInput() {
+        assertThrows(IllegalArgumentException.class, () -> barHistory.write("2330", new int[]{20_001, 20_001},
+                new double[2], new double[2], new double[2], new double[2], new long[2]));
+        assertThrows(IllegalArgumentException.class, () -> barHistory.get("../2330"));
+    }
+}
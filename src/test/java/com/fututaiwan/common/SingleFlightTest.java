@@ -0,0 +1,116 @@
+package com.fututaiwan.common;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("SingleFlight Tests")
+class SingleFlightTest {
+
+    private static final int CALLERS = 16;
+
+    @Test
+    @DisplayName("Should run one load for concurrent callers with the same key and share its result")
+    void shouldShareInFlightLoad() throws Exception {
+        SingleFlight<String, Object> flight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(() -> execute(flight, "2330", () -> {
+                    loads.incrementAndGet();
+                    release.await();
+                    return new Object();
+                })));
+            }
+            // 等所有呼叫者都加入同一次載入後才放行
+            while (flight.leaders() + flight.followers() < CALLERS) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            Object first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<Object> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(first);
+            }
+            assertThat(loads.get()).isEqualTo(1);
+            assertThat(flight.leaders()).isEqualTo(1);
+            assertThat(flight.followers()).isEqualTo(CALLERS - 1);
+            assertThat(flight.inFlight()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should propagate the leader's exception to followers")
+    void shouldShareFailure() throws Exception {
+        SingleFlight<String, Object> flight = new SingleFlight<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Object> leader = executor.submit(() -> execute(flight, "missing", () -> {
+                started.countDown();
+                release.await();
+                throw new RuntimeException("Stock not found");
+            }));
+            started.await();
+
+            Thread follower = new Thread(() -> {
+                RuntimeException e = assertThrows(RuntimeException.class, () -> flight.execute("missing", () -> "unused"));
+                assertThat(e).hasMessage("Stock not found");
+            });
+            follower.start();
+            while (flight.followers() == 0) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+            follower.join(5000);
+
+            assertThat(follower.isAlive()).isFalse();
+            assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+            assertThat(flight.leaders()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should load again once the previous load has completed")
+    void shouldNotCacheCompletedLoads() throws Throwable {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+
+        flight.execute("2330", loads::incrementAndGet);
+        flight.execute("2330", loads::incrementAndGet);
+        flight.execute("2317", loads::incrementAndGet);
+
+        assertThat(loads.get()).isEqualTo(3);
+        assertThat(flight.followers()).isZero();
+    }
+
+    // ExecutorService 的 Callable 只能拋出 Exception
+    private static <V> V execute(SingleFlight<String, V> flight, String key, SingleFlight.Loader<V> loader) throws Exception {
+        try {
+            return flight.execute(key, loader);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.fututaiwan.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fututaiwan.stock.Stock;
+import com.fututaiwan.stock.StockController;
+import com.fututaiwan.stock.StockService;
+import com.google.protobuf.CodedInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(StockController.class)
+@Import(BinaryContentConfig.class)
+@DisplayName("Binary Content Negotiation Tests")
+class BinaryContentConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private StockService stockService;
+
+    @BeforeEach
+    void setUp() {
+        when(stockService.getAllStocks()).thenReturn(List.of(
+                Stock.builder().id(1L).code("2330").name("台積電").build(),
+                Stock.builder().id(2L).code("2454").name("聯發科").build()));
+    }
+
+    @Test
+    @DisplayName("Should still default to JSON when no binary format is requested")
+    void shouldDefaultToJson() throws Exception {
+        mockMvc.perform(get("/api/stocks").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    @DisplayName("Should encode stocks as CBOR with the same fields as JSON")
+    void shouldEncodeCbor() throws Exception {
+        byte[] body = mockMvc.perform(get("/api/stocks").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode stocks = new ObjectMapper(new CBORFactory()).readTree(body);
+        assertThat(stocks).hasSize(2);
+        assertThat(stocks.get(0).get("code").asText()).isEqualTo("2330");
+        assertThat(stocks.get(1).get("name").asText()).isEqualTo("聯發科");
+    }
+
+    @Test
+    @DisplayName("Should encode stocks as MessagePack")
+    void shouldEncodeMessagePack() throws Exception {
+        byte[] body = mockMvc.perform(get("/api/stocks").accept(MessagePackHttpMessageConverter.APPLICATION_MSGPACK))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MessagePackHttpMessageConverter.APPLICATION_MSGPACK))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode stocks = new ObjectMapper(new MessagePackFactory()).readTree(body);
+        assertThat(stocks).hasSize(2);
+        assertThat(stocks.get(0).get("id").asLong()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Should encode stocks as a protobuf StockList")
+    void shouldEncodeProtobuf() throws Exception {
+        byte[] body = mockMvc.perform(get("/api/stocks").accept(ProtobufDtoHttpMessageConverter.APPLICATION_PROTOBUF))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(ProtobufDtoHttpMessageConverter.APPLICATION_PROTOBUF))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<String> codes = new ArrayList<>();
+        CodedInputStream input = CodedInputStream.newInstance(body);
+        while (!input.isAtEnd()) {
+            assertThat(input.readTag()).isEqualTo((1 << 3) | 2); // StockList.stocks
+            int limit = input.pushLimit(input.readRawVarint32());
+            while (!input.isAtEnd()) {
+                int tag = input.readTag();
+                if (tag >>> 3 == 2) {
+                    codes.add(input.readString());
+                } else {
+                    input.skipField(tag);
+                }
+            }
+            input.popLimit(limit);
+        }
+        assertThat(codes).containsExactly("2330", "2454");
+    }
+}
@@ -0,0 +1,143 @@
+package com.fututaiwan.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Coalescing Aspect Tests")
+class CoalescingAspectTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private CoalescingProperties properties;
+    private SampleService target;
+    private SampleService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new CoalescingProperties();
+        CoalescingProperties.Method disabled = new CoalescingProperties.Method();
+        disabled.setEnabled(false);
+        properties.getMethods().put("SampleService.uncoalesced", disabled);
+        target = new SampleService();
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(new CoalescingAspect(properties, meterRegistry));
+        service = factory.getProxy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    @DisplayName("Should load once per distinct key under a thundering herd and record the coalescing ratio")
+    void shouldCoalesceConcurrentCallsPerKey() throws Exception {
+        int callers = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                String code = i % 2 == 0 ? "2330" : "2317";
+                results.add(executor.submit(() -> service.byCode(code)));
+            }
+            while (follower("byCode") + leader("byCode") < callers) {
+                Thread.onSpinWait();
+            }
+            target.release.countDown();
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).startsWith("stock-");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(target.loads.get()).isEqualTo(2);
+        assertThat(leader("byCode")).isEqualTo(2);
+        assertThat(follower("byCode")).isEqualTo(callers - 2);
+    }
+
+    @Test
+    @DisplayName("Should call through when the caller already runs inside a transaction")
+    void shouldBypassInsideTransaction() throws Exception {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        target.release.countDown();
+
+        service.byCode("2330");
+
+        assertThat(target.loads.get()).isEqualTo(1);
+        assertThat(meterRegistry.find(CoalescingAspect.METRIC_NAME).functionCounter()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should call through for methods disabled in configuration")
+    void shouldBypassDisabledMethods() {
+        service.uncoalesced();
+        service.uncoalesced();
+
+        assertThat(target.loads.get()).isEqualTo(2);
+        assertThat(meterRegistry.find(CoalescingAspect.METRIC_NAME).tag("name", "SampleService.uncoalesced").functionCounter()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should call through for every method when coalescing is disabled as a whole")
+    void shouldBypassWhenDisabled() throws Exception {
+        properties.setEnabled(false);
+        target.release.countDown();
+
+        assertThat(service.byCode("2330")).isEqualTo("stock-2330");
+        service.uncoalesced();
+
+        assertThat(target.loads.get()).isEqualTo(2);
+        assertThat(meterRegistry.find(CoalescingAspect.METRIC_NAME).functionCounter()).isNull();
+    }
+
+    private double leader(String method) {
+        return count(method, "leader");
+    }
+
+    private double follower(String method) {
+        return count(method, "follower");
+    }
+
+    private double count(String method, String role) {
+        FunctionCounter counter = meterRegistry.find(CoalescingAspect.METRIC_NAME)
+                .tags("name", "SampleService." + method, "role", role)
+                .functionCounter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    static class SampleService {
+
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Coalesced
+        public String byCode(String code) throws InterruptedException {
+            loads.incrementAndGet();
+            release.await();
+            return "stock-" + code;
+        }
+
+        @Coalesced
+        public void uncoalesced() {
+            loads.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.fututaiwan.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Entity Cache Invalidator Tests")
+class EntityCacheInvalidatorTest {
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private StringRedisTemplate redis;
+
+    private EntityCacheInvalidator invalidator;
+
+    @BeforeEach
+    void setUp() {
+        invalidator = new EntityCacheInvalidator(entityManagerFactory, redis);
+    }
+
+    @Test
+    @DisplayName("Should publish stock changes to other nodes only after commit")
+    void shouldPublishAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            invalidator.stockChanged(7L);
+            verify(redis, never()).convertAndSend(anyString(), anyString());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(redis).convertAndSend(EntityCacheInvalidator.INVALIDATION_CHANNEL, "stock:7");
+    }
+
+    @Test
+    @DisplayName("Should evict the local stock entry and query results on a remote stock change")
+    void shouldEvictStockLocally() {
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getCache()).thenReturn(cache);
+
+        invalidator.evictLocal("stock:7");
+
+        verify(cache).evictEntityData(EntityCacheConfig.STOCK_REGION, 7L);
+        verify(cache).evictDefaultQueryRegion();
+        verifyNoMoreInteractions(cache);
+    }
+
+    @Test
+    @DisplayName("Should evict local query results when another node creates stocks")
+    void shouldEvictQueryResultsOnRemoteCreate() {
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getCache()).thenReturn(cache);
+
+        invalidator.stocksCreated();
+        invalidator.evictLocal("stocks-created");
+
+        verify(redis).convertAndSend(EntityCacheInvalidator.INVALIDATION_CHANNEL, "stocks-created");
+        verify(cache).evictDefaultQueryRegion();
+        verifyNoMoreInteractions(cache);
+    }
+
+    @Test
+    @DisplayName("Should evict only the affected group's stock collection on a remote membership change")
+    void shouldEvictGroupStocksLocally() {
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getCache()).thenReturn(cache);
+
+        invalidator.evictLocal("group-stocks:3");
+
+        verify(cache).evictCollectionData(EntityCacheConfig.GROUP_STOCKS_REGION, 3L);
+        verifyNoMoreInteractions(cache);
+    }
+
+    @Test
+    @DisplayName("Should clear every cached group collection when a stock is deleted")
+    void shouldClearGroupCollectionsOnStockDelete() {
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getCache()).thenReturn(cache);
+
+        invalidator.stockDeleted(7L);
+
+        verify(cache).evictCollectionData(EntityCacheConfig.GROUP_STOCKS_REGION);
+        verify(redis).convertAndSend(EntityCacheInvalidator.INVALIDATION_CHANNEL, "stock-deleted:7");
+    }
+}
@@ -0,0 +1,64 @@
+package com.fututaiwan.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Internal Auth Filter Tests")
+class InternalAuthFilterTest {
+
+    @Test
+    @DisplayName("Should reject internal requests without the shared secret")
+    void shouldRejectInternalRequestWithoutToken() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/internal/partitions/handoff");
+        request.addHeader(InternalAuthFilter.TOKEN_HEADER, "wrong");
+        MockFilterChain chain = new MockFilterChain();
+
+        MockHttpServletResponse response = filter("secret", request, chain);
+
+        assertThat(response.getStatus()).isEqualTo(401);
+        assertThat(chain.getRequest()).isNull();
+        assertThat(InternalAuthFilter.isPeer(request)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should mark requests carrying the shared secret as coming from a peer")
+    void shouldAdmitPeer() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/internal/partitions/handoff");
+        request.addHeader(InternalAuthFilter.TOKEN_HEADER, "secret");
+        MockFilterChain chain = new MockFilterChain();
+
+        MockHttpServletResponse response = filter("secret", request, chain);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(chain.getRequest()).isSameAs(request);
+        assertThat(InternalAuthFilter.isPeer(request)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should pass other paths through and close internal paths when no secret is configured")
+    void shouldFailClosedWithoutSecret() throws Exception {
+        MockHttpServletRequest api = new MockHttpServletRequest("POST", "/api/quotes");
+        api.addHeader(InternalAuthFilter.TOKEN_HEADER, "");
+        MockFilterChain chain = new MockFilterChain();
+        assertThat(filter(null, api, chain).getStatus()).isEqualTo(200);
+        assertThat(chain.getRequest()).isSameAs(api);
+        assertThat(InternalAuthFilter.isPeer(api)).isFalse();
+
+        MockHttpServletRequest internal = new MockHttpServletRequest("GET", "/internal/partitions/members");
+        internal.addHeader(InternalAuthFilter.TOKEN_HEADER, "");
+        assertThat(filter(null, internal, new MockFilterChain()).getStatus()).isEqualTo(401);
+    }
+
+    private static MockHttpServletResponse filter(String secret, MockHttpServletRequest request, MockFilterChain chain) throws Exception {
+        InternalAuthProperties properties = new InternalAuthProperties();
+        properties.setSharedSecret(secret);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new InternalAuthFilter(properties).doFilter(request, response, chain);
+        return response;
+    }
+}
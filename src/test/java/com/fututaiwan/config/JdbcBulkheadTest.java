@@ -0,0 +1,69 @@
+package com.fututaiwan.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("JDBC Bulkhead Tests")
+class JdbcBulkheadTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    private JdbcBulkhead bulkhead;
+
+    @BeforeEach
+    void setUp() {
+        bulkhead = new JdbcBulkhead(dataSource, 1, Duration.ofMillis(50));
+    }
+
+    @Test
+    @DisplayName("Should release the permit once when the connection is closed")
+    void shouldReleasePermitOnClose() throws SQLException {
+        when(dataSource.getConnection()).thenReturn(connection);
+
+        Connection guarded = bulkhead.getConnection();
+        assertThat(bulkhead.availablePermits()).isZero();
+
+        guarded.close();
+        guarded.close();
+
+        assertThat(bulkhead.availablePermits()).isEqualTo(1);
+        verify(connection, times(2)).close();
+    }
+
+    @Test
+    @DisplayName("Should fail fast when no permit becomes available")
+    void shouldTimeOutWhenExhausted() throws SQLException {
+        when(dataSource.getConnection()).thenReturn(connection);
+        bulkhead.getConnection();
+
+        assertThrows(CannotGetJdbcConnectionException.class, () -> bulkhead.getConnection());
+    }
+
+    @Test
+    @DisplayName("Should release the permit when the pool fails to hand out a connection")
+    void shouldReleasePermitOnFailure() throws SQLException {
+        when(dataSource.getConnection()).thenThrow(new SQLException("pool exhausted"));
+
+        assertThrows(SQLException.class, () -> bulkhead.getConnection());
+        assertThat(bulkhead.availablePermits()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,92 @@
+package com.fututaiwan.config;
+
+import com.fututaiwan.quote.Quote;
+import com.fututaiwan.stockgroup.WatchlistResponse;
+import com.google.protobuf.CodedInputStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Protobuf DTO Encoder Tests")
+class ProtobufDtoEncoderTest {
+
+    @Test
+    @DisplayName("Should only support the types declared in fututaiwan.proto")
+    void shouldOnlySupportDeclaredTypes() {
+        assertThat(ProtobufDtoEncoder.supports(WatchlistResponse.class)).isTrue();
+        assertThat(ProtobufDtoEncoder.supports(Quote.class)).isTrue();
+        assertThat(ProtobufDtoEncoder.supports(String.class)).isFalse();
+        assertThat(ProtobufDtoEncoder.supports(List.class)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should nest groups, items and quotes with correct length prefixes and omit default values")
+    void shouldEncodeNestedWatchlist() throws Exception {
+        WatchlistResponse watchlist = WatchlistResponse.builder()
+                .memberId(7L)
+                .version(0)
+                .quoteEpoch(3)
+                .groups(List.of(WatchlistResponse.Group.builder()
+                        .id(1L)
+                        .name("My Tech Stocks")
+                        .stocks(List.of(
+                                WatchlistResponse.Item.builder().id(101L).code("2330").name("台積電")
+                                        .quote(Quote.builder().code("2330").price(1005.0).volume(12000)
+                                                .timestamp(Instant.ofEpochSecond(1_700_000_000L, 5)).build())
+                                        .build(),
+                                WatchlistResponse.Item.builder().id(102L).code("2454").name("聯發科").build()))
+                        .build()))
+                .build();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        ProtobufDtoEncoder.encode(watchlist, WatchlistResponse.class, output);
+
+        CodedInputStream watchlistInput = CodedInputStream.newInstance(output.toByteArray());
+        assertThat(watchlistInput.readTag()).isEqualTo(1 << 3); // member_id
+        assertThat(watchlistInput.readInt64()).isEqualTo(7L);
+        assertThat(watchlistInput.readTag()).isEqualTo(3 << 3); // version 為 0 不寫出
+        assertThat(watchlistInput.readInt64()).isEqualTo(3L);
+        assertThat(watchlistInput.readTag()).isEqualTo((4 << 3) | 2);
+        CodedInputStream group = CodedInputStream.newInstance(watchlistInput.readByteArray());
+        assertThat(watchlistInput.isAtEnd()).isTrue();
+
+        assertThat(group.readTag()).isEqualTo(1 << 3);
+        assertThat(group.readInt64()).isEqualTo(1L);
+        assertThat(group.readTag()).isEqualTo((2 << 3) | 2);
+        assertThat(group.readString()).isEqualTo("My Tech Stocks");
+        assertThat(group.readTag()).isEqualTo((4 << 3) | 2); // description 為 null 不寫出
+        CodedInputStream firstItem = CodedInputStream.newInstance(group.readByteArray());
+        assertThat(group.readTag()).isEqualTo((4 << 3) | 2);
+        CodedInputStream secondItem = CodedInputStream.newInstance(group.readByteArray());
+        assertThat(group.isAtEnd()).isTrue();
+
+        firstItem.skipField(firstItem.readTag());
+        firstItem.skipField(firstItem.readTag());
+        assertThat(firstItem.readTag()).isEqualTo((3 << 3) | 2);
+        assertThat(firstItem.readString()).isEqualTo("台積電");
+        assertThat(firstItem.readTag()).isEqualTo((4 << 3) | 2);
+        CodedInputStream quote = CodedInputStream.newInstance(firstItem.readByteArray());
+        assertThat(firstItem.isAtEnd()).isTrue();
+        quote.skipField(quote.readTag());
+        assertThat(quote.readTag()).isEqualTo((2 << 3) | 1);
+        assertThat(quote.readDouble()).isEqualTo(1005.0);
+        assertThat(quote.readTag()).isEqualTo(7 << 3);
+        assertThat(quote.readInt64()).isEqualTo(12000L);
+        assertThat(quote.readTag()).isEqualTo((8 << 3) | 2);
+        CodedInputStream timestamp = CodedInputStream.newInstance(quote.readByteArray());
+        assertThat(timestamp.readTag()).isEqualTo(1 << 3);
+        assertThat(timestamp.readInt64()).isEqualTo(1_700_000_000L);
+        assertThat(timestamp.readTag()).isEqualTo(2 << 3);
+        assertThat(timestamp.readInt32()).isEqualTo(5);
+
+        secondItem.skipField(secondItem.readTag());
+        secondItem.skipField(secondItem.readTag());
+        secondItem.skipField(secondItem.readTag());
+        assertThat(secondItem.isAtEnd()).isTrue(); // 沒有報價時不寫 quote
+    }
+}
@@ -0,0 +1,41 @@
+package com.fututaiwan.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Queries Per Request Interceptor Tests")
+class QueriesPerRequestInterceptorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final QueryCountingStatementInspector inspector = new QueryCountingStatementInspector();
+    private final QueriesPerRequestInterceptor interceptor = new QueriesPerRequestInterceptor(inspector, meterRegistry);
+
+    @Test
+    @DisplayName("Should record the statements issued during a request under its URI template")
+    void shouldRecordStatementsPerRequest() {
+        // 前一個請求留下的計數不應算進這次
+        inspector.inspect("select 1");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/stock-groups/1/stocks");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/stock-groups/{stockGroupId}/stocks");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, new Object());
+        assertThat(inspector.inspect("select * from stock_groups")).isEqualTo("select * from stock_groups");
+        inspector.inspect("select * from stocks");
+        interceptor.afterCompletion(request, response, new Object(), null);
+
+        DistributionSummary summary = meterRegistry.find(QueriesPerRequestInterceptor.METRIC_NAME)
+                .tags("method", "GET", "uri", "/api/stock-groups/{stockGroupId}/stocks")
+                .summary();
+        assertThat(summary).isNotNull();
+        assertThat(summary.count()).isEqualTo(1);
+        assertThat(summary.totalAmount()).isEqualTo(2);
+    }
+}
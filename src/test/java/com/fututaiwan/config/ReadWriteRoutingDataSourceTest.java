@@ -0,0 +1,95 @@
+package com.fututaiwan.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Read/Write Routing DataSource Tests")
+class ReadWriteRoutingDataSourceTest {
+
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource replica1 = mock(DataSource.class);
+    private final DataSource replica2 = mock(DataSource.class);
+    private ReadWriteRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        for (DataSource dataSource : List.of(primary, replica1, replica2)) {
+            Connection connection = mock(Connection.class);
+            when(dataSource.getConnection()).thenReturn(connection);
+        }
+        routing = new ReadWriteRoutingDataSource();
+        routing.setTargetDataSources(Map.of(ReadWriteRoutingDataSource.PRIMARY, primary, "replica-1", replica1, "replica-2", replica2));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        routing.setHealthyReplicas(List.of("replica-1", "replica-2"));
+    }
+
+    // 以各 DataSource 回傳的連線判斷路由結果
+    private DataSource target() throws SQLException {
+        Connection connection = routing.getConnection();
+        for (DataSource candidate : List.of(primary, replica1, replica2)) {
+            if (candidate.getConnection() == connection) {
+                return candidate;
+            }
+        }
+        throw new AssertionError("Unknown connection");
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    @DisplayName("Should route writes and non-transactional access to the primary")
+    void shouldRouteWritesToPrimary() throws SQLException {
+        assertThat(target()).isSameAs(primary);
+    }
+
+    @Test
+    @DisplayName("Should balance read-only transactions across healthy replicas")
+    void shouldBalanceReadsAcrossReplicas() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(List.of(target(), target(),
+                target(), target()))
+                .containsExactly(replica1, replica2, replica1, replica2);
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary when every replica is lagging")
+    void shouldFallBackWhenNoReplicaIsHealthy() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        routing.setHealthyReplicas(List.of());
+
+        assertThat(target()).isSameAs(primary);
+        assertThat(routing.getReplicaFallbacks()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep read-only transactions on the primary while pinned")
+    void shouldHonourPrimaryPin() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        ReadWriteRoutingDataSource.pinPrimary();
+        try {
+            assertThat(target()).isSameAs(primary);
+        } finally {
+            ReadWriteRoutingDataSource.unpinPrimary();
+        }
+        assertThat(target()).isSameAs(replica1);
+    }
+}
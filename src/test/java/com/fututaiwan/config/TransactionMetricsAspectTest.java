@@ -0,0 +1,77 @@
+package com.fututaiwan.config;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Transaction Metrics Aspect Tests")
+class TransactionMetricsAspectTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SampleService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        AspectJProxyFactory factory = new AspectJProxyFactory(new SampleService());
+        factory.addAspect(new TransactionMetricsAspect(meterRegistry));
+        service = factory.getProxy();
+    }
+
+    @Test
+    @DisplayName("Should time @Transactional methods with read-only and exception tags")
+    void shouldTimeTransactionalMethods() {
+        service.read();
+        service.read();
+
+        Timer timer = meterRegistry.find(TransactionMetricsAspect.METRIC_NAME)
+                .tags("class", "SampleService", "method", "read", "readOnly", "true", "exception", "none")
+                .timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should tag failed transactions with the exception type and rethrow")
+    void shouldTagFailures() {
+        assertThrows(IllegalArgumentException.class, () -> service.write());
+
+        Timer timer = meterRegistry.find(TransactionMetricsAspect.METRIC_NAME)
+                .tags("method", "write", "readOnly", "false", "exception", "IllegalArgumentException")
+                .timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should not time methods without @Transactional")
+    void shouldIgnoreNonTransactionalMethods() {
+        service.plain();
+
+        assertThat(meterRegistry.find(TransactionMetricsAspect.METRIC_NAME).tag("method", "plain").timer()).isNull();
+    }
+
+    static class SampleService {
+
+        @Transactional(readOnly = true)
+        public String read() {
+            return "ok";
+        }
+
+        @Transactional
+        public void write() {
+            throw new IllegalArgumentException("duplicate");
+        }
+
+        public String plain() {
+            return "plain";
+        }
+    }
+}
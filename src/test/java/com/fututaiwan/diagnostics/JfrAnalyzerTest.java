@@ -0,0 +1,72 @@
+package com.fututaiwan.diagnostics;
+
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+@DisplayName("JFR Analyzer Tests")
+class JfrAnalyzerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should attribute nested repository and serialization time to the enclosing request")
+    void shouldBreakDownRequestTime() throws Exception {
+        Path file = tempDir.resolve("recording.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(HttpRequestEvent.NAME);
+            recording.enable(SqlStatementEvent.NAME);
+            recording.enable(SerializationEvent.NAME);
+            recording.start();
+
+            for (int i = 0; i < 3; i++) {
+                HttpRequestEvent request = new HttpRequestEvent();
+                request.begin();
+                SqlStatementEvent query = new SqlStatementEvent();
+                query.begin();
+                Thread.sleep(5);
+                query.end();
+                query.commit();
+                SerializationEvent serialization = new SerializationEvent();
+                serialization.begin();
+                Thread.sleep(2);
+                serialization.end();
+                serialization.type = "Stock";
+                serialization.commit();
+                request.end();
+                request.method = "GET";
+                request.endpoint = "/api/stocks/search/code";
+                request.status = 200;
+                request.commit();
+            }
+            // 請求以外的查詢不應被計入
+            SqlStatementEvent background = new SqlStatementEvent();
+            background.begin();
+            Thread.sleep(5);
+            background.end();
+            background.commit();
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<JfrAnalyzer.EndpointBreakdown> breakdowns = JfrAnalyzer.analyze(file);
+
+        assertThat(breakdowns).hasSize(1);
+        JfrAnalyzer.EndpointBreakdown breakdown = breakdowns.get(0);
+        assertThat(breakdown.endpoint()).isEqualTo("GET /api/stocks/search/code");
+        assertThat(breakdown.requests()).isEqualTo(3);
+        assertThat(breakdown.dbMillis()).isGreaterThanOrEqualTo(4.0);
+        assertThat(breakdown.serializationMillis()).isGreaterThanOrEqualTo(1.5).isLessThan(breakdown.dbMillis());
+        assertThat(breakdown.dbMillis() + breakdown.serializationMillis() + breakdown.appMillis())
+                .isCloseTo(breakdown.avgMillis(), offset(0.01));
+    }
+}
@@ -0,0 +1,49 @@
+package com.fututaiwan.diagnostics;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("JFR Session Event Listener Tests")
+class JfrSessionEventListenerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should emit one event per executed statement and batch")
+    void shouldEmitOneEventPerExecution() throws Exception {
+        Path file = tempDir.resolve("recording.jfr");
+        JfrSessionEventListener listener = new JfrSessionEventListener();
+        try (Recording recording = new Recording()) {
+            recording.enable(SqlStatementEvent.NAME);
+            recording.start();
+
+            for (int i = 0; i < 3; i++) {
+                listener.jdbcExecuteStatementStart();
+                listener.jdbcExecuteStatementEnd();
+            }
+            listener.jdbcExecuteBatchStart();
+            listener.jdbcExecuteBatchEnd();
+            // 沒有對應 start 的 end 不產生事件
+            listener.jdbcExecuteStatementEnd();
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> SqlStatementEvent.NAME.equals(event.getEventType().getName()))
+                .toList();
+        assertThat(events).hasSize(4);
+        assertThat(events).filteredOn(event -> event.getBoolean("batch")).hasSize(1);
+    }
+}
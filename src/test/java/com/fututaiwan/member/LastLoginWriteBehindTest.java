@@ -0,0 +1,122 @@
+package com.fututaiwan.member;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Last Login Write-Behind Tests")
+class LastLoginWriteBehindTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private LastLoginProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private LastLoginWriteBehind writeBehind;
+
+    @BeforeEach
+    void setUp() {
+        properties = new LastLoginProperties();
+        properties.setBatchSize(2);
+        meterRegistry = new SimpleMeterRegistry();
+        writeBehind = new LastLoginWriteBehind(jdbcTemplate, properties, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should keep only the latest login per member")
+    void shouldCoalescePerMember() {
+        Instant earlier = Instant.parse("2025-01-02T01:00:00Z");
+        Instant later = Instant.parse("2025-01-02T01:00:05Z");
+
+        writeBehind.record(1L, later);
+        writeBehind.record(1L, earlier);
+        writeBehind.flush();
+
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, times(1)).update(anyString(), args.capture());
+        assertThat(args.getValue()).containsExactly(1L, Timestamp.from(later));
+    }
+
+    @Test
+    @DisplayName("Should write members in batches of one UPDATE statement each")
+    void shouldFlushInBatches() {
+        Instant loginDate = Instant.parse("2025-01-02T01:00:00Z");
+        writeBehind.record(1L, loginDate);
+        writeBehind.record(2L, loginDate);
+        writeBehind.record(3L, loginDate);
+
+        int flushed = writeBehind.flush();
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, times(2)).update(sql.capture(), any(Object[].class));
+        assertThat(flushed).isEqualTo(3);
+        assertThat(sql.getAllValues().get(0)).startsWith("UPDATE members AS m SET last_login_date = v.last_login_date FROM (VALUES ");
+        assertThat(writeBehind.pendingCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should drop the oldest login dates once the buffer is full without writing on the caller's thread")
+    void shouldDropOldestWhenBufferIsFull() {
+        properties.setMaxPending(2);
+        Instant loginDate = Instant.parse("2025-01-02T01:00:00Z");
+
+        writeBehind.record(1L, loginDate);
+        writeBehind.record(2L, loginDate);
+        writeBehind.record(1L, loginDate.plusSeconds(1)); // 會員 1 變成最新
+        writeBehind.record(3L, loginDate);
+
+        verifyNoInteractions(jdbcTemplate);
+        assertThat(writeBehind.pendingCount()).isEqualTo(2);
+        assertThat(meterRegistry.counter("member.last_login.dropped").count()).isEqualTo(1);
+        writeBehind.flush();
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).update(anyString(), args.capture());
+        assertThat(args.getValue()).containsExactly(1L, Timestamp.from(loginDate.plusSeconds(1)), 3L, Timestamp.from(loginDate));
+    }
+
+    @Test
+    @DisplayName("Should keep login dates buffered when the write fails")
+    void shouldRequeueOnFailure() {
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenThrow(new DataAccessResourceFailureException("down"));
+        writeBehind.record(1L, Instant.parse("2025-01-02T01:00:00Z"));
+
+        int flushed = writeBehind.flush();
+
+        assertThat(flushed).isZero();
+        assertThat(writeBehind.pendingCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should stop at the first failed batch and keep the buffer bounded while the database is down")
+    void shouldBoundBufferWhileFailing() {
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenThrow(new DataAccessResourceFailureException("down"));
+        properties.setMaxPending(3);
+        Instant loginDate = Instant.parse("2025-01-02T01:00:00Z");
+        for (long memberId = 1; memberId <= 3; memberId++) {
+            writeBehind.record(memberId, loginDate);
+        }
+
+        writeBehind.flush();
+        writeBehind.record(4L, loginDate);
+
+        verify(jdbcTemplate, times(1)).update(anyString(), any(Object[].class)); // 批次大小 2，第一批失敗後不再寫入
+        assertThat(writeBehind.pendingCount()).isEqualTo(3);
+        assertThat(meterRegistry.counter("member.last_login.dropped").count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,98 @@
+package com.fututaiwan.member;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Member Cache Tests")
+class MemberCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private MemberCache memberCache;
+    private Member member1;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        memberCache = new MemberCache(new MemberCacheProperties(), meterRegistry, (StringRedisTemplate) null, new ObjectMapper());
+        member1 = Member.builder()
+                .id(1L)
+                .name("Member One")
+                .phoneNumber("0911111111")
+                .nationalIdNumber("A111111111")
+                .email("member1@example.com")
+                .passwordHash("hash1")
+                .role("member")
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should load a member once and serve it from the near cache")
+    void shouldLoadOnce() {
+        AtomicInteger loads = new AtomicInteger();
+
+        memberCache.getById(1L, () -> {
+            loads.incrementAndGet();
+            return Optional.of(member1);
+        });
+        Optional<Member> cached = memberCache.getById(1L, () -> {
+            loads.incrementAndGet();
+            return Optional.of(member1);
+        });
+
+        assertThat(cached).isPresent();
+        assertThat(cached.get().getName()).isEqualTo("Member One");
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "member.near").tag("result", "hit").functionCounter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should never hand out the password hash")
+    void shouldNeverCachePasswordHash() {
+        Optional<Member> loaded = memberCache.getBy(MemberCache.Key.PHONE, "0911111111", () -> Optional.of(member1));
+
+        assertThat(loaded).isPresent();
+        assertThat(loaded.get().getPasswordHash()).isNull();
+        assertThat(CachedMember.from(member1).toMember().getPasswordHash()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should resolve secondary keys through the index")
+    void shouldResolveSecondaryKeys() {
+        memberCache.getById(1L, () -> Optional.of(member1));
+
+        Optional<Member> byNationalId = memberCache.getBy(MemberCache.Key.NATIONAL_ID, "A111111111", Optional::empty);
+
+        assertThat(byNationalId).isPresent();
+        assertThat(byNationalId.get().getId()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Should not cache missing members")
+    void shouldNotCacheMissingMembers() {
+        memberCache.getById(99L, Optional::empty);
+
+        assertThat(memberCache.isCachedLocally(99L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should drop member and its secondary keys on eviction")
+    void shouldEvictMemberAndIndex() {
+        memberCache.getById(1L, () -> Optional.of(member1));
+
+        memberCache.evict(1L);
+        Optional<Member> byEmail = memberCache.getBy(MemberCache.Key.EMAIL, "member1@example.com", Optional::empty);
+
+        assertThat(memberCache.isCachedLocally(1L)).isFalse();
+        assertThat(byEmail).isNotPresent();
+    }
+}
@@ -178,6 +178,18 @@ class MemberControllerTest {
         verify(memberService, times(1)).updateMember(anyLong(), any(Member.class));
     }
 
+    @Test
+    @DisplayName("PUT /api/members/{id} should return 409 if the phone number or national ID belongs to another member")
+    void updateMember_shouldReturn409IfDuplicate() throws Exception {
+        Member updatedDetails = Member.builder().name("Duplicate").phoneNumber("0922222222").build();
+        when(memberService.updateMember(anyLong(), any(Member.class))).thenThrow(new IllegalArgumentException("already exists"));
+
+        mockMvc.perform(put("/api/members/{id}", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updatedDetails)))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     @DisplayName("DELETE /api/members/{id} should delete a member")
     void deleteMember_shouldDeleteMember() throws Exception {
@@ -256,4 +268,13 @@ class MemberControllerTest {
 
         verify(memberService, times(1)).getMemberByNationalIdNumber("A111111111");
     }
+
+    @Test
+    @DisplayName("PUT /api/members/{id}/last-login should accept login record")
+    void recordLogin_shouldAcceptLoginRecord() throws Exception {
+        mockMvc.perform(put("/api/members/{id}/last-login", 1L))
+                .andExpect(status().isAccepted());
+
+        verify(memberService, times(1)).recordLogin(eq(1L), any());
+    }
 }
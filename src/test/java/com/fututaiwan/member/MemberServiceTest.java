@@ -1,13 +1,22 @@
 package com.fututaiwan.member;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fututaiwan.common.ExistenceFilterProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
@@ -25,6 +34,20 @@ class MemberServiceTest {
     @Mock
     private MemberRepository memberRepository;
 
+    @Mock
+    private LastLoginWriteBehind lastLoginWriteBehind;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private MemberExistenceFilters existenceFilters = new MemberExistenceFilters(mock(JdbcTemplate.class),
+            new ExistenceFilterProperties(), new SimpleMeterRegistry());
+
+    @Spy
+    private MemberCache memberCache = new MemberCache(new MemberCacheProperties(), new SimpleMeterRegistry(),
+            (StringRedisTemplate) null, new ObjectMapper());
+
     @InjectMocks
     private MemberService memberService;
 
@@ -196,6 +219,7 @@ class MemberServiceTest {
 
         verify(memberRepository, times(1)).existsById(1L);
         verify(memberRepository, times(1)).deleteById(1L);
+        verify(eventPublisher, times(1)).publishEvent(new MemberDeletedEvent(1L));
     }
 
     @Test
@@ -207,4 +231,122 @@ class MemberServiceTest {
         verify(memberRepository, times(1)).existsById(99L);
         verify(memberRepository, never()).deleteById(anyLong());
     }
+
+    @Test
+    @DisplayName("Should serve repeated lookups from cache without password hash")
+    void shouldServeRepeatedLookupsFromCache() {
+        when(memberRepository.findById(1L)).thenReturn(Optional.of(member1));
+
+        memberService.getMemberById(1L);
+        Optional<Member> byEmail = memberService.getMemberByEmail("member1@example.com");
+
+        assertThat(byEmail).isPresent();
+        assertThat(byEmail.get().getId()).isEqualTo(1L);
+        assertThat(byEmail.get().getPasswordHash()).isNull();
+        verify(memberRepository, times(1)).findById(1L);
+        verify(memberRepository, never()).findByEmail(any());
+    }
+
+    @Test
+    @DisplayName("Should evict cached member on update")
+    void shouldEvictCachedMemberOnUpdate() {
+        when(memberRepository.findById(1L)).thenReturn(Optional.of(member1));
+        when(memberRepository.save(any(Member.class))).thenReturn(member1);
+
+        memberService.getMemberById(1L);
+        memberService.updateMember(1L, Member.builder().name("Updated Name").email("updated@example.com").build());
+        memberService.getMemberById(1L);
+
+        verify(memberCache, times(1)).evict(1L);
+        verify(memberRepository, times(3)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Should buffer login date without loading the member")
+    void shouldBufferLoginDate() {
+        Instant loginDate = Instant.parse("2025-01-02T01:00:00Z");
+
+        memberService.recordLogin(1L, loginDate);
+
+        verify(lastLoginWriteBehind, times(1)).record(1L, loginDate);
+        verify(memberRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("Should throw IllegalArgumentException if phone number already exists on create")
+    void shouldThrowExceptionIfPhoneNumberExistsOnCreate() {
+        when(memberRepository.existsByPhoneNumber("0911111111")).thenReturn(true);
+
+        assertThrows(IllegalArgumentException.class, () -> memberService.createMember(member1));
+        verify(memberRepository, never()).save(any(Member.class));
+    }
+
+    @Test
+    @DisplayName("Should skip existence queries when filters rule out duplicates")
+    void shouldSkipExistenceQueriesWhenFiltersRuleOutDuplicates() {
+        existenceFilters.load();
+        when(memberRepository.save(any(Member.class))).thenReturn(member1);
+
+        memberService.createMember(member1);
+
+        verify(memberRepository, never()).existsByPhoneNumber(any());
+        verify(memberRepository, never()).existsByNationalIdNumber(any());
+    }
+
+    @Test
+    @DisplayName("Should still look up values the local filter has never seen")
+    void shouldQueryRepositoryWhenFilterRulesOutValue() {
+        existenceFilters.load();
+        when(memberRepository.findByEmail("other-node@example.com")).thenReturn(Optional.of(member2));
+
+        Optional<Member> found = memberService.getMemberByEmail("other-node@example.com");
+
+        assertThat(found).isPresent();
+        verify(memberRepository).findByEmail("other-node@example.com");
+    }
+
+    @Test
+    @DisplayName("Should report a duplicate caught by the unique constraint as IllegalArgumentException")
+    void shouldTranslateUniqueConstraintViolation() {
+        existenceFilters.load();
+        when(memberRepository.save(any(Member.class))).thenReturn(member1);
+        doThrow(new DataIntegrityViolationException("duplicate key value violates unique constraint")).when(memberRepository).flush();
+
+        assertThrows(IllegalArgumentException.class, () -> memberService.createMember(member1));
+        assertThat(existenceFilters.phoneNumbers().mightContain(member1.getPhoneNumber())).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should persist members in bulk and add them to the filters")
+    void shouldCreateMembersInBulk() {
+        existenceFilters.load();
+        List<Member> newMembers = List.of(member1, member2);
+        when(memberRepository.persistAll(newMembers)).thenReturn(newMembers);
+
+        List<Member> createdMembers = memberService.createMembers(newMembers);
+
+        assertThat(createdMembers).containsExactly(member1, member2);
+        verify(memberRepository, never()).findExistingPhoneNumbers(any());
+        verify(memberRepository, never()).findExistingNationalIdNumbers(any());
+        assertThat(existenceFilters.nationalIdNumbers().mightContain(member2.getNationalIdNumber())).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should reject the whole batch if any national ID number already exists")
+    void shouldRejectBulkCreateIfNationalIdExists() {
+        when(memberRepository.findExistingPhoneNumbers(any())).thenReturn(List.of());
+        when(memberRepository.findExistingNationalIdNumbers(any())).thenReturn(List.of("A222222222"));
+
+        assertThrows(IllegalArgumentException.class, () -> memberService.createMembers(List.of(member1, member2)));
+        verify(memberRepository, never()).persistAll(any());
+    }
+
+    @Test
+    @DisplayName("Should reject a batch that repeats a phone number")
+    void shouldRejectBulkCreateWithRepeatedPhoneNumber() {
+        member2.setPhoneNumber(member1.getPhoneNumber());
+
+        assertThrows(IllegalArgumentException.class, () -> memberService.createMembers(List.of(member1, member2)));
+        verify(memberRepository, never()).persistAll(any());
+    }
 }
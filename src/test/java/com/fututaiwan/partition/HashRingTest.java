@@ -0,0 +1,93 @@
+package com.fututaiwan.partition;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Hash Ring Tests")
+class HashRingTest {
+
+    private static final int KEYS = 20_000;
+
+    @Test
+    @DisplayName("Should spread keys evenly and in proportion to weight")
+    void shouldSpreadByWeight() {
+        Map<String, Integer> counts = count(new HashRing(Map.of("a", 1, "b", 1, "c", 2), 128));
+
+        assertThat(counts.get("a")).isBetween((int) (KEYS * 0.25 * 0.85), (int) (KEYS * 0.25 * 1.15));
+        assertThat(counts.get("b")).isBetween((int) (KEYS * 0.25 * 0.85), (int) (KEYS * 0.25 * 1.15));
+        assertThat(counts.get("c")).isBetween((int) (KEYS * 0.5 * 0.85), (int) (KEYS * 0.5 * 1.15));
+    }
+
+    @Test
+    @DisplayName("Should move only the joining node's share of keys, and only to it")
+    void shouldMoveMinimalKeysOnJoin() {
+        HashRing before = new HashRing(Map.of("a", 1, "b", 1, "c", 1), 128);
+        HashRing after = new HashRing(Map.of("a", 1, "b", 1, "c", 1, "d", 1), 128);
+
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String key = key(i);
+            if (!before.ownerOf(key).equals(after.ownerOf(key))) {
+                assertThat(after.ownerOf(key)).isEqualTo("d");
+                moved++;
+            }
+        }
+        assertThat(moved).isBetween((int) (KEYS * 0.25 * 0.8), (int) (KEYS * 0.25 * 1.2));
+    }
+
+    @Test
+    @DisplayName("Should give a leaving node's keys to the remaining nodes without moving others")
+    void shouldMoveOnlyLeavingNodesKeys() {
+        HashRing before = new HashRing(Map.of("a", 1, "b", 1, "c", 1), 128);
+        HashRing after = new HashRing(Map.of("a", 1, "b", 1), 128);
+
+        for (int i = 0; i < KEYS; i++) {
+            String key = key(i);
+            if (!before.ownerOf(key).equals("c")) {
+                assertThat(after.ownerOf(key)).isEqualTo(before.ownerOf(key));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should assign the same owners regardless of the order nodes were given in")
+    void shouldBeDeterministic() {
+        Map<String, Integer> ordered = new HashMap<>();
+        ordered.put("a", 1);
+        ordered.put("b", 2);
+        HashRing first = new HashRing(ordered, 64);
+        HashRing second = new HashRing(Map.of("b", 2, "a", 1), 64);
+
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(first.ownerOf(key(i))).isEqualTo(second.ownerOf(key(i)));
+        }
+    }
+
+    @Test
+    @DisplayName("Should have no owner when every node has zero weight")
+    void shouldHandleEmptyRing() {
+        HashRing ring = new HashRing(Map.of("a", 0), 128);
+
+        assertThat(ring.isEmpty()).isTrue();
+        assertThat(ring.ownerOf("2330")).isNull();
+        assertThrows(IllegalArgumentException.class, () -> new HashRing(Map.of("a", -1), 128));
+    }
+
+    private static Map<String, Integer> count(HashRing ring) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(ring.ownerOf(key(i)), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    private static String key(int i) {
+        return String.valueOf(1_000 + i);
+    }
+}
@@ -0,0 +1,71 @@
+package com.fututaiwan.partition;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fututaiwan.quote.MinuteBar;
+import com.fututaiwan.quote.MinuteBarAggregator;
+import com.fututaiwan.quote.Quote;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = PartitionController.class, properties = "fututaiwan.partition.enabled=true")
+@DisplayName("Partition Controller Tests")
+class PartitionControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private PartitionManager partitionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("GET /internal/partitions/owner/{code} should return the owning node")
+    void getOwner_shouldReturnNode() throws Exception {
+        when(partitionManager.ownerOf("2330")).thenReturn(new PartitionNode("b", "http://b:8080", 2));
+
+        mockMvc.perform(get("/internal/partitions/owner/{code}", "2330"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is("b")))
+                .andExpect(jsonPath("$.url", is("http://b:8080")))
+                .andExpect(jsonPath("$.weight", is(2)));
+    }
+
+    @Test
+    @DisplayName("POST /internal/partitions/handoff should take over quotes and open bars")
+    @SuppressWarnings("unchecked")
+    void takeOver_shouldApplySnapshots() throws Exception {
+        Instant minute = Instant.parse("2025-01-02T01:30:00Z");
+        StockSnapshot snapshot = StockSnapshot.builder()
+                .code("2330")
+                .quote(Quote.builder().code("2330").price(600.0).timestamp(minute.plusSeconds(20)).build())
+                .bar(new MinuteBarAggregator.State(new MinuteBar("2330", minute, 600, 605, 598, 600, 500, 3), 1_500, null))
+                .build();
+
+        mockMvc.perform(post("/internal/partitions/handoff")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(snapshot))))
+                .andExpect(status().isNoContent());
+
+        ArgumentCaptor<List<StockSnapshot>> captor = ArgumentCaptor.forClass(List.class);
+        verify(partitionManager).takeOver(captor.capture());
+        assertThat(captor.getValue()).containsExactly(snapshot);
+    }
+}
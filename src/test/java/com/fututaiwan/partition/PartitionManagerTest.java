@@ -0,0 +1,176 @@
+package com.fututaiwan.partition;
+
+import com.fututaiwan.quote.MinuteBarAggregator;
+import com.fututaiwan.quote.Quote;
+import com.fututaiwan.quote.QuoteService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Partition Manager Tests")
+class PartitionManagerTest {
+
+    private static final PartitionNode A = new PartitionNode("a", "http://a:8080", 1);
+    private static final PartitionNode B = new PartitionNode("b", "http://b:8080", 1);
+    private static final Instant NOW = Instant.parse("2025-01-02T01:30:00Z");
+
+    private QuoteService quoteService;
+    private BarState bars;
+    private PartitionClient client;
+    private SimpleMeterRegistry meterRegistry;
+    private PartitionManager manager;
+
+    @BeforeEach
+    void setUp() {
+        quoteService = new QuoteService();
+        bars = new BarState();
+        client = mock(PartitionClient.class);
+        meterRegistry = new SimpleMeterRegistry();
+        manager = new PartitionManager(A, 128, List.of(quoteService, bars), client, 3, meterRegistry);
+        manager.updateMembers(List.of(A));
+        for (int i = 0; i < 200; i++) {
+            String code = String.valueOf(1_000 + i);
+            quoteService.updateQuote(Quote.builder().code(code).price(100 + i).volume(1_000).timestamp(NOW).build());
+            bars.aggregator.add(code, NOW, 100 + i, 1_000);
+        }
+    }
+
+    @Test
+    @DisplayName("Should own every stock while alone")
+    void shouldOwnEverythingAlone() {
+        assertThat(manager.isLocal("2330")).isTrue();
+        assertThat(manager.ownerOf("2330")).isEqualTo(A);
+    }
+
+    @Test
+    @DisplayName("Should hand off exactly the stocks the joining node now owns")
+    void shouldHandOffOnJoin() {
+        manager.updateMembers(List.of(A, B));
+
+        List<StockSnapshot> sent = sentTo(B);
+        assertThat(sent).isNotEmpty().allSatisfy(snapshot -> {
+            assertThat(manager.ownerOf(snapshot.getCode())).isEqualTo(B);
+            assertThat(snapshot.getQuote().getCode()).isEqualTo(snapshot.getCode());
+            assertThat(snapshot.getBar().openBar().code()).isEqualTo(snapshot.getCode());
+        });
+        long ownedByB = quoteService.codes().stream().filter(code -> !manager.isLocal(code)).count();
+        assertThat(sent).hasSize((int) ownedByB);
+        // K 線由新擁有者接續，本機不再保留；最新報價留在本機供自選股讀取
+        assertThat(bars.codes()).noneMatch(code -> !manager.isLocal(code));
+        assertThat(quoteService.codes()).hasSize(200);
+        assertThat(meterRegistry.get("partition.handoff.stocks").tag("direction", "sent").counter().count()).isEqualTo(sent.size());
+    }
+
+    @Test
+    @DisplayName("Should hand off everything when leaving and nothing when membership is unchanged")
+    void shouldHandOffEverythingOnLeave() {
+        manager.updateMembers(List.of(A, B));
+        clearInvocations(client);
+        manager.updateMembers(List.of(B, A));
+        verifyNoInteractions(client);
+
+        manager.updateMembers(List.of(B));
+
+        assertThat(manager.isLocal("2330")).isFalse();
+        assertThat(bars.codes()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should retry a failed hand-off to the current owner instead of keeping orphaned state")
+    void shouldRetryFailedHandOff() {
+        doThrow(new IllegalStateException("unreachable")).doNothing().when(client).handOff(eq(B), anyList());
+
+        manager.updateMembers(List.of(A, B));
+
+        assertThat(bars.codes()).noneMatch(code -> !manager.isLocal(code));
+        int failed = manager.pendingHandOffs();
+        assertThat(failed).isPositive();
+        assertThat(meterRegistry.get("partition.handoff.failures").counter().count()).isEqualTo(1);
+
+        // 下一次心跳 (名單不變) 重送
+        manager.updateMembers(List.of(A, B));
+
+        assertThat(manager.pendingHandOffs()).isZero();
+        verify(client, times(2)).handOff(eq(B), argThat(snapshots -> snapshots.size() == failed));
+    }
+
+    @Test
+    @DisplayName("Should restore pending state when ownership returns and drop it after the last attempt")
+    void shouldRestoreOrDropPendingHandOffs() {
+        doThrow(new IllegalStateException("unreachable")).when(client).handOff(eq(B), anyList());
+
+        manager.updateMembers(List.of(A, B));
+        manager.updateMembers(List.of(A));
+
+        assertThat(manager.pendingHandOffs()).isZero();
+        assertThat(bars.codes()).hasSize(200);
+
+        manager.updateMembers(List.of(A, B));
+        manager.updateMembers(List.of(A, B));
+        manager.updateMembers(List.of(A, B));
+
+        assertThat(manager.pendingHandOffs()).isZero();
+        assertThat(meterRegistry.get("partition.handoff.dropped").counter().count()).isPositive();
+        assertThat(bars.codes()).allMatch(manager::isLocal);
+    }
+
+    @Test
+    @DisplayName("Should apply snapshots received from another node")
+    void shouldTakeOverReceivedSnapshots() {
+        StockSnapshot snapshot = StockSnapshot.builder()
+                .code("9999")
+                .quote(Quote.builder().code("9999").price(50).timestamp(NOW).build())
+                .bar(new MinuteBarAggregator.State(null, 700, null))
+                .build();
+
+        manager.takeOver(List.of(snapshot));
+
+        assertThat(quoteService.getLatestQuote("9999")).isPresent();
+        assertThat(bars.codes()).contains("9999");
+        assertThat(meterRegistry.get("partition.handoff.stocks").tag("direction", "received").counter().count()).isEqualTo(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<StockSnapshot> sentTo(PartitionNode node) {
+        ArgumentCaptor<List<StockSnapshot>> captor = ArgumentCaptor.forClass(List.class);
+        verify(client).handOff(eq(node), captor.capture());
+        verify(client, never()).handOff(eq(A), any());
+        return new ArrayList<>(captor.getValue());
+    }
+
+    // 與 QuoteHistoryWriter 相同的 K 線移交方式，不需要 Mongo
+    private static final class BarState implements PartitionedState {
+
+        final MinuteBarAggregator aggregator = new MinuteBarAggregator();
+
+        @Override
+        public Set<String> codes() {
+            return aggregator.codes();
+        }
+
+        @Override
+        public void handOff(String code, StockSnapshot snapshot) {
+            snapshot.setBar(aggregator.handOff(code));
+        }
+
+        @Override
+        public void takeOver(StockSnapshot snapshot) {
+            if (snapshot.getBar() != null) {
+                aggregator.takeOver(snapshot.getCode(), snapshot.getBar());
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.fututaiwan.partition;
+
+import com.fututaiwan.config.InternalAuthFilter;
+import com.fututaiwan.config.InternalAuthProperties;
+import com.fututaiwan.quote.Quote;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Partition Routing Tests")
+class PartitionRouterTest {
+
+    private static final PartitionNode A = new PartitionNode("a", "http://a:8080", 1);
+    private static final PartitionNode B = new PartitionNode("b", "http://b:8080", 1);
+
+    private PartitionClient client;
+    private SimpleMeterRegistry meterRegistry;
+    private PartitionManager manager;
+
+    @BeforeEach
+    void setUp() {
+        client = mock(PartitionClient.class);
+        when(client.forwardQuotes(any(), anyList())).thenReturn(CompletableFuture.completedFuture(null));
+        meterRegistry = new SimpleMeterRegistry();
+        manager = new PartitionManager(A, 128, List.of(), client, 3, meterRegistry);
+        manager.updateMembers(List.of(A, B));
+    }
+
+    @Test
+    @DisplayName("Should keep local quotes and forward the rest to their owner in one request")
+    void shouldSplitQuotesByOwner() {
+        PartitionRouter router = new PartitionRouter(manager, client, meterRegistry);
+        List<Quote> quotes = new ArrayList<>(IntStream.range(0, 50)
+                .mapToObj(i -> Quote.builder().code(String.valueOf(1_000 + i)).price(10).build())
+                .toList());
+        quotes.add(Quote.builder().price(1).build());
+
+        List<Quote> local = router.routeQuotes(quotes);
+
+        assertThat(local).allMatch(quote -> quote.getCode() == null || manager.isLocal(quote.getCode()));
+        assertThat(local).anyMatch(quote -> quote.getCode() == null);
+        int remote = quotes.size() - local.size();
+        assertThat(remote).isPositive();
+        verify(client).forwardQuotes(eq(B), argThat(forwarded -> forwarded.size() == remote
+                && forwarded.stream().noneMatch(quote -> manager.isLocal(quote.getCode()))));
+        assertThat(meterRegistry.get("partition.forwarded.quotes").counter().count()).isEqualTo(remote);
+    }
+
+    @Test
+    @DisplayName("Should redirect a single-stock request to its owner with 307")
+    void shouldRedirectToOwner() throws Exception {
+        PartitionRoutingInterceptor interceptor = new PartitionRoutingInterceptor(manager, meterRegistry);
+        String remote = codeOwnedBy(B);
+        String local = codeOwnedBy(A);
+
+        MockHttpServletResponse redirected = handle(interceptor, request(remote));
+        assertThat(redirected.getStatus()).isEqualTo(307);
+        assertThat(redirected.getHeader(HttpHeaders.LOCATION)).isEqualTo("http://b:8080/api/quotes/" + remote + "?format=full");
+        assertThat(redirected.getHeader(PartitionRoutingInterceptor.OWNER_HEADER)).isEqualTo("b");
+
+        assertThat(handle(interceptor, request(local)).getStatus()).isEqualTo(200);
+        MockHttpServletRequest forwarded = request(remote);
+        forwarded.addHeader(PartitionClient.FORWARDED_HEADER, "true");
+        // 標頭只在通過節點驗證後才採信
+        assertThat(handle(interceptor, forwarded).getStatus()).isEqualTo(307);
+        forwarded.addHeader(InternalAuthFilter.TOKEN_HEADER, "secret");
+        authenticate(forwarded);
+        assertThat(handle(interceptor, forwarded).getStatus()).isEqualTo(200);
+    }
+
+    private static void authenticate(MockHttpServletRequest request) throws Exception {
+        InternalAuthProperties properties = new InternalAuthProperties();
+        properties.setSharedSecret("secret");
+        new InternalAuthFilter(properties).doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+    }
+
+    private String codeOwnedBy(PartitionNode node) {
+        return IntStream.range(1_000, 2_000).mapToObj(String::valueOf)
+                .filter(code -> manager.ownerOf(code).equals(node))
+                .findFirst().orElseThrow();
+    }
+
+    private static MockHttpServletRequest request(String code) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/quotes/" + code);
+        request.setQueryString("format=full");
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("code", code));
+        return request;
+    }
+
+    private static MockHttpServletResponse handle(PartitionRoutingInterceptor interceptor, MockHttpServletRequest request) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, new Object());
+        return response;
+    }
+}
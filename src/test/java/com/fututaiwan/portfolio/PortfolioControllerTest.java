@@ -0,0 +1,140 @@
+package com.fututaiwan.portfolio;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fututaiwan.stock.Stock;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(PortfolioController.class)
+@DisplayName("Portfolio Controller Tests")
+class PortfolioControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private PortfolioService portfolioService;
+
+    @MockBean
+    private PortfolioStreams portfolioStreams;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("Should return the portfolio with its positions")
+    void shouldReturnPortfolio() throws Exception {
+        when(portfolioService.getPortfolio(1L)).thenReturn(PortfolioResponse.builder()
+                .memberId(1L)
+                .marketValue(600_000)
+                .cost(550_000)
+                .unrealizedPnl(50_000)
+                .positions(List.of(PortfolioResponse.Position.builder().stockId(101L).code("2330").quantity(1_000).averageCost(550).price(600.0).build()))
+                .build());
+
+        mockMvc.perform(get("/api/portfolios/member/{memberId}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.unrealizedPnl", is(50_000.0)))
+                .andExpect(jsonPath("$.positions", hasSize(1)))
+                .andExpect(jsonPath("$.positions[0].code", is("2330")));
+    }
+
+    @Test
+    @DisplayName("Should return 404 when the member does not exist")
+    void shouldReturnNotFoundForMissingMember() throws Exception {
+        when(portfolioService.getPortfolio(99L)).thenThrow(new RuntimeException("Member not found with id 99"));
+
+        mockMvc.perform(get("/api/portfolios/member/{memberId}", 99L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Should return the live valuation, or 503 while holdings are loading")
+    void shouldReturnValuation() throws Exception {
+        when(portfolioService.getValuation(1L))
+                .thenReturn(PortfolioValuation.builder().memberId(1L).marketValue(600_000).cost(550_000).unrealizedPnl(50_000).positions(1).build())
+                .thenThrow(new IllegalStateException("Portfolio valuations are still loading."));
+
+        mockMvc.perform(get("/api/portfolios/member/{memberId}/valuation", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.marketValue", is(600_000.0)))
+                .andExpect(jsonPath("$.positions", is(1)));
+        mockMvc.perform(get("/api/portfolios/member/{memberId}/valuation", 1L))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    @DisplayName("Should open a valuation stream for an existing member only")
+    void shouldStreamValuation() throws Exception {
+        when(portfolioService.getValuation(99L)).thenThrow(new RuntimeException("Member not found with id 99"));
+        when(portfolioStreams.subscribe(1L)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/portfolios/member/{memberId}/valuation/stream", 1L).accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+        mockMvc.perform(get("/api/portfolios/member/{memberId}/valuation/stream", 99L).accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isNotFound());
+        verify(portfolioStreams, never()).subscribe(99L);
+    }
+
+    @Test
+    @DisplayName("Should set a holding")
+    void shouldSetHolding() throws Exception {
+        Stock stock = Stock.builder().id(101L).code("2330").name("台積電").build();
+        when(portfolioService.setHolding(eq(1L), eq(101L), any(HoldingRequest.class)))
+                .thenReturn(Holding.builder().id(5L).stock(stock).quantity(1_000).averageCost(550).build());
+
+        mockMvc.perform(put("/api/portfolios/member/{memberId}/holdings/{stockId}", 1L, 101L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new HoldingRequest(1_000, 550))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code", is("2330")))
+                .andExpect(jsonPath("$.quantity", is(1_000)));
+    }
+
+    @Test
+    @DisplayName("Should return 400 for an invalid holding and 404 for an unknown stock")
+    void shouldRejectHolding() throws Exception {
+        when(portfolioService.setHolding(eq(1L), eq(101L), any(HoldingRequest.class)))
+                .thenThrow(new IllegalArgumentException("Holding quantity must be positive."));
+        when(portfolioService.setHolding(eq(1L), eq(999L), any(HoldingRequest.class)))
+                .thenThrow(new RuntimeException("Stock not found with id 999"));
+
+        mockMvc.perform(put("/api/portfolios/member/{memberId}/holdings/{stockId}", 1L, 101L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new HoldingRequest(0, 550))))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(put("/api/portfolios/member/{memberId}/holdings/{stockId}", 1L, 999L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new HoldingRequest(10, 100))))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Should remove a holding")
+    void shouldRemoveHolding() throws Exception {
+        doNothing().when(portfolioService).removeHolding(1L, 101L);
+        doThrow(new RuntimeException("Holding not found")).when(portfolioService).removeHolding(1L, 999L);
+
+        mockMvc.perform(delete("/api/portfolios/member/{memberId}/holdings/{stockId}", 1L, 101L))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/portfolios/member/{memberId}/holdings/{stockId}", 1L, 999L))
+                .andExpect(status().isNotFound());
+        verify(portfolioService, times(2)).removeHolding(eq(1L), anyLong());
+    }
+}
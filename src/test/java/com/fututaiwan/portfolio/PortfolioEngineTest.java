@@ -0,0 +1,233 @@
+package com.fututaiwan.portfolio;
+
+import com.fututaiwan.member.MemberDeletedEvent;
+import com.fututaiwan.quote.Quote;
+import com.fututaiwan.quote.QuoteInterest;
+import com.fututaiwan.stock.StockDeletedEvent;
+import com.fututaiwan.stock.StockUpdatedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@DisplayName("Portfolio Engine Tests")
+class PortfolioEngineTest {
+
+    private Map<String, Double> latestPrices;
+    private SimpleMeterRegistry meterRegistry;
+    private PortfolioEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        latestPrices = new HashMap<>();
+        meterRegistry = new SimpleMeterRegistry();
+        engine = new PortfolioEngine(null, code -> latestPrices.getOrDefault(code, Double.NaN), new QuoteInterest(),
+                new PortfolioProperties(), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should value loaded holdings at the latest price, or at cost until the first quote")
+    void shouldLoadHoldings() {
+        latestPrices.put("2330", 600.0);
+        load(new PortfolioEngine.HoldingChange(1L, "2330", 1_000, 550),
+                new PortfolioEngine.HoldingChange(1L, "2454", 100, 1_200),
+                new PortfolioEngine.HoldingChange(2L, "2330", 500, 580));
+
+        assertThat(engine.isReady()).isTrue();
+        PortfolioValuation first = engine.getValuation(1L).orElseThrow();
+        assertThat(first.getMarketValue()).isEqualTo(1_000 * 600 + 100 * 1_200);
+        assertThat(first.getCost()).isEqualTo(1_000 * 550 + 100 * 1_200);
+        assertThat(first.getUnrealizedPnl()).isEqualTo(50_000);
+        assertThat(first.getPositions()).isEqualTo(2);
+        assertThat(engine.getValuation(3L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should add quantity times the price change to every holder of the ticking stock only")
+    void shouldRevalueHoldersIncrementally() {
+        latestPrices.put("2330", 600.0);
+        latestPrices.put("2454", 1_200.0);
+        load(new PortfolioEngine.HoldingChange(1L, "2330", 1_000, 550),
+                new PortfolioEngine.HoldingChange(2L, "2330", 500, 580),
+                new PortfolioEngine.HoldingChange(3L, "2454", 100, 1_100));
+
+        engine.onQuote(quote("2330", 610));
+        engine.drain();
+
+        assertThat(engine.getValuation(1L).orElseThrow().getMarketValue()).isEqualTo(610_000);
+        assertThat(engine.getValuation(2L).orElseThrow().getUnrealizedPnl()).isEqualTo(500 * (610 - 580));
+        assertThat(engine.getValuation(3L).orElseThrow().getMarketValue()).isEqualTo(120_000);
+        assertThat(meterRegistry.counter("portfolio.holder.updates").count()).isEqualTo(2);
+        assertThat(meterRegistry.timer("portfolio.revaluation.lag").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should coalesce ticks of the same stock queued before the engine catches up")
+    void shouldCoalesceTicks() {
+        latestPrices.put("2330", 600.0);
+        load(new PortfolioEngine.HoldingChange(1L, "2330", 1_000, 550));
+
+        engine.onQuote(quote("2330", 601));
+        engine.onQuote(quote("2330", 605));
+        engine.onQuote(quote("2317", 100)); // 沒有人持有
+
+        assertThat(engine.drain()).isEqualTo(1);
+        assertThat(engine.getValuation(1L).orElseThrow().getMarketValue()).isEqualTo(605_000);
+    }
+
+    @Test
+    @DisplayName("Should switch from cost to market price on the first quote of an unpriced stock")
+    void shouldPriceOnFirstQuote() {
+        load(new PortfolioEngine.HoldingChange(1L, "2330", 1_000, 550),
+                new PortfolioEngine.HoldingChange(2L, "2330", 500, 580));
+        assertThat(engine.getValuation(1L).orElseThrow().getUnrealizedPnl()).isZero();
+
+        engine.onQuote(quote("2330", 600));
+        engine.drain();
+
+        assertThat(engine.getValuation(1L).orElseThrow().getUnrealizedPnl()).isEqualTo(50_000);
+        assertThat(engine.getValuation(2L).orElseThrow().getUnrealizedPnl()).isEqualTo(10_000);
+    }
+
+    @Test
+    @DisplayName("Should apply holding changes as absolute quantity and cost")
+    void shouldApplyHoldingChanges() {
+        latestPrices.put("2330", 600.0);
+        load();
+
+        engine.record(1L, "2330", 1_000, 550);
+        engine.record(1L, "2454", 10, 1_000);
+        engine.drain();
+        engine.record(1L, "2330", 2_000, 575);
+        engine.record(1L, "2330", 2_000, 575); // 重複套用結果相同
+        engine.drain();
+
+        PortfolioValuation valuation = engine.getValuation(1L).orElseThrow();
+        assertThat(valuation.getMarketValue()).isEqualTo(2_000 * 600 + 10 * 1_000);
+        assertThat(valuation.getCost()).isEqualTo(2_000 * 575 + 10 * 1_000);
+        assertThat(valuation.getPositions()).isEqualTo(2);
+
+        engine.record(1L, "2330", 0, 0);
+        engine.drain();
+        engine.onQuote(quote("2330", 700));
+        engine.drain();
+
+        valuation = engine.getValuation(1L).orElseThrow();
+        assertThat(valuation.getMarketValue()).isEqualTo(10_000);
+        assertThat(valuation.getCost()).isEqualTo(10_000);
+        assertThat(valuation.getPositions()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should drop a deleted member's portfolio and a deleted stock's positions")
+    void shouldRemoveDeletedMembersAndStocks() {
+        latestPrices.put("2330", 600.0);
+        latestPrices.put("2454", 1_200.0);
+        load(new PortfolioEngine.HoldingChange(1L, "2330", 1_000, 550),
+                new PortfolioEngine.HoldingChange(1L, "2454", 100, 1_100),
+                new PortfolioEngine.HoldingChange(2L, "2330", 500, 580));
+
+        engine.onMemberDeleted(new MemberDeletedEvent(2L));
+        engine.onQuote(quote("2454", 1_250));
+        engine.onStockDeleted(new StockDeletedEvent(11L, "2454"));
+        engine.drain();
+
+        assertThat(engine.getValuation(2L)).isEmpty();
+        PortfolioValuation valuation = engine.getValuation(1L).orElseThrow();
+        assertThat(valuation.getMarketValue()).isEqualTo(1_000 * 600);
+        assertThat(valuation.getCost()).isEqualTo(1_000 * 550);
+        assertThat(valuation.getPositions()).isEqualTo(1);
+
+        // 刪除後的跳價不影響任何組合
+        engine.onQuote(quote("2330", 610));
+        engine.onQuote(quote("2454", 1_300));
+        engine.drain();
+        assertThat(engine.getValuation(1L).orElseThrow().getMarketValue()).isEqualTo(1_000 * 610);
+        assertThat(meterRegistry.get("portfolio.members").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should move a renamed stock's holders to the new code and price them with its quotes")
+    void shouldMoveHoldersOnRename() {
+        latestPrices.put("2330", 600.0);
+        load(new PortfolioEngine.HoldingChange(1L, "2330", 1_000, 550),
+                new PortfolioEngine.HoldingChange(2L, "2330", 500, 580));
+
+        engine.onStockUpdated(new StockUpdatedEvent(10L, "2330", "2330A", "TSMC"));
+        engine.drain();
+        assertThat(engine.getValuation(1L).orElseThrow().getMarketValue()).isEqualTo(1_000 * 600);
+
+        // 舊代碼的跳價不再影響組合，新代碼的跳價以已套用的價格為基準
+        engine.onQuote(quote("2330", 700));
+        engine.onQuote(quote("2330A", 610));
+        engine.drain();
+        assertThat(engine.getValuation(1L).orElseThrow().getMarketValue()).isEqualTo(1_000 * 610);
+        assertThat(engine.getValuation(2L).orElseThrow().getMarketValue()).isEqualTo(500 * 610);
+        assertThat(meterRegistry.get("portfolio.stocks").gauge().value()).isEqualTo(1);
+
+        // 改名後的持股異動與刪除以新代碼送達
+        engine.record(1L, "2330A", 0, 0);
+        engine.onStockDeleted(new StockDeletedEvent(10L, "2330A"));
+        engine.drain();
+        assertThat(engine.getValuation(1L).orElseThrow().getPositions()).isZero();
+        assertThat(engine.getValuation(2L).orElseThrow().getPositions()).isZero();
+        assertThat(engine.getValuation(2L).orElseThrow().getCost()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should hold back changes until the holdings are loaded, then apply them on top")
+    void shouldDeferChangesUntilLoaded() {
+        latestPrices.put("2330", 600.0);
+        engine.record(1L, "2330", 2_000, 575);
+        engine.drain();
+        assertThat(engine.isReady()).isFalse();
+        assertThat(engine.getValuation(1L)).isEmpty();
+
+        load(new PortfolioEngine.HoldingChange(1L, "2330", 1_000, 550));
+
+        assertThat(engine.getValuation(1L).orElseThrow().getCost()).isEqualTo(2_000 * 575);
+        assertThat(engine.getValuation(1L).orElseThrow().getPositions()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep every portfolio consistent with a full revaluation after many members and ticks")
+    void shouldMatchFullRevaluation() {
+        latestPrices.put("A", 10.0);
+        latestPrices.put("B", 20.0);
+        load();
+        for (long member = 0; member < 5_000; member++) {
+            engine.record(member, "A", member % 7 + 1, 9);
+            if (member % 3 == 0) {
+                engine.record(member, "B", member % 5 + 1, 21);
+            }
+        }
+        engine.drain();
+        for (int i = 1; i <= 50; i++) {
+            engine.onQuote(quote("A", 10 + i * 0.1));
+            engine.onQuote(quote("B", 20 - i * 0.05));
+            engine.drain();
+        }
+
+        for (long member = 0; member < 5_000; member += 499) {
+            double expected = (member % 7 + 1) * 15.0 + (member % 3 == 0 ? (member % 5 + 1) * 17.5 : 0);
+            assertThat(engine.getValuation(member).orElseThrow().getMarketValue()).isCloseTo(expected, within(1e-6));
+        }
+        assertThat(meterRegistry.get("portfolio.members").gauge().value()).isEqualTo(5_000);
+    }
+
+    private void load(PortfolioEngine.HoldingChange... rows) {
+        engine.offerSnapshot(List.of(rows));
+        engine.drain();
+    }
+
+    private static Quote quote(String code, double price) {
+        return Quote.builder().code(code).price(price).build();
+    }
+}
@@ -0,0 +1,183 @@
+package com.fututaiwan.portfolio;
+
+import com.fututaiwan.member.Member;
+import com.fututaiwan.member.MemberService;
+import com.fututaiwan.quote.Quote;
+import com.fututaiwan.quote.QuoteService;
+import com.fututaiwan.stock.Stock;
+import com.fututaiwan.stock.StockService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Portfolio Service Tests")
+class PortfolioServiceTest {
+
+    @Mock
+    private HoldingRepository holdingRepository;
+
+    @Mock
+    private MemberService memberService;
+
+    @Mock
+    private StockService stockService;
+
+    @Spy
+    private QuoteService quoteService = new QuoteService();
+
+    @Mock
+    private PortfolioEngine portfolioEngine;
+
+    @InjectMocks
+    private PortfolioService portfolioService;
+
+    private Member member1;
+    private Stock stock1;
+    private Stock stock2;
+
+    @BeforeEach
+    void setUp() {
+        member1 = Member.builder().id(1L).name("Member One").email("member1@example.com").phoneNumber("0911111111").nationalIdNumber("A111111111").passwordHash("hash").build();
+        stock1 = Stock.builder().id(101L).code("2330").name("台積電").build();
+        stock2 = Stock.builder().id(102L).code("2454").name("聯發科").build();
+    }
+
+    @Test
+    @DisplayName("Should price positions at the latest quote and at cost when there is none")
+    void shouldAssemblePortfolio() {
+        when(memberService.getMemberById(1L)).thenReturn(Optional.of(member1));
+        when(holdingRepository.findByMember_Id(1L)).thenReturn(List.of(
+                Holding.builder().id(1L).member(member1).stock(stock2).quantity(100).averageCost(1_100).build(),
+                Holding.builder().id(2L).member(member1).stock(stock1).quantity(1_000).averageCost(550).build()));
+        quoteService.updateQuote(Quote.builder().code("2330").price(600).build());
+
+        PortfolioResponse portfolio = portfolioService.getPortfolio(1L);
+
+        assertThat(portfolio.getPositions()).extracting(PortfolioResponse.Position::getCode).containsExactly("2330", "2454");
+        assertThat(portfolio.getPositions().get(0).getPrice()).isEqualTo(600);
+        assertThat(portfolio.getPositions().get(0).getUnrealizedPnl()).isEqualTo(50_000);
+        assertThat(portfolio.getPositions().get(1).getPrice()).isNull();
+        assertThat(portfolio.getPositions().get(1).getMarketValue()).isEqualTo(110_000);
+        assertThat(portfolio.getMarketValue()).isEqualTo(710_000);
+        assertThat(portfolio.getUnrealizedPnl()).isEqualTo(50_000);
+    }
+
+    @Test
+    @DisplayName("Should throw exception when getting the portfolio of a non-existent member")
+    void shouldThrowWhenMemberNotFound() {
+        when(memberService.getMemberById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> portfolioService.getPortfolio(99L));
+        verify(holdingRepository, never()).findByMember_Id(anyLong());
+    }
+
+    @Test
+    @DisplayName("Should read the valuation from the engine without touching the database")
+    void shouldReadValuationFromEngine() {
+        PortfolioValuation valuation = PortfolioValuation.builder().memberId(1L).marketValue(600_000).cost(550_000).unrealizedPnl(50_000).build();
+        when(portfolioEngine.isReady()).thenReturn(true);
+        when(portfolioEngine.getValuation(1L)).thenReturn(Optional.of(valuation));
+
+        assertThat(portfolioService.getValuation(1L)).isSameAs(valuation);
+        verifyNoInteractions(memberService);
+    }
+
+    @Test
+    @DisplayName("Should return an empty valuation for a member without holdings and fail while loading")
+    void shouldHandleMissingValuation() {
+        when(portfolioEngine.isReady()).thenReturn(false, true);
+        assertThrows(IllegalStateException.class, () -> portfolioService.getValuation(1L));
+
+        when(portfolioEngine.getValuation(1L)).thenReturn(Optional.empty());
+        when(memberService.getMemberById(1L)).thenReturn(Optional.of(member1));
+        assertThat(portfolioService.getValuation(1L).getMarketValue()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should create a holding and pass the absolute change to the engine")
+    void shouldCreateHolding() {
+        when(holdingRepository.findByMember_IdAndStock_Id(1L, 101L)).thenReturn(Optional.empty());
+        when(memberService.getMemberById(1L)).thenReturn(Optional.of(member1));
+        when(stockService.getStockById(101L)).thenReturn(Optional.of(stock1));
+        when(holdingRepository.save(any(Holding.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Holding holding = portfolioService.setHolding(1L, 101L, new HoldingRequest(1_000, 550));
+
+        assertThat(holding.getMember()).isEqualTo(member1);
+        assertThat(holding.getQuantity()).isEqualTo(1_000);
+        verify(portfolioEngine).record(1L, "2330", 1_000, 550);
+    }
+
+    @Test
+    @DisplayName("Should update an existing holding in place")
+    void shouldUpdateHolding() {
+        Holding existing = Holding.builder().id(5L).member(member1).stock(stock1).quantity(1_000).averageCost(550).build();
+        when(holdingRepository.findByMember_IdAndStock_Id(1L, 101L)).thenReturn(Optional.of(existing));
+        when(holdingRepository.save(existing)).thenReturn(existing);
+
+        portfolioService.setHolding(1L, 101L, new HoldingRequest(1_500, 570));
+
+        assertThat(existing.getQuantity()).isEqualTo(1_500);
+        assertThat(existing.getAverageCost()).isEqualTo(570);
+        verify(memberService, never()).getMemberById(anyLong());
+        verify(portfolioEngine).record(1L, "2330", 1_500, 570);
+    }
+
+    @Test
+    @DisplayName("Should reject non-positive quantities and invalid costs")
+    void shouldRejectInvalidHolding() {
+        assertThrows(IllegalArgumentException.class, () -> portfolioService.setHolding(1L, 101L, new HoldingRequest(0, 550)));
+        assertThrows(IllegalArgumentException.class, () -> portfolioService.setHolding(1L, 101L, new HoldingRequest(10, -1)));
+        assertThrows(IllegalArgumentException.class, () -> portfolioService.setHolding(1L, 101L, new HoldingRequest(10, Double.NaN)));
+        verifyNoInteractions(holdingRepository, portfolioEngine);
+    }
+
+    @Test
+    @DisplayName("Should throw exception when the stock does not exist")
+    void shouldThrowWhenStockNotFound() {
+        when(holdingRepository.findByMember_IdAndStock_Id(1L, 999L)).thenReturn(Optional.empty());
+        when(memberService.getMemberById(1L)).thenReturn(Optional.of(member1));
+        when(stockService.getStockById(999L)).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> portfolioService.setHolding(1L, 999L, new HoldingRequest(10, 100)));
+        verify(holdingRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should remove a holding and record it as sold out")
+    void shouldRemoveHolding() {
+        Holding existing = Holding.builder().id(5L).member(member1).stock(stock1).quantity(1_000).averageCost(550).build();
+        when(holdingRepository.findByMember_IdAndStock_Id(1L, 101L)).thenReturn(Optional.of(existing));
+
+        portfolioService.removeHolding(1L, 101L);
+
+        verify(holdingRepository).delete(existing);
+        verify(portfolioEngine).record(1L, "2330", 0, 0);
+    }
+
+    @Test
+    @DisplayName("Should throw exception when removing a holding that does not exist")
+    void shouldThrowWhenRemovingMissingHolding() {
+        when(holdingRepository.findByMember_IdAndStock_Id(1L, 101L)).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> portfolioService.removeHolding(1L, 101L));
+        verify(portfolioEngine, never()).record(anyLong(), anyString(), anyLong(), anyDouble());
+    }
+}
@@ -0,0 +1,77 @@
+package com.fututaiwan.portfolio;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Portfolio Streams Tests")
+class PortfolioStreamsTest {
+
+    private PortfolioEngine portfolioEngine;
+    private PortfolioStreams streams;
+
+    @BeforeEach
+    void setUp() {
+        portfolioEngine = mock(PortfolioEngine.class);
+        streams = new PortfolioStreams(portfolioEngine, new PortfolioProperties(), new SimpleMeterRegistry(), Runnable::run);
+    }
+
+    @Test
+    @DisplayName("Should send the current valuation on subscribe and then only when it changes")
+    void shouldSendOnlyChanges() {
+        when(portfolioEngine.getValuation(1L))
+                .thenReturn(Optional.of(valuation(600_000)))
+                .thenReturn(Optional.of(valuation(600_000)))
+                .thenReturn(Optional.of(valuation(610_000)));
+        RecordingEmitter emitter = new RecordingEmitter(false);
+
+        streams.subscribe(1L, emitter);
+        streams.publish();
+        streams.publish();
+
+        assertThat(emitter.events).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Should drop a subscription whose connection fails")
+    void shouldDropBrokenConnection() {
+        when(portfolioEngine.getValuation(1L)).thenReturn(Optional.of(valuation(600_000)));
+
+        streams.subscribe(1L, new RecordingEmitter(true));
+
+        assertThat(streams.subscriptions()).isZero();
+    }
+
+    private static PortfolioValuation valuation(double marketValue) {
+        return PortfolioValuation.builder().memberId(1L).marketValue(marketValue).cost(550_000).build();
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+
+        final List<SseEventBuilder> events = new ArrayList<>();
+        final boolean broken;
+
+        RecordingEmitter(boolean broken) {
+            this.broken = broken;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (broken) {
+                throw new IOException("Broken pipe");
+            }
+            events.add(builder);
+        }
+    }
+}
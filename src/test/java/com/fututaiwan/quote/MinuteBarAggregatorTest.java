@@ -0,0 +1,114 @@
+package com.fututaiwan.quote;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Minute Bar Aggregator Tests")
+class MinuteBarAggregatorTest {
+
+    private static final Instant MINUTE = Instant.parse("2025-01-02T01:30:00Z");
+
+    private final MinuteBarAggregator aggregator = new MinuteBarAggregator();
+
+    @Test
+    @DisplayName("Should close a bar with OHLC and volume delta when the next minute starts")
+    void shouldCloseBarOnNextMinute() {
+        assertThat(aggregator.add("2330", MINUTE.plusSeconds(1), 600, 1_000)).isNull();
+        assertThat(aggregator.add("2330", MINUTE.plusSeconds(20), 605, 1_500)).isNull();
+        assertThat(aggregator.add("2330", MINUTE.plusSeconds(40), 598, 1_800)).isNull();
+        assertThat(aggregator.add("2330", MINUTE.plusSeconds(59), 602, 2_000)).isNull();
+
+        MinuteBar bar = aggregator.add("2330", MINUTE.plusSeconds(61), 603, 2_100);
+
+        assertThat(bar).isEqualTo(new MinuteBar("2330", MINUTE, 600, 605, 598, 602, 1_000, 4));
+    }
+
+    @Test
+    @DisplayName("Should carry cumulative volume across bars and ignore late ticks")
+    void shouldCarryVolumeAcrossBars() {
+        aggregator.add("2330", MINUTE, 600, 1_000);
+        aggregator.add("2330", MINUTE.plusSeconds(60), 601, 1_200);
+        // 亂序送達的前一分鐘報價
+        assertThat(aggregator.add("2330", MINUTE.plusSeconds(30), 599, 1_100)).isNull();
+
+        MinuteBar bar = aggregator.add("2330", MINUTE.plusSeconds(120), 602, 1_250);
+
+        assertThat(bar.start()).isEqualTo(MINUTE.plusSeconds(60));
+        assertThat(bar.volume()).isEqualTo(200);
+        assertThat(bar.ticks()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should close idle bars once their minute has passed")
+    void shouldCloseIdleBars() {
+        aggregator.add("2330", MINUTE.plusSeconds(10), 600, 1_000);
+        aggregator.add("2317", MINUTE.plusSeconds(70), 100, 500);
+
+        List<MinuteBar> closed = aggregator.closeBefore(MINUTE.plusSeconds(65));
+
+        assertThat(closed).extracting(MinuteBar::code).containsExactly("2330");
+        assertThat(aggregator.closeBefore(MINUTE.plusSeconds(65))).isEmpty();
+        assertThat(aggregator.closeAll()).extracting(MinuteBar::code).containsExactly("2317");
+    }
+
+    @Test
+    @DisplayName("Should ignore a late tick for a minute that was already closed while idle")
+    void shouldIgnoreLateTickAfterIdleClose() {
+        aggregator.add("2330", MINUTE.plusSeconds(10), 600, 1_000);
+        assertThat(aggregator.closeBefore(MINUTE.plusSeconds(65))).hasSize(1);
+
+        assertThat(aggregator.add("2330", MINUTE.plusSeconds(50), 590, 1_100)).isNull();
+
+        // 遲到的報價沒有開出新的 K 線，下一分鐘的報價也不會收盤出重複的 K 線
+        assertThat(aggregator.closeAll()).isEmpty();
+        assertThat(aggregator.add("2330", MINUTE.plusSeconds(70), 601, 1_200)).isNull();
+        assertThat(aggregator.closeAll()).singleElement().extracting(MinuteBar::start).isEqualTo(MINUTE.plusSeconds(60));
+    }
+
+    @Test
+    @DisplayName("Should continue a handed-off bar on another aggregator without losing volume")
+    void shouldContinueHandedOffBar() {
+        aggregator.add("2330", MINUTE.plusSeconds(1), 600, 1_000);
+        aggregator.add("2330", MINUTE.plusSeconds(20), 605, 1_500);
+
+        MinuteBarAggregator.State state = aggregator.handOff("2330");
+        MinuteBarAggregator next = new MinuteBarAggregator();
+        next.takeOver("2330", state);
+        next.add("2330", MINUTE.plusSeconds(40), 598, 1_800);
+
+        assertThat(aggregator.codes()).isEmpty();
+        assertThat(aggregator.closeAll()).isEmpty();
+        assertThat(next.add("2330", MINUTE.plusSeconds(61), 603, 2_100))
+                .isEqualTo(new MinuteBar("2330", MINUTE, 600, 605, 598, 598, 800, 3));
+    }
+
+    @Test
+    @DisplayName("Should keep rejecting ticks for closed minutes after a hand-off")
+    void shouldCarryLastClosedMinuteAcrossHandOff() {
+        aggregator.add("2330", MINUTE.plusSeconds(10), 600, 1_000);
+        aggregator.closeBefore(MINUTE.plusSeconds(65));
+
+        MinuteBarAggregator next = new MinuteBarAggregator();
+        next.takeOver("2330", aggregator.handOff("2330"));
+
+        assertThat(next.add("2330", MINUTE.plusSeconds(50), 590, 1_100)).isNull();
+        assertThat(next.closeAll()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep local state when quotes arrived before the hand-off")
+    void shouldPreferLocalStateOnTakeOver() {
+        aggregator.add("2330", MINUTE.plusSeconds(1), 600, 1_000);
+        MinuteBarAggregator next = new MinuteBarAggregator();
+        next.add("2330", MINUTE.plusSeconds(30), 610, 1_200);
+
+        next.takeOver("2330", aggregator.handOff("2330"));
+
+        assertThat(next.closeAll()).singleElement().extracting(MinuteBar::open).isEqualTo(610.0);
+    }
+}
@@ -0,0 +1,55 @@
+package com.fututaiwan.quote;
+
+import com.google.protobuf.CodedOutputStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Quote Batch Codec Tests")
+class QuoteBatchCodecTest {
+
+    @Test
+    @DisplayName("Should round-trip the publish time and every quote field")
+    void shouldRoundTrip() throws IOException {
+        Quote full = Quote.builder().code("2330").price(600.5).open(598).high(602).low(597.5).previousClose(595)
+                .volume(12_345).timestamp(Instant.parse("2025-01-02T01:30:00.123456789Z")).build();
+        Quote sparse = Quote.builder().code("2454").price(1_000).build();
+
+        QuoteBatchCodec.Batch batch = QuoteBatchCodec.decode(QuoteBatchCodec.encode(1_735_781_400_123_456L, List.of(full, sparse)));
+
+        assertThat(batch.publishedAtMicros()).isEqualTo(1_735_781_400_123_456L);
+        assertThat(batch.quotes()).containsExactly(full, sparse);
+    }
+
+    @Test
+    @DisplayName("Should skip fields added by a newer publisher")
+    void shouldSkipUnknownFields() throws IOException {
+        Quote quote = Quote.builder().code("2330").price(600).build();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.writeBytes(QuoteBatchCodec.encode(42, List.of(quote)));
+        CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+        output.writeString(15, "future");
+        output.writeInt64(16, 7);
+        output.flush();
+
+        QuoteBatchCodec.Batch batch = QuoteBatchCodec.decode(bytes.toByteArray());
+
+        assertThat(batch.publishedAtMicros()).isEqualTo(42);
+        assertThat(batch.quotes()).containsExactly(quote);
+    }
+
+    @Test
+    @DisplayName("Should decode an empty batch")
+    void shouldDecodeEmptyBatch() throws IOException {
+        QuoteBatchCodec.Batch batch = QuoteBatchCodec.decode(QuoteBatchCodec.encode(0, List.of()));
+
+        assertThat(batch.publishedAtMicros()).isZero();
+        assertThat(batch.quotes()).isEmpty();
+    }
+}
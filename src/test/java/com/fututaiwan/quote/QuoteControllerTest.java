@@ -0,0 +1,69 @@
+package com.fututaiwan.quote;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(QuoteController.class)
+@DisplayName("Quote Controller Tests")
+class QuoteControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private QuoteService quoteService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("GET /api/quotes/{code} should return latest quote")
+    void getLatestQuote_shouldReturnQuote() throws Exception {
+        when(quoteService.getLatestQuote("2330")).thenReturn(Optional.of(Quote.builder().code("2330").price(600.0).build()));
+
+        mockMvc.perform(get("/api/quotes/{code}", "2330")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code", is("2330")))
+                .andExpect(jsonPath("$.price", is(600.0)));
+    }
+
+    @Test
+    @DisplayName("GET /api/quotes/{code} should return 404 if no quote yet")
+    void getLatestQuote_shouldReturn404IfMissing() throws Exception {
+        when(quoteService.getLatestQuote("9999")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/quotes/{code}", "9999")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("POST /api/quotes should accept a batch of quotes")
+    void updateQuotes_shouldAcceptBatch() throws Exception {
+        List<Quote> quotes = List.of(Quote.builder().code("2330").price(600.0).build());
+
+        mockMvc.perform(post("/api/quotes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(quotes)))
+                .andExpect(status().isAccepted());
+
+        verify(quoteService, times(1)).updateQuotes(anyList());
+    }
+}
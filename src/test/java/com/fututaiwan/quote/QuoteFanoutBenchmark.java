@@ -0,0 +1,144 @@
+package com.fututaiwan.quote;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 跨節點報價 fan-out 的吞吐量與端到端延遲 (ingest 端收到報價到訂閱端寫入 QuoteService)
+ * 同一個 JVM 內以兩條 Redis 連線分別扮演發布與訂閱節點，延遲包含 publish-interval 的累積時間
+ * 需要本機 Redis (例如 compose.yaml 的 redis)，以 ./gradlew quoteFanoutBenchmark 執行
+ */
+@EnabledIfSystemProperty(named = "benchmark.quote-fanout", matches = "true")
+@DisplayName("Quote Fan-out Benchmark")
+class QuoteFanoutBenchmark {
+
+    private static final String HOST = System.getProperty("benchmark.redis.host", "localhost");
+    private static final int PORT = Integer.getInteger("benchmark.redis.port", 6379);
+    private static final int SYMBOLS = Integer.getInteger("benchmark.symbols", 2_000);
+    private static final int RATE = Integer.getInteger("benchmark.rate", 50_000);
+    private static final Duration DURATION = Duration.parse(System.getProperty("benchmark.duration", "PT20S"));
+
+    @Test
+    @DisplayName("Measure fan-out throughput and end-to-end latency against a local Redis")
+    void measureFanout() throws Exception {
+        System.out.printf("%n%-14s %12s %12s %10s %10s %10s %10s%n",
+                "interval", "sent/s", "applied/s", "p50 (ms)", "p99 (ms)", "max (ms)", "msgs/s");
+        for (Duration interval : List.of(Duration.ofMillis(5), Duration.ofMillis(20), Duration.ofMillis(100))) {
+            System.out.println(run(interval));
+        }
+    }
+
+    private Result run(Duration publishInterval) throws Exception {
+        QuoteFanoutProperties properties = new QuoteFanoutProperties();
+        properties.setChannelPrefix("benchmark:quotes:");
+        properties.setPublishInterval(publishInterval);
+        List<String> codes = new ArrayList<>(SYMBOLS);
+        for (int i = 0; i < SYMBOLS; i++) {
+            codes.add(String.format("%04d", 1_000 + i));
+        }
+
+        LatencyRecorder recorder = new LatencyRecorder(RATE * (int) DURATION.toSeconds() * 2);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        LettuceConnectionFactory publisherConnections = connectionFactory();
+        LettuceConnectionFactory subscriberConnections = connectionFactory();
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(subscriberConnections);
+        container.afterPropertiesSet();
+        container.start();
+
+        QuoteInterest interest = new QuoteInterest(properties);
+        interest.touch("benchmark", codes);
+        QuoteFanoutSubscriber subscriber = new QuoteFanoutSubscriber(container, new QuoteService(List.of(recorder)), interest,
+                properties, meterRegistry);
+        QuoteFanoutPublisher publisher = new QuoteFanoutPublisher(publisherConnections, properties, meterRegistry);
+        try {
+            subscriber.start();
+            Thread.sleep(1_000);
+            publisher.start();
+
+            long intervalNanos = TimeUnit.SECONDS.toNanos(1) / RATE;
+            long begin = System.nanoTime();
+            long end = begin + DURATION.toNanos();
+            int sent = 0;
+            for (long next = begin; next < end; next += intervalNanos) {
+                LockSupport.parkNanos(next - System.nanoTime());
+                String code = codes.get(sent % SYMBOLS);
+                publisher.onQuote(Quote.builder().code(code).price(100 + sent % 100).volume(sent).timestamp(Instant.now()).build());
+                sent++;
+            }
+            double elapsed = (System.nanoTime() - begin) / 1e9;
+            publisher.stop();
+            Thread.sleep(500);
+            double messages = meterRegistry.get(QuoteFanoutPublisher.METRIC_PREFIX + ".published.messages").counter().count();
+            return recorder.result(publishInterval, sent / elapsed, elapsed, messages / elapsed);
+        } finally {
+            subscriber.stop();
+            container.stop();
+            container.destroy();
+            publisherConnections.destroy();
+            subscriberConnections.destroy();
+        }
+    }
+
+    private static LettuceConnectionFactory connectionFactory() {
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(HOST, PORT));
+        factory.afterPropertiesSet();
+        factory.start();
+        return factory;
+    }
+
+    // 報價的 timestamp 是 ingest 時間；同一 JVM 內兩端時鐘相同，差值即為端到端延遲
+    private static final class LatencyRecorder implements QuoteListener {
+
+        private final long[] latencies;
+        private final AtomicInteger count = new AtomicInteger();
+
+        LatencyRecorder(int capacity) {
+            this.latencies = new long[capacity];
+        }
+
+        @Override
+        public void onQuote(Quote quote) {
+            int slot = count.getAndIncrement();
+            if (slot < latencies.length) {
+                latencies[slot] = Duration.between(quote.getTimestamp(), Instant.now()).toNanos();
+            }
+        }
+
+        Result result(Duration interval, double sentPerSecond, double elapsedSeconds, double messagesPerSecond) {
+            int applied = Math.min(count.get(), latencies.length);
+            long[] sorted = Arrays.copyOf(latencies, applied);
+            Arrays.sort(sorted);
+            if (applied == 0) {
+                return new Result(interval, sentPerSecond, 0, 0, 0, 0, messagesPerSecond);
+            }
+            return new Result(interval, sentPerSecond, applied / elapsedSeconds,
+                    sorted[applied / 2] / 1e6, sorted[(int) Math.ceil(applied * 0.99) - 1] / 1e6, sorted[applied - 1] / 1e6,
+                    messagesPerSecond);
+        }
+    }
+
+    private record Result(Duration interval, double sentPerSecond, double appliedPerSecond, double p50Millis,
+                          double p99Millis, double maxMillis, double messagesPerSecond) {
+
+        @Override
+        public String toString() {
+            return String.format("%-14s %12.0f %12.0f %10.2f %10.2f %10.2f %10.0f", interval, sentPerSecond, appliedPerSecond,
+                    p50Millis, p99Millis, maxMillis, messagesPerSecond);
+        }
+    }
+}
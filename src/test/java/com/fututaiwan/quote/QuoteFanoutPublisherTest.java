@@ -0,0 +1,127 @@
+package com.fututaiwan.quote;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Quote Fan-out Publisher Tests")
+class QuoteFanoutPublisherTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-02T01:30:00Z");
+
+    private RedisConnectionFactory connectionFactory;
+    private RedisConnection connection;
+    private QuoteFanoutProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private QuoteFanoutPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = mock(RedisConnectionFactory.class);
+        connection = mock(RedisConnection.class);
+        when(connectionFactory.getConnection()).thenReturn(connection);
+        properties = new QuoteFanoutProperties();
+        properties.setShards(4);
+        meterRegistry = new SimpleMeterRegistry();
+        publisher = new QuoteFanoutPublisher(connectionFactory, properties, meterRegistry, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    @DisplayName("Should publish only the latest quote per code to the code's shard channel in one pipeline")
+    void shouldConflateAndShard() throws IOException {
+        publisher.onQuote(quote("2330", 600));
+        publisher.onQuote(quote("2330", 601));
+        publisher.onQuote(quote("2454", 1_000));
+
+        publisher.publish();
+
+        List<Published> published = captured();
+        assertThat(published).allSatisfy(message -> {
+            assertThat(message.batch.publishedAtMicros()).isEqualTo(NOW.toEpochMilli() * 1_000);
+            assertThat(message.batch.quotes()).allSatisfy(quote ->
+                    assertThat(message.channel).isEqualTo(properties.channelOf(properties.shardOf(quote.getCode()))));
+        });
+        assertThat(published).flatExtracting(message -> message.batch.quotes())
+                .extracting(Quote::getCode, Quote::getPrice)
+                .containsExactlyInAnyOrder(tuple("2330", 601.0), tuple("2454", 1_000.0));
+        verify(connection).openPipeline();
+        verify(connection).closePipeline();
+        assertThat(meterRegistry.get("quote.fanout.published.quotes").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should split a shard into messages of at most max-batch quotes")
+    void shouldSplitLargeShards() throws IOException {
+        properties.setShards(1);
+        properties.setMaxBatch(2);
+        publisher = new QuoteFanoutPublisher(connectionFactory, properties, meterRegistry, Clock.fixed(NOW, ZoneOffset.UTC));
+        for (int i = 0; i < 5; i++) {
+            publisher.onQuote(quote("000" + i, 10 + i));
+        }
+
+        assertThat(publisher.publish()).isEqualTo(3);
+
+        assertThat(captured()).extracting(message -> message.batch.quotes().size()).containsExactly(2, 2, 1);
+    }
+
+    @Test
+    @DisplayName("Should not touch Redis when nothing changed since the last publish")
+    void shouldSkipEmptyPublish() {
+        publisher.onQuote(quote("2330", 600));
+        publisher.publish();
+        clearInvocations(connectionFactory, connection);
+
+        assertThat(publisher.publish()).isZero();
+
+        verifyNoInteractions(connectionFactory, connection);
+    }
+
+    @Test
+    @DisplayName("Should count a failed publish without throwing")
+    void shouldCountFailures() {
+        when(connection.publish(any(byte[].class), any(byte[].class))).thenThrow(new RedisConnectionFailureException("down"));
+        publisher.onQuote(quote("2330", 600));
+
+        publisher.publish();
+
+        assertThat(meterRegistry.get("quote.fanout.publish.failures").counter().count()).isEqualTo(1);
+        verify(connection).close();
+    }
+
+    private List<Published> captured() throws IOException {
+        ArgumentCaptor<byte[]> channels = ArgumentCaptor.forClass(byte[].class);
+        ArgumentCaptor<byte[]> payloads = ArgumentCaptor.forClass(byte[].class);
+        verify(connection, atLeastOnce()).publish(channels.capture(), payloads.capture());
+        List<Published> published = new ArrayList<>();
+        for (int i = 0; i < channels.getAllValues().size(); i++) {
+            published.add(new Published(new String(channels.getAllValues().get(i), StandardCharsets.UTF_8),
+                    QuoteBatchCodec.decode(payloads.getAllValues().get(i))));
+        }
+        return published;
+    }
+
+    private static Quote quote(String code, double price) {
+        return Quote.builder().code(code).price(price).timestamp(NOW).build();
+    }
+
+    private record Published(String channel, QuoteBatchCodec.Batch batch) {
+    }
+}
@@ -0,0 +1,90 @@
+package com.fututaiwan.quote;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Quote Fan-out Subscriber Tests")
+class QuoteFanoutSubscriberTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-02T01:30:00Z");
+
+    private RedisMessageListenerContainer container;
+    private QuoteService quoteService;
+    private AtomicLong now;
+    private QuoteInterest interest;
+    private QuoteFanoutProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private QuoteFanoutSubscriber subscriber;
+
+    @BeforeEach
+    void setUp() {
+        container = mock(RedisMessageListenerContainer.class);
+        quoteService = new QuoteService();
+        now = new AtomicLong();
+        interest = new QuoteInterest(1_000, now::get);
+        properties = new QuoteFanoutProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        subscriber = new QuoteFanoutSubscriber(container, quoteService, interest, properties, meterRegistry,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    @DisplayName("Should subscribe to the shards of watched codes and drop shards nobody watches any more")
+    void shouldFollowInterest() {
+        interest.touch(1L, List.of("2330"));
+        interest.touch(2L, List.of("2454"));
+        subscriber.resubscribe();
+
+        assertThat(subscriber.subscribedShards()).containsExactlyInAnyOrder(properties.shardOf("2330"), properties.shardOf("2454"));
+        verify(container).addMessageListener(subscriber, new ChannelTopic(properties.channelOf(properties.shardOf("2330"))));
+
+        interest.release(2L);
+        subscriber.resubscribe();
+        subscriber.resubscribe();
+
+        assertThat(subscriber.subscribedShards()).containsExactly(properties.shardOf("2330"));
+        verify(container).removeMessageListener(subscriber, new ChannelTopic(properties.channelOf(properties.shardOf("2454"))));
+        verify(container, times(2)).addMessageListener(eq(subscriber), any(ChannelTopic.class));
+    }
+
+    @Test
+    @DisplayName("Should apply received quotes locally and record publish-to-apply latency")
+    void shouldApplyReceivedQuotes() {
+        Quote quote = Quote.builder().code("2330").price(600).timestamp(NOW).build();
+        long publishedAtMicros = NOW.minusMillis(3).toEpochMilli() * 1_000;
+        byte[] channel = properties.channelOf(properties.shardOf("2330")).getBytes(StandardCharsets.UTF_8);
+
+        subscriber.onMessage(new DefaultMessage(channel, QuoteBatchCodec.encode(publishedAtMicros, List.of(quote))), null);
+
+        assertThat(quoteService.getLatestQuote("2330")).contains(quote);
+        Timer latency = meterRegistry.get("quote.fanout.latency").timer();
+        assertThat(latency.count()).isEqualTo(1);
+        assertThat(latency.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should count and drop a message that is not a quote batch")
+    void shouldDropUndecodableMessage() {
+        subscriber.onMessage(new DefaultMessage("quotes:0".getBytes(StandardCharsets.UTF_8), new byte[]{(byte) 0xff, 0x01}), null);
+
+        assertThat(meterRegistry.get("quote.fanout.decode.failures").counter().count()).isEqualTo(1);
+        assertThat(quoteService.getEpoch()).isZero();
+    }
+}
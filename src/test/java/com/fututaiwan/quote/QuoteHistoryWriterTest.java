@@ -0,0 +1,130 @@
+package com.fututaiwan.quote;
+
+import com.mongodb.MongoSocketException;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoDatabase;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+
+/**
+ * 以 mongo-java-server (in-process 的 Mongo 替身) 驗證實際的 insertMany 與 collection 建立
+ */
+@DisplayName("Quote History Writer Tests")
+class QuoteHistoryWriterTest {
+
+    private static final Instant MINUTE = Instant.parse("2025-01-02T01:30:00Z");
+
+    private MongoServer server;
+    private MongoClient client;
+    private MongoDatabaseFactory databaseFactory;
+    private QuoteHistoryProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        server = new MongoServer(new MemoryBackend());
+        client = MongoClients.create("mongodb://" + new ServerAddress(server.bind()));
+        databaseFactory = new SimpleMongoClientDatabaseFactory(client, "quotes");
+        properties = new QuoteHistoryProperties();
+        properties.setBatchSize(3);
+        properties.setMaxLatency(Duration.ofMillis(20));
+        properties.setRetryBackoff(Duration.ofMillis(1));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should persist every tick in batches and the closed minute bars")
+    void shouldPersistTicksAndBars() {
+        QuoteHistoryWriter writer = writer(databaseFactory, MINUTE.plusSeconds(30));
+        writer.start();
+        for (int i = 0; i < 10; i++) {
+            writer.onQuote(quote(MINUTE.plusSeconds(i * 10), 600 + i, 1_000 + i * 100L));
+        }
+        writer.stop();
+
+        MongoDatabase database = client.getDatabase("quotes");
+        assertThat(database.getCollection("quote_ticks").countDocuments()).isEqualTo(10);
+        List<Document> bars = database.getCollection("quote_bars_1m").find().into(new ArrayList<>());
+        // 第一分鐘在第 7 筆報價時收盤，第二分鐘在關機時寫出
+        assertThat(bars).hasSize(2);
+        Document first = bars.stream().filter(bar -> bar.getDate("timestamp").equals(Date.from(MINUTE))).findFirst().orElseThrow();
+        assertThat(first.getDouble("open")).isEqualTo(600);
+        assertThat(first.getDouble("close")).isEqualTo(605);
+        assertThat(first.getLong("volume")).isEqualTo(500);
+        assertThat(first.getInteger("ticks")).isEqualTo(6);
+        assertThat(meterRegistry.get("quote.history.batch.size").tag("collection", "quote_ticks").summary().max()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should retry a failed batch until Mongo is reachable again")
+    void shouldRetryFailedWrites() {
+        MongoDatabaseFactory flaky = spy(databaseFactory);
+        doThrow(new MongoSocketException("connection reset", new ServerAddress()))
+                .doThrow(new MongoSocketException("connection reset", new ServerAddress()))
+                .doCallRealMethod()
+                .when(flaky).getMongoDatabase();
+        QuoteHistoryWriter writer = writer(flaky, MINUTE);
+        writer.start();
+        writer.onQuote(quote(MINUTE, 600, 1_000));
+        writer.stop();
+
+        // 兩個 collection 共用同一個 factory，前兩次失敗可能落在任一個寫入執行緒
+        MongoDatabase database = client.getDatabase("quotes");
+        assertThat(database.getCollection("quote_ticks").countDocuments()).isEqualTo(1);
+        assertThat(database.getCollection("quote_bars_1m").countDocuments()).isEqualTo(1);
+        double failures = meterRegistry.get("quote.history.write.failures").counters().stream().mapToDouble(Counter::count).sum();
+        assertThat(failures).isEqualTo(2);
+        assertThat(meterRegistry.get("quote.history.dropped").counters()).allSatisfy(counter -> assertThat(counter.count()).isZero());
+    }
+
+    @Test
+    @DisplayName("Should drop ticks instead of blocking ingest when the buffer is full")
+    void shouldDropWhenBufferIsFull() {
+        properties.setTickBufferCapacity(2);
+        QuoteHistoryWriter writer = writer(databaseFactory, MINUTE);
+
+        for (int i = 0; i < 5; i++) {
+            writer.onQuote(quote(MINUTE.plusSeconds(i), 600, 1_000));
+        }
+
+        assertThat(writer.pendingTicks()).isEqualTo(2);
+        assertThat(meterRegistry.get("quote.history.dropped").tag("collection", "quote_ticks").counter().count()).isEqualTo(3);
+    }
+
+    private QuoteHistoryWriter writer(MongoDatabaseFactory factory, Instant now) {
+        return new QuoteHistoryWriter(factory, properties, meterRegistry, Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private static Quote quote(Instant timestamp, double price, long volume) {
+        return Quote.builder().code("2330").price(price).volume(volume).timestamp(timestamp).build();
+    }
+}
@@ -0,0 +1,74 @@
+package com.fututaiwan.quote;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Quote Interest Tests")
+class QuoteInterestTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private final QuoteInterest interest = new QuoteInterest(100, now::get);
+
+    @Test
+    @DisplayName("Should union the codes of all live leases")
+    void shouldUnionLiveLeases() {
+        interest.touch(1L, List.of("2330", "2454"));
+        interest.touch(2L, List.of("2330", "2317"));
+
+        assertThat(interest.activeCodes()).containsExactlyInAnyOrder("2330", "2454", "2317");
+    }
+
+    @Test
+    @DisplayName("Should drop a lease that was not touched within the TTL")
+    void shouldExpireLeases() {
+        interest.touch(1L, List.of("2330"));
+        now.addAndGet(50);
+        interest.touch(2L, List.of("2454"));
+        now.addAndGet(60);
+
+        assertThat(interest.activeCodes()).containsExactly("2454");
+    }
+
+    @Test
+    @DisplayName("Should drop expired leases on touch even if active codes are never read")
+    void shouldExpireLeasesOnTouch() {
+        for (long owner = 1; owner <= 10; owner++) {
+            interest.touch(owner, List.of("2330"));
+            now.addAndGet(20);
+        }
+        now.addAndGet(200);
+        interest.touch(11L, List.of("2454"));
+
+        assertThat(interest.leaseCount()).isEqualTo(1);
+        assertThat(interest.activeCodes()).containsExactly("2454");
+    }
+
+    @Test
+    @DisplayName("Should extend the lease when touched again and replace codes that changed")
+    void shouldExtendAndReplaceLease() {
+        List<String> codes = List.of("2330");
+        interest.touch(1L, codes);
+        now.addAndGet(90);
+        interest.touch(1L, codes);
+        now.addAndGet(90);
+
+        assertThat(interest.activeCodes()).containsExactly("2330");
+
+        interest.touch(1L, List.of("2454"));
+        assertThat(interest.activeCodes()).containsExactly("2454");
+    }
+
+    @Test
+    @DisplayName("Should forget an owner immediately on release")
+    void shouldRelease() {
+        interest.touch(1L, List.of("2330"));
+        interest.release(1L);
+
+        assertThat(interest.activeCodes()).isEmpty();
+    }
+}
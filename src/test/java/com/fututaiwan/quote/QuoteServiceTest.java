@@ -0,0 +1,96 @@
+package com.fututaiwan.quote;
+
+import com.fututaiwan.partition.StockSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Quote Service Tests")
+class QuoteServiceTest {
+
+    private QuoteService quoteService;
+
+    @BeforeEach
+    void setUp() {
+        quoteService = new QuoteService();
+    }
+
+    @Test
+    @DisplayName("Should keep only the latest quote per code")
+    void shouldKeepLatestQuotePerCode() {
+        quoteService.updateQuote(Quote.builder().code("2330").price(600.0).build());
+        quoteService.updateQuote(Quote.builder().code("2330").price(605.0).build());
+
+        Optional<Quote> quote = quoteService.getLatestQuote("2330");
+
+        assertThat(quote).isPresent();
+        assertThat(quote.get().getPrice()).isEqualTo(605.0);
+    }
+
+    @Test
+    @DisplayName("Should increment epoch on every update")
+    void shouldIncrementEpochOnUpdate() {
+        long before = quoteService.getEpoch();
+
+        quoteService.updateQuotes(List.of(
+                Quote.builder().code("2330").price(600.0).build(),
+                Quote.builder().code("2454").price(1200.0).build()));
+
+        assertThat(quoteService.getEpoch()).isEqualTo(before + 2);
+    }
+
+    @Test
+    @DisplayName("Should return quotes only for codes that have one")
+    void shouldReturnQuotesForKnownCodes() {
+        quoteService.updateQuote(Quote.builder().code("2330").price(600.0).build());
+
+        Map<String, Quote> quotes = quoteService.getLatestQuotes(List.of("2330", "2454"));
+
+        assertThat(quotes).containsOnlyKeys("2330");
+    }
+
+    @Test
+    @DisplayName("Should reject quote without code")
+    void shouldRejectQuoteWithoutCode() {
+        assertThrows(IllegalArgumentException.class, () -> quoteService.updateQuote(Quote.builder().price(1.0).build()));
+    }
+
+    @Test
+    @DisplayName("Should notify listeners after applying each quote")
+    void shouldNotifyListeners() {
+        List<String> received = new ArrayList<>();
+        QuoteService service = new QuoteService(List.of(quote -> received.add(quote.getCode())));
+
+        service.updateQuotes(List.of(Quote.builder().code("2330").build(), Quote.builder().code("2317").build()));
+
+        assertThat(received).containsExactly("2330", "2317");
+        assertThat(service.getLatestQuote("2317")).isPresent();
+    }
+
+    @Test
+    @DisplayName("Should take over a handed-off quote only when it is newer than the local one")
+    void shouldTakeOverNewerQuote() {
+        Instant now = Instant.parse("2025-01-02T01:30:00Z");
+        quoteService.updateQuote(Quote.builder().code("2330").price(600.0).timestamp(now).build());
+        long epoch = quoteService.getEpoch();
+
+        quoteService.takeOver(StockSnapshot.builder().code("2330")
+                .quote(Quote.builder().code("2330").price(590.0).timestamp(now.minusSeconds(1)).build()).build());
+        assertThat(quoteService.getLatestQuote("2330")).get().extracting(Quote::getPrice).isEqualTo(600.0);
+        assertThat(quoteService.getEpoch()).isEqualTo(epoch);
+
+        quoteService.takeOver(StockSnapshot.builder().code("2317")
+                .quote(Quote.builder().code("2317").price(100.0).timestamp(now).build()).build());
+        assertThat(quoteService.getLatestQuote("2317")).isPresent();
+        assertThat(quoteService.getEpoch()).isEqualTo(epoch + 1);
+    }
+}
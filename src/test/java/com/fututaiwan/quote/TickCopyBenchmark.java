@@ -0,0 +1,82 @@
+package com.fututaiwan.quote;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 逐筆報價 COPY 寫入日分區資料表的吞吐量：先把 rows 筆報價放進緩衝區，量測寫入執行緒全部寫完所需的時間
+ * 需要本機 Postgres (例如 compose.yaml 的 postgres)，以 ./gradlew tickCopyBenchmark 執行；目標為每秒至少 20 萬筆
+ */
+@EnabledIfSystemProperty(named = "benchmark.tick-copy", matches = "true")
+@DisplayName("Tick Copy Benchmark")
+class TickCopyBenchmark {
+
+    private static final String URL = System.getProperty("benchmark.jdbc-url", "jdbc:postgresql://localhost:5432/mydatabase");
+    private static final String USERNAME = System.getProperty("benchmark.jdbc-username", "myuser");
+    private static final String PASSWORD = System.getProperty("benchmark.jdbc-password", "secret");
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 2_000_000);
+    private static final int SYMBOLS = Integer.getInteger("benchmark.symbols", 2_000);
+    private static final int BATCH_SIZE = Integer.getInteger("benchmark.batch-size", 50_000);
+
+    @Test
+    @DisplayName("Measure COPY throughput into the day-partitioned ticks table against a local Postgres")
+    void measureCopyThroughput() throws Exception {
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            dataSource.setJdbcUrl(URL);
+            dataSource.setUsername(USERNAME);
+            dataSource.setPassword(PASSWORD);
+            try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+                statement.execute(Files.readString(Path.of("src/migrate/Tick.sql")));
+                statement.execute("TRUNCATE ticks");
+            }
+
+            TickCopyProperties properties = new TickCopyProperties();
+            properties.setBatchSize(BATCH_SIZE);
+            properties.setBufferCapacity(ROWS);
+            properties.setShutdownTimeout(Duration.ofMinutes(5));
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            TickCopySink sink = new TickCopySink(dataSource, properties, meterRegistry);
+
+            Instant start = Instant.now();
+            for (int i = 0; i < ROWS; i++) {
+                sink.onQuote(Quote.builder()
+                        .code(String.valueOf(1_000 + i % SYMBOLS))
+                        .price(100 + i % 100 * 0.5)
+                        .volume(i)
+                        .timestamp(start.plusNanos(i * 1_000L))
+                        .build());
+            }
+            long begin = System.nanoTime();
+            sink.start();
+            sink.stop();
+            double elapsed = (System.nanoTime() - begin) / 1e9;
+
+            long stored;
+            try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement();
+                 ResultSet result = statement.executeQuery("SELECT count(*) FROM ticks")) {
+                result.next();
+                stored = result.getLong(1);
+            }
+            double throughput = ROWS / elapsed;
+            System.out.printf("%n%-10s %10s %12s %12s %10s%n", "rows", "batch", "elapsed (s)", "rows/s", "failures");
+            System.out.printf("%-10d %10d %12.2f %12.0f %10.0f%n", ROWS, BATCH_SIZE, elapsed, throughput,
+                    meterRegistry.counter(TickCopySink.METRIC_PREFIX + ".failures").count());
+
+            assertThat(stored).isEqualTo(ROWS);
+            assertThat(throughput).isGreaterThanOrEqualTo(200_000);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.fututaiwan.quote;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Tick Copy Encoder Tests")
+class TickCopyEncoderTest {
+
+    private static final byte[] SIGNATURE = "PGCOPY\n\377\r\n\0".getBytes(StandardCharsets.ISO_8859_1);
+
+    @Test
+    @DisplayName("Should encode rows in the Postgres binary COPY format")
+    void shouldEncodeBinaryCopy() {
+        TickCopyEncoder encoder = new TickCopyEncoder(0);
+        Instant timestamp = Instant.parse("2025-01-02T01:30:00.123456789Z");
+
+        encoder.begin();
+        encoder.add(LocalDate.of(2025, 1, 2), "2330", timestamp, 612.5, 1_234_567L);
+        encoder.add(LocalDate.of(2025, 1, 2), "2330", timestamp.plusSeconds(1), 613, 1_234_600L);
+        encoder.finish();
+
+        ByteBuffer bytes = ByteBuffer.wrap(encoder.buffer(), 0, encoder.size());
+        byte[] signature = new byte[SIGNATURE.length];
+        bytes.get(signature);
+        assertThat(signature).isEqualTo(SIGNATURE);
+        assertThat(bytes.getInt()).isZero();
+        assertThat(bytes.getInt()).isZero();
+
+        assertThat(bytes.getShort()).isEqualTo((short) 5);
+        assertThat(bytes.getInt()).isEqualTo(4);
+        // 2000-01-01 起算的天數
+        assertThat(bytes.getInt()).isEqualTo(9_133);
+        assertThat(bytes.getInt()).isEqualTo(4);
+        byte[] code = new byte[4];
+        bytes.get(code);
+        assertThat(new String(code, StandardCharsets.UTF_8)).isEqualTo("2330");
+        assertThat(bytes.getInt()).isEqualTo(8);
+        // 2000-01-01T00:00:00Z 起算的微秒，奈秒部分捨去
+        assertThat(bytes.getLong()).isEqualTo((Instant.parse("2025-01-02T01:30:00Z").getEpochSecond() - 946_684_800L) * 1_000_000L + 123_456);
+        assertThat(bytes.getInt()).isEqualTo(8);
+        assertThat(bytes.getDouble()).isEqualTo(612.5);
+        assertThat(bytes.getInt()).isEqualTo(8);
+        assertThat(bytes.getLong()).isEqualTo(1_234_567L);
+
+        assertThat(decode(encoder.buffer(), encoder.size())).extracting(Row::price).containsExactly(612.5, 613.0);
+    }
+
+    @Test
+    @DisplayName("Should reuse the buffer from the start of each batch")
+    void shouldResetOnBegin() {
+        TickCopyEncoder encoder = new TickCopyEncoder(64);
+        encoder.begin();
+        for (int i = 0; i < 1_000; i++) {
+            encoder.add(LocalDate.of(2025, 1, 2), "2330", Instant.parse("2025-01-02T01:30:00Z"), 600 + i, i);
+        }
+        encoder.finish();
+        assertThat(decode(encoder.buffer(), encoder.size())).hasSize(1_000);
+
+        encoder.begin();
+        encoder.add(LocalDate.of(2025, 1, 3), "2317", Instant.parse("2025-01-03T01:30:00Z"), 105, 10);
+        encoder.finish();
+
+        assertThat(decode(encoder.buffer(), encoder.size()))
+                .containsExactly(new Row(LocalDate.of(2025, 1, 3), "2317", Instant.parse("2025-01-03T01:30:00Z"), 105, 10));
+    }
+
+    /**
+     * 解回 COPY binary 的資料列，供 TickCopySink 的測試檢查實際送出的內容
+     */
+    static List<Row> decode(byte[] buffer, int size) {
+        ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, size);
+        assertThat(Arrays.copyOf(buffer, SIGNATURE.length)).isEqualTo(SIGNATURE);
+        bytes.position(SIGNATURE.length + 8);
+        List<Row> rows = new ArrayList<>();
+        for (short fields = bytes.getShort(); fields != -1; fields = bytes.getShort()) {
+            assertThat(fields).isEqualTo((short) 5);
+            bytes.getInt();
+            LocalDate day = LocalDate.ofEpochDay(bytes.getInt() + 10_957L);
+            byte[] code = new byte[bytes.getInt()];
+            bytes.get(code);
+            bytes.getInt();
+            long micros = bytes.getLong();
+            bytes.getInt();
+            double price = bytes.getDouble();
+            bytes.getInt();
+            long volume = bytes.getLong();
+            Instant timestamp = Instant.ofEpochSecond(946_684_800L + Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000);
+            rows.add(new Row(day, new String(code, StandardCharsets.UTF_8), timestamp, price, volume));
+        }
+        assertThat(bytes.hasRemaining()).isFalse();
+        return rows;
+    }
+
+    record Row(LocalDate tradingDay, String code, Instant timestamp, double price, long volume) {
+    }
+}
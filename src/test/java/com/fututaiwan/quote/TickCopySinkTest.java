@@ -0,0 +1,233 @@
+package com.fututaiwan.quote;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 以 mock 的 JDBC 連線與 CopyManager 驗證分區維護與 COPY 批次，實際送出的內容以 COPY binary 解回比對
+ */
+@DisplayName("Tick Copy Sink Tests")
+class TickCopySinkTest {
+
+    // 台北時間 2025-01-02 09:30
+    private static final Instant NOW = Instant.parse("2025-01-02T01:30:00Z");
+
+    private DataSource dataSource;
+    private Statement statement;
+    private ResultSet partitions;
+    private CopyManager copyManager;
+    private List<byte[]> copies;
+    private TickCopyProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        statement = mock(Statement.class);
+        PreparedStatement partitionQuery = mock(PreparedStatement.class);
+        partitions = mock(ResultSet.class);
+        PGConnection pgConnection = mock(PGConnection.class);
+        copyManager = mock(CopyManager.class);
+        CopyIn copyIn = mock(CopyIn.class);
+        copies = Collections.synchronizedList(new ArrayList<>());
+
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(connection.prepareStatement(anyString())).thenReturn(partitionQuery);
+        when(partitionQuery.executeQuery()).thenReturn(partitions);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+        when(copyManager.copyIn(anyString())).thenReturn(copyIn);
+        doAnswer(invocation -> {
+            byte[] buffer = invocation.getArgument(0);
+            int offset = invocation.getArgument(1);
+            copies.add(Arrays.copyOfRange(buffer, offset, offset + (int) invocation.getArgument(2)));
+            return null;
+        }).when(copyIn).writeToCopy(any(byte[].class), anyInt(), anyInt());
+
+        properties = new TickCopyProperties();
+        properties.setBatchSize(4);
+        properties.setMaxLatency(Duration.ofMillis(20));
+        properties.setRetryBackoff(Duration.ofMillis(1));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("Should COPY every tick in batches after creating the day partitions")
+    void shouldCopyTicksInBatches() throws SQLException {
+        TickCopySink sink = sink();
+        sink.start();
+        for (int i = 0; i < 10; i++) {
+            sink.onQuote(quote("2330", NOW.plusSeconds(i), 600 + i));
+        }
+        sink.stop();
+
+        verify(statement).execute("CREATE TABLE IF NOT EXISTS ticks_20250102 PARTITION OF ticks FOR VALUES FROM ('2025-01-02') TO ('2025-01-03')");
+        verify(statement).execute("CREATE TABLE IF NOT EXISTS ticks_20250103 PARTITION OF ticks FOR VALUES FROM ('2025-01-03') TO ('2025-01-04')");
+        verify(copyManager, atLeast(3)).copyIn("COPY ticks (trading_day, code, ts, price, volume) FROM STDIN (FORMAT binary)");
+        List<TickCopyEncoderTest.Row> rows = decoded();
+        assertThat(rows).hasSize(10);
+        assertThat(rows.get(0)).isEqualTo(new TickCopyEncoderTest.Row(LocalDate.of(2025, 1, 2), "2330", NOW, 600, 1_000));
+        assertThat(copies).allSatisfy(copy -> assertThat(TickCopyEncoderTest.decode(copy, copy.length)).hasSizeLessThanOrEqualTo(4));
+        assertThat(meterRegistry.counter("quote.tick.copy.rows").count()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Should assign ticks to the trading day in the configured zone and create that partition on first use")
+    void shouldPartitionByTradingDay() throws SQLException {
+        TickCopySink sink = sink();
+        sink.start();
+        // UTC 仍是 1 月 4 日，台北已是 1 月 5 日
+        sink.onQuote(quote("2330", Instant.parse("2025-01-04T16:30:00Z"), 610));
+        sink.stop();
+
+        verify(statement).execute("CREATE TABLE IF NOT EXISTS ticks_20250105 PARTITION OF ticks FOR VALUES FROM ('2025-01-05') TO ('2025-01-06')");
+        assertThat(decoded()).extracting(TickCopyEncoderTest.Row::tradingDay).containsExactly(LocalDate.of(2025, 1, 5));
+    }
+
+    @Test
+    @DisplayName("Should drop partitions older than the retention period")
+    void shouldDropExpiredPartitions() throws SQLException {
+        when(partitions.next()).thenReturn(true, true, true, false);
+        when(partitions.getString(1)).thenReturn("ticks_20241101", "ticks_20241220", "ticks_default");
+        TickCopySink sink = sink();
+        sink.start();
+        sink.stop();
+
+        verify(statement).execute("DROP TABLE IF EXISTS ticks_20241101");
+        verify(statement, never()).execute("DROP TABLE IF EXISTS ticks_20241220");
+        verify(statement, never()).execute("DROP TABLE IF EXISTS ticks_default");
+        assertThat(meterRegistry.counter("quote.tick.copy.partitions.dropped").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should skip ticks whose trading day is past the retention period")
+    void shouldSkipExpiredTicks() {
+        TickCopySink sink = sink();
+        sink.start();
+        sink.onQuote(quote("2330", Instant.parse("2024-11-01T01:30:00Z"), 500));
+        sink.onQuote(quote("2330", NOW, 600));
+        sink.stop();
+
+        assertThat(decoded()).extracting(TickCopyEncoderTest.Row::price).containsExactly(600.0);
+        assertThat(meterRegistry.counter("quote.tick.copy.dropped", "reason", "expired").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should retry a failed COPY with the whole batch")
+    void shouldRetryFailedCopy() throws SQLException {
+        CopyIn copyIn = copyManager.copyIn("");
+        when(copyManager.copyIn(anyString())).thenThrow(new SQLException("connection reset")).thenReturn(copyIn);
+        TickCopySink sink = sink();
+        sink.start();
+        sink.onQuote(quote("2330", NOW, 600));
+        sink.onQuote(quote("2317", NOW, 105));
+        sink.stop();
+
+        assertThat(decoded()).extracting(TickCopyEncoderTest.Row::code).containsExactly("2330", "2317");
+        assertThat(meterRegistry.counter("quote.tick.copy.failures").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("quote.tick.copy.rows").count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should drop the batch and count it once retries are exhausted")
+    void shouldDropBatchAfterRetries() throws SQLException {
+        properties.setMaxRetries(2);
+        when(copyManager.copyIn(anyString())).thenThrow(new SQLException("connection reset"));
+        TickCopySink sink = sink();
+        sink.start();
+        sink.onQuote(quote("2330", NOW, 600));
+        sink.stop();
+
+        assertThat(meterRegistry.counter("quote.tick.copy.failures").count()).isEqualTo(3);
+        assertThat(meterRegistry.counter("quote.tick.copy.dropped", "reason", "retries_exhausted").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("quote.tick.copy.rows").count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should drop new ticks instead of blocking when the buffer is full")
+    void shouldDropWhenBufferFull() {
+        properties.setBufferCapacity(2);
+        TickCopySink sink = sink();
+        for (int i = 0; i < 3; i++) {
+            sink.onQuote(quote("2330", NOW.plusSeconds(i), 600));
+        }
+
+        assertThat(sink.pending()).isEqualTo(2);
+        assertThat(meterRegistry.counter("quote.tick.copy.dropped", "reason", "buffer_full").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should drop ticks whose code does not fit the code column without failing the batch")
+    void shouldDropInvalidCodes() {
+        TickCopySink sink = sink();
+        sink.start();
+        sink.onQuote(quote("2330", NOW, 600));
+        sink.onQuote(quote("X".repeat(TickCopySink.MAX_CODE_LENGTH + 1), NOW, 1));
+        sink.onQuote(quote(null, NOW, 2));
+        sink.onQuote(quote("2317", NOW, 105));
+        sink.stop();
+
+        assertThat(decoded()).extracting(TickCopyEncoderTest.Row::code).containsExactly("2330", "2317");
+        assertThat(meterRegistry.counter("quote.tick.copy.dropped", "reason", "invalid_code").count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("quote.tick.copy.failures").count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reject table names that are not plain identifiers")
+    void shouldRejectInvalidTableName() {
+        properties.setTable("ticks; DROP TABLE members");
+
+        assertThatThrownBy(this::sink).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private TickCopySink sink() {
+        return new TickCopySink(dataSource, properties, meterRegistry, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private List<TickCopyEncoderTest.Row> decoded() {
+        List<TickCopyEncoderTest.Row> rows = new ArrayList<>();
+        for (byte[] copy : copies) {
+            rows.addAll(TickCopyEncoderTest.decode(copy, copy.length));
+        }
+        return rows;
+    }
+
+    private static Quote quote(String code, Instant timestamp, double price) {
+        return Quote.builder().code(code).price(price).volume(1_000).timestamp(timestamp).build();
+    }
+}
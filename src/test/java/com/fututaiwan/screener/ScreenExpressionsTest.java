@@ -0,0 +1,98 @@
+package com.fututaiwan.screener;
+
+import com.fututaiwan.quote.Quote;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Screen Expressions Tests")
+class ScreenExpressionsTest {
+
+    private QuoteColumns columns;
+    private int tsmc;
+    private int mediatek;
+    private int unquoted;
+
+    @BeforeEach
+    void setUp() {
+        columns = new QuoteColumns(4);
+        tsmc = columns.append("2330", "台積電");
+        mediatek = columns.append("2454", "聯發科");
+        unquoted = columns.append("2317", "鴻海");
+        columns.update(tsmc, quote("2330", 618, 600, 30_000));
+        columns.update(mediatek, quote("2454", 1_190, 1_200, 4_000));
+    }
+
+    @Test
+    @DisplayName("Should evaluate comparisons joined by && and || with the usual precedence")
+    void shouldEvaluateLogicalOperators() {
+        ScreenExpressions.Condition condition = ScreenExpressions.condition("change_pct > 2 && volume > 5000 || price < 1000");
+
+        assertThat(condition.test(columns, tsmc)).isTrue();
+        assertThat(condition.test(columns, mediatek)).isFalse();
+        assertThat(ScreenExpressions.condition("CHANGE_PCT > 2 and not (volume <= 5000)").test(columns, tsmc)).isTrue();
+        assertThat(ScreenExpressions.condition("!(close == 618)").test(columns, tsmc)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should compute arithmetic between fields with multiplication before addition")
+    void shouldComputeArithmetic() {
+        assertThat(ScreenExpressions.numeric("price * volume / 1000").eval(columns, tsmc)).isEqualTo(618 * 30.0);
+        assertThat(ScreenExpressions.numeric("1 + 2 * 3 - -4").eval(columns, tsmc)).isEqualTo(11);
+        assertThat(ScreenExpressions.numeric("(high - low) / prev_close * 100").eval(columns, tsmc)).isEqualTo((618 - 600) / 600.0 * 100);
+        assertThat(ScreenExpressions.numeric("change").eval(columns, mediatek)).isEqualTo(-10);
+    }
+
+    @Test
+    @DisplayName("Should treat every comparison with a missing value as false")
+    void shouldNotMatchMissingValues() {
+        assertThat(ScreenExpressions.condition("price > 0").test(columns, unquoted)).isFalse();
+        assertThat(ScreenExpressions.condition("price != 0").test(columns, unquoted)).isFalse();
+        assertThat(ScreenExpressions.condition("close > sma20").test(columns, tsmc)).isFalse();
+        assertThat(ScreenExpressions.condition("not price > 0").test(columns, unquoted)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should reject unknown fields, syntax errors and type mismatches")
+    void shouldRejectInvalidExpressions() {
+        assertThatThrownBy(() -> ScreenExpressions.condition("pe_ratio < 15"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unknown field 'pe_ratio'");
+        assertThatThrownBy(() -> ScreenExpressions.condition("price > 3 &&"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ScreenExpressions.condition("(price > 3"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Missing ')'");
+        assertThatThrownBy(() -> ScreenExpressions.condition("price + volume"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("must be a condition");
+        assertThatThrownBy(() -> ScreenExpressions.condition("price > 3 + (volume > 1)"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("numeric operands");
+        assertThatThrownBy(() -> ScreenExpressions.numeric("price > 3"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ScreenExpressions.condition("price ; 3"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unexpected character");
+        assertThatThrownBy(() -> ScreenExpressions.condition(" "))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Quote quote(String code, double price, double previousClose, long volume) {
+        return Quote.builder()
+                .code(code)
+                .price(price)
+                .open(previousClose)
+                .high(price)
+                .low(previousClose)
+                .previousClose(previousClose)
+                .volume(volume)
+                .timestamp(Instant.parse("2025-01-02T01:30:00Z"))
+                .build();
+    }
+}
@@ -0,0 +1,47 @@
+package com.fututaiwan.screener;
+
+import com.fututaiwan.quote.Quote;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Screen Plan Tests")
+class ScreenPlanTest {
+
+    @Test
+    @DisplayName("Should rank like a comparison sort, with ties by row and missing keys last in both directions")
+    void shouldRankLikeComparisonSort() {
+        SplittableRandom random = new SplittableRandom(7);
+        QuoteColumns columns = new QuoteColumns(5_000);
+        for (int i = 0; i < 5_000; i++) {
+            int row = columns.append(String.valueOf(10_000 + i), null);
+            if (i % 10 != 0) {
+                // 少量不同的價格，產生大量相同的排序鍵
+                double previousClose = 100;
+                double price = 90 + random.nextInt(21);
+                columns.update(row, Quote.builder().code(columns.code(row)).price(price).previousClose(previousClose)
+                        .volume(random.nextLong(1_000)).timestamp(Instant.EPOCH).build());
+            }
+        }
+        for (boolean descending : new boolean[]{true, false}) {
+            ScreenPlan plan = ScreenPlan.compile("volume >= 0 || price != 0 || not price != 0", "change_pct", descending);
+            int[] rows = plan.select(columns, Integer.MAX_VALUE);
+            assertThat(rows).hasSize(5_000);
+
+            Comparator<Integer> byKey = Comparator.comparingDouble(row -> columns.get(ScreenerField.CHANGE_PCT, row));
+            Comparator<Integer> expected = Comparator.<Integer, Boolean>comparing(row -> Double.isNaN(columns.get(ScreenerField.CHANGE_PCT, row)))
+                    .thenComparing(descending ? byKey.reversed() : byKey)
+                    .thenComparing(Comparator.naturalOrder());
+            int[] sorted = IntStream.of(rows).boxed().sorted(expected).mapToInt(Integer::intValue).toArray();
+
+            assertThat(plan.rank(columns, rows, Integer.MAX_VALUE)).containsExactly(sorted);
+            assertThat(plan.rank(columns, rows, 1)).containsExactly(sorted);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.fututaiwan.screener;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ScreenerController.class)
+@DisplayName("Screener Controller Tests")
+class ScreenerControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ScreenerService screenerService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("Should run an ad-hoc screen with the query parameters")
+    void shouldScreen() throws Exception {
+        when(screenerService.screen("change_pct > 3 && volume > 5000", "volume", null, 1, 10)).thenReturn(ScreenResponse.builder()
+                .expression("change_pct > 3 && volume > 5000")
+                .sort("volume")
+                .order("desc")
+                .total(11)
+                .page(1)
+                .size(10)
+                .items(List.of(ScreenResponse.Item.builder().code("2330").name("台積電").price(618.0).changePct(3.0).volume(30_000.0).build()))
+                .build());
+
+        mockMvc.perform(get("/api/screener")
+                        .param("expression", "change_pct > 3 && volume > 5000")
+                        .param("sort", "volume")
+                        .param("page", "1")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(11)))
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].code", is("2330")))
+                .andExpect(jsonPath("$.id").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Should return 400 for an invalid expression")
+    void shouldRejectInvalidExpression() throws Exception {
+        when(screenerService.screen(eq("pe < 10"), isNull(), isNull(), anyInt(), anyInt()))
+                .thenThrow(new IllegalArgumentException("Unknown field 'pe'"));
+
+        mockMvc.perform(get("/api/screener").param("expression", "pe < 10"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should save a screen and return 201, or 409 when the limit is reached")
+    void shouldCreateScreen() throws Exception {
+        ScreenRequest request = new ScreenRequest("強勢股", "change_pct > 3", null, null);
+        when(screenerService.createScreen(any(ScreenRequest.class), eq(20)))
+                .thenReturn(ScreenResponse.builder().id(1L).name("強勢股").expression("change_pct > 3").items(List.of()).build())
+                .thenThrow(new IllegalStateException("At most 100 screens can be saved."));
+
+        mockMvc.perform(post("/api/screener/screens")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id", is(1)))
+                .andExpect(jsonPath("$.name", is("強勢股")));
+        mockMvc.perform(post("/api/screener/screens")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @DisplayName("Should return a page of a saved screen, or 404 when it does not exist")
+    void shouldGetScreen() throws Exception {
+        when(screenerService.getScreen(1L, 2, 5)).thenReturn(ScreenResponse.builder().id(1L).total(12).page(2).size(5).items(List.of()).build());
+        when(screenerService.getScreen(eq(9L), anyInt(), anyInt())).thenThrow(new RuntimeException("Screen not found with id 9"));
+
+        mockMvc.perform(get("/api/screener/screens/{id}", 1L).param("page", "2").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(12)));
+        mockMvc.perform(get("/api/screener/screens/{id}", 9L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Should delete a saved screen")
+    void shouldDeleteScreen() throws Exception {
+        doThrow(new RuntimeException("Screen not found with id 9")).when(screenerService).deleteScreen(9L);
+
+        mockMvc.perform(delete("/api/screener/screens/{id}", 1L))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/screener/screens/{id}", 9L))
+                .andExpect(status().isNotFound());
+        verify(screenerService).deleteScreen(1L);
+    }
+}
@@ -0,0 +1,222 @@
+package com.fututaiwan.screener;
+
+import com.fututaiwan.quote.Quote;
+import com.fututaiwan.stock.StockCreatedEvent;
+import com.fututaiwan.stock.StockDeletedEvent;
+import com.fututaiwan.stock.StockUpdatedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Screener Engine Tests")
+class ScreenerEngineTest {
+
+    private static final Instant OPEN = Instant.parse("2025-01-02T01:00:00Z");
+
+    private ScreenerProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private ScreenerEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ScreenerProperties();
+        properties.setInitialCapacity(2);
+        meterRegistry = new SimpleMeterRegistry();
+        engine = new ScreenerEngine(null, properties, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should load the catalog, add rows for unknown codes and name them once the catalog arrives")
+    void shouldLoadCatalog() {
+        engine.onQuote(quote("9999", 10, 10, 100, OPEN));
+        engine.drain();
+        engine.offerCatalog(List.of(new String[]{"2330", "台積電"}, new String[]{"2454", "聯發科"}, new String[]{"9999", "新上市"}));
+        engine.drain();
+
+        QuoteColumns columns = engine.columns();
+        assertThat(columns.size()).isEqualTo(3);
+        assertThat(columns.capacity()).isEqualTo(4);
+        assertThat(columns.code(0)).isEqualTo("9999");
+        assertThat(columns.name(0)).isEqualTo("新上市");
+        assertThat(columns.get(ScreenerField.PRICE, 0)).isEqualTo(10);
+        assertThat(columns.get(ScreenerField.PRICE, 1)).isNaN();
+    }
+
+    @Test
+    @DisplayName("Should drop rows missing from the catalog and ignore quotes for codes outside it once loaded")
+    void shouldIgnoreCodesOutsideCatalog() {
+        engine.onQuote(quote("2330", 618, 600, 30_000, OPEN));
+        engine.onQuote(quote("0000", 99, 90, 1, OPEN));
+        engine.drain();
+        SavedScreen screen = save("not price < 0", "price");
+        engine.drain();
+        assertThat(codes(screen)).containsExactly("2330", "0000");
+
+        engine.offerCatalog(List.<String[]>of(new String[]{"2330", "台積電"}));
+        engine.drain();
+        assertThat(codes(screen)).containsExactly("2330");
+        assertThat(engine.columns().live(1)).isFalse();
+
+        engine.onQuote(quote("0000", 100, 90, 2, OPEN));
+        engine.onQuote(quote("1234", 10, 10, 1, OPEN));
+        assertThat(engine.drain()).isZero();
+        assertThat(engine.columns().size()).isEqualTo(2);
+        assertThat(save("price > 0", "price").plan.select(engine.columns(), properties.getParallelThreshold())).containsExactly(0);
+        assertThat(meterRegistry.get("screener.stocks").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should add, rename and remove rows as stocks are created, updated and deleted")
+    void shouldFollowCatalogChanges() {
+        // 載入前的異動在載入後套用
+        engine.onStockCreated(new StockCreatedEvent(3L, "1101", "台泥"));
+        engine.drain();
+        engine.offerCatalog(List.<String[]>of(new String[]{"2330", "台積電"}, new String[]{"2454", "聯發科"}));
+        engine.drain();
+        SavedScreen screen = save("volume > 0", "volume");
+        engine.onQuote(quote("2330", 618, 600, 30_000, OPEN));
+        engine.onQuote(quote("2454", 1_190, 1_200, 4_000, OPEN));
+        engine.onQuote(quote("1101", 40, 40, 2_000, OPEN));
+        engine.drain();
+        assertThat(codes(screen)).containsExactly("2330", "2454", "1101");
+        assertThat(engine.columns().name(2)).isEqualTo("台泥");
+
+        engine.onStockUpdated(new StockUpdatedEvent(1L, "2330", "2330T", "台積電新"));
+        engine.onStockDeleted(new StockDeletedEvent(2L, "2454"));
+        engine.drain();
+        assertThat(codes(screen)).containsExactly("2330T", "1101");
+        assertThat(engine.columns().name(0)).isEqualTo("台積電新");
+
+        // 舊代碼的報價不再更新任何一列，新代碼的報價更新原本的列
+        engine.onQuote(quote("2330", 700, 600, 40_000, OPEN));
+        engine.onQuote(quote("2454", 1_300, 1_200, 5_000, OPEN));
+        engine.onQuote(quote("2330T", 620, 600, 32_000, OPEN));
+        engine.drain();
+        assertThat(engine.columns().get(ScreenerField.PRICE, 0)).isEqualTo(620);
+        assertThat(engine.columns().get(ScreenerField.PRICE, 1)).isNaN();
+        assertThat(codes(screen)).containsExactly("2330T", "1101");
+
+        engine.onStockCreated(new StockCreatedEvent(4L, "2454", "聯發科"));
+        engine.drain();
+        engine.onQuote(quote("2454", 1_250, 1_200, 3_000, OPEN));
+        engine.drain();
+        assertThat(codes(screen)).containsExactly("2330T", "2454", "1101");
+        assertThat(engine.columns().size()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Should coalesce ticks of the same stock queued before the engine catches up")
+    void shouldCoalesceTicks() {
+        engine.onQuote(quote("2330", 600, 600, 100, OPEN));
+        engine.onQuote(quote("2330", 612, 600, 200, OPEN));
+
+        assertThat(engine.drain()).isEqualTo(1);
+        QuoteColumns columns = engine.columns();
+        assertThat(columns.get(ScreenerField.PRICE, 0)).isEqualTo(612);
+        assertThat(columns.get(ScreenerField.CHANGE_PCT, 0)).isEqualTo(2);
+        assertThat(columns.get(ScreenerField.VOLUME, 0)).isEqualTo(200);
+        assertThat(meterRegistry.timer("screener.refresh").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should average one-minute closes, counting the last price of the current minute")
+    void shouldComputeMovingAverages() {
+        for (int minute = 0; minute < 20; minute++) {
+            engine.onQuote(quote("2330", 100 + minute, 100, 100, OPEN.plusSeconds(minute * 60L)));
+            engine.drain();
+            if (minute == 3) {
+                assertThat(engine.columns().get(ScreenerField.SMA5, 0)).isNaN();
+            }
+        }
+        QuoteColumns columns = engine.columns();
+        assertThat(columns.get(ScreenerField.SMA5, 0)).isEqualTo(117); // 115..119
+        assertThat(columns.get(ScreenerField.SMA20, 0)).isEqualTo(109.5); // 100..119
+        assertThat(columns.get(ScreenerField.SMA60, 0)).isNaN();
+
+        // 同一分鐘內的新報價改寫目前這根 K 線
+        engine.onQuote(quote("2330", 124, 100, 100, OPEN.plusSeconds(19 * 60L + 30)));
+        engine.drain();
+        assertThat(engine.columns().get(ScreenerField.SMA5, 0)).isEqualTo(118);
+    }
+
+    @Test
+    @DisplayName("Should keep saved screens up to date by re-testing only the stocks that ticked")
+    void shouldMaintainSavedScreens() {
+        engine.onQuote(quote("2330", 618, 600, 30_000, OPEN));
+        engine.onQuote(quote("2454", 1_190, 1_200, 4_000, OPEN));
+        engine.onQuote(quote("2317", 105, 100, 9_000, OPEN));
+        engine.drain();
+        SavedScreen screen = save("change_pct > 2", "change_pct");
+        assertThat(screen.version).isZero();
+        engine.drain();
+        assertThat(codes(screen)).containsExactly("2317", "2330");
+
+        engine.onQuote(quote("2454", 1_236, 1_200, 5_000, OPEN));
+        engine.onQuote(quote("2317", 101, 100, 9_500, OPEN));
+        engine.drain();
+        assertThat(codes(screen)).containsExactly("2330", "2454");
+
+        long version = screen.version;
+        engine.onQuote(quote("2317", 100, 100, 9_600, OPEN));
+        engine.drain();
+        assertThat(screen.version).isEqualTo(version); // 不符合的股票跳價不影響結果
+
+        engine.onQuote(quote("2330", 660, 600, 31_000, OPEN));
+        engine.drain();
+        assertThat(screen.version).isEqualTo(version + 1);
+        assertThat(codes(screen)).containsExactly("2330", "2454");
+
+        assertThat(engine.unregister(screen.id)).isTrue();
+        assertThat(engine.getScreen(screen.id)).isEmpty();
+        assertThat(engine.unregister(screen.id)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should keep matches across growth of the columns")
+    void shouldKeepMatchesAcrossGrowth() {
+        SavedScreen screen = save("volume >= 1000", "volume");
+        engine.drain();
+        for (int i = 0; i < 10; i++) {
+            engine.onQuote(quote(String.valueOf(1_000 + i), 10, 10, 1_000L * i, OPEN));
+        }
+        engine.drain();
+
+        assertThat(engine.columns().capacity()).isEqualTo(16);
+        assertThat(screen.rows()).hasSize(9);
+        assertThat(codes(screen).get(0)).isEqualTo("1009");
+    }
+
+    private SavedScreen save(String expression, String sort) {
+        SavedScreen screen = new SavedScreen((long) engine.screenCount() + 1, "test", ScreenPlan.compile(expression, sort, true));
+        engine.register(screen);
+        return screen;
+    }
+
+    private List<String> codes(SavedScreen screen) {
+        List<String> codes = new ArrayList<>();
+        for (int row : screen.ranking(engine.columns(), properties.getParallelThreshold())) {
+            codes.add(engine.columns().code(row));
+        }
+        return codes;
+    }
+
+    private static Quote quote(String code, double price, double previousClose, long volume, Instant timestamp) {
+        return Quote.builder()
+                .code(code)
+                .price(price)
+                .open(previousClose)
+                .high(price)
+                .low(price)
+                .previousClose(previousClose)
+                .volume(volume)
+                .timestamp(timestamp)
+                .build();
+    }
+}
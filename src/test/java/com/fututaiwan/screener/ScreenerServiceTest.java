@@ -0,0 +1,129 @@
+package com.fututaiwan.screener;
+
+import com.fututaiwan.quote.Quote;
+import com.fututaiwan.stock.StockCreatedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Screener Service Tests")
+class ScreenerServiceTest {
+
+    private ScreenerProperties properties;
+    private ScreenerEngine engine;
+    private ScreenerService service;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ScreenerProperties();
+        properties.setMaxSavedScreens(2);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        engine = new ScreenerEngine(null, properties, meterRegistry);
+        service = new ScreenerService(engine, properties, meterRegistry);
+        engine.offerCatalog(List.of(new String[]{"2317", "鴻海"}, new String[]{"2330", "台積電"},
+                new String[]{"2454", "聯發科"}, new String[]{"2603", "長榮"}));
+        engine.onQuote(quote("2317", 105, 100, 9_000));
+        engine.onQuote(quote("2330", 618, 600, 30_000));
+        engine.onQuote(quote("2454", 1_190, 1_200, 4_000));
+        engine.onQuote(quote("2603", 208, 200, 60_000));
+        engine.drain();
+    }
+
+    @Test
+    @DisplayName("Should screen the whole market and return a ranked page")
+    void shouldScreenAdHoc() {
+        ScreenResponse response = service.screen("change_pct > 2 && volume > 5000", "volume", "desc", 0, 2);
+
+        assertThat(response.getTotal()).isEqualTo(3);
+        assertThat(response.getOrder()).isEqualTo("desc");
+        assertThat(response.getItems()).extracting(ScreenResponse.Item::getCode).containsExactly("2603", "2330");
+        assertThat(response.getItems().get(1).getName()).isEqualTo("台積電");
+        assertThat(response.getItems().get(1).getChangePct()).isEqualTo(3.0);
+        assertThat(response.getItems().get(1).getSortValue()).isEqualTo(30_000.0);
+
+        ScreenResponse second = service.screen("change_pct > 2 && volume > 5000", "volume", "asc", 1, 2);
+        assertThat(second.getItems()).extracting(ScreenResponse.Item::getCode).containsExactly("2603");
+    }
+
+    @Test
+    @DisplayName("Should rank by change percent by default and put missing sort values last")
+    void shouldRankMissingValuesLast() {
+        // 目錄載入後只接受目錄中的股票，先新增再送報價
+        engine.onStockCreated(new StockCreatedEvent(9L, "9999", "新上市"));
+        engine.drain();
+        engine.onQuote(Quote.builder().code("9999").price(50).volume(100).timestamp(Instant.now()).build());
+        engine.drain();
+
+        ScreenResponse response = service.screen("price > 0", null, null, 0, 20);
+
+        assertThat(response.getSort()).isEqualTo("change_pct");
+        assertThat(response.getItems()).extracting(ScreenResponse.Item::getCode)
+                .containsExactly("2317", "2603", "2330", "2454", "9999");
+        assertThat(response.getItems().get(4).getChangePct()).isNull();
+        assertThat(response.getItems().get(4).getName()).isEqualTo("新上市");
+    }
+
+    @Test
+    @DisplayName("Should reject invalid expressions, orders and page sizes")
+    void shouldRejectInvalidRequests() {
+        assertThatThrownBy(() -> service.screen("pe < 10", null, null, 0, 20)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.screen("price > 0", "price > 0", null, 0, 20)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.screen("price > 0", null, "up", 0, 20)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.screen("price > 0", null, null, -1, 20)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.screen("price > 0", null, null, 0, 201)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should save a screen, serve it before and after the engine evaluates it, and delete it")
+    void shouldManageSavedScreens() {
+        ScreenResponse created = service.createScreen(new ScreenRequest("強勢股", "change_pct > 2", null, null), 20);
+        assertThat(created.getId()).isEqualTo(1L);
+        assertThat(created.getItems()).extracting(ScreenResponse.Item::getCode).containsExactly("2317", "2603", "2330");
+
+        engine.drain();
+        engine.onQuote(quote("2454", 1_260, 1_200, 5_000));
+        engine.drain();
+
+        ScreenResponse current = service.getScreen(1L, 0, 1);
+        assertThat(current.getName()).isEqualTo("強勢股");
+        assertThat(current.getTotal()).isEqualTo(4);
+        assertThat(current.getItems()).extracting(ScreenResponse.Item::getCode).containsExactly("2317");
+        assertThat(service.getScreens()).extracting(ScreenResponse::getTotal).containsExactly(4);
+
+        service.deleteScreen(1L);
+        assertThatThrownBy(() -> service.getScreen(1L, 0, 20)).isInstanceOf(RuntimeException.class);
+        assertThatThrownBy(() -> service.deleteScreen(1L)).isInstanceOf(RuntimeException.class);
+    }
+
+    @Test
+    @DisplayName("Should refuse to save more screens than the configured limit")
+    void shouldLimitSavedScreens() {
+        service.createScreen(new ScreenRequest("a", "price > 0", null, null), 20);
+        service.createScreen(new ScreenRequest("b", "volume > 0", null, null), 20);
+
+        assertThatThrownBy(() -> service.createScreen(new ScreenRequest("c", "price > 0", null, null), 20))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> service.createScreen(new ScreenRequest(" ", "price > 0", null, null), 20))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Quote quote(String code, double price, double previousClose, long volume) {
+        return Quote.builder()
+                .code(code)
+                .price(price)
+                .open(previousClose)
+                .high(price)
+                .low(previousClose)
+                .previousClose(previousClose)
+                .volume(volume)
+                .timestamp(Instant.parse("2025-01-02T01:30:00Z"))
+                .build();
+    }
+}
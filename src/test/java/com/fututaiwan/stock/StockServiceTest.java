@@ -1,12 +1,19 @@
 package com.fututaiwan.stock;
 
+import com.fututaiwan.common.ExistenceFilterProperties;
+import com.fututaiwan.config.EntityCacheInvalidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.util.Arrays;
 import java.util.List;
@@ -24,6 +31,16 @@ class StockServiceTest {
     @Mock
     private StockRepository stockRepository;
 
+    @Spy
+    private StockCodeFilter stockCodeFilter = new StockCodeFilter(mock(JdbcTemplate.class),
+            new ExistenceFilterProperties(), new SimpleMeterRegistry());
+
+    @Mock
+    private EntityCacheInvalidator entityCacheInvalidator;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private StockService stockService;
 
@@ -39,13 +56,13 @@ class StockServiceTest {
     @Test
     @DisplayName("Should return all stocks")
     void shouldReturnAllStocks() {
-        when(stockRepository.findAll()).thenReturn(Arrays.asList(stock1, stock2));
+        when(stockRepository.findAllUnmanaged()).thenReturn(Arrays.asList(stock1, stock2));
 
         List<Stock> stocks = stockService.getAllStocks();
 
         assertThat(stocks).hasSize(2);
         assertThat(stocks).containsExactly(stock1, stock2);
-        verify(stockRepository, times(1)).findAll();
+        verify(stockRepository, times(1)).findAllUnmanaged();
     }
 
     @Test
@@ -96,6 +113,8 @@ class StockServiceTest {
         assertThat(createdStock.getCode()).isEqualTo("1101");
         verify(stockRepository, times(1)).findByCode("1101");
         verify(stockRepository, times(1)).save(newStock);
+        verify(entityCacheInvalidator, times(1)).stocksCreated();
+        verify(eventPublisher, times(1)).publishEvent(new StockCreatedEvent(3L, "1101", "台泥"));
     }
 
     @Test
@@ -128,6 +147,18 @@ class StockServiceTest {
         verify(stockRepository, times(1)).save(any(Stock.class));
     }
 
+    @Test
+    @DisplayName("Should publish the previous and new code when a stock is updated")
+    void shouldPublishStockUpdatedEvent() {
+        when(stockRepository.findById(1L)).thenReturn(Optional.of(stock1));
+        when(stockRepository.save(any(Stock.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        stockService.updateStock(1L, Stock.builder().code("2331").name("台積電新").build());
+
+        verify(entityCacheInvalidator, times(1)).stockChanged(1L);
+        verify(eventPublisher, times(1)).publishEvent(new StockUpdatedEvent(1L, "2330", "2331", "台積電新"));
+    }
+
     @Test
     @DisplayName("Should throw RuntimeException when updating non-existent stock")
     void shouldThrowExceptionWhenUpdatingNonExistentStock() {
@@ -158,22 +189,79 @@ class StockServiceTest {
     @Test
     @DisplayName("Should delete an existing stock")
     void shouldDeleteExistingStock() {
-        when(stockRepository.existsById(1L)).thenReturn(true);
+        when(stockRepository.findById(1L)).thenReturn(Optional.of(stock1));
         doNothing().when(stockRepository).deleteById(1L);
 
         stockService.deleteStock(1L);
 
-        verify(stockRepository, times(1)).existsById(1L);
-        verify(stockRepository, times(1)).deleteById(1L);
+        // 事件先於刪除發布，同步監聽端仍查得到群組成分股
+        InOrder inOrder = inOrder(eventPublisher, stockRepository);
+        inOrder.verify(eventPublisher, times(1)).publishEvent(new StockDeletedEvent(1L, stock1.getCode()));
+        inOrder.verify(stockRepository, times(1)).deleteById(1L);
+        verify(entityCacheInvalidator, times(1)).stockDeleted(1L);
     }
 
     @Test
     @DisplayName("Should throw RuntimeException when deleting non-existent stock")
     void shouldThrowExceptionWhenDeletingNonExistentStock() {
-        when(stockRepository.existsById(99L)).thenReturn(false);
+        when(stockRepository.findById(99L)).thenReturn(Optional.empty());
 
         assertThrows(RuntimeException.class, () -> stockService.deleteStock(99L));
-        verify(stockRepository, times(1)).existsById(99L);
         verify(stockRepository, never()).deleteById(anyLong());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    @DisplayName("Should skip findByCode when the code filter rules out a duplicate")
+    void shouldSkipFindByCodeForNewCode() {
+        stockCodeFilter.load();
+        Stock newStock = Stock.builder().code("2317").name("鴻海").build();
+        when(stockRepository.save(any(Stock.class))).thenReturn(newStock);
+
+        stockService.createStock(newStock);
+
+        verify(stockRepository, never()).findByCode(any());
+        assertThat(stockCodeFilter.mightContain("2317")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should persist stocks in bulk without existence queries when the filter rules out duplicates")
+    void shouldCreateStocksInBulk() {
+        stockCodeFilter.load();
+        List<Stock> newStocks = List.of(Stock.builder().code("2317").name("鴻海").build(),
+                Stock.builder().code("2412").name("中華電").build());
+        when(stockRepository.persistAll(newStocks)).thenReturn(newStocks);
+
+        List<Stock> createdStocks = stockService.createStocks(newStocks);
+
+        assertThat(createdStocks).containsExactlyElementsOf(newStocks);
+        verify(stockRepository, never()).findExistingCodes(any());
+        assertThat(stockCodeFilter.mightContain("2317")).isTrue();
+        assertThat(stockCodeFilter.mightContain("2412")).isTrue();
+        verify(entityCacheInvalidator, times(1)).stocksCreated();
+        verify(eventPublisher, times(1)).publishEvent(new StockCreatedEvent(null, "2317", "鴻海"));
+        verify(eventPublisher, times(1)).publishEvent(new StockCreatedEvent(null, "2412", "中華電"));
+    }
+
+    @Test
+    @DisplayName("Should reject the whole batch if any stock code already exists")
+    void shouldRejectBulkCreateIfStockCodeExists() {
+        when(stockRepository.findExistingCodes(any())).thenReturn(List.of("2330"));
+        List<Stock> newStocks = List.of(Stock.builder().code("2317").name("鴻海").build(),
+                Stock.builder().code("2330").name("重複台積電").build());
+
+        assertThrows(IllegalArgumentException.class, () -> stockService.createStocks(newStocks));
+        verify(stockRepository, never()).persistAll(any());
+    }
+
+    @Test
+    @DisplayName("Should reject a batch that repeats a stock code")
+    void shouldRejectBulkCreateWithRepeatedCode() {
+        List<Stock> newStocks = List.of(Stock.builder().code("2317").name("鴻海").build(),
+                Stock.builder().code("2317").name("鴻海精密").build());
+
+        assertThrows(IllegalArgumentException.class, () -> stockService.createStocks(newStocks));
+        verify(stockRepository, never()).findExistingCodes(any());
+        verify(stockRepository, never()).persistAll(any());
     }
 }
@@ -2,6 +2,7 @@ package com.fututaiwan.stockgroup;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fututaiwan.member.Member;
+import com.fututaiwan.quote.Quote;
 import com.fututaiwan.stock.Stock;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -37,6 +38,9 @@ class StockGroupControllerTest {
     @MockBean
     private StockGroupService stockGroupService;
 
+    @MockBean
+    private WatchlistService watchlistService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -356,4 +360,75 @@ class StockGroupControllerTest {
 
         verify(stockGroupService, times(1)).getStockGroupsByMemberId(99L);
     }
+
+    @Test
+    @DisplayName("GET /api/stock-groups/member/{memberId}/watchlist should return groups, stocks and quotes")
+    void getWatchlistByMemberId_shouldReturnWatchlist() throws Exception {
+        WatchlistResponse watchlist = WatchlistResponse.builder()
+                .memberId(1L)
+                .version(3L)
+                .quoteEpoch(7L)
+                .groups(List.of(WatchlistResponse.Group.builder()
+                        .id(1L)
+                        .name("My Tech Stocks")
+                        .stocks(List.of(WatchlistResponse.Item.builder()
+                                .id(101L)
+                                .code("2330")
+                                .name("台積電")
+                                .quote(Quote.builder().code("2330").price(600.0).build())
+                                .build()))
+                        .build()))
+                .build();
+        when(watchlistService.getWatchlist(1L)).thenReturn(watchlist);
+
+        mockMvc.perform(get("/api/stock-groups/member/{memberId}/watchlist", 1L)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version", is(3)))
+                .andExpect(jsonPath("$.groups", hasSize(1)))
+                .andExpect(jsonPath("$.groups[0].stocks[0].code", is("2330")))
+                .andExpect(jsonPath("$.groups[0].stocks[0].quote.price", is(600.0)));
+
+        verify(watchlistService, times(1)).getWatchlist(1L);
+    }
+
+    @Test
+    @DisplayName("GET /api/stock-groups/member/{memberId}/watchlist should return 404 if member not found")
+    void getWatchlistByMemberId_shouldReturn404IfMemberNotFound() throws Exception {
+        when(watchlistService.getWatchlist(99L)).thenThrow(new RuntimeException("Member not found"));
+
+        mockMvc.perform(get("/api/stock-groups/member/{memberId}/watchlist", 99L)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("GET /api/stock-groups/member/{memberId}/sync should return changes since client version")
+    void syncWatchlist_shouldReturnDelta() throws Exception {
+        WatchlistSyncResponse sync = WatchlistSyncResponse.builder()
+                .epoch(42L)
+                .version(5L)
+                .reset(false)
+                .changes(List.of(WatchlistChange.builder()
+                        .version(5L)
+                        .type(WatchlistChangeType.STOCK_ADDED)
+                        .groupId(1L)
+                        .stockId(101L)
+                        .stockCode("2330")
+                        .build()))
+                .build();
+        when(watchlistService.sync(1L, 42L, 4L)).thenReturn(sync);
+
+        mockMvc.perform(get("/api/stock-groups/member/{memberId}/sync", 1L)
+                        .param("epoch", "42")
+                        .param("since", "4")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reset", is(false)))
+                .andExpect(jsonPath("$.version", is(5)))
+                .andExpect(jsonPath("$.changes[0].type", is("STOCK_ADDED")))
+                .andExpect(jsonPath("$.changes[0].stockCode", is("2330")));
+
+        verify(watchlistService, times(1)).sync(1L, 42L, 4L);
+    }
 }
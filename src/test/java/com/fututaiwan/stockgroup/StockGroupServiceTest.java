@@ -1,16 +1,23 @@
 package com.fututaiwan.stockgroup;
 
+import com.fututaiwan.common.ExistenceFilterProperties;
+import com.fututaiwan.config.EntityCacheInvalidator;
 import com.fututaiwan.member.Member;
 import com.fututaiwan.member.MemberService;
 import com.fututaiwan.stock.Stock;
+import com.fututaiwan.stock.StockDeletedEvent;
 import com.fututaiwan.stock.StockService;
+import com.fututaiwan.stock.StockUpdatedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.time.LocalDate;
 import java.util.Arrays;
@@ -20,6 +27,7 @@ import java.util.Optional;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -39,6 +47,16 @@ class StockGroupServiceTest {
     @Mock
     private MemberService memberService;
 
+    @Spy
+    private WatchlistVersions watchlistVersions = new WatchlistVersions(new WatchlistProperties());
+
+    @Spy
+    private StockGroupNameFilter stockGroupNameFilter = new StockGroupNameFilter(mock(JdbcTemplate.class),
+            new ExistenceFilterProperties(), new SimpleMeterRegistry());
+
+    @Mock
+    private EntityCacheInvalidator entityCacheInvalidator;
+
     @InjectMocks
     private StockGroupService stockGroupService;
 
@@ -269,6 +287,7 @@ class StockGroupServiceTest {
         verify(stockGroupRepository, times(1)).findById(1L);
         verify(stockService, times(1)).getStockById(102L);
         verify(stockGroupRepository, times(1)).save(any(StockGroup.class));
+        verify(entityCacheInvalidator, times(1)).groupStocksChanged(1L);
     }
 
     @Test
@@ -321,4 +340,62 @@ class StockGroupServiceTest {
         verify(stockService, times(1)).getStockById(101L);
         verify(stockGroupRepository, never()).save(any(StockGroup.class));
     }
+
+    @Test
+    @DisplayName("Should bump member watchlist version when stock is added to group")
+    void shouldBumpWatchlistVersionWhenStockAdded() {
+        when(stockGroupRepository.findById(1L)).thenReturn(Optional.of(stockGroup1));
+        when(stockService.getStockById(102L)).thenReturn(Optional.of(stock2));
+        when(stockGroupRepository.save(any(StockGroup.class))).thenReturn(stockGroup1);
+
+        long before = watchlistVersions.current(1L);
+        stockGroupService.addStockToGroup(1L, 102L);
+
+        assertThat(watchlistVersions.current(1L)).isEqualTo(before + 1);
+    }
+
+    @Test
+    @DisplayName("Should persist stock groups in bulk for one member and record each as a watchlist change")
+    void shouldCreateStockGroupsInBulk() {
+        stockGroupNameFilter.load();
+        List<StockGroup> newStockGroups = List.of(StockGroup.builder().id(3L).name("Group A").build(),
+                StockGroup.builder().id(4L).name("Group B").build());
+        when(memberService.getMemberById(1L)).thenReturn(Optional.of(member1));
+        when(stockGroupRepository.persistAll(newStockGroups)).thenReturn(newStockGroups);
+        long before = watchlistVersions.current(1L);
+
+        List<StockGroup> createdGroups = stockGroupService.createStockGroups(newStockGroups, 1L);
+
+        assertThat(createdGroups).extracting(StockGroup::getMember).containsOnly(member1);
+        assertThat(watchlistVersions.current(1L)).isEqualTo(before + 2);
+        verify(stockGroupRepository, never()).findExistingNames(any());
+    }
+
+    @Test
+    @DisplayName("Should reject the whole batch if any stock group name already exists")
+    void shouldRejectBulkCreateIfStockGroupNameExists() {
+        when(stockGroupRepository.findExistingNames(any())).thenReturn(List.of("My Tech Stocks"));
+        List<StockGroup> newStockGroups = List.of(StockGroup.builder().name("Group A").build(),
+                StockGroup.builder().name("My Tech Stocks").build());
+
+        assertThrows(IllegalArgumentException.class, () -> stockGroupService.createStockGroups(newStockGroups, 1L));
+        verify(memberService, never()).getMemberById(anyLong());
+        verify(stockGroupRepository, never()).persistAll(any());
+    }
+
+    @Test
+    @DisplayName("Should bump the watchlist version of members holding a renamed or deleted stock")
+    void shouldRecordStockChangesForHolders() {
+        when(stockGroupRepository.findByStockId(101L)).thenReturn(List.of(stockGroup1));
+        long before = watchlistVersions.current(1L);
+
+        stockGroupService.onStockUpdated(new StockUpdatedEvent(101L, "2330", "2331", "台積電新"));
+        stockGroupService.onStockDeleted(new StockDeletedEvent(101L, "2331"));
+
+        assertThat(watchlistVersions.current(1L)).isEqualTo(before + 2);
+        // 刪除取代同一檔股票之前的異動，客戶端只需套用最終狀態
+        assertThat(watchlistVersions.changesSince(1L, watchlistVersions.getEpoch(), before).orElseThrow())
+                .extracting(WatchlistChange::getType, WatchlistChange::getStockId, WatchlistChange::getStockCode)
+                .containsExactly(tuple(WatchlistChangeType.STOCK_REMOVED, 101L, "2331"));
+    }
 }
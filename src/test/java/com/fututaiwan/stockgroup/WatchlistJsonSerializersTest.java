@@ -0,0 +1,95 @@
+package com.fututaiwan.stockgroup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fututaiwan.member.Member;
+import com.fututaiwan.quote.Quote;
+import com.fututaiwan.stock.Stock;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JsonTest
+@DisplayName("Streaming JSON Serializer Tests")
+class WatchlistJsonSerializersTest {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // 未註冊 @JsonComponent 的 ObjectMapper，代表原本的 BeanSerializer 輸出
+    private final ObjectMapper defaultMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @Test
+    @DisplayName("Should write watchlist responses with the same fields as the default serializer")
+    void shouldMatchDefaultWatchlistOutput() throws Exception {
+        WatchlistResponse response = WatchlistResponse.builder()
+                .memberId(1L)
+                .version(3)
+                .quoteEpoch(9)
+                .groups(List.of(WatchlistResponse.Group.builder()
+                        .id(1L)
+                        .name("My Tech Stocks")
+                        .stocks(List.of(
+                                WatchlistResponse.Item.builder().id(101L).code("2330").name("台積電")
+                                        .quote(Quote.builder().code("2330").price(600.5).open(598).high(605).low(597.5)
+                                                .previousClose(599).volume(12_345).timestamp(Instant.parse("2024-06-03T05:30:00.123Z")).build())
+                                        .build(),
+                                WatchlistResponse.Item.builder().id(102L).code("2454").name("聯發科").build()))
+                        .build()))
+                .build();
+
+        assertThat(tree(objectMapper, response)).isEqualTo(tree(defaultMapper, response));
+    }
+
+    @Test
+    @DisplayName("Should write sync responses with the same fields as the default serializer")
+    void shouldMatchDefaultSyncOutput() throws Exception {
+        WatchlistSyncResponse response = WatchlistSyncResponse.builder()
+                .epoch(2)
+                .version(5)
+                .changes(List.of(
+                        WatchlistChange.builder().version(4).type(WatchlistChangeType.GROUP_ADDED).groupId(1L).name("New").build(),
+                        WatchlistChange.builder().version(5).type(WatchlistChangeType.STOCK_ADDED).groupId(1L).stockId(101L).stockCode("2330").build()))
+                .build();
+
+        assertThat(tree(objectMapper, response)).isEqualTo(tree(defaultMapper, response));
+    }
+
+    @Test
+    @DisplayName("Should write a stock group's member as its id only, even when the member links back to the group")
+    void shouldNotRecurseThroughMember() throws Exception {
+        Stock stock = Stock.builder().id(101L).code("2330").name("台積電").build();
+        Member member = Member.builder().id(1L).name("Member One").passwordHash("hash")
+                .dateOfBirth(LocalDate.of(1990, 1, 1)).stockGroups(new HashSet<>()).build();
+        StockGroup stockGroup = StockGroup.builder().id(1L).name("My Tech Stocks").member(member)
+                .stocks(new HashSet<>(Set.of(stock))).build();
+        member.getStockGroups().add(stockGroup);
+
+        JsonNode group = objectMapper.readTree(objectMapper.writeValueAsString(List.of(stockGroup))).get(0);
+        JsonNode memberJson = objectMapper.readTree(objectMapper.writeValueAsString(member));
+
+        assertThat(group.get("member").properties()).hasSize(1);
+        assertThat(group.get("member").get("id").asLong()).isEqualTo(1L);
+        assertThat(group.get("stocks").get(0).get("code").asText()).isEqualTo("2330");
+        assertThat(memberJson.has("stockGroups")).isFalse();
+        assertThat(memberJson.has("passwordHash")).isFalse();
+        assertThat(memberJson.get("dateOfBirth").asText()).isEqualTo("1990-01-01");
+    }
+
+    private static JsonNode tree(ObjectMapper mapper, Object value) throws Exception {
+        return mapper.readTree(mapper.writeValueAsBytes(value));
+    }
+}
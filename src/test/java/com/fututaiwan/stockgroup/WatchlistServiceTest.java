@@ -0,0 +1,208 @@
+package com.fututaiwan.stockgroup;
+
+import com.fututaiwan.member.Member;
+import com.fututaiwan.member.MemberService;
+import com.fututaiwan.quote.Quote;
+import com.fututaiwan.quote.QuoteInterest;
+import com.fututaiwan.quote.QuoteService;
+import com.fututaiwan.stock.Stock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Watchlist Service Tests")
+class WatchlistServiceTest {
+
+    @Mock
+    private StockGroupRepository stockGroupRepository;
+
+    @Mock
+    private MemberService memberService;
+
+    @Spy
+    private QuoteService quoteService = new QuoteService();
+
+    @Spy
+    private WatchlistVersions watchlistVersions = new WatchlistVersions(new WatchlistProperties());
+
+    @Spy
+    private WatchlistProperties watchlistProperties = new WatchlistProperties();
+
+    @Spy
+    private QuoteInterest quoteInterest = new QuoteInterest();
+
+    @InjectMocks
+    private WatchlistService watchlistService;
+
+    private Member member1;
+    private StockGroup stockGroup1;
+
+    @BeforeEach
+    void setUp() {
+        member1 = Member.builder().id(1L).name("Member One").email("member1@example.com").phoneNumber("0911111111").nationalIdNumber("A111111111").passwordHash("hash").build();
+        Stock stock1 = Stock.builder().id(101L).code("2330").name("台積電").build();
+        Stock stock2 = Stock.builder().id(102L).code("2454").name("聯發科").build();
+
+        stockGroup1 = StockGroup.builder()
+                .id(1L)
+                .name("My Tech Stocks")
+                .description("My favorite tech stocks")
+                .member(member1)
+                .stocks(new HashSet<>(Set.of(stock1, stock2)))
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should assemble groups, stocks and latest quotes")
+    void shouldAssembleWatchlist() {
+        when(memberService.getMemberById(1L)).thenReturn(Optional.of(member1));
+        when(stockGroupRepository.findByMember_Id(1L)).thenReturn(List.of(stockGroup1));
+        quoteService.updateQuote(Quote.builder().code("2330").price(600.0).build());
+
+        WatchlistResponse watchlist = watchlistService.getWatchlist(1L);
+
+        assertThat(watchlist.getMemberId()).isEqualTo(1L);
+        assertThat(watchlist.getGroups()).hasSize(1);
+        assertThat(watchlist.getGroups().get(0).getStocks()).extracting(WatchlistResponse.Item::getCode)
+                .containsExactly("2330", "2454");
+        assertThat(watchlist.getGroups().get(0).getStocks().get(0).getQuote().getPrice()).isEqualTo(600.0);
+        assertThat(watchlist.getGroups().get(0).getStocks().get(1).getQuote()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should reuse the cached membership while the watchlist version is unchanged")
+    void shouldServeCachedWatchlist() {
+        when(memberService.getMemberById(1L)).thenReturn(Optional.of(member1));
+        when(stockGroupRepository.findByMember_Id(1L)).thenReturn(List.of(stockGroup1));
+
+        WatchlistResponse first = watchlistService.getWatchlist(1L);
+        WatchlistResponse second = watchlistService.getWatchlist(1L);
+
+        assertThat(second.getGroups()).isEqualTo(first.getGroups());
+        verify(stockGroupRepository, times(1)).findByMember_Id(1L);
+    }
+
+    @Test
+    @DisplayName("Should register the watched stock codes as quote interest on every read")
+    void shouldRegisterQuoteInterest() {
+        when(memberService.getMemberById(1L)).thenReturn(Optional.of(member1));
+        when(stockGroupRepository.findByMember_Id(1L)).thenReturn(List.of(stockGroup1));
+
+        watchlistService.getWatchlist(1L);
+        watchlistService.getWatchlist(1L);
+
+        assertThat(quoteInterest.activeCodes()).containsExactlyInAnyOrder("2330", "2454");
+        verify(quoteInterest, times(2)).touch(eq(1L), anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should refresh quotes without reloading membership when quote epoch changes")
+    void shouldRefreshQuotesWithoutReloadingMembership() {
+        when(memberService.getMemberById(1L)).thenReturn(Optional.of(member1));
+        when(stockGroupRepository.findByMember_Id(1L)).thenReturn(List.of(stockGroup1));
+
+        watchlistService.getWatchlist(1L);
+        quoteService.updateQuote(Quote.builder().code("2454").price(1200.0).build());
+        WatchlistResponse refreshed = watchlistService.getWatchlist(1L);
+
+        assertThat(refreshed.getGroups().get(0).getStocks().get(1).getQuote().getPrice()).isEqualTo(1200.0);
+        verify(stockGroupRepository, times(1)).findByMember_Id(1L);
+    }
+
+    @Test
+    @DisplayName("Should reload membership after watchlist version is bumped")
+    void shouldReloadMembershipAfterVersionBump() {
+        when(memberService.getMemberById(1L)).thenReturn(Optional.of(member1));
+        when(stockGroupRepository.findByMember_Id(1L)).thenReturn(List.of(stockGroup1));
+
+        watchlistService.getWatchlist(1L);
+        watchlistVersions.record(1L, WatchlistChange.builder().type(WatchlistChangeType.GROUP_UPDATED).groupId(1L).build());
+        WatchlistResponse reloaded = watchlistService.getWatchlist(1L);
+
+        assertThat(reloaded.getVersion()).isEqualTo(1L);
+        verify(stockGroupRepository, times(2)).findByMember_Id(1L);
+    }
+
+    @Test
+    @DisplayName("Should show a renamed stock once the stock change bumps the watchlist version")
+    void shouldReloadRenamedStock() {
+        when(memberService.getMemberById(1L)).thenReturn(Optional.of(member1));
+        when(stockGroupRepository.findByMember_Id(1L)).thenReturn(List.of(stockGroup1));
+        watchlistService.getWatchlist(1L);
+
+        Stock renamed = Stock.builder().id(102L).code("2455").name("聯發科新").build();
+        stockGroup1.setStocks(new HashSet<>(Set.of(Stock.builder().id(101L).code("2330").name("台積電").build(), renamed)));
+        // StockGroupService.onStockUpdated 記錄的異動
+        watchlistVersions.record(1L, WatchlistChange.builder().type(WatchlistChangeType.STOCK_ADDED).groupId(1L).stockId(102L).stockCode("2455").build());
+        WatchlistResponse reloaded = watchlistService.getWatchlist(1L);
+
+        assertThat(reloaded.getGroups().get(0).getStocks()).extracting(WatchlistResponse.Item::getCode)
+                .containsExactly("2330", "2455");
+        assertThat(reloaded.getGroups().get(0).getStocks().get(1).getName()).isEqualTo("聯發科新");
+        verify(stockGroupRepository, times(2)).findByMember_Id(1L);
+    }
+
+    @Test
+    @DisplayName("Should throw RuntimeException if member not found")
+    void shouldThrowExceptionIfMemberNotFound() {
+        when(memberService.getMemberById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> watchlistService.getWatchlist(99L));
+        verify(stockGroupRepository, never()).findByMember_Id(anyLong());
+    }
+
+    @Test
+    @DisplayName("Should return full reset on first sync")
+    void shouldReturnResetOnFirstSync() {
+        when(memberService.getMemberById(1L)).thenReturn(Optional.of(member1));
+        when(stockGroupRepository.findByMember_Id(1L)).thenReturn(List.of(stockGroup1));
+
+        WatchlistSyncResponse sync = watchlistService.sync(1L, 0L, 0L);
+
+        assertThat(sync.isReset()).isTrue();
+        assertThat(sync.getEpoch()).isEqualTo(watchlistVersions.getEpoch());
+        assertThat(sync.getGroups()).hasSize(1);
+        assertThat(sync.getGroups().get(0).getStocks()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Should return only changes since the client version")
+    void shouldReturnDeltaSinceClientVersion() {
+        when(memberService.getMemberById(1L)).thenReturn(Optional.of(member1));
+        long epoch = watchlistVersions.getEpoch();
+        watchlistVersions.record(1L, WatchlistChange.builder().type(WatchlistChangeType.GROUP_ADDED).groupId(1L).name("My Tech Stocks").build());
+        watchlistVersions.record(1L, WatchlistChange.builder().type(WatchlistChangeType.STOCK_ADDED).groupId(1L).stockId(101L).stockCode("2330").build());
+
+        WatchlistSyncResponse sync = watchlistService.sync(1L, epoch, 1L);
+
+        assertThat(sync.isReset()).isFalse();
+        assertThat(sync.getVersion()).isEqualTo(2L);
+        assertThat(sync.getChanges()).extracting(WatchlistChange::getStockCode).containsExactly("2330");
+        verify(stockGroupRepository, never()).findByMember_Id(anyLong());
+    }
+
+    @Test
+    @DisplayName("Should throw RuntimeException on sync for a member that does not exist, even with a matching epoch")
+    void shouldRejectSyncForUnknownMember() {
+        when(memberService.getMemberById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> watchlistService.sync(99L, watchlistVersions.getEpoch(), 0L));
+        verify(stockGroupRepository, never()).findByMember_Id(anyLong());
+    }
+}
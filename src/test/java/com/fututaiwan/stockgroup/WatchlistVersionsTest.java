@@ -0,0 +1,111 @@
+package com.fututaiwan.stockgroup;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Watchlist Versions Tests")
+class WatchlistVersionsTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private WatchlistVersions watchlistVersions;
+
+    @BeforeEach
+    void setUp() {
+        watchlistVersions = new WatchlistVersions(3, 1_000, Duration.ofMinutes(30), nanos::get);
+    }
+
+    @Test
+    @DisplayName("Should increment version for every recorded change")
+    void shouldIncrementVersion() {
+        watchlistVersions.record(1L, groupAdded(10L));
+        watchlistVersions.record(1L, stockAdded(10L, 101L));
+
+        assertThat(watchlistVersions.current(1L)).isEqualTo(2L);
+        assertThat(watchlistVersions.current(2L)).isEqualTo(2L); // 未曾異動的會員從目前序號起算
+    }
+
+    @Test
+    @DisplayName("Should never hand out a stale version again after an idle member is evicted")
+    void shouldNotReuseVersionsAfterEviction() {
+        long epoch = watchlistVersions.getEpoch();
+        long initial = watchlistVersions.current(1L);
+        watchlistVersions.record(1L, groupAdded(10L));
+        long changed = watchlistVersions.current(1L);
+        watchlistVersions.record(2L, groupAdded(20L));
+
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(31));
+
+        long recreated = watchlistVersions.current(1L);
+        assertThat(recreated).isNotIn(initial, changed).isGreaterThan(changed);
+        // 被淘汰前的版本已無法銜接，客戶端須完整重置
+        assertThat(watchlistVersions.changesSince(1L, epoch, changed)).isEmpty();
+        assertThat(watchlistVersions.changesSince(1L, epoch, recreated)).contains(List.of());
+    }
+
+    @Test
+    @DisplayName("Should return only changes after the client version")
+    void shouldReturnChangesSinceVersion() {
+        long epoch = watchlistVersions.getEpoch();
+        watchlistVersions.record(1L, groupAdded(10L));
+        watchlistVersions.record(1L, stockAdded(10L, 101L));
+
+        Optional<List<WatchlistChange>> changes = watchlistVersions.changesSince(1L, epoch, 1L);
+
+        assertThat(changes).isPresent();
+        assertThat(changes.get()).extracting(WatchlistChange::getType).containsExactly(WatchlistChangeType.STOCK_ADDED);
+    }
+
+    @Test
+    @DisplayName("Should drop changes superseded by a later change to the same group")
+    void shouldCompactSupersededChanges() {
+        long epoch = watchlistVersions.getEpoch();
+        watchlistVersions.record(1L, groupAdded(10L));
+        watchlistVersions.record(1L, stockAdded(10L, 101L));
+        watchlistVersions.record(1L, WatchlistChange.builder().type(WatchlistChangeType.GROUP_REMOVED).groupId(10L).build());
+
+        Optional<List<WatchlistChange>> changes = watchlistVersions.changesSince(1L, epoch, 0L);
+
+        assertThat(changes).isPresent();
+        assertThat(changes.get()).extracting(WatchlistChange::getType).containsExactly(WatchlistChangeType.GROUP_REMOVED);
+        assertThat(changes.get().get(0).getVersion()).isEqualTo(3L);
+    }
+
+    @Test
+    @DisplayName("Should require a reset once history before the client version is truncated")
+    void shouldRequireResetWhenHistoryIsGone() {
+        long epoch = watchlistVersions.getEpoch();
+        for (long groupId = 1; groupId <= 5; groupId++) {
+            watchlistVersions.record(1L, groupAdded(groupId));
+        }
+
+        assertThat(watchlistVersions.changesSince(1L, epoch, 1L)).isEmpty();
+        assertThat(watchlistVersions.changesSince(1L, epoch, 2L)).isPresent();
+    }
+
+    @Test
+    @DisplayName("Should require a reset for a different epoch or a version from the future")
+    void shouldRequireResetForUnknownEpochOrVersion() {
+        long epoch = watchlistVersions.getEpoch();
+        watchlistVersions.record(1L, groupAdded(10L));
+
+        assertThat(watchlistVersions.changesSince(1L, epoch + 1, 0L)).isEmpty();
+        assertThat(watchlistVersions.changesSince(1L, epoch, 5L)).isEmpty();
+    }
+
+    private WatchlistChange groupAdded(Long groupId) {
+        return WatchlistChange.builder().type(WatchlistChangeType.GROUP_ADDED).groupId(groupId).name("Group " + groupId).build();
+    }
+
+    private WatchlistChange stockAdded(Long groupId, Long stockId) {
+        return WatchlistChange.builder().type(WatchlistChangeType.STOCK_ADDED).groupId(groupId).stockId(stockId).build();
+    }
+}